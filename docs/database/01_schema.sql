@@ -379,6 +379,23 @@ CREATE TABLE chat_messages (
     updated_by VARCHAR(50),
     CONSTRAINT fk_chat_message_room FOREIGN KEY (chat_room_id) REFERENCES chat_rooms(id),
     CONSTRAINT fk_chat_message_sender FOREIGN KEY (sender_id) REFERENCES users(id),
-    INDEX idx_chat_message_room (chat_room_id),
+    INDEX idx_chat_message_room_id (chat_room_id, id),
     INDEX idx_chat_message_created (chat_room_id, created_at DESC)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE TABLE chat_membership_event (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    chat_room_id BIGINT NOT NULL,
+    node_id VARCHAR(36) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    INDEX idx_chat_membership_event_created (created_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE TABLE chat_unread_event (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    chat_room_id BIGINT NOT NULL,
+    user_id BIGINT,
+    node_id VARCHAR(36) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    INDEX idx_chat_unread_event_created (created_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -4,8 +4,10 @@
 -- =====================================================
 
 -- 1. 페이지뷰 이벤트 테이블 (원본 데이터)
+-- created_at 기준 월별 RANGE 파티션. 파티션 키가 모든 유니크 키에 포함되어야 하므로 PK 는 (id, created_at)
+-- 이후 월 파티션 추가와 보관 기간이 지난 파티션 삭제는 PageViewPartitionService 가 수행한다.
 CREATE TABLE analytics_page_view (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id BIGINT AUTO_INCREMENT,
     site_code VARCHAR(50) NOT NULL,
     session_id VARCHAR(100) NOT NULL,
     visitor_id VARCHAR(100) NOT NULL,
@@ -41,15 +43,35 @@ CREATE TABLE analytics_page_view (
     utm_term VARCHAR(200),
     utm_content VARCHAR(200),
 
+    -- 샘플링 가중치 (이 행이 대표하는 페이지뷰 수)
+    sample_weight DOUBLE NOT NULL DEFAULT 1,
+
     -- 시간 정보
     time_on_page INT DEFAULT 0,
     created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
 
+    PRIMARY KEY (id, created_at),
     INDEX idx_site_created (site_code, created_at),
     INDEX idx_session (session_id),
     INDEX idx_visitor (visitor_id),
     INDEX idx_page_path (site_code, page_path(255), created_at)
-) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+PARTITION BY RANGE COLUMNS (created_at) (
+    PARTITION p_old VALUES LESS THAN ('2026-01-01'),
+    PARTITION p202601 VALUES LESS THAN ('2026-02-01'),
+    PARTITION p202602 VALUES LESS THAN ('2026-03-01'),
+    PARTITION p202603 VALUES LESS THAN ('2026-04-01'),
+    PARTITION p202604 VALUES LESS THAN ('2026-05-01'),
+    PARTITION p202605 VALUES LESS THAN ('2026-06-01'),
+    PARTITION p202606 VALUES LESS THAN ('2026-07-01'),
+    PARTITION p202607 VALUES LESS THAN ('2026-08-01'),
+    PARTITION p202608 VALUES LESS THAN ('2026-09-01'),
+    PARTITION p202609 VALUES LESS THAN ('2026-10-01'),
+    PARTITION p202610 VALUES LESS THAN ('2026-11-01'),
+    PARTITION p202611 VALUES LESS THAN ('2026-12-01'),
+    PARTITION p202612 VALUES LESS THAN ('2027-01-01'),
+    PARTITION p_future VALUES LESS THAN (MAXVALUE)
+);
 
 
 -- 2. 세션 테이블
@@ -70,6 +92,10 @@ CREATE TABLE analytics_session (
     exit_page VARCHAR(500),
     referrer VARCHAR(2000),
 
+    -- 유입 유형 (direct, search, social, referral) / 외부 유입 호스트
+    referrer_type VARCHAR(20),
+    referrer_host VARCHAR(255),
+
     device_type VARCHAR(20),
     browser VARCHAR(50),
     os VARCHAR(50),
@@ -81,10 +107,13 @@ CREATE TABLE analytics_session (
     utm_medium VARCHAR(200),
     utm_campaign VARCHAR(200),
 
+    -- 샘플링 가중치 (이 행이 대표하는 세션 수)
+    sample_weight DOUBLE NOT NULL DEFAULT 1,
+
     created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
     updated_at DATETIME ON UPDATE CURRENT_TIMESTAMP,
 
-    INDEX idx_site_start (site_code, start_time),
+    INDEX idx_site_start_referrer (site_code, start_time, referrer_type),
     INDEX idx_visitor (visitor_id),
     INDEX idx_created (created_at)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -139,6 +168,7 @@ CREATE TABLE analytics_page_stats (
     updated_at DATETIME ON UPDATE CURRENT_TIMESTAMP,
 
     UNIQUE INDEX idx_site_date_page (site_code, stats_date, page_path(255)),
+    INDEX idx_site_page_date (site_code, page_path(255), stats_date),
     INDEX idx_stats_date (stats_date)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
 
@@ -193,6 +223,8 @@ CREATE TABLE analytics_visitor (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
     visitor_id VARCHAR(100) NOT NULL,
     site_code VARCHAR(50) NOT NULL,
+    -- 사이트 안에서 1 부터 매기는 순번 (방문자 비트맵 원소)
+    site_ordinal INT,
 
     first_visit_at DATETIME NOT NULL,
     last_visit_at DATETIME NOT NULL,
@@ -208,5 +240,157 @@ CREATE TABLE analytics_visitor (
     updated_at DATETIME ON UPDATE CURRENT_TIMESTAMP,
 
     UNIQUE INDEX idx_site_visitor (site_code, visitor_id),
+    UNIQUE INDEX idx_site_ordinal (site_code, site_ordinal),
+    INDEX idx_site_first_visit (site_code, first_visit_at),
     INDEX idx_last_visit (last_visit_at)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+
+-- 8. 순 방문자 HyperLogLog 스케치 테이블 (page_path = '' 는 사이트 전체)
+CREATE TABLE analytics_visitor_sketch (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    site_code VARCHAR(50) NOT NULL,
+    stats_date DATE NOT NULL,
+    page_path VARCHAR(500) NOT NULL DEFAULT '',
+
+    registers BLOB NOT NULL,
+
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at DATETIME ON UPDATE CURRENT_TIMESTAMP,
+
+    UNIQUE INDEX idx_site_date_page (site_code, stats_date, page_path(255))
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+
+-- 9. 상위 K 항목 Space-Saving 요약 테이블 (dimension: PAGE = 페이지 경로, REFERRER = 외부 유입 호스트)
+CREATE TABLE analytics_topk_sketch (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    site_code VARCHAR(50) NOT NULL,
+    stats_date DATE NOT NULL,
+    dimension VARCHAR(20) NOT NULL,
+
+    items MEDIUMBLOB NOT NULL,
+    -- 일별 집계가 원본으로 다시 만든 날짜 (이후 증분은 저장하지 않음)
+    rebuilt TINYINT(1) NOT NULL DEFAULT 0,
+
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at DATETIME ON UPDATE CURRENT_TIMESTAMP,
+
+    UNIQUE INDEX idx_site_date_dimension (site_code, stats_date, dimension)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+
+-- 10. 페이지 이동(전이) 집계 테이블 (세션 시작일 기준, 값은 샘플링 가중치 합)
+CREATE TABLE analytics_path_transition (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    site_code VARCHAR(50) NOT NULL,
+    stats_date DATE NOT NULL,
+
+    -- (entrance) → 첫 페이지, 마지막 페이지 → (exit) 포함
+    from_path VARCHAR(500) NOT NULL,
+    to_path VARCHAR(500) NOT NULL,
+    from_hash BINARY(16) AS (UNHEX(MD5(from_path))) STORED,
+    to_hash BINARY(16) AS (UNHEX(MD5(to_path))) STORED,
+
+    transitions DOUBLE NOT NULL DEFAULT 0,
+
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at DATETIME ON UPDATE CURRENT_TIMESTAMP,
+
+    UNIQUE INDEX idx_site_date_transition (site_code, stats_date, from_hash, to_hash),
+    INDEX idx_site_from (site_code, from_hash, stats_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+
+-- 11. 퍼널 단계 도달 세션 수 테이블
+CREATE TABLE analytics_funnel_stats (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    site_code VARCHAR(50) NOT NULL,
+    stats_date DATE NOT NULL,
+    funnel_name VARCHAR(100) NOT NULL,
+    step_index INT NOT NULL,
+
+    -- 이 단계까지 순서대로 도달한 세션 수
+    sessions DOUBLE NOT NULL DEFAULT 0,
+
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at DATETIME ON UPDATE CURRENT_TIMESTAMP,
+
+    UNIQUE INDEX idx_site_date_funnel_step (site_code, stats_date, funnel_name, step_index),
+    INDEX idx_site_funnel_date (site_code, funnel_name, stats_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+
+-- 12. 일별 방문자 비트맵 테이블 (kind: ACTIVE = 방문한 방문자, NEW = 첫 방문한 방문자, 값은 analytics_visitor.site_ordinal)
+CREATE TABLE analytics_visitor_bitmap (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    site_code VARCHAR(50) NOT NULL,
+    stats_date DATE NOT NULL,
+    kind VARCHAR(20) NOT NULL,
+
+    bitmap MEDIUMBLOB NOT NULL,
+
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at DATETIME ON UPDATE CURRENT_TIMESTAMP,
+
+    UNIQUE INDEX idx_site_kind_date (site_code, kind, stats_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+
+-- 13. 추이 차트용 버킷 테이블 (granularity: HOUR, DAY, WEEK, MONTH / 주는 월요일 시작)
+CREATE TABLE analytics_trend_bucket (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    site_code VARCHAR(50) NOT NULL,
+    granularity VARCHAR(10) NOT NULL,
+    bucket_start DATETIME NOT NULL,
+
+    page_views BIGINT NOT NULL DEFAULT 0,
+    sessions BIGINT NOT NULL DEFAULT 0,
+    -- 주/월은 HyperLogLog 추정값
+    visitors BIGINT,
+
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at DATETIME ON UPDATE CURRENT_TIMESTAMP,
+
+    UNIQUE INDEX idx_site_granularity_start (site_code, granularity, bucket_start)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+
+-- 14. 노드별 실시간 버킷 (서버마다 틱마다 덮어쓰고, 실시간 스트림에서 다른 서버 것을 합침)
+CREATE TABLE analytics_realtime_node (
+    site_code VARCHAR(50) NOT NULL,
+    node_id VARCHAR(36) NOT NULL,
+    page_view_total BIGINT NOT NULL,
+    -- RealtimeSketchDto 목록 (JSON, 분 단위 HyperLogLog 요약)
+    buckets MEDIUMTEXT NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+
+    PRIMARY KEY (site_code, node_id),
+    INDEX idx_analytics_realtime_node_updated (updated_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+
+-- 15. 사이트별 마지막 방문자 순번 (새 방문자 저장 트랜잭션에서 잠그고 증가)
+CREATE TABLE analytics_visitor_ordinal (
+    site_code VARCHAR(50) PRIMARY KEY,
+    last_ordinal INT NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+
+-- 16. 사이트별 조회 결과 캐시 세대 (집계한 서버가 올리고, 다른 서버는 바뀐 사이트의 캐시를 비움)
+CREATE TABLE analytics_cache_generation (
+    site_code VARCHAR(50) PRIMARY KEY,
+    generation BIGINT NOT NULL,
+    updated_at DATETIME(6) NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+
+-- 17. 실시간 구독 표시 (구독자가 있는 서버가 틱마다 갱신, 다른 서버는 이 사이트만 analytics_realtime_node 에 공유)
+CREATE TABLE analytics_realtime_subscription (
+    site_code VARCHAR(50) NOT NULL,
+    node_id VARCHAR(36) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+
+    PRIMARY KEY (site_code, node_id),
+    INDEX idx_analytics_realtime_subscription_updated (updated_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
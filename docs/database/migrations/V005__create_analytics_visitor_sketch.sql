@@ -0,0 +1,17 @@
+-- =============================================
+-- V005: 순 방문자 HyperLogLog 스케치 테이블 생성
+-- =============================================
+
+CREATE TABLE analytics_visitor_sketch (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    site_code VARCHAR(50) NOT NULL,
+    stats_date DATE NOT NULL,
+    page_path VARCHAR(500) NOT NULL DEFAULT '',
+
+    registers BLOB NOT NULL,
+
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at DATETIME ON UPDATE CURRENT_TIMESTAMP,
+
+    UNIQUE INDEX idx_site_date_page (site_code, stats_date, page_path(255))
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,28 @@
+-- =============================================
+-- V006: analytics_page_view 월별 RANGE 파티션 전환
+-- =============================================
+-- 파티션 키(created_at)가 모든 유니크 키에 포함되어야 하므로 PK 를 (id, created_at) 으로 변경한다.
+-- 테이블 전체를 다시 쓰므로 트래픽이 적은 시간에 실행한다.
+-- 이후 월 파티션 추가 / 만료 파티션 삭제는 PageViewPartitionService 가 매일 수행한다.
+
+ALTER TABLE analytics_page_view
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, created_at);
+
+ALTER TABLE analytics_page_view
+PARTITION BY RANGE COLUMNS (created_at) (
+    PARTITION p_old VALUES LESS THAN ('2026-01-01'),
+    PARTITION p202601 VALUES LESS THAN ('2026-02-01'),
+    PARTITION p202602 VALUES LESS THAN ('2026-03-01'),
+    PARTITION p202603 VALUES LESS THAN ('2026-04-01'),
+    PARTITION p202604 VALUES LESS THAN ('2026-05-01'),
+    PARTITION p202605 VALUES LESS THAN ('2026-06-01'),
+    PARTITION p202606 VALUES LESS THAN ('2026-07-01'),
+    PARTITION p202607 VALUES LESS THAN ('2026-08-01'),
+    PARTITION p202608 VALUES LESS THAN ('2026-09-01'),
+    PARTITION p202609 VALUES LESS THAN ('2026-10-01'),
+    PARTITION p202610 VALUES LESS THAN ('2026-11-01'),
+    PARTITION p202611 VALUES LESS THAN ('2026-12-01'),
+    PARTITION p202612 VALUES LESS THAN ('2027-01-01'),
+    PARTITION p_future VALUES LESS THAN (MAXVALUE)
+);
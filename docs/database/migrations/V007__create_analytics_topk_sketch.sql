@@ -0,0 +1,20 @@
+-- =============================================
+-- V007: 상위 K 항목(인기 페이지 / 유입 호스트) 요약 테이블 생성
+-- =============================================
+
+CREATE TABLE analytics_topk_sketch (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    site_code VARCHAR(50) NOT NULL,
+    stats_date DATE NOT NULL,
+    dimension VARCHAR(20) NOT NULL,
+
+    items MEDIUMBLOB NOT NULL,
+
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at DATETIME ON UPDATE CURRENT_TIMESTAMP,
+
+    UNIQUE INDEX idx_site_date_dimension (site_code, stats_date, dimension)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- 인기 페이지 조회수를 선택된 경로만 다시 합산할 때 사용
+CREATE INDEX idx_site_page_date ON analytics_page_stats (site_code, page_path(255), stats_date);
@@ -0,0 +1,11 @@
+-- =============================================
+-- V008: 샘플링 가중치 컬럼 추가
+-- 수집 필터가 방문자 단위로 샘플링해 저장한 행은 1 / 샘플링 비율 값을 가진다.
+-- 기존 행은 모두 저장된 것이므로 1 로 채운다.
+-- =============================================
+
+ALTER TABLE analytics_page_view
+    ADD COLUMN sample_weight DOUBLE NOT NULL DEFAULT 1 AFTER utm_content;
+
+ALTER TABLE analytics_session
+    ADD COLUMN sample_weight DOUBLE NOT NULL DEFAULT 1 AFTER utm_campaign;
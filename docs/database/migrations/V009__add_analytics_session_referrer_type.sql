@@ -0,0 +1,27 @@
+-- =============================================
+-- V009: 세션 유입 유형 / 유입 호스트 컬럼 추가
+-- 새 세션은 수집 시 도메인 목록으로 분류해 저장한다.
+-- 기존 행은 이전 집계 쿼리와 같은 기준(URL 문자열 포함 여부)으로 채운다.
+-- =============================================
+
+ALTER TABLE analytics_session
+    ADD COLUMN referrer_type VARCHAR(20) AFTER referrer,
+    ADD COLUMN referrer_host VARCHAR(255) AFTER referrer_type;
+
+UPDATE analytics_session
+SET referrer_type = CASE
+        WHEN referrer IS NULL OR referrer = '' THEN 'direct'
+        WHEN referrer LIKE '%google%' OR referrer LIKE '%naver%' OR referrer LIKE '%bing%' OR referrer LIKE '%daum%' THEN 'search'
+        WHEN referrer LIKE '%facebook%' OR referrer LIKE '%twitter%' OR referrer LIKE '%instagram%' OR referrer LIKE '%linkedin%' THEN 'social'
+        ELSE 'referral'
+    END,
+    referrer_host = CASE
+        WHEN referrer LIKE '%://%'
+            THEN LOWER(TRIM(LEADING 'www.' FROM SUBSTRING_INDEX(SUBSTRING_INDEX(SUBSTRING_INDEX(referrer, '/', 3), '/', -1), ':', 1)))
+    END
+WHERE referrer_type IS NULL;
+
+-- 유입 유형별 집계를 인덱스만으로 처리 (idx_site_start 를 대체)
+ALTER TABLE analytics_session
+    ADD INDEX idx_site_start_referrer (site_code, start_time, referrer_type),
+    DROP INDEX idx_site_start;
@@ -0,0 +1,41 @@
+-- =============================================
+-- V010: 페이지 이동(전이) / 퍼널 단계 집계 테이블 생성
+-- 세션이 끝날 때 메모리에서 모은 증분을 누적한다 (값은 샘플링 가중치 합).
+-- =============================================
+
+CREATE TABLE analytics_path_transition (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    site_code VARCHAR(50) NOT NULL,
+    stats_date DATE NOT NULL,
+
+    -- (entrance) → 첫 페이지, 마지막 페이지 → (exit) 포함
+    from_path VARCHAR(500) NOT NULL,
+    to_path VARCHAR(500) NOT NULL,
+    from_hash BINARY(16) AS (UNHEX(MD5(from_path))) STORED,
+    to_hash BINARY(16) AS (UNHEX(MD5(to_path))) STORED,
+
+    transitions DOUBLE NOT NULL DEFAULT 0,
+
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at DATETIME ON UPDATE CURRENT_TIMESTAMP,
+
+    UNIQUE INDEX idx_site_date_transition (site_code, stats_date, from_hash, to_hash),
+    INDEX idx_site_from (site_code, from_hash, stats_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+CREATE TABLE analytics_funnel_stats (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    site_code VARCHAR(50) NOT NULL,
+    stats_date DATE NOT NULL,
+    funnel_name VARCHAR(100) NOT NULL,
+    step_index INT NOT NULL,
+
+    -- 이 단계까지 순서대로 도달한 세션 수
+    sessions DOUBLE NOT NULL DEFAULT 0,
+
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at DATETIME ON UPDATE CURRENT_TIMESTAMP,
+
+    UNIQUE INDEX idx_site_date_funnel_step (site_code, stats_date, funnel_name, step_index),
+    INDEX idx_site_funnel_date (site_code, funnel_name, stats_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
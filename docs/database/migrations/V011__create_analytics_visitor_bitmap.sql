@@ -0,0 +1,21 @@
+-- =============================================
+-- V011: 방문자 코호트 리텐션용 일별 방문자 비트맵 테이블 생성
+-- =============================================
+
+CREATE TABLE analytics_visitor_bitmap (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    site_code VARCHAR(50) NOT NULL,
+    stats_date DATE NOT NULL,
+    kind VARCHAR(20) NOT NULL,
+
+    -- analytics_visitor.id 집합 (RoaringBitmap 직렬화)
+    bitmap MEDIUMBLOB NOT NULL,
+
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at DATETIME ON UPDATE CURRENT_TIMESTAMP,
+
+    UNIQUE INDEX idx_site_kind_date (site_code, kind, stats_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- 하루치 신규 방문자 비트맵 생성 시 사용
+CREATE INDEX idx_site_first_visit ON analytics_visitor (site_code, first_visit_at);
@@ -0,0 +1,44 @@
+-- =============================================
+-- V012: 추이 차트용 시간/일/주/월 버킷 테이블 생성
+-- =============================================
+
+CREATE TABLE analytics_trend_bucket (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    site_code VARCHAR(50) NOT NULL,
+    granularity VARCHAR(10) NOT NULL,
+    bucket_start DATETIME NOT NULL,
+
+    page_views BIGINT NOT NULL DEFAULT 0,
+    sessions BIGINT NOT NULL DEFAULT 0,
+    -- 주/월은 HyperLogLog 추정값, NULL 이면 알 수 없음 (해당 기간을 다시 집계하면 채워짐)
+    visitors BIGINT,
+
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at DATETIME ON UPDATE CURRENT_TIMESTAMP,
+
+    UNIQUE INDEX idx_site_granularity_start (site_code, granularity, bucket_start)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- 기존 일별 집계로 버킷 채우기 (순 방문자는 일 버킷만 알 수 있음)
+INSERT INTO analytics_trend_bucket (site_code, granularity, bucket_start, page_views, sessions, visitors)
+SELECT site_code, 'DAY', TIMESTAMP(stats_date), total_page_views, total_sessions, unique_visitors
+FROM analytics_daily_stats;
+
+INSERT INTO analytics_trend_bucket (site_code, granularity, bucket_start, page_views, sessions, visitors)
+SELECT site_code, 'WEEK', TIMESTAMP(DATE_SUB(stats_date, INTERVAL WEEKDAY(stats_date) DAY)) AS bucket,
+       SUM(total_page_views), SUM(total_sessions), NULL
+FROM analytics_daily_stats
+GROUP BY site_code, bucket;
+
+INSERT INTO analytics_trend_bucket (site_code, granularity, bucket_start, page_views, sessions, visitors)
+SELECT site_code, 'MONTH', TIMESTAMP(DATE_FORMAT(stats_date, '%Y-%m-01')) AS bucket,
+       SUM(total_page_views), SUM(total_sessions), NULL
+FROM analytics_daily_stats
+GROUP BY site_code, bucket;
+
+INSERT INTO analytics_trend_bucket (site_code, granularity, bucket_start, page_views, sessions, visitors)
+SELECT d.site_code, 'HOUR', TIMESTAMP(d.stats_date) + INTERVAL (pv.idx - 1) HOUR, pv.cnt, COALESCE(ss.cnt, 0), NULL
+FROM analytics_daily_stats d
+JOIN JSON_TABLE(d.hourly_page_views, '$[*]' COLUMNS (idx FOR ORDINALITY, cnt BIGINT PATH '$')) pv ON TRUE
+LEFT JOIN JSON_TABLE(d.hourly_sessions, '$[*]' COLUMNS (idx FOR ORDINALITY, cnt BIGINT PATH '$')) ss ON ss.idx = pv.idx
+WHERE d.hourly_page_views IS NOT NULL;
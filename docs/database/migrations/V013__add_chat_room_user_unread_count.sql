@@ -0,0 +1,16 @@
+-- =============================================
+-- V013: 채팅 읽지 않은 메시지 수 컬럼 추가
+-- 메시지 전송 시 메모리에서 증가시키고 주기적으로 반영하는 값이다 (서버 시작 시 last_read_at 기준으로 재계산).
+-- 기존 행은 last_read_at 이후 다른 사람이 보낸 메시지 수로 채운다.
+-- =============================================
+
+ALTER TABLE chat_room_users
+    ADD COLUMN unread_count INT NOT NULL DEFAULT 0 AFTER last_read_at;
+
+UPDATE chat_room_users cru
+SET unread_count = (
+    SELECT COUNT(*) FROM chat_messages m
+    WHERE m.chat_room_id = cru.chat_room_id
+      AND m.sender_id <> cru.user_id
+      AND (cru.last_read_at IS NULL OR m.created_at > cru.last_read_at)
+);
@@ -0,0 +1,13 @@
+-- =============================================
+-- V014: 채팅방 참여자 변경 이벤트 테이블 생성
+-- 서버마다 메모리에 둔 채팅방 참여자 캐시를 무효화하기 위한 브로드캐스트 토픽이다.
+-- 참여자를 바꾼 트랜잭션에서 한 행을 남기고 각 서버가 최근 행을 주기적으로 읽는다. 오래된 행은 서버가 지운다.
+-- =============================================
+
+CREATE TABLE chat_membership_event (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    chat_room_id BIGINT NOT NULL,
+    node_id VARCHAR(36) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    INDEX idx_chat_membership_event_created (created_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
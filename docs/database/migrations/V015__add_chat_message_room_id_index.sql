@@ -0,0 +1,9 @@
+-- =============================================
+-- V015: 채팅 메시지 (chat_room_id, id) 인덱스
+-- 메시지 목록을 OFFSET 대신 beforeId / afterId 커서로 읽으므로 채팅방 내 id 순서 인덱스를 명시한다.
+-- 기존 chat_room_id 단일 인덱스는 이 인덱스가 대신한다 (외래 키도 이 인덱스를 사용).
+-- =============================================
+
+ALTER TABLE chat_messages
+    ADD INDEX idx_chat_message_room_id (chat_room_id, id),
+    DROP INDEX idx_chat_message_room;
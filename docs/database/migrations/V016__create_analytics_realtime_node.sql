@@ -0,0 +1,18 @@
+-- =============================================
+-- V016: 노드별 실시간 버킷 공유 테이블 생성
+-- 실시간 카운터는 각 서버 메모리에 있으므로 서버마다 틱마다 자기 버킷을 한 행으로 덮어쓰고,
+-- 실시간 스트림을 보내는 서버가 다른 서버의 최근 행을 읽어 합친다. 갱신이 끊긴 행은 읽지 않고 서버가 지운다.
+-- =============================================
+
+CREATE TABLE analytics_realtime_node (
+    site_code VARCHAR(50) NOT NULL,
+    node_id VARCHAR(36) NOT NULL,
+    -- 이 서버가 받은 누적 페이지뷰 (초당 페이지뷰 계산용)
+    page_view_total BIGINT NOT NULL,
+    -- RealtimeBucketDto 목록 (JSON)
+    buckets MEDIUMTEXT NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+
+    PRIMARY KEY (site_code, node_id),
+    INDEX idx_analytics_realtime_node_updated (updated_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
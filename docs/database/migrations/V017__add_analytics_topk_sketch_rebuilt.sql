@@ -0,0 +1,8 @@
+-- =============================================
+-- V017: 상위 K 요약 재생성 여부 컬럼 추가
+-- 일별 집계가 원본으로 다시 만든 날짜는 1 이 되고, 이후 다른 서버가 늦게 저장하려는 증분은 버린다.
+-- (재생성 결과에 이미 포함된 이벤트가 두 번 더해지지 않도록)
+-- =============================================
+
+ALTER TABLE analytics_topk_sketch
+    ADD COLUMN rebuilt TINYINT(1) NOT NULL DEFAULT 0 AFTER items;
@@ -0,0 +1,30 @@
+-- =============================================
+-- V018: 방문자 사이트별 순번 컬럼 추가
+-- 방문자 비트맵 원소를 전체 테이블의 id 대신 사이트 안에서 1 부터 매긴 순번으로 바꿔
+-- 사이트마다 비트맵이 조밀하고 32비트 범위를 넘지 않도록 한다.
+-- 새 방문자는 방문자를 저장하는 트랜잭션에서 analytics_visitor_ordinal 의 사이트별 마지막 순번 다음 번호를 받는다.
+--
+-- 기존 비트맵은 id 기준이므로 지운다. 지운 날짜(와 V011 이전 날짜)는 일별 재집계로 다시 만든다:
+--   POST /api/sites/{siteCode}/analytics/rollup?startDate=...&endDate=...
+-- 다시 만들기 전까지 코호트 리텐션 응답의 bitmapStartDate 이전 주는 비어 있다.
+-- =============================================
+
+ALTER TABLE analytics_visitor
+    ADD COLUMN site_ordinal INT AFTER site_code,
+    ADD UNIQUE INDEX idx_site_ordinal (site_code, site_ordinal);
+
+CREATE TABLE analytics_visitor_ordinal (
+    site_code VARCHAR(50) PRIMARY KEY,
+    last_ordinal INT NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+-- 기존 방문자는 사이트별 id 순서대로 번호 부여
+UPDATE analytics_visitor v
+JOIN (SELECT id, ROW_NUMBER() OVER (PARTITION BY site_code ORDER BY id) AS ordinal FROM analytics_visitor) o
+    ON o.id = v.id
+SET v.site_ordinal = o.ordinal;
+
+INSERT INTO analytics_visitor_ordinal (site_code, last_ordinal)
+SELECT site_code, MAX(site_ordinal) FROM analytics_visitor GROUP BY site_code;
+
+DELETE FROM analytics_visitor_bitmap;
@@ -0,0 +1,10 @@
+-- =============================================
+-- V019: 사이트별 조회 결과 캐시 세대 테이블 생성
+-- 일별 (재)집계를 마친 서버가 세대를 올리고, 다른 서버는 주기적으로 읽어 바뀐 사이트의 캐시를 비운다.
+-- =============================================
+
+CREATE TABLE analytics_cache_generation (
+    site_code VARCHAR(50) PRIMARY KEY,
+    generation BIGINT NOT NULL,
+    updated_at DATETIME(6) NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
@@ -0,0 +1,18 @@
+-- =============================================
+-- V020: 읽지 않은 메시지 수 변경 이벤트 테이블 생성
+-- 읽지 않은 메시지 수는 서버마다 처음 쓰일 때 last_read_at 기준으로 세어 메모리에 두므로
+-- 저장해 두던 chat_room_users.unread_count 는 더 이상 쓰지 않는다.
+-- 새 메시지(user_id 없음)/읽음 처리/재참여 트랜잭션에서 한 행을 남기고 각 서버가 최근 행을 주기적으로 읽어
+-- 자기 메모리의 값을 무효화한다. 오래된 행은 서버가 지운다.
+-- =============================================
+
+CREATE TABLE chat_unread_event (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    chat_room_id BIGINT NOT NULL,
+    user_id BIGINT,
+    node_id VARCHAR(36) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    INDEX idx_chat_unread_event_created (created_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+ALTER TABLE chat_room_users DROP COLUMN unread_count;
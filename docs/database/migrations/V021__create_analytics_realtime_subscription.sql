@@ -0,0 +1,18 @@
+-- =============================================
+-- V021: 실시간 구독 표시 테이블 생성
+-- 실시간 스트림 구독자가 있는 서버가 틱마다 사이트별로 한 행을 갱신하고,
+-- 다른 서버는 최근 갱신된 사이트의 버킷만 analytics_realtime_node 에 공유한다. 오래된 행은 서버가 지운다.
+-- analytics_realtime_node.buckets 는 방문자 ID 대신 분 단위 HyperLogLog 요약(RealtimeSketchDto 목록)을 담으므로
+-- 이전 형식의 행은 지운다 (몇 틱 안에 다시 채워짐).
+-- =============================================
+
+CREATE TABLE analytics_realtime_subscription (
+    site_code VARCHAR(50) NOT NULL,
+    node_id VARCHAR(36) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+
+    PRIMARY KEY (site_code, node_id),
+    INDEX idx_analytics_realtime_subscription_updated (updated_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci;
+
+DELETE FROM analytics_realtime_node;
@@ -0,0 +1,24 @@
+package com.ysk.cms.common.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+@Getter
+@Builder
+public class SliceResponse<T> {
+
+    private List<T> content;
+    private int size;
+    private boolean hasMore;
+
+    public static <T> SliceResponse<T> of(Slice<T> slice) {
+        return SliceResponse.<T>builder()
+                .content(slice.getContent())
+                .size(slice.getSize())
+                .hasMore(slice.hasNext())
+                .build();
+    }
+}
@@ -77,7 +77,10 @@ public enum ErrorCode {
     USER_MENU_NOT_FOUND(HttpStatus.NOT_FOUND, "UM001", "사용자 메뉴를 찾을 수 없습니다."),
     DUPLICATE_USER_MENU_CODE(HttpStatus.CONFLICT, "UM002", "이미 존재하는 사용자 메뉴 코드입니다."),
     INVALID_USER_MENU_PARENT(HttpStatus.BAD_REQUEST, "UM003", "자기 자신을 상위 메뉴로 지정할 수 없습니다."),
-    CIRCULAR_USER_MENU_REFERENCE(HttpStatus.BAD_REQUEST, "UM004", "메뉴 순환 참조가 발생했습니다.");
+    CIRCULAR_USER_MENU_REFERENCE(HttpStatus.BAD_REQUEST, "UM004", "메뉴 순환 참조가 발생했습니다."),
+
+    // Analytics (통계)
+    ANALYTICS_QUERY_TIMEOUT(HttpStatus.SERVICE_UNAVAILABLE, "AN001", "통계 조회 시간이 초과되었습니다.");
 
     private final HttpStatus status;
     private final String code;
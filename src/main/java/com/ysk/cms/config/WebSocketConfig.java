@@ -1,5 +1,6 @@
 package com.ysk.cms.config;
 
+import com.ysk.cms.domain.admin.user.repository.UserRepository;
 import com.ysk.cms.security.jwt.JwtTokenProvider;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -23,7 +24,13 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 @RequiredArgsConstructor
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    /**
+     * CONNECT 시 확인한 사용자 ID 를 보관하는 WebSocket 세션 속성 (메시지마다 사용자를 조회하지 않도록)
+     */
+    public static final String USER_ID_ATTRIBUTE = "userId";
+
     private final JwtTokenProvider jwtTokenProvider;
+    private final UserRepository userRepository;
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
@@ -68,6 +75,15 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                         jwtTokenProvider.validateToken(token);
                         Authentication auth = jwtTokenProvider.getAuthentication(token);
                         accessor.setUser(auth);
+
+                        Long userId = jwtTokenProvider.getUserId(token);
+                        if (userId == null) {
+                            // 사용자 ID 클레임이 없는 이전 토큰은 연결 시 한 번만 조회
+                            userId = userRepository.findByUsername(auth.getName())
+                                    .orElseThrow(() -> new IllegalArgumentException("사용자를 찾을 수 없습니다"))
+                                    .getId();
+                        }
+                        accessor.getSessionAttributes().put(USER_ID_ATTRIBUTE, userId);
                         log.info("[WebSocket] User connected: {}", auth.getName());
                     } catch (Exception e) {
                         log.warn("[WebSocket] Connection rejected: Invalid token - {}", e.getMessage());
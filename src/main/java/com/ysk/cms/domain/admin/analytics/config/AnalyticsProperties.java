@@ -0,0 +1,356 @@
+package com.ysk.cms.domain.admin.analytics.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Analytics 설정 (application.yml 의 analytics.*)
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "analytics")
+public class AnalyticsProperties {
+
+    private Ingestion ingestion = new Ingestion();
+    private Filter filter = new Filter();
+    private Referrer referrer = new Referrer();
+    private Path path = new Path();
+    private Wal wal = new Wal();
+    private StateCache stateCache = new StateCache();
+    private Rollup rollup = new Rollup();
+    private Realtime realtime = new Realtime();
+    private Sketch sketch = new Sketch();
+    private Query query = new Query();
+    private Retention retention = new Retention();
+
+    /**
+     * 트래킹 이벤트 수집 설정
+     */
+    @Getter
+    @Setter
+    public static class Ingestion {
+
+        // false 면 요청 스레드에서 동기 저장
+        private boolean async = false;
+
+        private int queueCapacity = 10000;
+        private int writerThreads = 2;
+        private int batchSize = 500;
+        private long flushIntervalMs = 200;
+
+        // 큐가 가득 찼을 때 처리 방식
+        private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+        private long blockTimeoutMs = 50;
+
+        // SAMPLE 정책: 큐 사용률이 임계치를 넘으면 sampleRate 비율만 수용
+        private double sampleThreshold = 0.8;
+        private double sampleRate = 0.1;
+
+        private long shutdownTimeoutMs = 5000;
+    }
+
+    /**
+     * 수집 전 필터 설정 (봇 차단, 요청 수 제한, 샘플링)
+     */
+    @Getter
+    @Setter
+    public static class Filter {
+
+        private boolean enabled = true;
+
+        // User-Agent 에 단어 단위로 포함되면 봇으로 보는 문자열 (소문자 비교, "bot" 은 "cubot" 등 단어 일부에는 맞지 않음)
+        // 자신을 밝히는 크롤러는 대부분 "+http://..." 안내 URL 을 넣으므로 이것으로 걸러지고, 나머지는 이름으로 둔다
+        private List<String> botSignatures = new ArrayList<>(List.of(
+                "+http:", "+https:", "bot", "crawler", "spider", "slurp", "googlebot", "bingbot", "yandexbot",
+                "duckduckbot", "baiduspider", "bytespider", "applebot", "ahrefsbot", "semrushbot", "mj12bot",
+                "dotbot", "petalbot", "twitterbot", "linkedinbot", "slackbot", "discordbot", "telegrambot", "yeti",
+                "daumoa", "facebookexternalhit", "headlesschrome", "phantomjs",
+                "lighthouse", "pagespeed", "gtmetrix", "pingdom", "uptimerobot", "statuscake", "site24x7",
+                "datadog", "newrelicpinger", "checkly", "python-requests", "python-urllib", "go-http-client",
+                "okhttp", "curl/", "wget/", "java/", "apache-httpclient", "node-fetch", "axios/"));
+
+        // 브라우저와 OS 를 모두 알 수 없는 User-Agent 도 봇으로 봄
+        private boolean blockUnknownAgents = true;
+
+        // 토큰 버킷 (초당 보충량, 최대 보유량)
+        private double visitorRatePerSecond = 1.0;
+        private int visitorBurst = 30;
+        private double ipRatePerSecond = 10.0;
+        private int ipBurst = 300;
+
+        // 버킷을 유지할 최대 키 수 (넘으면 새 키는 제한하지 않음)
+        private int maxBuckets = 200000;
+
+        // 방문자 단위 샘플링 비율 (1.0 = 전체 저장). 사이트별 값이 없으면 기본값 사용
+        private double defaultSampleRate = 1.0;
+        private Map<String, Double> siteSampleRates = new HashMap<>();
+
+        // 페이지뷰 저장 지연(이동 평균)이 목표를 넘으면 그 비율만큼 샘플링 비율을 낮춤
+        private long targetWriteLatencyMs = 200;
+        private double minSampleFactor = 0.1;
+
+        public double getSampleRate(String siteCode) {
+            return siteSampleRates.getOrDefault(siteCode, defaultSampleRate);
+        }
+    }
+
+    /**
+     * 유입 경로 분류 설정
+     * 등록한 도메인과 그 하위 도메인이 해당 유형으로 분류되며, 더 긴 도메인이 우선한다 (blog.naver.com > naver.com).
+     */
+    @Getter
+    @Setter
+    public static class Referrer {
+
+        private List<String> searchHosts = new ArrayList<>(List.of(
+                "google.com", "google.co.kr", "google.co.jp", "google.co.uk", "google.de", "google.fr",
+                "naver.com", "daum.net", "bing.com", "yahoo.com", "yahoo.co.jp", "duckduckgo.com",
+                "baidu.com", "yandex.ru", "yandex.com", "ecosia.org", "zum.com", "nate.com"));
+
+        private List<String> socialHosts = new ArrayList<>(List.of(
+                "facebook.com", "fb.com", "instagram.com", "twitter.com", "t.co", "x.com", "linkedin.com",
+                "lnkd.in", "youtube.com", "youtu.be", "tiktok.com", "pinterest.com", "reddit.com", "threads.net",
+                "kakao.com", "band.us", "blog.naver.com", "cafe.naver.com", "cafe.daum.net", "tistory.com"));
+
+        // 호스트 → 유형 캐시 크기
+        private int cacheSize = 10000;
+    }
+
+    /**
+     * 페이지 이동 경로 / 퍼널 집계 설정
+     */
+    @Getter
+    @Setter
+    public static class Path {
+
+        private boolean enabled = true;
+
+        // 세션당 기록할 최대 페이지 수 (넘으면 마지막 페이지만 교체)
+        private int maxSteps = 50;
+
+        // 사이트별 경로 사전 크기 (넘는 경로는 (other) 로 묶음)
+        private int maxPathsPerSite = 20000;
+
+        private long flushIntervalMs = 10000;
+
+        private List<Funnel> funnels = new ArrayList<>();
+    }
+
+    /**
+     * 퍼널 정의. 단계 경로가 * 로 끝나면 접두어로 비교하며, 세션이 단계를 순서대로 지나면 (사이에 다른 페이지가 있어도) 도달로 본다.
+     */
+    @Getter
+    @Setter
+    public static class Funnel {
+
+        private String name;
+
+        // 비어 있으면 모든 사이트에 적용
+        private String siteCode;
+
+        private List<String> steps = new ArrayList<>();
+
+        public boolean appliesTo(String siteCode) {
+            return this.siteCode == null || this.siteCode.isEmpty() || this.siteCode.equals(siteCode);
+        }
+    }
+
+    /**
+     * 트래킹 이벤트 로컬 선행 기록 로그 설정
+     * 사용하면 요청 스레드는 로그에 기록만 하고 재생 스레드가 DB 에 저장한다 (ingestion.async 보다 우선).
+     */
+    @Getter
+    @Setter
+    public static class Wal {
+
+        private boolean enabled = false;
+        private String directory = "./data/analytics-wal";
+
+        // 세그먼트 크기 x 최대 세그먼트 수만큼 DB 장애 동안 쌓아둘 수 있다
+        private int segmentSizeMb = 64;
+        private int maxSegments = 64;
+
+        private int batchSize = 500;
+        private long pollIntervalMs = 200;
+
+        // 매핑된 페이지를 디스크에 기록하는 주기 (프로세스 장애는 주기와 무관하게 보존됨)
+        private long syncIntervalMs = 1000;
+
+        // 저장 실패 시 재시도 간격 (지수 증가)
+        private long retryBackoffMs = 1000;
+        private long maxRetryBackoffMs = 30000;
+
+        private long shutdownTimeoutMs = 5000;
+    }
+
+    /**
+     * 진행 중 세션/방문자 상태 캐시 설정
+     */
+    @Getter
+    @Setter
+    public static class StateCache {
+
+        private int maxSessions = 50000;
+        private int maxVisitors = 100000;
+
+        // 마지막 이벤트 이후 이 시간이 지나면 반영 후 캐시에서 제거
+        private int sessionTimeoutMinutes = 30;
+        private int visitorTimeoutMinutes = 30;
+
+        private long flushIntervalMs = 5000;
+    }
+
+    /**
+     * 일별 집계(rollup) 설정
+     */
+    @Getter
+    @Setter
+    public static class Rollup {
+
+        // 세션 타임아웃(30분) 이후에 실행해야 전날 세션이 확정된 상태로 집계된다
+        private String cron = "0 40 0 * * *";
+
+        // 사이트 단위 병렬 처리 스레드 수
+        private int threads = 4;
+    }
+
+    /**
+     * 실시간 카운터 설정
+     */
+    @Getter
+    @Setter
+    public static class Realtime {
+
+        // 활성 사용자로 보는 최근 시간 (분 단위 버킷 개수)
+        private int windowMinutes = 5;
+
+        // 구독 중인 사이트에 실시간 프레임을 보내는 주기
+        private long tickMs = 2000;
+
+        // 이 틱 수마다 바뀐 항목만이 아닌 전체 프레임 전송
+        private int keyframeTicks = 15;
+
+        private int pageLimit = 10;
+
+        // 서버마다 버킷 요약을 analytics_realtime_node 로 공유해 실시간 스트림에서 합산 (다중 서버면 켬)
+        // 켜도 다른 서버에 구독자가 있는 사이트만 공유한다
+        private boolean shareBuckets = false;
+
+        // 공유 요약의 방문자 HyperLogLog precision (10 → 분당 1KB, 오차 약 3.3%)
+        private int sharePrecision = 10;
+
+        // 공유 요약의 페이지별 방문자 HyperLogLog precision (6 → 페이지당 64B, 적은 방문자 수는 거의 정확)
+        private int sharePagePrecision = 6;
+
+        // 분마다 방문자가 많은 이 개수의 페이지만 공유
+        private int sharePageLimit = 20;
+    }
+
+    /**
+     * 순 방문자 HyperLogLog 스케치 설정
+     */
+    @Getter
+    @Setter
+    public static class Sketch {
+
+        // 레지스터 2^precision 개, 상대 표준 오차 1.04 / sqrt(2^precision)
+        private int precision = 14;
+
+        // 페이지별 스케치
+        private boolean pageSketches = true;
+        private int pagePrecision = 10;
+        private int maxPagesPerDay = 5000;
+
+        // 인기 페이지 / 유입 호스트 Space-Saving 요약 크기 (일별로 이만큼의 항목만 셈)
+        private int topPageCapacity = 1000;
+        private int topReferrerCapacity = 300;
+
+        private long flushIntervalMs = 10000;
+    }
+
+    /**
+     * 통계 조회 병렬 실행 / 결과 캐시 설정
+     */
+    @Getter
+    @Setter
+    public static class Query {
+
+        // 스레드마다 DB 커넥션을 하나씩 쓰므로 커넥션 풀보다 충분히 작게
+        private int threads = 4;
+        private int queueCapacity = 100;
+
+        // 한 요청의 병렬 쿼리 전체에 적용되는 마감 시간 (쿼리별 DB 타임아웃으로도 적용, 초 단위 올림)
+        private long timeoutMs = 10000;
+
+        // 조회 결과 캐시
+        private boolean cacheEnabled = true;
+
+        // 어제 이전에 끝난 기간 / 오늘을 포함하는 기간의 결과 유지 시간
+        private long closedTtlSeconds = 21600;
+        private long openTtlSeconds = 60;
+
+        // 캐시 전체 가중치 한도 (결과 행 수 기준)
+        private long cacheMaxWeight = 200000;
+
+        // 다른 서버의 집계 후 캐시 세대를 확인하는 주기
+        private long cacheSyncIntervalMs = 5000;
+    }
+
+    /**
+     * 원본 페이지뷰 파티션 / 보관 기간 설정
+     */
+    @Getter
+    @Setter
+    public static class Retention {
+
+        // 일별 집계 이후에 실행해야 만료 판정에 전날 집계가 반영된다
+        private String cron = "0 10 1 * * *";
+
+        // 현재 월 이후로 미리 만들어 둘 월 파티션 수
+        private int monthsAhead = 3;
+
+        // 원본 보관 개월 수 (현재 월 제외). 사이트별 값이 없으면 기본값 사용
+        // 일별 집계와 순 방문자 스케치는 계속 남지만, 이보다 이전 날짜가 걸친 요약 조회의 순 방문자는
+        // 원본으로 셀 수 없어 스케치 추정값(approximate)으로 응답한다
+        private int defaultMonths = 13;
+        private Map<String, Integer> siteMonths = new HashMap<>();
+
+        // 만료 파티션 처리 방식
+        private RetentionAction action = RetentionAction.DROP;
+
+        // 보관 기간이 짧은 사이트의 행을 지울 때 한 번에 삭제할 행 수
+        private int deleteBatchSize = 10000;
+
+        public int getMonths(String siteCode) {
+            return siteMonths.getOrDefault(siteCode, defaultMonths);
+        }
+
+        /**
+         * 원본 페이지뷰가 남아 있다고 볼 수 있는 첫 날 (이전 날짜는 만료되어 삭제됐을 수 있음)
+         */
+        public LocalDate getRawRetainedFrom(String siteCode, LocalDate today) {
+            return YearMonth.from(today).minusMonths(getMonths(siteCode)).atDay(1);
+        }
+    }
+
+    public enum RetentionAction {
+        DROP,    // 파티션 삭제
+        ARCHIVE  // 아카이브 테이블로 교환 후 파티션 삭제
+    }
+
+    public enum OverflowPolicy {
+        BLOCK,  // blockTimeoutMs 동안 대기 후 버림
+        DROP,   // 즉시 버림
+        SAMPLE  // 임계치 이후 샘플링 수용
+    }
+}
@@ -2,11 +2,17 @@ package com.ysk.cms.domain.admin.analytics.controller;
 
 import com.ysk.cms.common.dto.ApiResponse;
 import com.ysk.cms.domain.admin.analytics.dto.*;
+import com.ysk.cms.domain.admin.analytics.service.AnalyticsExportService;
+import com.ysk.cms.domain.admin.analytics.service.AnalyticsRollupService;
 import com.ysk.cms.domain.admin.analytics.service.AnalyticsService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -20,47 +26,86 @@ import java.util.List;
 public class AnalyticsController {
 
     private final AnalyticsService analyticsService;
+    private final AnalyticsRollupService analyticsRollupService;
+    private final AnalyticsExportService analyticsExportService;
 
     /**
      * 요약 통계 조회
      * GET /api/sites/{siteCode}/analytics/summary?startDate=2026-01-01&endDate=2026-01-18
+     * approximate=true 면 순 방문자를 HyperLogLog 스케치로 추정 (상대 표준 오차 약 0.8%)
      */
     @GetMapping("/summary")
     public ResponseEntity<ApiResponse<AnalyticsSummaryDto>> getSummary(
             @PathVariable String siteCode,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "false") boolean approximate
     ) {
-        AnalyticsSummaryDto summary = analyticsService.getSummary(siteCode, startDate, endDate);
+        AnalyticsSummaryDto summary = analyticsService.getSummary(siteCode, startDate, endDate, approximate);
         return ResponseEntity.ok(ApiResponse.success(summary));
     }
 
     /**
-     * 일별 추이 데이터
-     * GET /api/sites/{siteCode}/analytics/trend
+     * 추이 데이터
+     * GET /api/sites/{siteCode}/analytics/trend?startDate=2024-01-01&endDate=2025-12-31&granularity=WEEK
+     * granularity(HOUR, DAY, WEEK, MONTH)를 생략하면 기간 길이에 맞춰 정한다.
      */
     @GetMapping("/trend")
     public ResponseEntity<ApiResponse<TrendDataDto>> getTrend(
             @PathVariable String siteCode,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String granularity
     ) {
-        TrendDataDto trend = analyticsService.getTrend(siteCode, startDate, endDate);
+        TrendDataDto trend = analyticsService.getTrend(siteCode, startDate, endDate, granularity);
         return ResponseEntity.ok(ApiResponse.success(trend));
     }
 
+    /**
+     * 요일 x 시간대 히트맵
+     * GET /api/sites/{siteCode}/analytics/heatmap?startDate=2026-01-01&endDate=2026-01-18
+     */
+    @GetMapping("/heatmap")
+    public ResponseEntity<ApiResponse<HourlyHeatmapDto>> getHourlyHeatmap(
+            @PathVariable String siteCode,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+    ) {
+        HourlyHeatmapDto heatmap = analyticsService.getHourlyHeatmap(siteCode, startDate, endDate);
+        return ResponseEntity.ok(ApiResponse.success(heatmap));
+    }
+
+    /**
+     * 주별 방문자 코호트 리텐션
+     * GET /api/sites/{siteCode}/analytics/retention?startDate=2026-01-01&endDate=2026-03-31&weeks=12
+     */
+    @GetMapping("/retention")
+    public ResponseEntity<ApiResponse<CohortRetentionDto>> getCohortRetention(
+            @PathVariable String siteCode,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "12") int weeks
+    ) {
+        CohortRetentionDto retention = analyticsService.getCohortRetention(siteCode, startDate, endDate, weeks);
+        return ResponseEntity.ok(ApiResponse.success(retention));
+    }
+
     /**
      * 인기 페이지 목록
      * GET /api/sites/{siteCode}/analytics/pages?limit=10
+     * approximate=true 면 순 페이지뷰를 페이지별 스케치로 추정 (상대 표준 오차 약 3.3%)
+     * exact=true 면 상위 페이지를 Space-Saving 요약 대신 SQL 집계(LIMIT)로 선정
      */
     @GetMapping("/pages")
     public ResponseEntity<ApiResponse<List<PageStatsDto>>> getTopPages(
             @PathVariable String siteCode,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
-            @RequestParam(defaultValue = "10") int limit
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "false") boolean approximate,
+            @RequestParam(defaultValue = "false") boolean exact
     ) {
-        List<PageStatsDto> pages = analyticsService.getTopPages(siteCode, startDate, endDate, limit);
+        List<PageStatsDto> pages = analyticsService.getTopPages(siteCode, startDate, endDate, limit, approximate, exact);
         return ResponseEntity.ok(ApiResponse.success(pages));
     }
 
@@ -92,6 +137,52 @@ public class AnalyticsController {
         return ResponseEntity.ok(ApiResponse.success(stats));
     }
 
+    /**
+     * 외부 유입 호스트 상위 목록
+     * GET /api/sites/{siteCode}/analytics/referrers/top?limit=10
+     */
+    @GetMapping("/referrers/top")
+    public ResponseEntity<ApiResponse<List<TopReferrerDto>>> getTopReferrers(
+            @PathVariable String siteCode,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        List<TopReferrerDto> referrers = analyticsService.getTopReferrers(siteCode, startDate, endDate, limit);
+        return ResponseEntity.ok(ApiResponse.success(referrers));
+    }
+
+    /**
+     * 페이지 이동 경로 (Sankey 링크)
+     * GET /api/sites/{siteCode}/analytics/paths?startDate=2026-01-01&endDate=2026-01-18&fromPath=/&limit=50
+     */
+    @GetMapping("/paths")
+    public ResponseEntity<ApiResponse<List<PathTransitionDto>>> getPathTransitions(
+            @PathVariable String siteCode,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String fromPath,
+            @RequestParam(defaultValue = "50") int limit
+    ) {
+        List<PathTransitionDto> transitions = analyticsService.getPathTransitions(siteCode, startDate, endDate, fromPath, limit);
+        return ResponseEntity.ok(ApiResponse.success(transitions));
+    }
+
+    /**
+     * 퍼널 단계별 전환
+     * GET /api/sites/{siteCode}/analytics/funnels/{name}?startDate=2026-01-01&endDate=2026-01-18
+     */
+    @GetMapping("/funnels/{name}")
+    public ResponseEntity<ApiResponse<FunnelDto>> getFunnel(
+            @PathVariable String siteCode,
+            @PathVariable String name,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+    ) {
+        FunnelDto funnel = analyticsService.getFunnel(siteCode, name, startDate, endDate);
+        return ResponseEntity.ok(ApiResponse.success(funnel));
+    }
+
     /**
      * 실시간 통계
      * GET /api/sites/{siteCode}/analytics/realtime
@@ -103,4 +194,55 @@ public class AnalyticsController {
         RealtimeStatsDto stats = analyticsService.getRealtimeStats(siteCode);
         return ResponseEntity.ok(ApiResponse.success(stats));
     }
+
+    /**
+     * 이 노드의 실시간 분 단위 버킷 (노드별 결과를 합쳐 집계할 때 사용)
+     * GET /api/sites/{siteCode}/analytics/realtime/buckets
+     */
+    @GetMapping("/realtime/buckets")
+    public ResponseEntity<ApiResponse<List<RealtimeBucketDto>>> getRealtimeBuckets(
+            @PathVariable String siteCode
+    ) {
+        List<RealtimeBucketDto> buckets = analyticsService.getRealtimeBuckets(siteCode);
+        return ResponseEntity.ok(ApiResponse.success(buckets));
+    }
+
+    /**
+     * 일별 집계 재실행 (백필)
+     * POST /api/sites/{siteCode}/analytics/rollup?startDate=2026-01-01&endDate=2026-01-18
+     */
+    @PostMapping("/rollup")
+    public ResponseEntity<ApiResponse<Integer>> rollup(
+            @PathVariable String siteCode,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate
+    ) {
+        int days = analyticsRollupService.rollup(siteCode, startDate, endDate);
+        return ResponseEntity.ok(ApiResponse.success(days));
+    }
+
+    /**
+     * 원본 데이터 내보내기 (gzip 압축)
+     * GET /api/sites/{siteCode}/analytics/export?type=pageviews&format=ndjson&startDate=2026-01-01&endDate=2026-01-31
+     * type: pageviews, sessions / format: ndjson, csv
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @PathVariable String siteCode,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "pageviews") String type,
+            @RequestParam(defaultValue = "ndjson") String format
+    ) {
+        AnalyticsExportService.ExportType exportType = AnalyticsExportService.parseType(type);
+        AnalyticsExportService.ExportFormat exportFormat = AnalyticsExportService.parseFormat(format);
+
+        StreamingResponseBody body = analyticsExportService.export(siteCode, exportType, exportFormat, startDate, endDate);
+        String fileName = analyticsExportService.getFileName(siteCode, exportType, exportFormat, startDate, endDate);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/gzip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
 }
@@ -1,7 +1,8 @@
 package com.ysk.cms.domain.admin.analytics.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ysk.cms.domain.admin.analytics.dto.TrackingEventDto;
-import com.ysk.cms.domain.admin.analytics.service.TrackingService;
+import com.ysk.cms.domain.admin.analytics.service.TrackingIngestionService;
 import com.ysk.cms.security.annotation.SkipMenuAuth;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
@@ -19,7 +20,8 @@ import org.springframework.web.bind.annotation.*;
 @SkipMenuAuth
 public class TrackingController {
 
-    private final TrackingService trackingService;
+    private final TrackingIngestionService trackingIngestionService;
+    private final ObjectMapper objectMapper;
 
     /**
      * 트래킹 이벤트 수집
@@ -31,10 +33,14 @@ public class TrackingController {
             @RequestBody TrackingEventDto event,
             HttpServletRequest request
     ) {
-        String userAgent = request.getHeader("User-Agent");
+        if (!isValid(siteCode, event)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        String userAgent = getUserAgent(request);
         String ipAddress = getClientIpAddress(request);
 
-        trackingService.track(siteCode, event, userAgent, ipAddress);
+        trackingIngestionService.ingest(siteCode, event, userAgent, ipAddress);
 
         return ResponseEntity.ok().build();
     }
@@ -50,13 +56,15 @@ public class TrackingController {
             HttpServletRequest request
     ) {
         try {
-            com.fasterxml.jackson.databind.ObjectMapper mapper = new com.fasterxml.jackson.databind.ObjectMapper();
-            TrackingEventDto event = mapper.readValue(body, TrackingEventDto.class);
+            TrackingEventDto event = objectMapper.readValue(body, TrackingEventDto.class);
+            if (!isValid(siteCode, event)) {
+                return ResponseEntity.ok().build();
+            }
 
-            String userAgent = request.getHeader("User-Agent");
+            String userAgent = getUserAgent(request);
             String ipAddress = getClientIpAddress(request);
 
-            trackingService.track(siteCode, event, userAgent, ipAddress);
+            trackingIngestionService.ingest(siteCode, event, userAgent, ipAddress);
         } catch (Exception e) {
             log.warn("[Analytics] Failed to parse beacon data: {}", e.getMessage());
         }
@@ -64,6 +72,26 @@ public class TrackingController {
         return ResponseEntity.ok().build();
     }
 
+    /**
+     * 필수 필드 / 컬럼 길이 검증 (큐 적재 전에 걸러내야 writer 배치 전체가 실패하지 않음)
+     * 식별자가 길면 버리고, 나머지 긴 문자열은 컬럼 길이로 자른다.
+     */
+    private boolean isValid(String siteCode, TrackingEventDto event) {
+        if (siteCode.length() > TrackingEventDto.MAX_SITE_CODE_LENGTH || event == null || !event.hasValidIds()) {
+            return false;
+        }
+        if ("pageview".equals(event.getEventType())
+                && (event.getPageUrl() == null || event.getPagePath() == null)) {
+            return false;
+        }
+        event.truncateToColumns();
+        return true;
+    }
+
+    private String getUserAgent(HttpServletRequest request) {
+        return TrackingEventDto.truncate(request.getHeader("User-Agent"), TrackingEventDto.MAX_USER_AGENT_LENGTH);
+    }
+
     /**
      * 클라이언트 IP 주소 추출
      */
@@ -79,7 +107,7 @@ public class TrackingController {
             String ip = request.getHeader(header);
             if (ip != null && !ip.isEmpty() && !"unknown".equalsIgnoreCase(ip)) {
                 // X-Forwarded-For는 쉼표로 구분된 IP 목록일 수 있음
-                return ip.split(",")[0].trim();
+                return TrackingEventDto.truncate(ip.split(",")[0].trim(), TrackingEventDto.MAX_IP_LENGTH);
             }
         }
 
@@ -8,7 +8,7 @@ import java.math.BigDecimal;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class AnalyticsSummaryDto {
 
     // 방문자 지표
@@ -32,4 +32,8 @@ public class AnalyticsSummaryDto {
 
     // 실시간
     private Long activeUsers;
+
+    // 추정 모드 (HyperLogLog) 여부와 순 방문자 상대 표준 오차 (%), 정확 모드면 오차는 null
+    private Boolean approximate;
+    private BigDecimal uniqueVisitorsErrorRate;
 }
@@ -0,0 +1,36 @@
+package com.ysk.cms.domain.admin.analytics.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 주별 방문자 코호트 리텐션
+ * returningVisitors / retentionRates 의 i 번째 값은 코호트 주 이후 i + 1 주차 값이며, 아직 집계되지 않은 주는 null 이다.
+ * bitmapStartDate 이전 날짜는 방문자 비트맵이 없어 포함되지 않으므로 그 이전 주의 코호트는 실제보다 작거나 0 이다.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CohortRetentionDto {
+
+    private Integer weeks;
+    private LocalDate bitmapStartDate;   // 방문자 비트맵이 있는 첫 날짜 (없으면 null)
+    private List<Cohort> cohorts;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Cohort {
+        private LocalDate weekStart;        // 코호트 주 시작일 (월요일)
+        private Long visitors;              // 그 주에 첫 방문한 방문자 수
+        private List<Long> returningVisitors;
+        private List<BigDecimal> retentionRates;  // 코호트 방문자 대비 (%)
+    }
+}
@@ -0,0 +1,29 @@
+package com.ysk.cms.domain.admin.analytics.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FunnelDto {
+
+    private String name;
+    private List<StepData> steps;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class StepData {
+        private String path;
+        private Long sessions;
+        private BigDecimal conversionRate;  // 첫 단계 대비 (%)
+        private BigDecimal dropOffRate;     // 이전 단계 대비 이탈 (%)
+    }
+}
@@ -0,0 +1,22 @@
+package com.ysk.cms.domain.admin.analytics.dto;
+
+import lombok.*;
+
+import java.time.DayOfWeek;
+import java.util.List;
+
+/**
+ * 요일 x 시간대 히트맵
+ * pageViews / sessions 는 dayOfWeeks 순서(월~일)의 7행, 각 행은 0~23시 24칸이다.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HourlyHeatmapDto {
+
+    private List<DayOfWeek> dayOfWeeks;
+    private List<long[]> pageViews;
+    private List<long[]> sessions;
+}
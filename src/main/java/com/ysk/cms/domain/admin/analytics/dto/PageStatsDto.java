@@ -20,4 +20,5 @@ public class PageStatsDto {
     private Long entrances;
     private Long exits;
     private BigDecimal bounceRate;
+    private BigDecimal uniquePageViewsErrorRate;    // 추정 모드의 순 페이지뷰 상대 표준 오차 (%)
 }
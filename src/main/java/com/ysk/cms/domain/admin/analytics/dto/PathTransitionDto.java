@@ -0,0 +1,18 @@
+package com.ysk.cms.domain.admin.analytics.dto;
+
+import lombok.*;
+
+/**
+ * 페이지 간 이동 횟수 (Sankey 링크). (entrance) / (exit) 는 세션 시작과 종료
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PathTransitionDto {
+
+    private String fromPath;
+    private String toPath;
+    private Long transitions;
+}
@@ -0,0 +1,21 @@
+package com.ysk.cms.domain.admin.analytics.dto;
+
+import lombok.*;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 이 서버의 실시간 분 단위 버킷 (방문자 ID 원본, 다른 서버와는 RealtimeSketchDto 로 공유)
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RealtimeBucketDto {
+
+    private long epochMinute;                 // 1970-01-01 기준 분
+    private Set<String> visitorIds;           // 해당 분의 방문자
+    private Map<String, Set<String>> pages;   // 페이지 경로 → 방문자
+}
@@ -0,0 +1,20 @@
+package com.ysk.cms.domain.admin.analytics.dto;
+
+import lombok.*;
+
+import java.util.Map;
+
+/**
+ * 서버 간 공유하는 실시간 분 단위 요약 (방문자 ID 대신 HyperLogLog 레지스터를 담아 다른 서버 것과 합친다)
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RealtimeSketchDto {
+
+    private long epochMinute;                 // 1970-01-01 기준 분
+    private byte[] visitors;                  // 해당 분의 방문자 레지스터
+    private Map<String, byte[]> pages;        // 페이지 경로 → 방문자 레지스터 (방문자가 많은 페이지만)
+}
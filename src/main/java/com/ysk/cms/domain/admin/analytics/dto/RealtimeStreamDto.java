@@ -0,0 +1,25 @@
+package com.ysk.cms.domain.admin.analytics.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * 실시간 통계 스트림 프레임 (/topic/analytics/{siteCode}/realtime)
+ * keyframe 이 true 면 모든 항목이 채워져 있고, 아니면 직전 프레임 이후 바뀐 항목만 포함한다.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RealtimeStreamDto {
+
+    private Boolean keyframe;
+    private Long activeUsers;
+    private List<RealtimeStatsDto.ActivePageDto> activePages;
+    private Double pageViewsPerSecond;
+    private Long timestamp;
+}
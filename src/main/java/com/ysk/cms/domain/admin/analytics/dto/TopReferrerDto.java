@@ -0,0 +1,18 @@
+package com.ysk.cms.domain.admin.analytics.dto;
+
+import lombok.*;
+
+/**
+ * 외부 유입 호스트별 페이지뷰 (실제 값은 pageViews - maxError 이상 pageViews 이하)
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TopReferrerDto {
+
+    private String host;
+    private Long pageViews;
+    private Long maxError;
+}
@@ -0,0 +1,26 @@
+package com.ysk.cms.domain.admin.analytics.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * 수집 큐에 적재되는 트래킹 이벤트 (요청 시점 정보 포함)
+ */
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TrackingCommand {
+
+    private String siteCode;
+    private TrackingEventDto event;
+    private String userAgent;
+    private String ipAddress;
+    private LocalDateTime receivedAt;
+
+    // 샘플링 가중치 (이 이벤트가 대표하는 이벤트 수)
+    @Builder.Default
+    @With
+    private double sampleWeight = 1.0;
+}
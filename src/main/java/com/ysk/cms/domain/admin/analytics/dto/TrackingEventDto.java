@@ -9,6 +9,15 @@ import lombok.*;
 @Builder
 public class TrackingEventDto {
 
+    // 저장 컬럼 길이 (analytics_page_view / analytics_session)
+    public static final int MAX_SITE_CODE_LENGTH = 50;
+    public static final int MAX_ID_LENGTH = 100;
+    public static final int MAX_PATH_LENGTH = 500;
+    public static final int MAX_URL_LENGTH = 2000;
+    public static final int MAX_USER_AGENT_LENGTH = 1000;
+    public static final int MAX_UTM_LENGTH = 200;
+    public static final int MAX_IP_LENGTH = 45;
+
     private String eventType;       // pageview, pageleave, event
     private String visitorId;
     private String sessionId;
@@ -37,4 +46,31 @@ public class TrackingEventDto {
 
     // 타임스탬프
     private String timestamp;
+
+    /**
+     * 식별자 길이 확인 (잘라내면 다른 세션/방문자와 섞이므로 넘으면 이벤트를 버림)
+     */
+    public boolean hasValidIds() {
+        return visitorId != null && visitorId.length() <= MAX_ID_LENGTH
+                && sessionId != null && sessionId.length() <= MAX_ID_LENGTH;
+    }
+
+    /**
+     * 나머지 문자열을 저장 컬럼 길이로 자름 (한 이벤트 때문에 일괄 저장 전체가 실패하지 않도록)
+     */
+    public void truncateToColumns() {
+        pageUrl = truncate(pageUrl, MAX_URL_LENGTH);
+        pagePath = truncate(pagePath, MAX_PATH_LENGTH);
+        pageTitle = truncate(pageTitle, MAX_PATH_LENGTH);
+        referrer = truncate(referrer, MAX_URL_LENGTH);
+        utmSource = truncate(utmSource, MAX_UTM_LENGTH);
+        utmMedium = truncate(utmMedium, MAX_UTM_LENGTH);
+        utmCampaign = truncate(utmCampaign, MAX_UTM_LENGTH);
+        utmTerm = truncate(utmTerm, MAX_UTM_LENGTH);
+        utmContent = truncate(utmContent, MAX_UTM_LENGTH);
+    }
+
+    public static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
 }
@@ -12,7 +12,8 @@ import java.util.List;
 @Builder
 public class TrendDataDto {
 
-    private List<String> labels;          // 날짜 레이블
+    private String granularity;           // HOUR, DAY, WEEK, MONTH
+    private List<String> labels;          // 버킷 레이블
     private List<Long> pageViews;         // 페이지뷰 데이터
     private List<Long> visitors;          // 방문자 데이터
     private List<Long> sessions;          // 세션 데이터
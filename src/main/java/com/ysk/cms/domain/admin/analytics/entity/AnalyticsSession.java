@@ -57,6 +57,14 @@ public class AnalyticsSession {
     @Column(name = "referrer", length = 2000)
     private String referrer;
 
+    // 유입 유형 (direct, search, social, referral)
+    @Column(name = "referrer_type", length = 20)
+    private String referrerType;
+
+    // 외부 유입 호스트 (www. 제외, 소문자)
+    @Column(name = "referrer_host", length = 255)
+    private String referrerHost;
+
     @Column(name = "device_type", length = 20)
     private String deviceType;
 
@@ -81,6 +89,11 @@ public class AnalyticsSession {
     @Column(name = "utm_campaign", length = 200)
     private String utmCampaign;
 
+    // 샘플링 가중치 (이 행이 대표하는 건수)
+    @Column(name = "sample_weight", nullable = false)
+    @Builder.Default
+    private Double sampleWeight = 1.0;
+
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
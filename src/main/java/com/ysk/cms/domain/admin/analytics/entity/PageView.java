@@ -99,6 +99,11 @@ public class PageView {
     @Column(name = "time_on_page")
     private Integer timeOnPage;
 
+    // 샘플링 가중치 (이 행이 대표하는 건수)
+    @Column(name = "sample_weight", nullable = false)
+    @Builder.Default
+    private Double sampleWeight = 1.0;
+
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
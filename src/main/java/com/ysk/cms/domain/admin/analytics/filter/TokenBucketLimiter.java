@@ -0,0 +1,86 @@
+package com.ysk.cms.domain.admin.analytics.filter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 키(방문자, IP 등)별 토큰 버킷 요청 수 제한
+ * 버킷은 초당 ratePerSecond 개씩 최대 burst 개까지 채워지고, 요청마다 1 개를 쓴다.
+ * 토큰은 요청 시점에 지난 시간만큼 한 번에 보충하므로 별도 타이머가 없다.
+ * 키 수가 maxKeys 에 이르면 새 키는 제한하지 않으며, 가득 찬 버킷은 evictFull 로 정리한다.
+ */
+public class TokenBucketLimiter {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final double ratePerNano;
+    private final double burst;
+    private final int maxKeys;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    public TokenBucketLimiter(double ratePerSecond, int burst, int maxKeys) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("ratePerSecond > 0 and burst >= 1 required");
+        }
+        this.ratePerNano = ratePerSecond / NANOS_PER_SECOND;
+        this.burst = burst;
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * 토큰 1 개 사용
+     *
+     * @return 남은 토큰이 없으면 false
+     */
+    public boolean tryAcquire(String key, long nowNanos) {
+        if (key == null) return true;
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys) return true;
+            bucket = buckets.computeIfAbsent(key, k -> new Bucket(burst, nowNanos));
+        }
+        synchronized (bucket) {
+            bucket.refill(nowNanos, ratePerNano, burst);
+            if (bucket.tokens < 1) return false;
+            bucket.tokens -= 1;
+            return true;
+        }
+    }
+
+    /**
+     * 다시 가득 찼을 버킷 제거 (새로 만든 버킷과 같은 상태이므로 지워도 결과가 같다)
+     *
+     * @return 제거한 버킷 수
+     */
+    public int evictFull(long nowNanos) {
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> {
+            synchronized (bucket) {
+                bucket.refill(nowNanos, ratePerNano, burst);
+                return bucket.tokens >= burst;
+            }
+        });
+        return before - buckets.size();
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    private static class Bucket {
+        private double tokens;
+        private long refilledAt;
+
+        Bucket(double tokens, long refilledAt) {
+            this.tokens = tokens;
+            this.refilledAt = refilledAt;
+        }
+
+        void refill(long nowNanos, double ratePerNano, double burst) {
+            long elapsed = nowNanos - refilledAt;
+            if (elapsed <= 0) return;
+            tokens = Math.min(burst, tokens + elapsed * ratePerNano);
+            refilledAt = nowNanos;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.ysk.cms.domain.admin.analytics.path;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 페이지 경로 ↔ 정수 ID 사전 (사이트별, 프로세스 내)
+ * 세션 경로 버퍼가 문자열 대신 int 를 담도록 한다. 이미 등록된 경로의 조회는 잠금 없이 처리한다.
+ * 등록 경로가 maxPaths 에 이르면 이후 새 경로는 모두 OTHER 로 묶는다.
+ * 지우지 않으므로 PathStore 가 집계 주기(하루)마다 새 사전으로 바꾸고, 이전 사전은 그 사전으로 만든 시퀀스가 끝나면 사라진다.
+ */
+public class PathDictionary {
+
+    public static final int OTHER = 0;
+    public static final String OTHER_PATH = "(other)";
+
+    private final int maxPaths;
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final List<String> paths = new ArrayList<>();
+
+    public PathDictionary(int maxPaths) {
+        this.maxPaths = maxPaths;
+        paths.add(OTHER_PATH);
+    }
+
+    public int encode(String path) {
+        if (path == null) return OTHER;
+        Integer id = ids.get(path);
+        if (id != null) return id;
+        synchronized (this) {
+            id = ids.get(path);
+            if (id != null) return id;
+            if (paths.size() > maxPaths) return OTHER;
+            id = paths.size();
+            paths.add(path);
+            ids.put(path, id);
+            return id;
+        }
+    }
+
+    public synchronized String decode(int id) {
+        return id >= 0 && id < paths.size() ? paths.get(id) : OTHER_PATH;
+    }
+
+    public synchronized int size() {
+        return paths.size() - 1;
+    }
+}
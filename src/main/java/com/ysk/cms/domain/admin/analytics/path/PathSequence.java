@@ -0,0 +1,60 @@
+package com.ysk.cms.domain.admin.analytics.path;
+
+import java.util.Arrays;
+
+/**
+ * 세션 하나의 페이지 이동 순서 (PathDictionary ID 배열)
+ * 사전은 주기적으로 새로 만들어지므로 시퀀스는 만들 때 받은 사전으로만 인코딩/디코딩한다.
+ * 같은 페이지가 연달아 오면(새로고침) 한 번만 기록한다.
+ * maxSteps 를 넘으면 마지막 칸만 덮어써 앞부분 경로와 종료 페이지를 유지한다.
+ * 스레드 안전하지 않으므로 소유한 세션 상태의 잠금 안에서 사용한다.
+ */
+public class PathSequence {
+
+    private final int maxSteps;
+    private final PathDictionary dictionary;
+    private int[] ids = new int[4];
+    private int size;
+
+    public PathSequence(int maxSteps, PathDictionary dictionary) {
+        if (maxSteps < 2) {
+            throw new IllegalArgumentException("maxSteps must be at least 2: " + maxSteps);
+        }
+        this.maxSteps = maxSteps;
+        this.dictionary = dictionary;
+    }
+
+    public void add(String pagePath) {
+        add(dictionary.encode(pagePath));
+    }
+
+    public void add(int id) {
+        if (size > 0 && ids[size - 1] == id) return;
+        if (size == maxSteps) {
+            // 마지막 칸을 새 페이지로 교체
+            size--;
+            if (ids[size - 1] == id) return;
+        }
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, Math.min(ids.length * 2, maxSteps));
+        }
+        ids[size++] = id;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int get(int index) {
+        if (index >= size) throw new IndexOutOfBoundsException(index);
+        return ids[index];
+    }
+
+    public String getPage(int index) {
+        return dictionary.decode(get(index));
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+}
@@ -0,0 +1,50 @@
+package com.ysk.cms.domain.admin.analytics.referrer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 도메인 라벨을 뒤집어 저장하는 접미사 트라이 (com → naver → blog)
+ * 호스트를 뒤에서부터 라벨 단위로 따라가며 가장 길게 일치하는 등록 도메인의 값을 돌려준다.
+ * 예: naver.com=search, blog.naver.com=social 이면 m.blog.naver.com 은 social, search.naver.com 은 search.
+ * 조회는 호스트 길이에 비례하고 등록 도메인 수와 무관하다. 구성 후에는 읽기만 하므로 스레드 안전하다.
+ */
+public class DomainTrie<T> {
+
+    private final Node<T> root = new Node<>();
+
+    /**
+     * 도메인 등록 (하위 도메인까지 일치)
+     */
+    public void put(String domain, T value) {
+        Node<T> node = root;
+        String[] labels = domain.toLowerCase().split("\\.");
+        for (int i = labels.length - 1; i >= 0; i--) {
+            if (labels[i].isEmpty()) continue;
+            node = node.children.computeIfAbsent(labels[i], key -> new Node<>());
+        }
+        node.value = value;
+    }
+
+    /**
+     * 가장 길게 일치하는 등록 도메인의 값 (없으면 null). host 는 소문자여야 한다.
+     */
+    public T match(String host) {
+        Node<T> node = root;
+        T matched = null;
+        int end = host.length();
+        while (end > 0) {
+            int start = host.lastIndexOf('.', end - 1);
+            node = node.children.get(host.substring(start + 1, end));
+            if (node == null) break;
+            if (node.value != null) matched = node.value;
+            end = start;
+        }
+        return matched;
+    }
+
+    private static class Node<T> {
+        private final Map<String, Node<T>> children = new HashMap<>();
+        private T value;
+    }
+}
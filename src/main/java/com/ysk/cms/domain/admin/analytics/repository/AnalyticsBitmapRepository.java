@@ -0,0 +1,77 @@
+package com.ysk.cms.domain.admin.analytics.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.TreeMap;
+
+/**
+ * 일별 방문자 비트맵 저장소 (analytics_visitor_bitmap)
+ * 비트맵 원소는 사이트 안에서 매긴 방문자 순번(analytics_visitor.site_ordinal)이다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AnalyticsBitmapRepository {
+
+    // 그날 페이지뷰가 있는 방문자
+    public static final String ACTIVE = "ACTIVE";
+    // 그날 첫 방문한 방문자
+    public static final String NEW = "NEW";
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO analytics_visitor_bitmap (site_code, stats_date, kind, bitmap, created_at) " +
+            "VALUES (?, ?, ?, ?, NOW()) " +
+            "ON DUPLICATE KEY UPDATE bitmap = VALUES(bitmap), updated_at = NOW()";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 기간 내 일별 비트맵 (날짜순)
+     */
+    public TreeMap<LocalDate, byte[]> findBitmaps(String siteCode, String kind, LocalDate startDate, LocalDate endDate) {
+        TreeMap<LocalDate, byte[]> bitmaps = new TreeMap<>();
+        jdbcTemplate.query(
+                "SELECT stats_date, bitmap FROM analytics_visitor_bitmap " +
+                "WHERE site_code = ? AND kind = ? AND stats_date BETWEEN ? AND ?",
+                (RowCallbackHandler) rs -> bitmaps.put(rs.getObject(1, LocalDate.class), rs.getBytes(2)),
+                siteCode, kind, startDate, endDate);
+        return bitmaps;
+    }
+
+    /**
+     * 비트맵이 있는 첫 날짜 (없으면 null)
+     */
+    public LocalDate findFirstDate(String siteCode) {
+        return jdbcTemplate.queryForObject(
+                "SELECT MIN(stats_date) FROM analytics_visitor_bitmap WHERE site_code = ? AND kind = ?",
+                LocalDate.class, siteCode, NEW);
+    }
+
+    public void upsert(String siteCode, LocalDate statsDate, String kind, byte[] bitmap) {
+        jdbcTemplate.update(UPSERT_SQL, siteCode, statsDate, kind, bitmap);
+    }
+
+    /**
+     * 하루치 방문한 방문자 순번 조회 - 비트맵 생성용
+     */
+    public void scanActiveVisitors(String siteCode, LocalDate statsDate, RowCallbackHandler handler) {
+        jdbcTemplate.query(
+                "SELECT DISTINCT v.site_ordinal FROM analytics_page_view p " +
+                "JOIN analytics_visitor v ON v.site_code = p.site_code AND v.visitor_id = p.visitor_id " +
+                "WHERE p.site_code = ? AND p.created_at >= ? AND p.created_at < ?",
+                handler, siteCode, statsDate.atStartOfDay(), statsDate.plusDays(1).atStartOfDay());
+    }
+
+    /**
+     * 하루치 첫 방문한 방문자 순번 조회 - 비트맵 생성용
+     */
+    public void scanNewVisitors(String siteCode, LocalDate statsDate, RowCallbackHandler handler) {
+        jdbcTemplate.query(
+                "SELECT site_ordinal FROM analytics_visitor " +
+                "WHERE site_code = ? AND first_visit_at >= ? AND first_visit_at < ?",
+                handler, siteCode, statsDate.atStartOfDay(), statsDate.plusDays(1).atStartOfDay());
+    }
+}
@@ -0,0 +1,37 @@
+package com.ysk.cms.domain.admin.analytics.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 사이트별 조회 결과 캐시 세대 (analytics_cache_generation) - 서버 간 캐시 무효화용
+ */
+@Repository
+@RequiredArgsConstructor
+public class AnalyticsCacheGenerationRepository {
+
+    private static final String INCREMENT_SQL =
+            "INSERT INTO analytics_cache_generation (site_code, generation, updated_at) VALUES (?, 1, NOW(6)) " +
+            "ON DUPLICATE KEY UPDATE generation = generation + 1, updated_at = VALUES(updated_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void increment(String siteCode) {
+        jdbcTemplate.update(INCREMENT_SQL, siteCode);
+    }
+
+    /**
+     * 사이트별 현재 세대
+     */
+    public Map<String, Long> findAll() {
+        Map<String, Long> generations = new HashMap<>();
+        jdbcTemplate.query("SELECT site_code, generation FROM analytics_cache_generation",
+                (RowCallbackHandler) rs -> generations.put(rs.getString(1), rs.getLong(2)));
+        return generations;
+    }
+}
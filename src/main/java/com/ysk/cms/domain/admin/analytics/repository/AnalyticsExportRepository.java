@@ -0,0 +1,50 @@
+package com.ysk.cms.domain.admin.analytics.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+
+/**
+ * 원본 데이터 내보내기용 조회
+ * 엔티티로 변환하거나 영속성 컨텍스트에 쌓지 않고, 전방향 커서로 한 행씩 콜백에 넘긴다.
+ */
+@Repository
+public class AnalyticsExportRepository {
+
+    static final String PAGE_VIEW_COLUMNS =
+            "id, site_code, session_id, visitor_id, user_id, page_url, page_path, page_title, referrer, " +
+            "device_type, browser, browser_version, os, os_version, screen_width, screen_height, " +
+            "utm_source, utm_medium, utm_campaign, utm_term, utm_content, created_at";
+
+    static final String SESSION_COLUMNS =
+            "id, session_id, site_code, visitor_id, user_id, start_time, end_time, page_views, duration, " +
+            "is_bounce, entry_page, exit_page, referrer, device_type, browser, os, " +
+            "utm_source, utm_medium, utm_campaign, created_at";
+
+    private final JdbcTemplate streamingJdbcTemplate;
+
+    public AnalyticsExportRepository(DataSource dataSource) {
+        // MySQL Connector/J 는 fetchSize 가 Integer.MIN_VALUE 일 때 결과를 한 번에 받지 않고 행 단위로 스트리밍한다
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+    }
+
+    public void streamPageViews(String siteCode, LocalDateTime startDate, LocalDateTime endDate,
+                                RowCallbackHandler handler) {
+        streamingJdbcTemplate.query(
+                "SELECT " + PAGE_VIEW_COLUMNS + " FROM analytics_page_view " +
+                "WHERE site_code = ? AND created_at BETWEEN ? AND ? ORDER BY created_at",
+                handler, siteCode, startDate, endDate);
+    }
+
+    public void streamSessions(String siteCode, LocalDateTime startDate, LocalDateTime endDate,
+                               RowCallbackHandler handler) {
+        streamingJdbcTemplate.query(
+                "SELECT " + SESSION_COLUMNS + " FROM analytics_session " +
+                "WHERE site_code = ? AND start_time BETWEEN ? AND ? ORDER BY start_time",
+                handler, siteCode, startDate, endDate);
+    }
+}
@@ -0,0 +1,76 @@
+package com.ysk.cms.domain.admin.analytics.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 페이지 이동(전이) / 퍼널 단계 집계 저장소 (analytics_path_transition, analytics_funnel_stats)
+ * 종료된 세션의 증분을 더해 쓰므로 원본 페이지뷰를 다시 읽지 않는다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AnalyticsPathRepository {
+
+    private static final String UPSERT_TRANSITION_SQL =
+            "INSERT INTO analytics_path_transition (site_code, stats_date, from_path, to_path, transitions, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, NOW()) " +
+            "ON DUPLICATE KEY UPDATE transitions = transitions + VALUES(transitions), updated_at = NOW()";
+
+    private static final String UPSERT_FUNNEL_STEP_SQL =
+            "INSERT INTO analytics_funnel_stats (site_code, stats_date, funnel_name, step_index, sessions, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, NOW()) " +
+            "ON DUPLICATE KEY UPDATE sessions = sessions + VALUES(sessions), updated_at = NOW()";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 전이 횟수 누적 (행: site_code, stats_date, from_path, to_path, transitions)
+     */
+    public void addTransitions(List<Object[]> rows) {
+        if (rows.isEmpty()) return;
+        jdbcTemplate.batchUpdate(UPSERT_TRANSITION_SQL, rows);
+    }
+
+    /**
+     * 퍼널 단계 도달 세션 수 누적 (행: site_code, stats_date, funnel_name, step_index, sessions)
+     */
+    public void addFunnelSteps(List<Object[]> rows) {
+        if (rows.isEmpty()) return;
+        jdbcTemplate.batchUpdate(UPSERT_FUNNEL_STEP_SQL, rows);
+    }
+
+    /**
+     * 기간 내 전이 상위 limit 개 [from_path, to_path, transitions]. fromPath 를 주면 그 페이지에서 나가는 전이만
+     */
+    public List<Object[]> sumTransitions(String siteCode, LocalDate startDate, LocalDate endDate, String fromPath,
+                                         int limit) {
+        List<Object> args = new ArrayList<>(List.of(siteCode, startDate, endDate));
+        StringBuilder sql = new StringBuilder(
+                "SELECT MAX(from_path), MAX(to_path), ROUND(SUM(transitions)) AS total " +
+                "FROM analytics_path_transition WHERE site_code = ? AND stats_date BETWEEN ? AND ? ");
+        if (fromPath != null) {
+            sql.append("AND from_hash = UNHEX(MD5(?)) ");
+            args.add(fromPath);
+        }
+        sql.append("GROUP BY from_hash, to_hash ORDER BY total DESC LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.query(sql.toString(),
+                (rs, rowNum) -> new Object[]{rs.getString(1), rs.getString(2), rs.getLong(3)}, args.toArray());
+    }
+
+    /**
+     * 기간 내 퍼널 단계별 도달 세션 수 [step_index, sessions]
+     */
+    public List<Object[]> sumFunnelSteps(String siteCode, String funnelName, LocalDate startDate, LocalDate endDate) {
+        return jdbcTemplate.query(
+                "SELECT step_index, ROUND(SUM(sessions)) FROM analytics_funnel_stats " +
+                "WHERE site_code = ? AND funnel_name = ? AND stats_date BETWEEN ? AND ? " +
+                "GROUP BY step_index",
+                (rs, rowNum) -> new Object[]{rs.getInt(1), rs.getLong(2)}, siteCode, funnelName, startDate, endDate);
+    }
+}
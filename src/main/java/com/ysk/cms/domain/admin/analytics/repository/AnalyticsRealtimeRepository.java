@@ -0,0 +1,89 @@
+package com.ysk.cms.domain.admin.analytics.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 노드별 실시간 버킷 요약 저장소 (analytics_realtime_node) - 서버 간 실시간 통계 합산용
+ * 요약은 다른 서버에 구독자가 있는 사이트만 저장하므로 구독 중인 서버는 analytics_realtime_subscription 을 갱신한다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AnalyticsRealtimeRepository {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO analytics_realtime_node (site_code, node_id, page_view_total, buckets, updated_at) " +
+            "VALUES (?, ?, ?, ?, NOW(6)) " +
+            "ON DUPLICATE KEY UPDATE page_view_total = VALUES(page_view_total), buckets = VALUES(buckets), " +
+            "updated_at = VALUES(updated_at)";
+
+    private static final String SUBSCRIBE_SQL =
+            "INSERT INTO analytics_realtime_subscription (site_code, node_id, updated_at) VALUES (?, ?, NOW(6)) " +
+            "ON DUPLICATE KEY UPDATE updated_at = VALUES(updated_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 이 서버의 버킷 요약 저장 (행: site_code, node_id, page_view_total, buckets)
+     */
+    public void upsertAll(List<Object[]> rows) {
+        if (rows.isEmpty()) return;
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+    }
+
+    /**
+     * 최근 maxAgeMillis 안에 갱신된 다른 서버의 버킷 요약 [site_code, node_id, page_view_total, buckets]
+     */
+    public List<Object[]> findPeers(String nodeId, Collection<String> siteCodes, long maxAgeMillis) {
+        if (siteCodes.isEmpty()) return List.of();
+
+        List<Object> params = new ArrayList<>(siteCodes);
+        params.add(nodeId);
+        params.add(maxAgeMillis * 1000);
+        return jdbcTemplate.query(
+                "SELECT site_code, node_id, page_view_total, buckets FROM analytics_realtime_node " +
+                "WHERE site_code IN (" + String.join(",", Collections.nCopies(siteCodes.size(), "?")) + ") " +
+                "AND node_id <> ? AND updated_at >= NOW(6) - INTERVAL ? MICROSECOND",
+                (rs, rowNum) -> new Object[]{rs.getString(1), rs.getString(2), rs.getLong(3), rs.getString(4)},
+                params.toArray());
+    }
+
+    /**
+     * 이 서버에 구독자가 있는 사이트 표시
+     */
+    public void touchSubscriptions(String nodeId, Collection<String> siteCodes) {
+        if (siteCodes.isEmpty()) return;
+        jdbcTemplate.batchUpdate(SUBSCRIBE_SQL, siteCodes.stream()
+                .map(siteCode -> new Object[]{siteCode, nodeId})
+                .toList());
+    }
+
+    /**
+     * 주어진 사이트 중 최근 maxAgeMillis 안에 다른 서버가 구독 중이라고 표시한 사이트
+     */
+    public List<String> findSubscribedSites(String nodeId, Collection<String> siteCodes, long maxAgeMillis) {
+        if (siteCodes.isEmpty()) return List.of();
+
+        List<Object> params = new ArrayList<>(siteCodes);
+        params.add(nodeId);
+        params.add(maxAgeMillis * 1000);
+        return jdbcTemplate.queryForList(
+                "SELECT DISTINCT site_code FROM analytics_realtime_subscription " +
+                "WHERE site_code IN (" + String.join(",", Collections.nCopies(siteCodes.size(), "?")) + ") " +
+                "AND node_id <> ? AND updated_at >= NOW(6) - INTERVAL ? MICROSECOND",
+                String.class, params.toArray());
+    }
+
+    public int deleteOlderThan(int seconds) {
+        return jdbcTemplate.update(
+                "DELETE FROM analytics_realtime_node WHERE updated_at < NOW(6) - INTERVAL ? SECOND", seconds)
+                + jdbcTemplate.update(
+                "DELETE FROM analytics_realtime_subscription WHERE updated_at < NOW(6) - INTERVAL ? SECOND", seconds);
+    }
+}
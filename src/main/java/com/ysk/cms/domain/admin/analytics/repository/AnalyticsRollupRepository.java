@@ -0,0 +1,181 @@
+package com.ysk.cms.domain.admin.analytics.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * 일별 집계(rollup) 테이블 작성
+ * 하루 단위 (site_code, stats_date) 로 원본 데이터를 집계해 덮어쓰므로 몇 번을 다시 실행해도 결과가 같다.
+ * 페이지뷰/세션 건수는 샘플링 가중치(sample_weight) 합으로 센다. 순 방문자 수는 가중치를 적용하지 않는다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AnalyticsRollupRepository {
+
+    private static final String UPSERT_DAILY_SQL =
+            "INSERT INTO analytics_daily_stats (site_code, stats_date, total_visitors, unique_visitors, new_visitors, " +
+            "returning_visitors, total_page_views, avg_page_views, total_sessions, avg_session_duration, " +
+            "bounce_sessions, bounce_rate, hourly_page_views, hourly_sessions, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, NOW()) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "total_visitors = VALUES(total_visitors), unique_visitors = VALUES(unique_visitors), " +
+            "new_visitors = VALUES(new_visitors), returning_visitors = VALUES(returning_visitors), " +
+            "total_page_views = VALUES(total_page_views), avg_page_views = VALUES(avg_page_views), " +
+            "total_sessions = VALUES(total_sessions), avg_session_duration = VALUES(avg_session_duration), " +
+            "bounce_sessions = VALUES(bounce_sessions), bounce_rate = VALUES(bounce_rate), " +
+            "hourly_page_views = VALUES(hourly_page_views), hourly_sessions = VALUES(hourly_sessions), " +
+            "updated_at = NOW()";
+
+    private static final String INSERT_PAGE_STATS_SQL =
+            "INSERT INTO analytics_page_stats (site_code, stats_date, page_path, page_title, page_views, " +
+            "unique_page_views, created_at) " +
+            "SELECT ?, ?, p.page_path, MAX(p.page_title), ROUND(SUM(p.sample_weight)), COUNT(DISTINCT p.visitor_id), NOW() " +
+            "FROM analytics_page_view p " +
+            "WHERE p.site_code = ? AND p.created_at >= ? AND p.created_at < ? " +
+            "GROUP BY p.page_path";
+
+    private static final String UPDATE_PAGE_ENTRANCES_SQL =
+            "UPDATE analytics_page_stats ps " +
+            "JOIN (SELECT entry_page, ROUND(SUM(sample_weight)) AS entrances, SUM(is_bounce * sample_weight) AS bounces " +
+            "      FROM analytics_session " +
+            "      WHERE site_code = ? AND start_time >= ? AND start_time < ? " +
+            "      GROUP BY entry_page) e ON ps.page_path = e.entry_page " +
+            "SET ps.entrances = e.entrances, ps.bounce_rate = ROUND(e.bounces * 100 / e.entrances, 2) " +
+            "WHERE ps.site_code = ? AND ps.stats_date = ?";
+
+    private static final String UPDATE_PAGE_EXITS_SQL =
+            "UPDATE analytics_page_stats ps " +
+            "JOIN (SELECT exit_page, ROUND(SUM(sample_weight)) AS exits " +
+            "      FROM analytics_session " +
+            "      WHERE site_code = ? AND start_time >= ? AND start_time < ? " +
+            "      GROUP BY exit_page) x ON ps.page_path = x.exit_page " +
+            "SET ps.exits = x.exits " +
+            "WHERE ps.site_code = ? AND ps.stats_date = ?";
+
+    private static final String INSERT_DEVICE_STATS_SQL =
+            "INSERT INTO analytics_device_stats (site_code, stats_date, device_type, browser, os, sessions, " +
+            "unique_visitors, page_views, created_at) " +
+            "SELECT ?, ?, COALESCE(p.device_type, 'unknown'), p.browser, p.os, COUNT(DISTINCT p.session_id), " +
+            "COUNT(DISTINCT p.visitor_id), ROUND(SUM(p.sample_weight)), NOW() " +
+            "FROM analytics_page_view p " +
+            "WHERE p.site_code = ? AND p.created_at >= ? AND p.created_at < ? " +
+            "GROUP BY COALESCE(p.device_type, 'unknown'), p.browser, p.os";
+
+    // 검색/소셜은 호스트별, 나머지는 유형별 한 행 (유입 유형은 세션 생성 시 분류해 둔 값)
+    private static final String INSERT_REFERRER_STATS_SQL =
+            "INSERT INTO analytics_referrer_stats (site_code, stats_date, referrer_type, referrer_source, sessions, " +
+            "page_views, bounce_rate, avg_session_duration, created_at) " +
+            "SELECT ?, ?, t.referrer_type, t.referrer_source, ROUND(SUM(t.sample_weight)), " +
+            "ROUND(SUM(t.page_views * t.sample_weight)), " +
+            "ROUND(SUM(t.is_bounce * t.sample_weight) * 100 / SUM(t.sample_weight), 2), " +
+            "COALESCE(ROUND(AVG(NULLIF(t.duration, 0))), 0), NOW() " +
+            "FROM (SELECT COALESCE(referrer_type, 'direct') AS referrer_type, " +
+            "      CASE WHEN referrer_type IN ('search', 'social') THEN referrer_host END AS referrer_source, " +
+            "      page_views, is_bounce, duration, sample_weight " +
+            "      FROM analytics_session " +
+            "      WHERE site_code = ? AND start_time >= ? AND start_time < ?) t " +
+            "GROUP BY t.referrer_type, t.referrer_source";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 사이트 하루치 집계 (호출 측 트랜잭션 안에서 실행)
+     */
+    public void rollupDay(String siteCode, LocalDate date) {
+        LocalDateTime from = date.atStartOfDay();
+        LocalDateTime to = date.plusDays(1).atStartOfDay();
+
+        upsertDailyStats(siteCode, date, from, to);
+
+        jdbcTemplate.update("DELETE FROM analytics_page_stats WHERE site_code = ? AND stats_date = ?", siteCode, date);
+        jdbcTemplate.update(INSERT_PAGE_STATS_SQL, siteCode, date, siteCode, from, to);
+        jdbcTemplate.update(UPDATE_PAGE_ENTRANCES_SQL, siteCode, from, to, siteCode, date);
+        jdbcTemplate.update(UPDATE_PAGE_EXITS_SQL, siteCode, from, to, siteCode, date);
+
+        jdbcTemplate.update("DELETE FROM analytics_device_stats WHERE site_code = ? AND stats_date = ?", siteCode, date);
+        jdbcTemplate.update(INSERT_DEVICE_STATS_SQL, siteCode, date, siteCode, from, to);
+
+        jdbcTemplate.update("DELETE FROM analytics_referrer_stats WHERE site_code = ? AND stats_date = ?", siteCode, date);
+        jdbcTemplate.update(INSERT_REFERRER_STATS_SQL, siteCode, date, siteCode, from, to);
+    }
+
+    /**
+     * 집계 대상 첫 날짜 (원본 데이터가 없으면 null)
+     */
+    public LocalDate findFirstPageViewDate(String siteCode) {
+        LocalDateTime first = jdbcTemplate.queryForObject(
+                "SELECT MIN(created_at) FROM analytics_page_view WHERE site_code = ?",
+                LocalDateTime.class, siteCode);
+        return first != null ? first.toLocalDate() : null;
+    }
+
+    private void upsertDailyStats(String siteCode, LocalDate date, LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> pv = jdbcTemplate.queryForMap(
+                "SELECT COALESCE(ROUND(SUM(sample_weight)), 0) AS page_views, COUNT(DISTINCT visitor_id) AS visitors " +
+                "FROM analytics_page_view WHERE site_code = ? AND created_at >= ? AND created_at < ?",
+                siteCode, from, to);
+        Map<String, Object> ss = jdbcTemplate.queryForMap(
+                "SELECT COALESCE(ROUND(SUM(sample_weight)), 0) AS sessions, " +
+                "COALESCE(ROUND(SUM(is_bounce * sample_weight)), 0) AS bounces, " +
+                "AVG(NULLIF(duration, 0)) AS avg_duration " +
+                "FROM analytics_session WHERE site_code = ? AND start_time >= ? AND start_time < ?",
+                siteCode, from, to);
+        Long newVisitors = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM analytics_visitor " +
+                "WHERE site_code = ? AND first_visit_at >= ? AND first_visit_at < ?",
+                Long.class, siteCode, from, to);
+        Long returningVisitors = jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT p.visitor_id) FROM analytics_page_view p " +
+                "JOIN analytics_visitor v ON v.site_code = p.site_code AND v.visitor_id = p.visitor_id " +
+                "WHERE p.site_code = ? AND p.created_at >= ? AND p.created_at < ? AND v.first_visit_at < ?",
+                Long.class, siteCode, from, to, from);
+
+        long pageViews = ((Number) pv.get("page_views")).longValue();
+        long visitors = ((Number) pv.get("visitors")).longValue();
+        long sessions = ((Number) ss.get("sessions")).longValue();
+        long bounces = ((Number) ss.get("bounces")).longValue();
+        Number avgDuration = (Number) ss.get("avg_duration");
+
+        BigDecimal avgPageViews = sessions > 0
+                ? BigDecimal.valueOf(pageViews * 1.0 / sessions).setScale(2, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO;
+        BigDecimal bounceRate = sessions > 0
+                ? BigDecimal.valueOf(bounces * 100.0 / sessions).setScale(2, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO;
+
+        jdbcTemplate.update(UPSERT_DAILY_SQL,
+                siteCode, date, visitors, visitors, newVisitors, returningVisitors,
+                pageViews, avgPageViews, sessions, avgDuration != null ? avgDuration.intValue() : 0,
+                bounces, bounceRate,
+                hourlyJson("SELECT HOUR(created_at), ROUND(SUM(sample_weight)) FROM analytics_page_view " +
+                           "WHERE site_code = ? AND created_at >= ? AND created_at < ? GROUP BY HOUR(created_at)",
+                        siteCode, from, to),
+                hourlyJson("SELECT HOUR(start_time), ROUND(SUM(sample_weight)) FROM analytics_session " +
+                           "WHERE site_code = ? AND start_time >= ? AND start_time < ? GROUP BY HOUR(start_time)",
+                        siteCode, from, to));
+    }
+
+    /**
+     * 시간대(0~23)별 건수를 24칸 JSON 배열로 변환
+     */
+    private String hourlyJson(String sql, Object... args) {
+        long[] hours = new long[24];
+        jdbcTemplate.query(sql, rs -> {
+            hours[rs.getInt(1)] = rs.getLong(2);
+        }, args);
+
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < hours.length; i++) {
+            if (i > 0) json.append(',');
+            json.append(hours[i]);
+        }
+        return json.append(']').toString();
+    }
+}
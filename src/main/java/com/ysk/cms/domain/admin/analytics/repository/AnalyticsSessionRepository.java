@@ -24,6 +24,24 @@ public interface AnalyticsSessionRepository extends JpaRepository<AnalyticsSessi
             @Param("endDate") LocalDateTime endDate
     );
 
+    // 요약용 집계 (현재 기간 세션 수/이탈 세션 수/평균 세션 시간, 이전 기간 세션 수). 세션 수는 샘플링 가중치 합
+    @Query(value = "SELECT " +
+           "COALESCE(ROUND(SUM(CASE WHEN start_time BETWEEN :rawStart AND :endDate THEN sample_weight END)), 0), " +
+           "COALESCE(ROUND(SUM(CASE WHEN start_time BETWEEN :rawStart AND :endDate AND is_bounce = 1 THEN sample_weight END)), 0), " +
+           "AVG(CASE WHEN start_time BETWEEN :rawStart AND :endDate AND duration > 0 THEN duration END), " +
+           "COALESCE(ROUND(SUM(CASE WHEN start_time BETWEEN :prevRawStart AND :prevEndDate THEN sample_weight END)), 0) " +
+           "FROM analytics_session " +
+           "WHERE site_code = :siteCode AND start_time BETWEEN :scanStart AND :endDate",
+           nativeQuery = true)
+    List<Object[]> summarizeWithPrevious(
+            @Param("siteCode") String siteCode,
+            @Param("scanStart") LocalDateTime scanStart,
+            @Param("rawStart") LocalDateTime rawStart,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("prevRawStart") LocalDateTime prevRawStart,
+            @Param("prevEndDate") LocalDateTime prevEndDate
+    );
+
     // 이탈 세션 수
     @Query("SELECT COUNT(s) FROM AnalyticsSession s WHERE s.siteCode = :siteCode " +
            "AND s.startTime BETWEEN :startDate AND :endDate AND s.isBounce = true")
@@ -42,24 +60,28 @@ public interface AnalyticsSessionRepository extends JpaRepository<AnalyticsSessi
             @Param("endDate") LocalDateTime endDate
     );
 
-    // 유입 경로별 세션 수
-    @Query("SELECT " +
-           "CASE " +
-           "  WHEN s.referrer IS NULL OR s.referrer = '' THEN 'direct' " +
-           "  WHEN s.referrer LIKE '%google%' OR s.referrer LIKE '%naver%' OR s.referrer LIKE '%bing%' OR s.referrer LIKE '%daum%' THEN 'search' " +
-           "  WHEN s.referrer LIKE '%facebook%' OR s.referrer LIKE '%twitter%' OR s.referrer LIKE '%instagram%' OR s.referrer LIKE '%linkedin%' THEN 'social' " +
-           "  ELSE 'referral' " +
-           "END as type, " +
-           "COUNT(s) as count " +
+    // 유입 유형별 세션 수 (세션 생성 시 분류해 둔 유형으로 집계)
+    @Query("SELECT s.referrerType, ROUND(SUM(s.sampleWeight), 0) as count " +
            "FROM AnalyticsSession s WHERE s.siteCode = :siteCode " +
            "AND s.startTime BETWEEN :startDate AND :endDate " +
-           "GROUP BY type")
+           "GROUP BY s.referrerType")
     List<Object[]> countByReferrerType(
             @Param("siteCode") String siteCode,
             @Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate
     );
 
+    // 날짜/시간대별 세션 수 (집계되지 않은 구간의 시간대 분포)
+    @Query(value = "SELECT DATE(start_time), HOUR(start_time), ROUND(SUM(sample_weight)) FROM analytics_session " +
+           "WHERE site_code = :siteCode AND start_time BETWEEN :startDate AND :endDate " +
+           "GROUP BY DATE(start_time), HOUR(start_time)",
+           nativeQuery = true)
+    List<Object[]> countByDateAndHour(
+            @Param("siteCode") String siteCode,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate
+    );
+
     // 일별 세션 추이
     @Query("SELECT DATE(s.startTime) as date, COUNT(s) as sessions, " +
            "COUNT(DISTINCT s.visitorId) as visitors " +
@@ -0,0 +1,98 @@
+package com.ysk.cms.domain.admin.analytics.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 순 방문자 HyperLogLog 스케치 저장소 (analytics_visitor_sketch)
+ * page_path 가 '' 인 행은 사이트 전체 스케치이다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AnalyticsSketchRepository {
+
+    public static final String SITE_SKETCH = "";
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO analytics_visitor_sketch (site_code, stats_date, page_path, registers, created_at) " +
+            "VALUES (?, ?, ?, ?, NOW()) " +
+            "ON DUPLICATE KEY UPDATE registers = VALUES(registers), updated_at = NOW()";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * 기간 내 스케치 (경로별)
+     */
+    public Map<String, List<byte[]>> findSketches(String siteCode, LocalDate startDate, LocalDate endDate,
+                                                  Collection<String> pagePaths) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("siteCode", siteCode)
+                .addValue("startDate", startDate)
+                .addValue("endDate", endDate)
+                .addValue("pagePaths", pagePaths);
+
+        Map<String, List<byte[]>> sketches = new HashMap<>();
+        namedParameterJdbcTemplate.query(
+                "SELECT page_path, registers FROM analytics_visitor_sketch " +
+                "WHERE site_code = :siteCode AND stats_date BETWEEN :startDate AND :endDate " +
+                "AND page_path IN (:pagePaths)",
+                params,
+                (RowCallbackHandler) rs -> sketches
+                        .computeIfAbsent(rs.getString(1), key -> new ArrayList<>())
+                        .add(rs.getBytes(2)));
+        return sketches;
+    }
+
+    /**
+     * 하루치 스케치를 잠그고 조회 (병합 후 다시 쓰기 위함, 호출 측 트랜잭션 필요)
+     */
+    public Map<String, byte[]> findForUpdate(String siteCode, LocalDate statsDate, Collection<String> pagePaths) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("siteCode", siteCode)
+                .addValue("statsDate", statsDate)
+                .addValue("pagePaths", pagePaths);
+
+        Map<String, byte[]> sketches = new HashMap<>();
+        namedParameterJdbcTemplate.query(
+                "SELECT page_path, registers FROM analytics_visitor_sketch " +
+                "WHERE site_code = :siteCode AND stats_date = :statsDate AND page_path IN (:pagePaths) " +
+                "FOR UPDATE",
+                params,
+                (RowCallbackHandler) rs -> sketches.put(rs.getString(1), rs.getBytes(2)));
+        return sketches;
+    }
+
+    public void upsertAll(String siteCode, LocalDate statsDate, Map<String, byte[]> sketches) {
+        if (sketches.isEmpty()) return;
+        List<Object[]> args = new ArrayList<>(sketches.size());
+        sketches.forEach((pagePath, registers) -> args.add(new Object[]{siteCode, statsDate, pagePath, registers}));
+        jdbcTemplate.batchUpdate(UPSERT_SQL, args);
+    }
+
+    public void deleteDay(String siteCode, LocalDate statsDate) {
+        jdbcTemplate.update("DELETE FROM analytics_visitor_sketch WHERE site_code = ? AND stats_date = ?",
+                siteCode, statsDate);
+    }
+
+    /**
+     * 하루치 (방문자, 페이지) 원본 조회 - 스케치 재생성용
+     */
+    public void scanVisitors(String siteCode, LocalDate statsDate, RowCallbackHandler handler) {
+        jdbcTemplate.query(
+                "SELECT visitor_id, page_path FROM analytics_page_view " +
+                "WHERE site_code = ? AND created_at >= ? AND created_at < ?",
+                handler, siteCode, statsDate.atStartOfDay(), statsDate.plusDays(1).atStartOfDay());
+    }
+}
@@ -0,0 +1,88 @@
+package com.ysk.cms.domain.admin.analytics.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 상위 K 항목 Space-Saving 요약 저장소 (analytics_topk_sketch)
+ */
+@Repository
+@RequiredArgsConstructor
+public class AnalyticsTopKRepository {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO analytics_topk_sketch (site_code, stats_date, dimension, items, rebuilt, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, NOW()) " +
+            "ON DUPLICATE KEY UPDATE items = VALUES(items), rebuilt = GREATEST(rebuilt, VALUES(rebuilt)), updated_at = NOW()";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 기간 내 일별 요약
+     */
+    public List<byte[]> findSketches(String siteCode, String dimension, LocalDate startDate, LocalDate endDate) {
+        return jdbcTemplate.query(
+                "SELECT items FROM analytics_topk_sketch " +
+                "WHERE site_code = ? AND stats_date BETWEEN ? AND ? AND dimension = ?",
+                (rs, rowNum) -> rs.getBytes(1), siteCode, startDate, endDate, dimension);
+    }
+
+    /**
+     * 하루치 요약을 잠그고 조회 (병합 후 다시 쓰기 위함, 호출 측 트랜잭션 필요)
+     */
+    public Map<String, byte[]> findForUpdate(String siteCode, LocalDate statsDate) {
+        Map<String, byte[]> sketches = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT dimension, items FROM analytics_topk_sketch WHERE site_code = ? AND stats_date = ? FOR UPDATE",
+                (RowCallbackHandler) rs -> sketches.put(rs.getString(1), rs.getBytes(2)), siteCode, statsDate);
+        return sketches;
+    }
+
+    /**
+     * 일별 집계로 다시 만든 날짜인지 (findForUpdate 와 같은 트랜잭션에서 호출)
+     */
+    public boolean isRebuilt(String siteCode, LocalDate statsDate) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM analytics_topk_sketch WHERE site_code = ? AND stats_date = ? AND rebuilt = 1",
+                Integer.class, siteCode, statsDate);
+        return count != null && count > 0;
+    }
+
+    /**
+     * 요약 저장 (rebuilt 이면 재생성 표시, 한 번 표시된 날짜는 다시 지워지지 않음)
+     */
+    public void upsertAll(String siteCode, LocalDate statsDate, Map<String, byte[]> sketches, boolean rebuilt) {
+        if (sketches.isEmpty()) return;
+        List<Object[]> args = new ArrayList<>(sketches.size());
+        sketches.forEach((dimension, items) -> args.add(new Object[]{siteCode, statsDate, dimension, items, rebuilt}));
+        jdbcTemplate.batchUpdate(UPSERT_SQL, args);
+    }
+
+    /**
+     * 하루치 페이지별 조회수 상위 limit 개 (일별 집계 결과 사용)
+     */
+    public void scanTopPages(String siteCode, LocalDate statsDate, int limit, RowCallbackHandler handler) {
+        jdbcTemplate.query(
+                "SELECT page_path, page_views FROM analytics_page_stats " +
+                "WHERE site_code = ? AND stats_date = ? ORDER BY page_views DESC LIMIT ?",
+                handler, siteCode, statsDate, limit);
+    }
+
+    /**
+     * 하루치 (유입 경로, 페이지 URL, 샘플링 가중치) 원본 조회 - 유입 호스트 요약 재생성용
+     */
+    public void scanReferrers(String siteCode, LocalDate statsDate, RowCallbackHandler handler) {
+        jdbcTemplate.query(
+                "SELECT referrer, page_url, sample_weight FROM analytics_page_view " +
+                "WHERE site_code = ? AND created_at >= ? AND created_at < ? AND referrer <> ''",
+                handler, siteCode, statsDate.atStartOfDay(), statsDate.plusDays(1).atStartOfDay());
+    }
+}
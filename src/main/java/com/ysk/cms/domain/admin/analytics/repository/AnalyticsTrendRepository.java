@@ -0,0 +1,95 @@
+package com.ysk.cms.domain.admin.analytics.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 추이 차트용 시간/일/주/월 버킷 저장소 (analytics_trend_bucket)
+ * 버킷 값은 [페이지뷰, 세션, 방문자] 이며 방문자가 NULL 인 행(마이그레이션으로 채운 시간 버킷 등)은 알 수 없음을 뜻한다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AnalyticsTrendRepository {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO analytics_trend_bucket (site_code, granularity, bucket_start, page_views, sessions, visitors, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, NOW()) " +
+            "ON DUPLICATE KEY UPDATE page_views = VALUES(page_views), sessions = VALUES(sessions), " +
+            "visitors = VALUES(visitors), updated_at = NOW()";
+
+    // 원본을 시간 / 일 버킷 시작 시각으로 묶는 식 (%1$s: 시각 컬럼)
+    private static final String HOUR_BUCKET = "DATE_ADD(DATE(%1$s), INTERVAL HOUR(%1$s) HOUR)";
+    private static final String DAY_BUCKET = "TIMESTAMP(DATE(%1$s))";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 기간 내 저장된 버킷 (bucket_start 가 [from, to) 인 행)
+     */
+    public TreeMap<LocalDateTime, Long[]> findBuckets(String siteCode, String granularity, LocalDateTime from,
+                                                      LocalDateTime to) {
+        TreeMap<LocalDateTime, Long[]> buckets = new TreeMap<>();
+        jdbcTemplate.query(
+                "SELECT bucket_start, page_views, sessions, visitors FROM analytics_trend_bucket " +
+                "WHERE site_code = ? AND granularity = ? AND bucket_start >= ? AND bucket_start < ?",
+                (RowCallbackHandler) rs -> buckets.put(rs.getObject(1, LocalDateTime.class), new Long[]{
+                        rs.getLong(2), rs.getLong(3), rs.getObject(4) != null ? rs.getLong(4) : null}),
+                siteCode, granularity, from, to);
+        return buckets;
+    }
+
+    /**
+     * 버킷 저장 (행: site_code, granularity, bucket_start, page_views, sessions, visitors)
+     */
+    public void upsertAll(List<Object[]> rows) {
+        if (rows.isEmpty()) return;
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+    }
+
+    /**
+     * 일별 집계 합계 [페이지뷰, 세션, 방문자 합] (방문자 합은 하루치일 때만 순 방문자)
+     */
+    public long[] sumDailyStats(String siteCode, LocalDate startDate, LocalDate endDate) {
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT COALESCE(SUM(total_page_views), 0) AS page_views, COALESCE(SUM(total_sessions), 0) AS sessions, " +
+                "COALESCE(SUM(unique_visitors), 0) AS visitors " +
+                "FROM analytics_daily_stats WHERE site_code = ? AND stats_date BETWEEN ? AND ?",
+                siteCode, startDate, endDate);
+        return new long[]{((Number) row.get("page_views")).longValue(), ((Number) row.get("sessions")).longValue(),
+                ((Number) row.get("visitors")).longValue()};
+    }
+
+    /**
+     * 원본을 시간 또는 일 버킷으로 집계 [페이지뷰, 세션, 순 방문자]
+     */
+    public TreeMap<LocalDateTime, long[]> sumRaw(String siteCode, LocalDateTime from, LocalDateTime to, boolean hourly) {
+        String bucket = hourly ? HOUR_BUCKET : DAY_BUCKET;
+        TreeMap<LocalDateTime, long[]> buckets = new TreeMap<>();
+        jdbcTemplate.query(
+                "SELECT " + String.format(bucket, "created_at") + " AS bucket, ROUND(SUM(sample_weight)), " +
+                "COUNT(DISTINCT visitor_id) FROM analytics_page_view " +
+                "WHERE site_code = ? AND created_at >= ? AND created_at < ? GROUP BY bucket",
+                (RowCallbackHandler) rs -> {
+                    long[] values = buckets.computeIfAbsent(rs.getObject(1, LocalDateTime.class), key -> new long[3]);
+                    values[0] = rs.getLong(2);
+                    values[2] = rs.getLong(3);
+                },
+                siteCode, from, to);
+        jdbcTemplate.query(
+                "SELECT " + String.format(bucket, "start_time") + " AS bucket, ROUND(SUM(sample_weight)) " +
+                "FROM analytics_session " +
+                "WHERE site_code = ? AND start_time >= ? AND start_time < ? GROUP BY bucket",
+                (RowCallbackHandler) rs -> buckets
+                        .computeIfAbsent(rs.getObject(1, LocalDateTime.class), key -> new long[3])[1] = rs.getLong(2),
+                siteCode, from, to);
+        return buckets;
+    }
+}
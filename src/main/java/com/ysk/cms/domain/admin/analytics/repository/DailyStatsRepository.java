@@ -29,4 +29,37 @@ public interface DailyStatsRepository extends JpaRepository<DailyStats, Long> {
             @Param("startDate") LocalDate startDate,
             @Param("endDate") LocalDate endDate
     );
+
+    // 일별 시간대 배열 (날짜, 페이지뷰 24칸 JSON, 세션 24칸 JSON)
+    @Query("SELECT d.statsDate, d.hourlyPageViews, d.hourlySessions FROM DailyStats d " +
+           "WHERE d.siteCode = :siteCode AND d.statsDate BETWEEN :startDate AND :endDate")
+    List<Object[]> findHourlyBySiteCodeAndDateRange(
+            @Param("siteCode") String siteCode,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    // 집계가 끝난 마지막 날짜 (워터마크)
+    @Query("SELECT MAX(d.statsDate) FROM DailyStats d WHERE d.siteCode = :siteCode")
+    LocalDate findLastStatsDate(@Param("siteCode") String siteCode);
+
+    // 현재/이전 기간 합계를 한 번에 조회 (평균 세션 시간은 세션 수 가중 합으로 반환)
+    @Query("SELECT " +
+           "COALESCE(SUM(CASE WHEN d.statsDate BETWEEN :startDate AND :endDate THEN d.totalPageViews ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN d.statsDate BETWEEN :startDate AND :endDate THEN d.totalSessions ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN d.statsDate BETWEEN :startDate AND :endDate THEN d.bounceSessions ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN d.statsDate BETWEEN :startDate AND :endDate THEN d.newVisitors ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN d.statsDate BETWEEN :startDate AND :endDate " +
+           "    THEN d.avgSessionDuration * d.totalSessions ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN d.statsDate BETWEEN :prevStartDate AND :prevEndDate THEN d.totalPageViews ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN d.statsDate BETWEEN :prevStartDate AND :prevEndDate THEN d.totalSessions ELSE 0 END), 0) " +
+           "FROM DailyStats d WHERE d.siteCode = :siteCode " +
+           "AND (d.statsDate BETWEEN :startDate AND :endDate OR d.statsDate BETWEEN :prevStartDate AND :prevEndDate)")
+    List<Object[]> sumSummaryWithPrevious(
+            @Param("siteCode") String siteCode,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("prevStartDate") LocalDate prevStartDate,
+            @Param("prevEndDate") LocalDate prevEndDate
+    );
 }
@@ -0,0 +1,34 @@
+package com.ysk.cms.domain.admin.analytics.repository;
+
+import com.ysk.cms.domain.admin.analytics.entity.DeviceStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DeviceStatsRepository extends JpaRepository<DeviceStats, Long> {
+
+    // 디바이스별 페이지뷰 합계
+    @Query("SELECT d.deviceType, SUM(d.pageViews) FROM DeviceStats d " +
+           "WHERE d.siteCode = :siteCode AND d.statsDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY d.deviceType")
+    List<Object[]> sumByDeviceType(
+            @Param("siteCode") String siteCode,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+
+    // 브라우저별 페이지뷰 합계
+    @Query("SELECT d.browser, SUM(d.pageViews) FROM DeviceStats d " +
+           "WHERE d.siteCode = :siteCode AND d.statsDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY d.browser")
+    List<Object[]> sumByBrowser(
+            @Param("siteCode") String siteCode,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+}
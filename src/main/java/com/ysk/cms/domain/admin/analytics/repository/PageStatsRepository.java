@@ -0,0 +1,46 @@
+package com.ysk.cms.domain.admin.analytics.repository;
+
+import com.ysk.cms.domain.admin.analytics.entity.PageStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PageStatsRepository extends JpaRepository<PageStats, Long> {
+
+    // 기간 상위 페이지 경로 (집계된 날짜 + 집계되지 않은 원본을 한 번에 합산해 LIMIT)
+    // 집계 구간이 없으면 startDate > rollupEnd, 원본 구간이 없으면 rawStart > rawEnd 로 넘겨 해당 쪽이 비게 함
+    @Query(value = "SELECT page_path, SUM(views) AS total FROM (" +
+           "SELECT page_path, page_views AS views FROM analytics_page_stats " +
+           "WHERE site_code = :siteCode AND stats_date BETWEEN :startDate AND :rollupEnd " +
+           "UNION ALL " +
+           "SELECT page_path, ROUND(SUM(sample_weight)) FROM analytics_page_view " +
+           "WHERE site_code = :siteCode AND created_at BETWEEN :rawStart AND :rawEnd GROUP BY page_path" +
+           ") t GROUP BY page_path ORDER BY total DESC LIMIT :limit", nativeQuery = true)
+    List<Object[]> findTopPagePaths(
+            @Param("siteCode") String siteCode,
+            @Param("startDate") LocalDate startDate,
+            @Param("rollupEnd") LocalDate rollupEnd,
+            @Param("rawStart") LocalDateTime rawStart,
+            @Param("rawEnd") LocalDateTime rawEnd,
+            @Param("limit") int limit
+    );
+
+    // 지정한 페이지들의 기간 조회수 합계
+    @Query("SELECT p.pagePath, MAX(p.pageTitle), SUM(p.pageViews) " +
+           "FROM PageStats p WHERE p.siteCode = :siteCode AND p.pagePath IN :pagePaths " +
+           "AND p.statsDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY p.pagePath")
+    List<Object[]> sumByPagePaths(
+            @Param("siteCode") String siteCode,
+            @Param("pagePaths") Collection<String> pagePaths,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+}
@@ -0,0 +1,128 @@
+package com.ysk.cms.domain.admin.analytics.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * analytics_page_view 월별 파티션 관리
+ * 파티션 이름은 pYYYYMM, 마지막 파티션은 MAXVALUE 범위의 p_future 이다.
+ * p_old 는 파티션 전환 이전 데이터를 담은 첫 파티션이다.
+ * 파티션 이름은 바인딩할 수 없어 SQL 에 직접 넣으므로 이름 형식을 검사한 뒤 사용한다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PageViewPartitionRepository {
+
+    public static final String TABLE = "analytics_page_view";
+    public static final String FUTURE_PARTITION = "p_future";
+    public static final String OLD_PARTITION = "p_old";
+
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final Pattern MONTH_PARTITION = Pattern.compile("p\\d{6}");
+    private static final Pattern EXPIRABLE_PARTITION = Pattern.compile("p\\d{6}|" + OLD_PARTITION);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public static String partitionName(YearMonth month) {
+        return "p" + month.format(MONTH_FORMAT);
+    }
+
+    /**
+     * 월 파티션 이름을 월로 변환 (p_old, p_future 등은 null)
+     */
+    public static YearMonth parseMonth(String partitionName) {
+        if (!MONTH_PARTITION.matcher(partitionName).matches()) return null;
+        return YearMonth.parse(partitionName.substring(1), MONTH_FORMAT);
+    }
+
+    /**
+     * 파티션 이름 목록 (범위 순서). 파티션되지 않은 테이블이면 빈 목록
+     */
+    public List<String> findPartitionNames() {
+        return findPartitionNames(TABLE);
+    }
+
+    private List<String> findPartitionNames(String table) {
+        return jdbcTemplate.queryForList(
+                "SELECT partition_name FROM information_schema.partitions " +
+                "WHERE table_schema = DATABASE() AND table_name = ? AND partition_name IS NOT NULL " +
+                "ORDER BY partition_ordinal_position",
+                String.class, table);
+    }
+
+    /**
+     * p_future 를 나눠 월 파티션 추가 (p_future 가 비어 있으면 메타데이터 변경만 일어남)
+     */
+    public void addMonthPartition(YearMonth month) {
+        jdbcTemplate.execute(
+                "ALTER TABLE " + TABLE + " REORGANIZE PARTITION " + FUTURE_PARTITION + " INTO (" +
+                "PARTITION " + partitionName(month) + " VALUES LESS THAN ('" + month.plusMonths(1).atDay(1) + "'), " +
+                "PARTITION " + FUTURE_PARTITION + " VALUES LESS THAN (MAXVALUE))");
+    }
+
+    /**
+     * 파티션에 데이터가 있는 사이트 목록
+     */
+    public List<String> findSiteCodes(String partitionName) {
+        return jdbcTemplate.queryForList(
+                "SELECT DISTINCT site_code FROM " + TABLE + " PARTITION (" + checkName(partitionName) + ")",
+                String.class);
+    }
+
+    public void dropPartition(String partitionName) {
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP PARTITION " + checkName(partitionName));
+    }
+
+    /**
+     * 파티션을 빈 아카이브 테이블과 교환한 뒤 (빈) 파티션 삭제
+     * 중간에 실패해 다시 실행해도 이어서 진행한다 (이미 파티션을 제거한 아카이브 테이블, 교환 후 남은 빈 파티션).
+     *
+     * @return 아카이브 테이블 이름
+     */
+    public String archivePartition(String partitionName) {
+        String archiveTable = TABLE + "_archive_" + checkName(partitionName).substring(1).replace("_", "");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + archiveTable + " LIKE " + TABLE);
+        if (!findPartitionNames(archiveTable).isEmpty()) {
+            jdbcTemplate.execute("ALTER TABLE " + archiveTable + " REMOVE PARTITIONING");
+        }
+
+        // 교환까지 끝난 뒤라면 다시 교환하지 않음 (아카이브한 데이터가 파티션으로 되돌아감)
+        if (hasRows(TABLE + " PARTITION (" + partitionName + ")")) {
+            if (hasRows(archiveTable)) {
+                throw new IllegalStateException("Archive table " + archiveTable + " already has rows");
+            }
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " EXCHANGE PARTITION " + partitionName + " WITH TABLE " + archiveTable);
+        }
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP PARTITION " + partitionName);
+        return archiveTable;
+    }
+
+    private boolean hasRows(String source) {
+        return !jdbcTemplate.queryForList("SELECT 1 FROM " + source + " LIMIT 1", Integer.class).isEmpty();
+    }
+
+    /**
+     * 사이트의 기준 시각 이전 행을 최대 limit 개 삭제
+     *
+     * @return 삭제한 행 수
+     */
+    public int deleteSiteRowsBefore(String siteCode, LocalDateTime before, int limit) {
+        return jdbcTemplate.update(
+                "DELETE FROM " + TABLE + " WHERE site_code = ? AND created_at < ? LIMIT ?",
+                siteCode, before, limit);
+    }
+
+    private static String checkName(String partitionName) {
+        if (!EXPIRABLE_PARTITION.matcher(partitionName).matches()) {
+            throw new IllegalArgumentException("Invalid partition name: " + partitionName);
+        }
+        return partitionName;
+    }
+}
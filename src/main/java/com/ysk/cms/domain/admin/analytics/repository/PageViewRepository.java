@@ -1,12 +1,14 @@
 package com.ysk.cms.domain.admin.analytics.repository;
 
 import com.ysk.cms.domain.admin.analytics.entity.PageView;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -30,6 +32,27 @@ public interface PageViewRepository extends JpaRepository<PageView, Long> {
             @Param("endDate") LocalDateTime endDate
     );
 
+    // 요약용 집계 (현재/이전 기간을 한 번의 스캔으로)
+    // rawStart 이후 페이지뷰 수 (샘플링 가중치 합), 기간 전체 순 방문자 수
+    @Query(value = "SELECT " +
+           "COALESCE(ROUND(SUM(CASE WHEN created_at BETWEEN :rawStart AND :endDate THEN sample_weight END)), 0), " +
+           "COALESCE(ROUND(SUM(CASE WHEN created_at BETWEEN :prevRawStart AND :prevEndDate THEN sample_weight END)), 0), " +
+           "COUNT(DISTINCT CASE WHEN created_at BETWEEN :startDate AND :endDate THEN visitor_id END), " +
+           "COUNT(DISTINCT CASE WHEN created_at BETWEEN :prevStartDate AND :prevEndDate THEN visitor_id END) " +
+           "FROM analytics_page_view " +
+           "WHERE site_code = :siteCode AND created_at BETWEEN :scanStart AND :endDate",
+           nativeQuery = true)
+    List<Object[]> summarizeWithPrevious(
+            @Param("siteCode") String siteCode,
+            @Param("scanStart") LocalDateTime scanStart,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("rawStart") LocalDateTime rawStart,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("prevStartDate") LocalDateTime prevStartDate,
+            @Param("prevRawStart") LocalDateTime prevRawStart,
+            @Param("prevEndDate") LocalDateTime prevEndDate
+    );
+
     // 시간대별 페이지뷰 수
     @Query("SELECT HOUR(p.createdAt) as hour, COUNT(p) as count FROM PageView p " +
            "WHERE p.siteCode = :siteCode AND p.createdAt BETWEEN :startDate AND :endDate " +
@@ -40,30 +63,56 @@ public interface PageViewRepository extends JpaRepository<PageView, Long> {
             @Param("endDate") LocalDateTime endDate
     );
 
-    // 페이지별 조회수
-    @Query("SELECT p.pagePath, p.pageTitle, COUNT(p) as views, COUNT(DISTINCT p.visitorId) as uniqueViews " +
+    // 페이지별 조회수 (상위 pageable 크기만큼)
+    @Query("SELECT p.pagePath, MAX(p.pageTitle), ROUND(SUM(p.sampleWeight), 0) as views, " +
+           "COUNT(DISTINCT p.visitorId) as uniqueViews " +
            "FROM PageView p WHERE p.siteCode = :siteCode " +
            "AND p.createdAt BETWEEN :startDate AND :endDate " +
-           "GROUP BY p.pagePath, p.pageTitle ORDER BY views DESC")
+           "GROUP BY p.pagePath ORDER BY views DESC")
     List<Object[]> findTopPagesBySiteCode(
             @Param("siteCode") String siteCode,
             @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            Pageable pageable
+    );
+
+    // 지정한 페이지들의 조회수
+    @Query("SELECT p.pagePath, MAX(p.pageTitle), ROUND(SUM(p.sampleWeight), 0) FROM PageView p " +
+           "WHERE p.siteCode = :siteCode AND p.pagePath IN :pagePaths " +
+           "AND p.createdAt BETWEEN :startDate AND :endDate " +
+           "GROUP BY p.pagePath")
+    List<Object[]> countByPagePaths(
+            @Param("siteCode") String siteCode,
+            @Param("pagePaths") Collection<String> pagePaths,
+            @Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate
     );
 
-    // 일별 페이지뷰 추이
-    @Query("SELECT DATE(p.createdAt) as date, COUNT(p) as views, COUNT(DISTINCT p.visitorId) as visitors " +
-           "FROM PageView p WHERE p.siteCode = :siteCode " +
+    // 지정한 페이지들의 순 방문자 수
+    @Query("SELECT p.pagePath, COUNT(DISTINCT p.visitorId) FROM PageView p " +
+           "WHERE p.siteCode = :siteCode AND p.pagePath IN :pagePaths " +
            "AND p.createdAt BETWEEN :startDate AND :endDate " +
-           "GROUP BY DATE(p.createdAt) ORDER BY date")
-    List<Object[]> findDailyTrend(
+           "GROUP BY p.pagePath")
+    List<Object[]> countUniqueVisitorsByPagePaths(
+            @Param("siteCode") String siteCode,
+            @Param("pagePaths") Collection<String> pagePaths,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate
+    );
+
+    // 날짜/시간대별 페이지뷰 수 (집계되지 않은 구간의 시간대 분포)
+    @Query(value = "SELECT DATE(created_at), HOUR(created_at), ROUND(SUM(sample_weight)) FROM analytics_page_view " +
+           "WHERE site_code = :siteCode AND created_at BETWEEN :startDate AND :endDate " +
+           "GROUP BY DATE(created_at), HOUR(created_at)",
+           nativeQuery = true)
+    List<Object[]> countByDateAndHour(
             @Param("siteCode") String siteCode,
             @Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate
     );
 
     // 디바이스별 통계
-    @Query("SELECT p.deviceType, COUNT(p) as count FROM PageView p " +
+    @Query("SELECT p.deviceType, ROUND(SUM(p.sampleWeight), 0) as count FROM PageView p " +
            "WHERE p.siteCode = :siteCode AND p.createdAt BETWEEN :startDate AND :endDate " +
            "GROUP BY p.deviceType")
     List<Object[]> countByDeviceType(
@@ -73,7 +122,7 @@ public interface PageViewRepository extends JpaRepository<PageView, Long> {
     );
 
     // 브라우저별 통계
-    @Query("SELECT p.browser, COUNT(p) as count FROM PageView p " +
+    @Query("SELECT p.browser, ROUND(SUM(p.sampleWeight), 0) as count FROM PageView p " +
            "WHERE p.siteCode = :siteCode AND p.createdAt BETWEEN :startDate AND :endDate " +
            "GROUP BY p.browser ORDER BY count DESC")
     List<Object[]> countByBrowser(
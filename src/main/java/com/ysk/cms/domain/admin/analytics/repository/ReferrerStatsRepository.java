@@ -0,0 +1,24 @@
+package com.ysk.cms.domain.admin.analytics.repository;
+
+import com.ysk.cms.domain.admin.analytics.entity.ReferrerStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ReferrerStatsRepository extends JpaRepository<ReferrerStats, Long> {
+
+    // 유입 경로별 세션 합계
+    @Query("SELECT r.referrerType, SUM(r.sessions) FROM ReferrerStats r " +
+           "WHERE r.siteCode = :siteCode AND r.statsDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY r.referrerType")
+    List<Object[]> sumByReferrerType(
+            @Param("siteCode") String siteCode,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate
+    );
+}
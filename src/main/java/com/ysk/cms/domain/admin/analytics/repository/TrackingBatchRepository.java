@@ -0,0 +1,252 @@
+package com.ysk.cms.domain.admin.analytics.repository;
+
+import com.ysk.cms.domain.admin.analytics.entity.PageView;
+import lombok.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 트래킹 이벤트 일괄 저장 (JDBC batch + upsert)
+ * JPA 영속성 컨텍스트를 거치지 않고 수집 큐에서 모인 이벤트를 한 번에 반영한다.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TrackingBatchRepository {
+
+    private static final String INSERT_PAGE_VIEW_SQL =
+            "INSERT INTO analytics_page_view (site_code, session_id, visitor_id, user_id, " +
+            "page_url, page_path, page_title, referrer, user_agent, device_type, browser, browser_version, " +
+            "os, os_version, screen_width, screen_height, ip_address, " +
+            "utm_source, utm_medium, utm_campaign, utm_term, utm_content, sample_weight, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPSERT_SESSION_SQL =
+            "INSERT INTO analytics_session (session_id, site_code, visitor_id, user_id, start_time, end_time, " +
+            "page_views, duration, is_bounce, entry_page, exit_page, referrer, referrer_type, referrer_host, " +
+            "device_type, browser, os, utm_source, utm_medium, utm_campaign, sample_weight, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "page_views = page_views + VALUES(page_views), " +
+            "exit_page = VALUES(exit_page), " +
+            "is_bounce = 0, " +
+            "end_time = ?, " +
+            "duration = GREATEST(duration, TIMESTAMPDIFF(SECOND, start_time, ?)), " +
+            "updated_at = NOW()";
+
+    private static final String UPDATE_SESSION_LEAVE_SQL =
+            "UPDATE analytics_session SET end_time = ?, duration = duration + ?, exit_page = ?, updated_at = NOW() " +
+            "WHERE session_id = ?";
+
+    private static final String UPSERT_VISITOR_SQL =
+            "INSERT INTO analytics_visitor (visitor_id, site_code, first_visit_at, last_visit_at, " +
+            "total_visits, total_page_views, first_referrer, first_utm_source, first_utm_medium, first_utm_campaign, " +
+            "created_at) " +
+            "VALUES (?, ?, ?, ?, 1, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "total_page_views = total_page_views + VALUES(total_page_views), " +
+            "last_visit_at = GREATEST(last_visit_at, VALUES(last_visit_at)), " +
+            "updated_at = NOW()";
+
+    private static final String ASSIGN_ORDINAL_SQL =
+            "UPDATE analytics_visitor SET site_ordinal = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertPageViews(List<PageView> pageViews) {
+        if (pageViews.isEmpty()) return;
+        jdbcTemplate.batchUpdate(INSERT_PAGE_VIEW_SQL, pageViews.stream()
+                .map(p -> new Object[]{
+                        p.getSiteCode(), p.getSessionId(), p.getVisitorId(), p.getUserId(),
+                        p.getPageUrl(), p.getPagePath(), p.getPageTitle(), p.getReferrer(),
+                        p.getUserAgent(), p.getDeviceType(), p.getBrowser(), p.getBrowserVersion(),
+                        p.getOs(), p.getOsVersion(), p.getScreenWidth(), p.getScreenHeight(), p.getIpAddress(),
+                        p.getUtmSource(), p.getUtmMedium(), p.getUtmCampaign(), p.getUtmTerm(), p.getUtmContent(),
+                        p.getSampleWeight(), p.getCreatedAt()
+                })
+                .toList());
+    }
+
+    /**
+     * 세션 upsert. 기존 세션이면 pageViews 누적, 종료 페이지/시간 갱신
+     */
+    public void upsertSessions(List<SessionUpsert> sessions) {
+        if (sessions.isEmpty()) return;
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.batchUpdate(UPSERT_SESSION_SQL, sessions.stream()
+                .map(s -> {
+                    boolean bounce = s.getPageViews() <= 1;
+                    LocalDateTime endTime = bounce ? null : s.getLastViewAt();
+                    int duration = bounce ? 0
+                            : (int) java.time.Duration.between(s.getStartTime(), s.getLastViewAt()).getSeconds();
+                    return new Object[]{
+                            s.getSessionId(), s.getSiteCode(), s.getVisitorId(), s.getUserId(),
+                            s.getStartTime(), endTime,
+                            s.getPageViews(), duration, bounce,
+                            s.getEntryPage(), s.getExitPage(), s.getReferrer(),
+                            s.getReferrerType(), s.getReferrerHost(),
+                            s.getDeviceType(), s.getBrowser(), s.getOs(),
+                            s.getUtmSource(), s.getUtmMedium(), s.getUtmCampaign(),
+                            s.getSampleWeight(), now,
+                            s.getLastViewAt(), s.getLastViewAt()
+                    };
+                })
+                .toList());
+    }
+
+    public void updateSessionLeaves(List<SessionLeave> leaves) {
+        if (leaves.isEmpty()) return;
+        jdbcTemplate.batchUpdate(UPDATE_SESSION_LEAVE_SQL, leaves.stream()
+                .map(l -> new Object[]{l.getLeftAt(), l.getTimeOnPage(), l.getExitPage(), l.getSessionId()})
+                .toList());
+    }
+
+    /**
+     * 방문자 upsert. 새로 들어간 방문자에게는 사이트별 순번(site_ordinal)을 이어서 매긴다.
+     * 순번 카운터를 먼저 잠가 같은 사이트의 방문자 저장이 서버 간에도 하나씩 진행되도록 한다.
+     * (트랜잭션 안에서 호출)
+     */
+    public void upsertVisitors(List<VisitorUpsert> visitors) {
+        if (visitors.isEmpty()) return;
+        Map<String, Integer> lastOrdinals = lockOrdinals(visitors);
+
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.batchUpdate(UPSERT_VISITOR_SQL, visitors.stream()
+                .map(v -> new Object[]{
+                        v.getVisitorId(), v.getSiteCode(), v.getFirstVisitAt(), v.getLastVisitAt(),
+                        v.getPageViews(), v.getFirstReferrer(),
+                        v.getFirstUtmSource(), v.getFirstUtmMedium(), v.getFirstUtmCampaign(),
+                        now
+                })
+                .toList());
+
+        lastOrdinals.forEach(this::assignOrdinals);
+    }
+
+    /**
+     * 사이트별 순번 카운터를 사이트 코드 순서로 잠그고 마지막 순번을 반환
+     */
+    private Map<String, Integer> lockOrdinals(List<VisitorUpsert> visitors) {
+        Map<String, Integer> lastOrdinals = new TreeMap<>();
+        visitors.forEach(v -> lastOrdinals.put(v.getSiteCode(), 0));
+        for (String siteCode : lastOrdinals.keySet()) {
+            jdbcTemplate.update(
+                    "INSERT IGNORE INTO analytics_visitor_ordinal (site_code, last_ordinal) VALUES (?, 0)", siteCode);
+            lastOrdinals.put(siteCode, jdbcTemplate.queryForObject(
+                    "SELECT last_ordinal FROM analytics_visitor_ordinal WHERE site_code = ? FOR UPDATE",
+                    Integer.class, siteCode));
+        }
+        return lastOrdinals;
+    }
+
+    /**
+     * 순번이 없는(방금 추가된) 방문자에게 id 순으로 순번 부여
+     */
+    private void assignOrdinals(String siteCode, int lastOrdinal) {
+        List<Long> ids = jdbcTemplate.queryForList(
+                "SELECT id FROM analytics_visitor WHERE site_code = ? AND site_ordinal IS NULL ORDER BY id FOR UPDATE",
+                Long.class, siteCode);
+        if (ids.isEmpty()) return;
+        // 비트맵 원소가 32비트이므로 넘치면 저장 자체를 실패시켜 조용히 빠지는 방문자가 없도록 함
+        if (ids.size() > Integer.MAX_VALUE - lastOrdinal) {
+            throw new IllegalStateException("Visitor ordinal overflow for site " + siteCode);
+        }
+
+        int[] ordinal = {lastOrdinal};
+        jdbcTemplate.batchUpdate(ASSIGN_ORDINAL_SQL, ids.stream()
+                .map(id -> new Object[]{++ordinal[0], id})
+                .toList());
+        jdbcTemplate.update("UPDATE analytics_visitor_ordinal SET last_ordinal = ? WHERE site_code = ?",
+                ordinal[0], siteCode);
+    }
+
+    /**
+     * 세션 단위로 합쳐진 페이지뷰 변경분
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class SessionUpsert {
+        private String sessionId;
+        private String siteCode;
+        private String visitorId;
+        private Long userId;
+        private LocalDateTime startTime;
+        private LocalDateTime lastViewAt;
+        private int pageViews;
+        private String entryPage;
+        private String exitPage;
+        private String referrer;
+        private String referrerType;
+        private String referrerHost;
+        private String deviceType;
+        private String browser;
+        private String os;
+        private String utmSource;
+        private String utmMedium;
+        private String utmCampaign;
+        // 세션 첫 페이지뷰의 샘플링 가중치
+        @Builder.Default
+        private double sampleWeight = 1.0;
+
+        public void addPageView(String pagePath, LocalDateTime at) {
+            this.pageViews++;
+            this.exitPage = pagePath;
+            this.lastViewAt = at;
+        }
+    }
+
+    /**
+     * 세션 단위로 합쳐진 페이지 이탈(pageleave) 변경분
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class SessionLeave {
+        private String sessionId;
+        private LocalDateTime leftAt;
+        private int timeOnPage;
+        private String exitPage;
+
+        public void addLeave(String pagePath, Integer timeOnPage, LocalDateTime at) {
+            this.exitPage = pagePath;
+            this.leftAt = at;
+            if (timeOnPage != null && timeOnPage > 0) {
+                this.timeOnPage += timeOnPage;
+            }
+        }
+    }
+
+    /**
+     * 방문자 단위로 합쳐진 페이지뷰 변경분
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class VisitorUpsert {
+        private String visitorId;
+        private String siteCode;
+        private LocalDateTime firstVisitAt;
+        private LocalDateTime lastVisitAt;
+        private int pageViews;
+        private String firstReferrer;
+        private String firstUtmSource;
+        private String firstUtmMedium;
+        private String firstUtmCampaign;
+
+        public void addPageView(LocalDateTime at) {
+            this.pageViews++;
+            this.lastVisitAt = at;
+        }
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -31,4 +32,19 @@ public interface VisitorRepository extends JpaRepository<Visitor, Long> {
             @Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate
     );
+
+    // 요약용 집계 (rawStart 이후 신규 방문자 수, 기간 재방문자 수)
+    @Query(value = "SELECT " +
+           "COUNT(CASE WHEN first_visit_at BETWEEN :rawStart AND :endDate THEN 1 END), " +
+           "COUNT(CASE WHEN first_visit_at < :startDate AND last_visit_at BETWEEN :startDate AND :endDate THEN 1 END) " +
+           "FROM analytics_visitor " +
+           "WHERE site_code = :siteCode " +
+           "AND (first_visit_at BETWEEN :rawStart AND :endDate OR last_visit_at BETWEEN :startDate AND :endDate)",
+           nativeQuery = true)
+    List<Object[]> summarize(
+            @Param("siteCode") String siteCode,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("rawStart") LocalDateTime rawStart,
+            @Param("endDate") LocalDateTime endDate
+    );
 }
@@ -0,0 +1,225 @@
+package com.ysk.cms.domain.admin.analytics.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ysk.cms.common.exception.BusinessException;
+import com.ysk.cms.common.exception.ErrorCode;
+import com.ysk.cms.domain.admin.analytics.repository.AnalyticsExportRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 원본 통계 데이터 내보내기 (NDJSON / CSV, gzip)
+ * 커서로 읽은 행을 바로 응답 스트림에 쓰므로 기간이 길어도 메모리 사용량이 일정하다.
+ * 트랜잭션 없이 조회 한 번 동안만 커넥션을 사용한다.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AnalyticsExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final AnalyticsExportRepository analyticsExportRepository;
+    private final ObjectMapper objectMapper;
+
+    public enum ExportType {
+        PAGEVIEWS, SESSIONS
+    }
+
+    public enum ExportFormat {
+        NDJSON, CSV
+    }
+
+    public static ExportType parseType(String type) {
+        try {
+            return ExportType.valueOf(type.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(ErrorCode.INVALID_INPUT_VALUE);
+        }
+    }
+
+    public static ExportFormat parseFormat(String format) {
+        try {
+            return ExportFormat.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(ErrorCode.INVALID_INPUT_VALUE);
+        }
+    }
+
+    /**
+     * 응답 본문 생성 (실제 조회는 응답을 쓰는 시점에 실행)
+     */
+    public StreamingResponseBody export(String siteCode, ExportType type, ExportFormat format,
+                                        LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new BusinessException(ErrorCode.INVALID_INPUT_VALUE);
+        }
+
+        return outputStream -> {
+            GZIPOutputStream gzip = new GZIPOutputStream(outputStream, BUFFER_SIZE);
+            Writer writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8), BUFFER_SIZE);
+            RowWriter rowWriter = format == ExportFormat.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+
+            long started = System.currentTimeMillis();
+            try {
+                RowCallbackHandler handler = rs -> {
+                    try {
+                        rowWriter.write(rs);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                };
+                if (type == ExportType.SESSIONS) {
+                    analyticsExportRepository.streamSessions(siteCode, startDate.atStartOfDay(), endDate.atTime(LocalTime.MAX), handler);
+                } else {
+                    analyticsExportRepository.streamPageViews(siteCode, startDate.atStartOfDay(), endDate.atTime(LocalTime.MAX), handler);
+                }
+            } catch (UncheckedIOException e) {
+                // 클라이언트가 연결을 끊은 경우
+                log.warn("[Analytics] Export aborted for site {}: {}", siteCode, e.getCause().getMessage());
+                return;
+            }
+
+            rowWriter.finish();
+            writer.flush();
+            gzip.finish();
+            log.info("[Analytics] Exported {} {} rows for site {} ({} ~ {}) in {}ms",
+                    rowWriter.getRowCount(), type, siteCode, startDate, endDate, System.currentTimeMillis() - started);
+        };
+    }
+
+    public String getFileName(String siteCode, ExportType type, ExportFormat format,
+                              LocalDate startDate, LocalDate endDate) {
+        return String.format("%s-%s-%s-%s.%s.gz", siteCode, type.name().toLowerCase(), startDate, endDate,
+                format.name().toLowerCase());
+    }
+
+    private abstract static class RowWriter {
+        protected final Writer writer;
+        protected long rowCount;
+
+        RowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        abstract void write(ResultSet rs) throws SQLException, IOException;
+
+        void finish() throws IOException {
+        }
+
+        long getRowCount() {
+            return rowCount;
+        }
+
+        static Object value(ResultSet rs, int column) throws SQLException {
+            Object value = rs.getObject(column);
+            if (value instanceof Timestamp timestamp) {
+                return timestamp.toLocalDateTime().toString();
+            }
+            return value;
+        }
+    }
+
+    /**
+     * 한 줄에 JSON 객체 하나
+     */
+    private class NdjsonRowWriter extends RowWriter {
+        private JsonGenerator generator;
+        private String[] names;
+
+        NdjsonRowWriter(Writer writer) {
+            super(writer);
+        }
+
+        @Override
+        void write(ResultSet rs) throws SQLException, IOException {
+            if (generator == null) {
+                generator = objectMapper.getFactory().createGenerator(writer);
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                names = columnNames(rs.getMetaData());
+            }
+
+            generator.writeStartObject();
+            for (int i = 0; i < names.length; i++) {
+                generator.writeFieldName(names[i]);
+                generator.writeObject(value(rs, i + 1));
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            rowCount++;
+        }
+
+        @Override
+        void finish() throws IOException {
+            if (generator != null) generator.flush();
+        }
+    }
+
+    /**
+     * RFC 4180 CSV (첫 행은 컬럼명)
+     */
+    private static class CsvRowWriter extends RowWriter {
+        private int columnCount;
+
+        CsvRowWriter(Writer writer) {
+            super(writer);
+        }
+
+        @Override
+        void write(ResultSet rs) throws SQLException, IOException {
+            if (columnCount == 0) {
+                String[] names = columnNames(rs.getMetaData());
+                columnCount = names.length;
+                writeLine(names);
+            }
+
+            Object[] values = new Object[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                values[i] = value(rs, i + 1);
+            }
+            writeLine(values);
+            rowCount++;
+        }
+
+        private void writeLine(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) writer.write(',');
+                if (values[i] != null) writer.write(escape(values[i].toString()));
+            }
+            writer.write("\r\n");
+        }
+
+        private static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    private static String[] columnNames(ResultSetMetaData metaData) throws SQLException {
+        String[] names = new String[metaData.getColumnCount()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = metaData.getColumnLabel(i + 1);
+        }
+        return names;
+    }
+}
@@ -0,0 +1,95 @@
+package com.ysk.cms.domain.admin.analytics.service;
+
+import com.ysk.cms.common.exception.BusinessException;
+import com.ysk.cms.common.exception.ErrorCode;
+import com.ysk.cms.domain.admin.analytics.config.AnalyticsProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 통계 조회용 병렬 쿼리 실행기
+ * 서로 독립적인 집계 쿼리를 전용 스레드 풀에서 동시에 실행하고 하나의 마감 시간으로 기다린다.
+ * 풀과 큐가 모두 차면 호출 스레드에서 직접 실행한다.
+ * 쿼리마다 마감 시간을 타임아웃으로 둔 읽기 전용 트랜잭션에서 실행해, 마감이 지난 쿼리는 DB 에서 취소되고
+ * 커넥션을 돌려준다 (future 취소만으로는 실행 중인 JDBC 호출이 멈추지 않음).
+ * 호출 측은 트랜잭션(커넥션) 없이 기다려야 한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class AnalyticsQueryExecutor {
+
+    private final AnalyticsProperties analyticsProperties;
+    private final PlatformTransactionManager transactionManager;
+
+    private ThreadPoolExecutor executor;
+    private TransactionTemplate queryTransaction;
+
+    @PostConstruct
+    void start() {
+        AnalyticsProperties.Query config = analyticsProperties.getQuery();
+        AtomicInteger seq = new AtomicInteger();
+        executor = new ThreadPoolExecutor(config.getThreads(), config.getThreads(), 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(config.getQueueCapacity()),
+                r -> {
+                    Thread thread = new Thread(r, "analytics-query-" + seq.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+
+        queryTransaction = new TransactionTemplate(transactionManager);
+        queryTransaction.setReadOnly(true);
+        queryTransaction.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(config.getTimeoutMs() + 999)));
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(() -> queryTransaction.execute(status -> query.get()), executor);
+    }
+
+    /**
+     * 모든 쿼리 완료 대기 (마감 시간 초과 시 남은 쿼리 취소)
+     */
+    public void awaitAll(CompletableFuture<?>... queries) {
+        try {
+            CompletableFuture.allOf(queries).get(analyticsProperties.getQuery().getTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            cancelAll(queries);
+            throw new BusinessException(ErrorCode.ANALYTICS_QUERY_TIMEOUT);
+        } catch (InterruptedException e) {
+            cancelAll(queries);
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ErrorCode.ANALYTICS_QUERY_TIMEOUT);
+        } catch (ExecutionException e) {
+            cancelAll(queries);
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void cancelAll(CompletableFuture<?>... queries) {
+        for (CompletableFuture<?> query : queries) {
+            query.cancel(true);
+        }
+    }
+}
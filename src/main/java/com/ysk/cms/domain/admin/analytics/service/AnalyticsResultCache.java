@@ -0,0 +1,242 @@
+package com.ysk.cms.domain.admin.analytics.service;
+
+import com.ysk.cms.domain.admin.analytics.config.AnalyticsProperties;
+import com.ysk.cms.domain.admin.analytics.repository.AnalyticsCacheGenerationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * 통계 조회 결과 캐시
+ * (조회 종류, 사이트, 기간, 조건) 별로 결과를 보관한다. 어제 이전에 끝난 기간은 바뀌지 않으므로 길게,
+ * 오늘을 포함하는 기간은 짧게 유지하고, 일별 (재)집계가 끝나면 해당 사이트 결과를 비운다.
+ * 집계한 서버는 사이트의 캐시 세대(analytics_cache_generation)를 올리고, 다른 서버는 세대를 주기적으로 읽어
+ * 바뀐 사이트의 결과를 비운다 (서버 간 반영은 cacheSyncIntervalMs 만큼 늦을 수 있음).
+ * 같은 키를 동시에 조회하면 한 요청만 쿼리를 실행하고 나머지는 그 결과를 기다린다.
+ * 전체 가중치(결과 행 수)가 한도를 넘으면 가장 오래 조회되지 않은 결과부터 버린다.
+ * 결과 객체는 여러 요청이 공유하므로 호출 측에서 수정하지 않는다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AnalyticsResultCache {
+
+    private final AnalyticsProperties analyticsProperties;
+    private final MeterRegistry meterRegistry;
+    private final AnalyticsCacheGenerationRepository generationRepository;
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    // 마지막으로 확인한 사이트별 캐시 세대
+    private final Map<String, Long> generations = new ConcurrentHashMap<>();
+    private final AtomicLong totalWeight = new AtomicLong();
+
+    private Counter hitCounter;
+    private Counter missCounter;
+    private Counter evictionCounter;
+
+    @PostConstruct
+    void init() {
+        hitCounter = meterRegistry.counter("analytics.query.cache", "result", "hit");
+        missCounter = meterRegistry.counter("analytics.query.cache", "result", "miss");
+        evictionCounter = meterRegistry.counter("analytics.query.cache.evictions");
+        Gauge.builder("analytics.query.cache.weight", totalWeight, AtomicLong::get)
+                .description("캐시된 조회 결과 가중치 합 (결과 행 수)")
+                .register(meterRegistry);
+        Gauge.builder("analytics.query.cache.size", entries, Map::size)
+                .register(meterRegistry);
+    }
+
+    public <T> T get(String method, String siteCode, LocalDate startDate, LocalDate endDate, List<?> params,
+                     Supplier<T> loader) {
+        return get(method, siteCode, startDate, endDate, params, loader, value -> 1);
+    }
+
+    /**
+     * 캐시된 결과 또는 loader 실행 결과
+     *
+     * @param params  기간 외 조회 조건 (키에 포함)
+     * @param weigher 결과 가중치 (대략적인 행 수)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String method, String siteCode, LocalDate startDate, LocalDate endDate, List<?> params,
+                     Supplier<T> loader, ToIntFunction<T> weigher) {
+        AnalyticsProperties.Query config = analyticsProperties.getQuery();
+        if (!config.isCacheEnabled()) return loader.get();
+
+        Key key = new Key(method, siteCode, startDate, endDate, params);
+        while (true) {
+            long now = System.nanoTime();
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt - now > 0) {
+                hitCounter.increment();
+                entry.lastAccessAt = now;
+                return (T) await(entry.value);
+            }
+
+            Entry loading = new Entry(now);
+            if (entry == null ? entries.putIfAbsent(key, loading) == null : replace(key, entry, loading)) {
+                missCounter.increment();
+                long ttlSeconds = endDate.isBefore(LocalDate.now()) ? config.getClosedTtlSeconds() : config.getOpenTtlSeconds();
+                return load(key, loading, loader, weigher, TimeUnit.SECONDS.toNanos(ttlSeconds));
+            }
+        }
+    }
+
+    /**
+     * 사이트의 캐시된 결과 제거 (일별 집계 후 호출). 세대를 올려 다른 서버도 비우도록 한다.
+     */
+    public void evictSite(String siteCode) {
+        evictLocal(siteCode);
+        try {
+            generationRepository.increment(siteCode);
+        } catch (Exception e) {
+            log.error("[Analytics] Failed to publish cache eviction for site {}: {}", siteCode, e.getMessage());
+        }
+    }
+
+    /**
+     * 다른 서버가 세대를 올린 사이트의 결과 제거
+     */
+    @Scheduled(fixedDelayString = "${analytics.query.cache-sync-interval-ms:5000}")
+    public void syncGenerations() {
+        if (!analyticsProperties.getQuery().isCacheEnabled()) return;
+        Map<String, Long> current;
+        try {
+            current = generationRepository.findAll();
+        } catch (Exception e) {
+            log.warn("[Analytics] Failed to read cache generations: {}", e.getMessage());
+            return;
+        }
+        current.forEach((siteCode, generation) -> {
+            Long previous = generations.put(siteCode, generation);
+            if (previous != null && !previous.equals(generation)) evictLocal(siteCode);
+        });
+    }
+
+    /**
+     * 만료된 결과 정리
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void cleanUp() {
+        long now = System.nanoTime();
+        entries.forEach((key, entry) -> {
+            if (entry.expiresAt - now <= 0) remove(key, entry);
+        });
+    }
+
+    private void evictLocal(String siteCode) {
+        entries.forEach((key, entry) -> {
+            if (key.siteCode.equals(siteCode)) remove(key, entry);
+        });
+    }
+
+    private <T> T load(Key key, Entry entry, Supplier<T> loader, ToIntFunction<T> weigher, long ttlNanos) {
+        T value;
+        try {
+            value = loader.get();
+        } catch (RuntimeException e) {
+            // 실패한 결과는 보관하지 않음 (기다리던 요청도 같은 예외를 받음)
+            remove(key, entry);
+            entry.value.completeExceptionally(e);
+            throw e;
+        }
+
+        synchronized (entry) {
+            entry.weight = Math.max(weigher.applyAsInt(value), 1);
+            entry.expiresAt = System.nanoTime() + ttlNanos;
+            if (entries.get(key) == entry) totalWeight.addAndGet(entry.weight);
+        }
+        entry.value.complete(value);
+
+        if (totalWeight.get() > analyticsProperties.getQuery().getCacheMaxWeight()) {
+            evictLeastRecentlyUsed();
+        }
+        return value;
+    }
+
+    /**
+     * 한도의 90% 아래가 될 때까지 오래 조회되지 않은 결과부터 제거
+     */
+    private synchronized void evictLeastRecentlyUsed() {
+        long target = analyticsProperties.getQuery().getCacheMaxWeight() * 9 / 10;
+        List<Map.Entry<Key, Entry>> candidates = new ArrayList<>(entries.entrySet());
+        candidates.sort(Comparator.comparingLong(candidate -> candidate.getValue().lastAccessAt));
+
+        int evicted = 0;
+        for (Map.Entry<Key, Entry> candidate : candidates) {
+            if (totalWeight.get() <= target) break;
+            if (!candidate.getValue().value.isDone()) continue;
+            if (remove(candidate.getKey(), candidate.getValue())) evicted++;
+        }
+        evictionCounter.increment(evicted);
+        log.debug("[Analytics] Evicted {} cached query results", evicted);
+    }
+
+    private boolean replace(Key key, Entry expired, Entry loading) {
+        synchronized (expired) {
+            if (!entries.replace(key, expired, loading)) return false;
+            totalWeight.addAndGet(-expired.weight);
+            return true;
+        }
+    }
+
+    private boolean remove(Key key, Entry entry) {
+        synchronized (entry) {
+            if (!entries.remove(key, entry)) return false;
+            totalWeight.addAndGet(-entry.weight);
+            return true;
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> value) {
+        try {
+            return value.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    @Value
+    private static class Key {
+        String method;
+        String siteCode;
+        LocalDate startDate;
+        LocalDate endDate;
+        List<?> params;
+    }
+
+    private static class Entry {
+        private final CompletableFuture<Object> value = new CompletableFuture<>();
+        // 로딩 중에는 만료되지 않음
+        private volatile long expiresAt;
+        private volatile long lastAccessAt;
+        private long weight;
+
+        Entry(long now) {
+            this.lastAccessAt = now;
+            this.expiresAt = now + Long.MAX_VALUE / 2;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.ysk.cms.domain.admin.analytics.service;
+
+import com.ysk.cms.common.exception.BusinessException;
+import com.ysk.cms.common.exception.ErrorCode;
+import com.ysk.cms.domain.admin.analytics.config.AnalyticsProperties;
+import com.ysk.cms.domain.admin.analytics.repository.AnalyticsRollupRepository;
+import com.ysk.cms.domain.admin.analytics.repository.DailyStatsRepository;
+import com.ysk.cms.domain.admin.site.entity.Site;
+import com.ysk.cms.domain.admin.site.repository.SiteRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 일별 집계(rollup) 작업
+ * 사이트마다 마지막 집계일(워터마크) 다음 날부터 어제까지 하루씩 집계한다.
+ * 하루 단위로 트랜잭션을 나누므로 중간에 실패해도 다음 실행에서 이어서 처리된다.
+ * 조회는 워터마크(MAX(stats_date))까지를 집계 테이블에서 읽으므로, 집계는 항상 워터마크 다음 날부터
+ * 빈 날짜 없이 이어서 한다 (워터마크 이후 기간의 백필도 워터마크 다음 날부터 채움).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AnalyticsRollupService {
+
+    private final AnalyticsRollupRepository analyticsRollupRepository;
+    private final DailyStatsRepository dailyStatsRepository;
+    private final SiteRepository siteRepository;
+    private final AnalyticsProperties analyticsProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final VisitorSketchStore visitorSketchStore;
+    private final TopKStore topKStore;
+    private final VisitorBitmapStore visitorBitmapStore;
+    private final AnalyticsResultCache resultCache;
+    private final TrendBucketStore trendBucketStore;
+
+    // 같은 사이트에 대한 스케줄 실행과 수동 재집계가 겹치지 않도록 함
+    private final Map<String, Object> siteLocks = new ConcurrentHashMap<>();
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger seq = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(analyticsProperties.getRollup().getThreads(), r -> {
+            Thread thread = new Thread(r, "analytics-rollup-" + seq.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 모든 사이트의 닫힌 날짜 집계
+     */
+    @Scheduled(cron = "${analytics.rollup.cron:0 40 0 * * *}")
+    public void rollupClosedDays() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        List<Site> sites = siteRepository.findAllActive();
+
+        CompletableFuture<?>[] futures = sites.stream()
+                .map(site -> CompletableFuture.runAsync(() -> catchUp(site.getCode(), yesterday), executor))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(futures).join();
+
+        log.info("[Analytics] Rollup finished for {} sites up to {}", sites.size(), yesterday);
+    }
+
+    /**
+     * 기간 재집계 (백필). 오늘 이후 날짜와 보관 기간이 지나 원본이 삭제된 날짜는 제외된다.
+     * 시작일이 워터마크 다음 날보다 뒤면 워터마크 다음 날부터 집계한다 (중간 날짜가 조회에서 빠지지 않도록).
+     *
+     * @return 집계한 일수
+     */
+    public int rollup(String siteCode, LocalDate startDate, LocalDate endDate) {
+        LocalDate lastClosed = LocalDate.now().minusDays(1);
+        LocalDate to = endDate.isAfter(lastClosed) ? lastClosed : endDate;
+        if (startDate.isAfter(to)) {
+            throw new BusinessException(ErrorCode.INVALID_INPUT_VALUE);
+        }
+        return rollupRange(siteCode, startDate, to);
+    }
+
+    private void catchUp(String siteCode, LocalDate lastClosed) {
+        try {
+            int days = rollupRange(siteCode, null, lastClosed);
+            if (days > 0) log.info("[Analytics] Rollup {}: {} days up to {}", siteCode, days, lastClosed);
+        } catch (Exception e) {
+            log.error("[Analytics] Rollup failed for site {}: {}", siteCode, e.getMessage());
+        }
+    }
+
+    /**
+     * @param requestedFrom 재집계 시작일 (null 이면 워터마크 다음 날부터)
+     */
+    private int rollupRange(String siteCode, LocalDate requestedFrom, LocalDate to) {
+        synchronized (siteLocks.computeIfAbsent(siteCode, key -> new Object())) {
+            // 원본이 없는 날짜를 다시 집계하면 남아 있는 집계까지 지워짐
+            LocalDate firstRaw = analyticsRollupRepository.findFirstPageViewDate(siteCode);
+            if (firstRaw == null) return 0;
+
+            // 워터마크를 잠금 안에서 읽어 다른 집계와 겹쳐도 빈 날짜가 생기지 않도록 함
+            LocalDate watermark = dailyStatsRepository.findLastStatsDate(siteCode);
+            LocalDate from = watermark != null ? watermark.plusDays(1) : firstRaw;
+            if (requestedFrom != null && requestedFrom.isBefore(from)) from = requestedFrom;
+            if (from.isBefore(firstRaw)) from = firstRaw;
+            if (requestedFrom != null && from.isBefore(requestedFrom)) {
+                log.info("[Analytics] Backfill {} extended to start at {} (watermark {})", siteCode, from, watermark);
+            }
+
+            int days = 0;
+            try {
+                for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+                    LocalDate statsDate = date;
+                    transactionTemplate.executeWithoutResult(status -> {
+                        analyticsRollupRepository.rollupDay(siteCode, statsDate);
+                        visitorSketchStore.rebuildDay(siteCode, statsDate);
+                        topKStore.rebuildDay(siteCode, statsDate);
+                        visitorBitmapStore.rebuildDay(siteCode, statsDate);
+                        trendBucketStore.rebuildDay(siteCode, statsDate);
+                    });
+                    days++;
+                }
+            } finally {
+                // 집계 테이블이 바뀌었으므로 캐시된 조회 결과를 버림 (중간에 실패해도 이미 집계된 날짜가 있음)
+                if (days > 0) resultCache.evictSite(siteCode);
+            }
+            return days;
+        }
+    }
+}
@@ -1,48 +1,166 @@
 package com.ysk.cms.domain.admin.analytics.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ysk.cms.common.exception.BusinessException;
+import com.ysk.cms.common.exception.ErrorCode;
+import com.ysk.cms.domain.admin.analytics.config.AnalyticsProperties;
 import com.ysk.cms.domain.admin.analytics.dto.*;
 import com.ysk.cms.domain.admin.analytics.repository.*;
+import com.ysk.cms.domain.admin.analytics.sketch.SpaceSaving;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 
+/**
+ * 통계 조회
+ * 집계가 끝난 날짜(워터마크 이전)는 일별 집계 테이블에서, 그 이후(오늘)는 원본 데이터에서 읽어 합친다.
+ * 기간 조회 결과는 AnalyticsResultCache 에 보관해 같은 조회를 반복하지 않는다.
+ * 캐시 조회는 트랜잭션 밖에서 하고, 캐시에 없을 때만 읽기 전용 트랜잭션을 열어 계산한다.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
-@Transactional(readOnly = true)
 public class AnalyticsService {
 
+    // 코호트 리텐션 최대 코호트 수 / 추적 주 수
+    private static final int MAX_RETENTION_WEEKS = 52;
+    // 추이 데이터 최대 점 수
+    private static final int MAX_TREND_POINTS = 1000;
+
     private final PageViewRepository pageViewRepository;
     private final AnalyticsSessionRepository sessionRepository;
     private final VisitorRepository visitorRepository;
     private final DailyStatsRepository dailyStatsRepository;
+    private final PageStatsRepository pageStatsRepository;
+    private final DeviceStatsRepository deviceStatsRepository;
+    private final ReferrerStatsRepository referrerStatsRepository;
+    private final RealtimeCounter realtimeCounter;
+    private final VisitorSketchStore visitorSketchStore;
+    private final AnalyticsQueryExecutor queryExecutor;
+    private final TopKStore topKStore;
+    private final AnalyticsPathRepository analyticsPathRepository;
+    private final PathStore pathStore;
+    private final VisitorBitmapStore visitorBitmapStore;
+    private final AnalyticsResultCache resultCache;
+    private final TrendBucketStore trendBucketStore;
+    private final AnalyticsProperties analyticsProperties;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
 
     /**
      * 요약 통계 조회
+     * 테이블별 집계를 현재/이전 기간 조건부 집계 쿼리 하나로 묶고, 서로 독립적인 쿼리는 병렬로 실행한다.
+     *
+     * 쿼리는 AnalyticsQueryExecutor 의 스레드가 각자 트랜잭션으로 실행하므로 여기서는 커넥션을 잡지 않는다.
+     *
+     * 이전 기간이 원본 페이지뷰 보관 기간 밖이면 원본이 삭제됐을 수 있으므로 approximate 와 관계없이
+     * 순 방문자를 스케치로 추정하고 결과에 추정값으로 표시한다.
+     *
+     * @param approximate true 면 순 방문자를 HyperLogLog 스케치로 추정
      */
-    public AnalyticsSummaryDto getSummary(String siteCode, LocalDate startDate, LocalDate endDate) {
+    public AnalyticsSummaryDto getSummary(String siteCode, LocalDate startDate, LocalDate endDate, boolean approximate) {
+        AnalyticsSummaryDto summary = resultCache.get("summary", siteCode, startDate, endDate, List.of(approximate),
+                () -> loadSummary(siteCode, startDate, endDate, approximate));
+        // 실시간 활성 사용자 (최근 5분)는 캐시하지 않음
+        return summary.toBuilder()
+                .activeUsers(realtimeCounter.countActiveUsers(siteCode))
+                .build();
+    }
+
+    private AnalyticsSummaryDto loadSummary(String siteCode, LocalDate startDate, LocalDate endDate, boolean requested) {
+        long daysDiff = java.time.temporal.ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        LocalDate prevStartDate = startDate.minusDays(daysDiff);
+        LocalDate prevEndDate = startDate.minusDays(1);
+        // 보관 기간이 지난 원본은 삭제됐을 수 있으므로 정확한 순 방문자를 셀 수 없음
+        boolean approximate = requested || prevStartDate.isBefore(
+                analyticsProperties.getRetention().getRawRetainedFrom(siteCode, LocalDate.now()));
+
+        // 집계 테이블 / 원본 구간 나누기
+        LocalDate watermark = dailyStatsRepository.findLastStatsDate(siteCode);
+        LocalDate rollupEnd = getRollupEnd(watermark, startDate, endDate);
+        LocalDate prevRollupEnd = getRollupEnd(watermark, prevStartDate, prevEndDate);
+
         LocalDateTime startDateTime = startDate.atStartOfDay();
         LocalDateTime endDateTime = endDate.atTime(LocalTime.MAX);
+        LocalDateTime rawStart = rollupEnd.plusDays(1).atStartOfDay();
+        LocalDateTime prevStartDateTime = prevStartDate.atStartOfDay();
+        LocalDateTime prevEndDateTime = prevEndDate.atTime(LocalTime.MAX);
+        LocalDateTime prevRawStart = prevRollupEnd.plusDays(1).atStartOfDay();
+        boolean hasRaw = !rawStart.isAfter(endDateTime) || !prevRawStart.isAfter(prevEndDateTime);
+        LocalDateTime rawScanStart = prevRawStart.isBefore(rawStart) ? prevRawStart : rawStart;
+
+        CompletableFuture<Object[]> rollupQuery = queryExecutor.submit(() -> dailyStatsRepository
+                .sumSummaryWithPrevious(siteCode, startDate, rollupEnd, prevStartDate, prevRollupEnd).get(0));
+        // 정확 모드에서는 순 방문자 때문에 기간 전체를, 추정 모드에서는 원본 구간만 스캔
+        CompletableFuture<Object[]> pageViewQuery = approximate && !hasRaw
+                ? CompletableFuture.completedFuture(null)
+                : queryExecutor.submit(() -> pageViewRepository.summarizeWithPrevious(siteCode,
+                        approximate ? rawScanStart : prevStartDateTime, startDateTime, rawStart, endDateTime,
+                        prevStartDateTime, prevRawStart, prevEndDateTime).get(0));
+        CompletableFuture<Object[]> sessionQuery = !hasRaw
+                ? CompletableFuture.completedFuture(null)
+                : queryExecutor.submit(() -> sessionRepository.summarizeWithPrevious(siteCode,
+                        rawScanStart, rawStart, endDateTime, prevRawStart, prevEndDateTime).get(0));
+        CompletableFuture<Object[]> visitorQuery = queryExecutor.submit(() -> visitorRepository
+                .summarize(siteCode, startDateTime, rawStart, endDateTime).get(0));
+        CompletableFuture<Long> visitorsEstimate = approximate
+                ? queryExecutor.submit(() -> visitorSketchStore.estimateVisitors(siteCode, startDate, endDate))
+                : CompletableFuture.completedFuture(null);
+        CompletableFuture<Long> prevVisitorsEstimate = approximate
+                ? queryExecutor.submit(() -> visitorSketchStore.estimateVisitors(siteCode, prevStartDate, prevEndDate))
+                : CompletableFuture.completedFuture(null);
+
+        queryExecutor.awaitAll(rollupQuery, pageViewQuery, sessionQuery, visitorQuery,
+                visitorsEstimate, prevVisitorsEstimate);
+
+        Object[] rollup = rollupQuery.join();
+        Object[] pageViewRow = pageViewQuery.join();
+        Object[] sessionRow = sessionQuery.join();
+        Object[] visitorRow = visitorQuery.join();
+
+        // 현재 기간 통계 (집계분 + 원본분)
+        long pageViews = toLong(rollup[0]) + (pageViewRow != null ? toLong(pageViewRow[0]) : 0);
+        long rawSessions = sessionRow != null ? toLong(sessionRow[0]) : 0;
+        long sessions = toLong(rollup[1]) + rawSessions;
+        long bounceSessions = toLong(rollup[2]) + (sessionRow != null ? toLong(sessionRow[1]) : 0);
+        Long newVisitors = toLong(rollup[3]) + toLong(visitorRow[0]);
+        Long returningVisitors = toLong(visitorRow[1]);
+
+        // 평균 세션 시간은 세션 수 가중 평균
+        double durationSum = ((Number) rollup[4]).doubleValue();
+        if (sessionRow != null && sessionRow[2] != null) {
+            durationSum += ((Number) sessionRow[2]).doubleValue() * rawSessions;
+        }
+        Double avgDuration = sessions > 0 ? durationSum / sessions : null;
 
-        // 현재 기간 통계
-        Long pageViews = pageViewRepository.countBySiteCodeAndDateRange(siteCode, startDateTime, endDateTime);
-        Long uniqueVisitors = pageViewRepository.countUniqueVisitorsBySiteCodeAndDateRange(siteCode, startDateTime, endDateTime);
-        Long sessions = sessionRepository.countBySiteCodeAndDateRange(siteCode, startDateTime, endDateTime);
-        Long bounceSessions = sessionRepository.countBounceSessions(siteCode, startDateTime, endDateTime);
-        Double avgDuration = sessionRepository.findAvgSessionDuration(siteCode, startDateTime, endDateTime);
-
-        Long newVisitors = visitorRepository.countNewVisitors(siteCode, startDateTime, endDateTime);
-        Long returningVisitors = visitorRepository.countReturningVisitors(siteCode, startDateTime, endDateTime);
+        // 순 방문자는 날짜별 합산이 불가능하므로 원본에서 집계하거나 스케치로 추정
+        Long uniqueVisitors = approximate ? visitorsEstimate.join() : toLong(pageViewRow[2]);
 
         // 이탈률 계산
         BigDecimal bounceRate = sessions > 0
@@ -59,18 +177,9 @@ public class AnalyticsService {
         String avgDurationStr = formatDuration(avgDurationSec);
 
         // 이전 기간 대비 증감률 계산
-        long daysDiff = java.time.temporal.ChronoUnit.DAYS.between(startDate, endDate) + 1;
-        LocalDate prevStartDate = startDate.minusDays(daysDiff);
-        LocalDate prevEndDate = startDate.minusDays(1);
-        LocalDateTime prevStartDateTime = prevStartDate.atStartOfDay();
-        LocalDateTime prevEndDateTime = prevEndDate.atTime(LocalTime.MAX);
-
-        Long prevPageViews = pageViewRepository.countBySiteCodeAndDateRange(siteCode, prevStartDateTime, prevEndDateTime);
-        Long prevVisitors = pageViewRepository.countUniqueVisitorsBySiteCodeAndDateRange(siteCode, prevStartDateTime, prevEndDateTime);
-        Long prevSessions = sessionRepository.countBySiteCodeAndDateRange(siteCode, prevStartDateTime, prevEndDateTime);
-
-        // 실시간 활성 사용자 (최근 5분)
-        Long activeUsers = pageViewRepository.countActiveUsers(siteCode, LocalDateTime.now().minusMinutes(5));
+        Long prevPageViews = toLong(rollup[5]) + (pageViewRow != null ? toLong(pageViewRow[1]) : 0);
+        Long prevVisitors = approximate ? prevVisitorsEstimate.join() : toLong(pageViewRow[3]);
+        Long prevSessions = toLong(rollup[6]) + (sessionRow != null ? toLong(sessionRow[3]) : 0);
 
         return AnalyticsSummaryDto.builder()
                 .totalPageViews(pageViews)
@@ -85,80 +194,177 @@ public class AnalyticsService {
                 .pageViewsChange(calculateChangeRate(pageViews, prevPageViews))
                 .visitorsChange(calculateChangeRate(uniqueVisitors, prevVisitors))
                 .sessionsChange(calculateChangeRate(sessions, prevSessions))
-                .activeUsers(activeUsers)
+                .approximate(approximate)
+                .uniqueVisitorsErrorRate(approximate ? toPercent(visitorSketchStore.getVisitorErrorRate()) : null)
                 .build();
     }
 
     /**
-     * 일별 추이 데이터
+     * 추이 데이터
+     * 단위를 주지 않으면 기간 길이로 정한다 (TrendBucketStore.Granularity.auto). 점은 기간에 걸친 버킷마다 하나이며,
+     * 주/월 버킷은 기간 밖 날짜까지 포함한 달력 단위 전체 값이다.
+     *
+     * @param granularity HOUR, DAY, WEEK, MONTH (null 이면 자동)
      */
-    public TrendDataDto getTrend(String siteCode, LocalDate startDate, LocalDate endDate) {
-        LocalDateTime startDateTime = startDate.atStartOfDay();
-        LocalDateTime endDateTime = endDate.atTime(LocalTime.MAX);
+    public TrendDataDto getTrend(String siteCode, LocalDate startDate, LocalDate endDate, String granularity) {
+        if (startDate.isAfter(endDate)) {
+            throw new BusinessException(ErrorCode.INVALID_INPUT_VALUE);
+        }
+        TrendBucketStore.Granularity resolved = granularity != null
+                ? TrendBucketStore.parseGranularity(granularity)
+                : TrendBucketStore.Granularity.auto(startDate, endDate);
+        return cached("trend", siteCode, startDate, endDate, List.of(resolved),
+                () -> loadTrend(siteCode, startDate, endDate, resolved), trend -> trend.getLabels().size());
+    }
 
-        List<Object[]> dailyData = pageViewRepository.findDailyTrend(siteCode, startDateTime, endDateTime);
-
-        List<String> labels = new ArrayList<>();
-        List<Long> pageViews = new ArrayList<>();
-        List<Long> visitors = new ArrayList<>();
-
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM/dd");
-
-        // 날짜 범위의 모든 날짜에 대해 데이터 생성 (없으면 0)
-        Map<LocalDate, Object[]> dataMap = dailyData.stream()
-                .collect(Collectors.toMap(
-                        row -> ((java.sql.Date) row[0]).toLocalDate(),
-                        row -> row
-                ));
-
-        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
-            labels.add(date.format(formatter));
-            Object[] row = dataMap.get(date);
-            if (row != null) {
-                pageViews.add(((Number) row[1]).longValue());
-                visitors.add(((Number) row[2]).longValue());
-            } else {
-                pageViews.add(0L);
-                visitors.add(0L);
+    private TrendDataDto loadTrend(String siteCode, LocalDate startDate, LocalDate endDate,
+                                   TrendBucketStore.Granularity granularity) {
+        LocalDateTime first = granularity.truncate(startDate.atStartOfDay());
+        LocalDateTime end = endDate.plusDays(1).atStartOfDay();
+
+        List<LocalDateTime> bucketStarts = new ArrayList<>();
+        for (LocalDateTime bucket = first; bucket.isBefore(end); bucket = granularity.next(bucket)) {
+            if (bucketStarts.size() == MAX_TREND_POINTS) {
+                throw new BusinessException(ErrorCode.INVALID_INPUT_VALUE);
             }
+            bucketStarts.add(bucket);
+        }
+
+        // 집계된 날짜는 저장된 버킷에서, 그 이후(보통 오늘)는 원본을 버킷으로 묶어 더함
+        LocalDate rollupEnd = getRollupEnd(siteCode, first.toLocalDate(), endDate);
+        LocalDateTime rawStart = rollupEnd.plusDays(1).atStartOfDay();
+        // 버킷 시작 → [페이지뷰, 세션, 방문자]
+        Map<LocalDateTime, Long[]> buckets = trendBucketStore.findBuckets(siteCode, granularity, first, rawStart);
+        if (rawStart.isBefore(end)) {
+            trendBucketStore.sumRaw(siteCode, granularity, rawStart, end).forEach((bucketStart, raw) ->
+                    buckets.merge(bucketStart, raw, (stored, added) -> new Long[]{
+                            stored[0] + added[0],
+                            stored[1] + added[1],
+                            // 주/월 버킷은 원본 쪽이 버킷 전체 추정값
+                            granularity == TrendBucketStore.Granularity.WEEK
+                                    || granularity == TrendBucketStore.Granularity.MONTH || stored[2] == null
+                                    ? added[2] : stored[2] + added[2]}));
+        }
+
+        List<String> labels = new ArrayList<>(bucketStarts.size());
+        List<Long> pageViews = new ArrayList<>(bucketStarts.size());
+        List<Long> sessions = new ArrayList<>(bucketStarts.size());
+        List<Long> visitors = new ArrayList<>(bucketStarts.size());
+        for (LocalDateTime bucketStart : bucketStarts) {
+            Long[] values = buckets.getOrDefault(bucketStart, new Long[]{0L, 0L, 0L});
+            labels.add(granularity.label(bucketStart));
+            pageViews.add(values[0]);
+            sessions.add(values[1]);
+            visitors.add(values[2]);
         }
 
         return TrendDataDto.builder()
+                .granularity(granularity.name())
                 .labels(labels)
                 .pageViews(pageViews)
                 .visitors(visitors)
+                .sessions(sessions)
                 .build();
     }
 
     /**
      * 인기 페이지 목록
+     * 기본은 일별 Space-Saving 요약을 합쳐 상위 페이지를 고르고, exact 면 집계분과 원본을 한 쿼리로 합산해 SQL 에서 LIMIT 으로 고른다.
+     * 고른 페이지의 조회수는 두 경우 모두 해당 경로만 다시 합산한 정확한 값이다.
+     *
+     * @param approximate true 면 순 페이지뷰를 페이지별 HyperLogLog 스케치로 추정
+     * @param exact       true 면 상위 페이지 선정을 SQL 집계로 수행
      */
-    public List<PageStatsDto> getTopPages(String siteCode, LocalDate startDate, LocalDate endDate, int limit) {
-        LocalDateTime startDateTime = startDate.atStartOfDay();
-        LocalDateTime endDateTime = endDate.atTime(LocalTime.MAX);
+    public List<PageStatsDto> getTopPages(String siteCode, LocalDate startDate, LocalDate endDate, int limit,
+                                          boolean approximate, boolean exact) {
+        return cached("pages", siteCode, startDate, endDate, List.of(limit, approximate, exact),
+                () -> loadTopPages(siteCode, startDate, endDate, limit, approximate, exact), List::size);
+    }
 
-        List<Object[]> results = pageViewRepository.findTopPagesBySiteCode(siteCode, startDateTime, endDateTime);
+    private List<PageStatsDto> loadTopPages(String siteCode, LocalDate startDate, LocalDate endDate, int limit,
+                                            boolean approximate, boolean exact) {
+        LocalDate rollupEnd = getRollupEnd(siteCode, startDate, endDate);
+        boolean hasRollup = !rollupEnd.isBefore(startDate);
+        boolean hasRaw = rollupEnd.isBefore(endDate);
+        LocalDateTime rawStart = rollupEnd.plusDays(1).atStartOfDay();
+        LocalDateTime rawEnd = endDate.atTime(LocalTime.MAX);
+
+        List<String> pagePaths;
+        if (exact) {
+            pagePaths = pageStatsRepository.findTopPagePaths(siteCode, startDate, rollupEnd, rawStart, rawEnd, limit)
+                    .stream()
+                    .map(row -> (String) row[0])
+                    .collect(Collectors.toList());
+        } else {
+            pagePaths = topKStore.top(siteCode, TopKStore.Dimension.PAGE, startDate, endDate, limit).stream()
+                    .map(SpaceSaving.Item::getKey)
+                    .collect(Collectors.toList());
+        }
+        if (pagePaths.isEmpty()) return new ArrayList<>();
 
-        return results.stream()
-                .limit(limit)
-                .map(row -> PageStatsDto.builder()
-                        .pagePath((String) row[0])
-                        .pageTitle((String) row[1])
-                        .pageViews(((Number) row[2]).longValue())
-                        .uniquePageViews(((Number) row[3]).longValue())
-                        .build())
+        // 선택된 경로만 정확한 조회수로 다시 합산
+        Map<String, PageStatsDto> merged = new LinkedHashMap<>();
+        if (hasRollup) {
+            pageStatsRepository.sumByPagePaths(siteCode, pagePaths, startDate, rollupEnd)
+                    .forEach(row -> mergePage(merged, row));
+        }
+        if (hasRaw) {
+            pageViewRepository.countByPagePaths(siteCode, pagePaths, rawStart, rawEnd)
+                    .forEach(row -> mergePage(merged, row));
+        }
+
+        List<PageStatsDto> pages = merged.values().stream()
+                .sorted(Comparator.comparing(PageStatsDto::getPageViews).reversed())
                 .collect(Collectors.toList());
+        if (pages.isEmpty()) return pages;
+
+        // 순 페이지뷰는 일별 값을 더할 수 없으므로 상위 페이지에 대해서만 기간 전체로 다시 계산
+        if (approximate) {
+            Map<String, Long> estimates = visitorSketchStore.estimatePageVisitors(siteCode, startDate, endDate, pagePaths);
+            BigDecimal errorRate = toPercent(visitorSketchStore.getPageErrorRate());
+            pages.forEach(page -> {
+                Long estimate = estimates.get(page.getPagePath());
+                if (estimate != null) {
+                    page.setUniquePageViews(estimate);
+                    page.setUniquePageViewsErrorRate(errorRate);
+                }
+            });
+        } else {
+            Map<String, Long> uniques = new HashMap<>();
+            pageViewRepository.countUniqueVisitorsByPagePaths(siteCode, pagePaths,
+                            startDate.atStartOfDay(), endDate.atTime(LocalTime.MAX))
+                    .forEach(row -> uniques.put((String) row[0], ((Number) row[1]).longValue()));
+            pages.forEach(page -> page.setUniquePageViews(uniques.getOrDefault(page.getPagePath(), page.getUniquePageViews())));
+        }
+        return pages;
     }
 
     /**
      * 디바이스 통계
      */
     public DeviceStatsDto getDeviceStats(String siteCode, LocalDate startDate, LocalDate endDate) {
-        LocalDateTime startDateTime = startDate.atStartOfDay();
-        LocalDateTime endDateTime = endDate.atTime(LocalTime.MAX);
+        return cached("devices", siteCode, startDate, endDate, List.of(),
+                () -> loadDeviceStats(siteCode, startDate, endDate),
+                stats -> stats.getDevices().size() + stats.getBrowsers().size());
+    }
 
-        List<Object[]> deviceData = pageViewRepository.countByDeviceType(siteCode, startDateTime, endDateTime);
-        List<Object[]> browserData = pageViewRepository.countByBrowser(siteCode, startDateTime, endDateTime);
+    private DeviceStatsDto loadDeviceStats(String siteCode, LocalDate startDate, LocalDate endDate) {
+        LocalDate rollupEnd = getRollupEnd(siteCode, startDate, endDate);
+
+        Map<String, Long> deviceCounts = new HashMap<>();
+        Map<String, Long> browserCounts = new HashMap<>();
+        if (!rollupEnd.isBefore(startDate)) {
+            mergeCounts(deviceCounts, deviceStatsRepository.sumByDeviceType(siteCode, startDate, rollupEnd));
+            mergeCounts(browserCounts, deviceStatsRepository.sumByBrowser(siteCode, startDate, rollupEnd));
+        }
+        if (rollupEnd.isBefore(endDate)) {
+            LocalDateTime rawStart = rollupEnd.plusDays(1).atStartOfDay();
+            LocalDateTime rawEnd = endDate.atTime(LocalTime.MAX);
+            mergeCounts(deviceCounts, pageViewRepository.countByDeviceType(siteCode, rawStart, rawEnd));
+            mergeCounts(browserCounts, pageViewRepository.countByBrowser(siteCode, rawStart, rawEnd));
+        }
+        List<Object[]> deviceData = toSortedRows(deviceCounts);
+        List<Object[]> browserData = toSortedRows(browserCounts);
 
         long totalDevices = deviceData.stream().mapToLong(row -> ((Number) row[1]).longValue()).sum();
         long totalBrowsers = browserData.stream().mapToLong(row -> ((Number) row[1]).longValue()).sum();
@@ -204,10 +410,22 @@ public class AnalyticsService {
      * 유입 경로 통계
      */
     public ReferrerStatsDto getReferrerStats(String siteCode, LocalDate startDate, LocalDate endDate) {
-        LocalDateTime startDateTime = startDate.atStartOfDay();
-        LocalDateTime endDateTime = endDate.atTime(LocalTime.MAX);
+        return cached("referrers", siteCode, startDate, endDate, List.of(),
+                () -> loadReferrerStats(siteCode, startDate, endDate), stats -> stats.getReferrers().size());
+    }
 
-        List<Object[]> results = sessionRepository.countByReferrerType(siteCode, startDateTime, endDateTime);
+    private ReferrerStatsDto loadReferrerStats(String siteCode, LocalDate startDate, LocalDate endDate) {
+        LocalDate rollupEnd = getRollupEnd(siteCode, startDate, endDate);
+
+        Map<String, Long> referrerCounts = new HashMap<>();
+        if (!rollupEnd.isBefore(startDate)) {
+            mergeCounts(referrerCounts, referrerStatsRepository.sumByReferrerType(siteCode, startDate, rollupEnd));
+        }
+        if (rollupEnd.isBefore(endDate)) {
+            mergeCounts(referrerCounts, sessionRepository.countByReferrerType(
+                    siteCode, rollupEnd.plusDays(1).atStartOfDay(), endDate.atTime(LocalTime.MAX)));
+        }
+        List<Object[]> results = toSortedRows(referrerCounts);
 
         long total = results.stream().mapToLong(row -> ((Number) row[1]).longValue()).sum();
 
@@ -240,36 +458,301 @@ public class AnalyticsService {
     }
 
     /**
-     * 실시간 통계
+     * 외부 유입 호스트 상위 목록 (일별 Space-Saving 요약 기준 추정값)
      */
-    public RealtimeStatsDto getRealtimeStats(String siteCode) {
-        LocalDateTime since = LocalDateTime.now().minusMinutes(5);
+    public List<TopReferrerDto> getTopReferrers(String siteCode, LocalDate startDate, LocalDate endDate, int limit) {
+        return cached("topReferrers", siteCode, startDate, endDate, List.of(limit),
+                () -> loadTopReferrers(siteCode, startDate, endDate, limit), List::size);
+    }
 
-        Long activeUsers = pageViewRepository.countActiveUsers(siteCode, since);
-        List<Object[]> activePages = pageViewRepository.findActivePages(siteCode, since);
+    private List<TopReferrerDto> loadTopReferrers(String siteCode, LocalDate startDate, LocalDate endDate, int limit) {
+        return topKStore.top(siteCode, TopKStore.Dimension.REFERRER, startDate, endDate, limit).stream()
+                .map(item -> TopReferrerDto.builder()
+                        .host(item.getKey())
+                        .pageViews(item.getCount())
+                        .maxError(item.getError())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 페이지 이동 (Sankey 링크) 상위 목록
+     * 종료된 세션의 전이 횟수를 세션 시작일 기준으로 미리 합산해 둔 값이다.
+     *
+     * @param fromPath 주어지면 이 페이지에서 다음으로 이동한 경로만
+     */
+    public List<PathTransitionDto> getPathTransitions(String siteCode, LocalDate startDate, LocalDate endDate,
+                                                      String fromPath, int limit) {
+        return cached("paths", siteCode, startDate, endDate, Arrays.asList(fromPath, limit),
+                () -> loadPathTransitions(siteCode, startDate, endDate, fromPath, limit), List::size);
+    }
 
-        List<RealtimeStatsDto.ActivePageDto> pages = activePages.stream()
-                .limit(10)
-                .map(row -> RealtimeStatsDto.ActivePageDto.builder()
-                        .pagePath((String) row[0])
-                        .activeUsers(((Number) row[1]).longValue())
+    private List<PathTransitionDto> loadPathTransitions(String siteCode, LocalDate startDate, LocalDate endDate,
+                                                        String fromPath, int limit) {
+        if (startDate.isAfter(endDate)) {
+            throw new BusinessException(ErrorCode.INVALID_INPUT_VALUE);
+        }
+        return analyticsPathRepository.sumTransitions(siteCode, startDate, endDate, fromPath, limit).stream()
+                .map(row -> PathTransitionDto.builder()
+                        .fromPath((String) row[0])
+                        .toPath((String) row[1])
+                        .transitions(((Number) row[2]).longValue())
                         .build())
                 .collect(Collectors.toList());
+    }
+
+    /**
+     * 퍼널 단계별 도달 세션 수 / 전환율
+     */
+    public FunnelDto getFunnel(String siteCode, String name, LocalDate startDate, LocalDate endDate) {
+        return cached("funnel", siteCode, startDate, endDate, List.of(name),
+                () -> loadFunnel(siteCode, name, startDate, endDate), funnel -> funnel.getSteps().size());
+    }
 
-        return RealtimeStatsDto.builder()
-                .activeUsers(activeUsers)
-                .activePages(pages)
+    private FunnelDto loadFunnel(String siteCode, String name, LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new BusinessException(ErrorCode.INVALID_INPUT_VALUE);
+        }
+        AnalyticsProperties.Funnel funnel = pathStore.findFunnel(siteCode, name)
+                .orElseThrow(() -> new BusinessException(ErrorCode.RESOURCE_NOT_FOUND));
+
+        long[] reached = new long[funnel.getSteps().size()];
+        analyticsPathRepository.sumFunnelSteps(siteCode, name, startDate, endDate).forEach(row -> {
+            int step = ((Number) row[0]).intValue();
+            if (step < reached.length) reached[step] = ((Number) row[1]).longValue();
+        });
+
+        List<FunnelDto.StepData> steps = new ArrayList<>(reached.length);
+        for (int i = 0; i < reached.length; i++) {
+            long previous = i > 0 ? reached[i - 1] : reached[0];
+            steps.add(FunnelDto.StepData.builder()
+                    .path(funnel.getSteps().get(i))
+                    .sessions(reached[i])
+                    .conversionRate(reached[0] > 0
+                            ? BigDecimal.valueOf(reached[i] * 100.0 / reached[0]).setScale(1, RoundingMode.HALF_UP)
+                            : BigDecimal.ZERO)
+                    .dropOffRate(previous > 0
+                            ? BigDecimal.valueOf((previous - reached[i]) * 100.0 / previous).setScale(1, RoundingMode.HALF_UP)
+                            : BigDecimal.ZERO)
+                    .build());
+        }
+        return FunnelDto.builder()
+                .name(name)
+                .steps(steps)
                 .build();
     }
 
+    /**
+     * 주별 방문자 코호트 리텐션
+     * 기간에 걸친 주(월~일)마다 그 주에 첫 방문한 방문자 중 이후 1 ~ weeks 주차에 다시 방문한 비율을 구한다.
+     * 집계가 끝난 날짜의 일별 방문자 비트맵만 사용하므로 오늘 방문은 포함되지 않는다.
+     * 비트맵이 없는 과거 날짜는 POST /analytics/rollup 으로 재집계하면 만들어진다(원본 보관 기간 내).
+     */
+    public CohortRetentionDto getCohortRetention(String siteCode, LocalDate startDate, LocalDate endDate, int weeks) {
+        return cached("retention", siteCode, startDate, endDate, List.of(weeks),
+                () -> loadCohortRetention(siteCode, startDate, endDate, weeks),
+                retention -> retention.getCohorts().size() * (weeks + 1));
+    }
+
+    private CohortRetentionDto loadCohortRetention(String siteCode, LocalDate startDate, LocalDate endDate, int weeks) {
+        if (startDate.isAfter(endDate) || weeks < 1 || weeks > MAX_RETENTION_WEEKS) {
+            throw new BusinessException(ErrorCode.INVALID_INPUT_VALUE);
+        }
+        LocalDate firstWeek = startDate.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        int cohorts = (int) (ChronoUnit.WEEKS.between(firstWeek, endDate) + 1);
+        if (cohorts > MAX_RETENTION_WEEKS) {
+            throw new BusinessException(ErrorCode.INVALID_INPUT_VALUE);
+        }
+
+        LocalDate rollupEnd = getRollupEnd(siteCode, firstWeek, firstWeek.plusWeeks(cohorts + weeks).minusDays(1));
+        List<CohortRetentionDto.Cohort> rows = new ArrayList<>();
+        if (!rollupEnd.isBefore(firstWeek)) {
+            List<long[]> retention = visitorBitmapStore.retention(siteCode, firstWeek, cohorts, weeks);
+            for (int cohort = 0; cohort < cohorts; cohort++) {
+                LocalDate weekStart = firstWeek.plusWeeks(cohort);
+                if (weekStart.isAfter(rollupEnd)) break;
+
+                long[] row = retention.get(cohort);
+                List<Long> returning = new ArrayList<>(weeks);
+                List<BigDecimal> rates = new ArrayList<>(weeks);
+                for (int week = 1; week <= weeks; week++) {
+                    boolean started = !weekStart.plusWeeks(week).isAfter(rollupEnd);
+                    returning.add(started ? row[week] : null);
+                    rates.add(!started ? null : row[0] > 0
+                            ? BigDecimal.valueOf(row[week] * 100.0 / row[0]).setScale(1, RoundingMode.HALF_UP)
+                            : BigDecimal.ZERO);
+                }
+                rows.add(CohortRetentionDto.Cohort.builder()
+                        .weekStart(weekStart)
+                        .visitors(row[0])
+                        .returningVisitors(returning)
+                        .retentionRates(rates)
+                        .build());
+            }
+        }
+
+        return CohortRetentionDto.builder()
+                .weeks(weeks)
+                .bitmapStartDate(visitorBitmapStore.findStartDate(siteCode))
+                .cohorts(rows)
+                .build();
+    }
+
+    /**
+     * 요일 x 시간대 히트맵
+     * 집계된 날짜는 일별 24칸 배열을 더하고, 집계되지 않은 구간(보통 오늘)만 원본을 날짜/시간대로 묶는다.
+     */
+    public HourlyHeatmapDto getHourlyHeatmap(String siteCode, LocalDate startDate, LocalDate endDate) {
+        return cached("heatmap", siteCode, startDate, endDate, List.of(),
+                () -> loadHourlyHeatmap(siteCode, startDate, endDate), heatmap -> 14);
+    }
+
+    private HourlyHeatmapDto loadHourlyHeatmap(String siteCode, LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new BusinessException(ErrorCode.INVALID_INPUT_VALUE);
+        }
+        LocalDate rollupEnd = getRollupEnd(siteCode, startDate, endDate);
+
+        // [요일(월=0)][시간]
+        long[][] pageViews = new long[7][24];
+        long[][] sessions = new long[7][24];
+        if (!rollupEnd.isBefore(startDate)) {
+            dailyStatsRepository.findHourlyBySiteCodeAndDateRange(siteCode, startDate, rollupEnd)
+                    .forEach(row -> {
+                        int day = ((LocalDate) row[0]).getDayOfWeek().ordinal();
+                        addHourly((String) row[1], pageViews[day]);
+                        addHourly((String) row[2], sessions[day]);
+                    });
+        }
+        if (rollupEnd.isBefore(endDate)) {
+            LocalDateTime rawStart = rollupEnd.plusDays(1).atStartOfDay();
+            LocalDateTime rawEnd = endDate.atTime(LocalTime.MAX);
+            pageViewRepository.countByDateAndHour(siteCode, rawStart, rawEnd)
+                    .forEach(row -> addDateHour(row, pageViews));
+            sessionRepository.countByDateAndHour(siteCode, rawStart, rawEnd)
+                    .forEach(row -> addDateHour(row, sessions));
+        }
+
+        return HourlyHeatmapDto.builder()
+                .dayOfWeeks(List.of(DayOfWeek.values()))
+                .pageViews(List.of(pageViews))
+                .sessions(List.of(sessions))
+                .build();
+    }
+
+    /**
+     * "[n0,n1,...,n23]" 형식의 시간대 배열을 더함 (집계 전 행은 null)
+     */
+    private void addHourly(String json, long[] target) {
+        if (json == null) return;
+        long[] hourly;
+        try {
+            hourly = objectMapper.readValue(json, long[].class);
+        } catch (JsonProcessingException e) {
+            log.warn("[Analytics] Invalid hourly array skipped: {}", e.getMessage());
+            return;
+        }
+        for (int hour = 0; hour < Math.min(hourly.length, target.length); hour++) {
+            target[hour] += hourly[hour];
+        }
+    }
+
+    private static void addDateHour(Object[] row, long[][] target) {
+        int day = ((java.sql.Date) row[0]).toLocalDate().getDayOfWeek().ordinal();
+        target[day][((Number) row[1]).intValue()] += ((Number) row[2]).longValue();
+    }
+
+    /**
+     * 실시간 통계
+     */
+    public RealtimeStatsDto getRealtimeStats(String siteCode) {
+        return realtimeCounter.summarize(realtimeCounter.snapshot(siteCode), 10);
+    }
+
+    /**
+     * 이 노드의 실시간 버킷 (다중 노드 환경에서 합산용)
+     */
+    public List<RealtimeBucketDto> getRealtimeBuckets(String siteCode) {
+        return realtimeCounter.snapshot(siteCode);
+    }
+
     // === Helper Methods ===
 
+    /**
+     * 캐시된 결과 또는 읽기 전용 트랜잭션에서 loader 실행 결과 (캐시 적중 시 커넥션을 잡지 않음)
+     */
+    private <T> T cached(String method, String siteCode, LocalDate startDate, LocalDate endDate, List<?> params,
+                         Supplier<T> loader, ToIntFunction<T> weigher) {
+        return resultCache.get(method, siteCode, startDate, endDate, params,
+                () -> readOnlyTransaction.execute(status -> loader.get()), weigher);
+    }
+
+    /**
+     * 집계 테이블에서 읽을 마지막 날짜 (없으면 startDate 전날)
+     */
+    private LocalDate getRollupEnd(String siteCode, LocalDate startDate, LocalDate endDate) {
+        return getRollupEnd(dailyStatsRepository.findLastStatsDate(siteCode), startDate, endDate);
+    }
+
+    private LocalDate getRollupEnd(LocalDate watermark, LocalDate startDate, LocalDate endDate) {
+        if (watermark == null) {
+            return startDate.minusDays(1);
+        }
+        LocalDate lastClosed = LocalDate.now().minusDays(1);
+        LocalDate rollupEnd = watermark.isBefore(lastClosed) ? watermark : lastClosed;
+        rollupEnd = rollupEnd.isBefore(endDate) ? rollupEnd : endDate;
+        return rollupEnd.isBefore(startDate) ? startDate.minusDays(1) : rollupEnd;
+    }
+
+    /**
+     * [경로, 제목, 조회수] 행을 경로 기준으로 합산
+     */
+    private void mergePage(Map<String, PageStatsDto> merged, Object[] row) {
+        String pagePath = (String) row[0];
+        long views = ((Number) row[2]).longValue();
+
+        PageStatsDto page = merged.get(pagePath);
+        if (page == null) {
+            merged.put(pagePath, PageStatsDto.builder()
+                    .pagePath(pagePath)
+                    .pageTitle((String) row[1])
+                    .pageViews(views)
+                    .uniquePageViews(0L)
+                    .build());
+        } else {
+            page.setPageViews(page.getPageViews() + views);
+            if (page.getPageTitle() == null) page.setPageTitle((String) row[1]);
+        }
+    }
+
+    private void mergeCounts(Map<String, Long> counts, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            String key = row[0] != null ? (String) row[0] : "unknown";
+            counts.merge(key, ((Number) row[1]).longValue(), Long::sum);
+        }
+    }
+
+    private List<Object[]> toSortedRows(Map<String, Long> counts) {
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .map(entry -> new Object[]{entry.getKey(), entry.getValue()})
+                .collect(Collectors.toList());
+    }
+
     private String formatDuration(int seconds) {
         int minutes = seconds / 60;
         int secs = seconds % 60;
         return String.format("%d:%02d", minutes, secs);
     }
 
+    private long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0;
+    }
+
+    private BigDecimal toPercent(double rate) {
+        return BigDecimal.valueOf(rate * 100).setScale(2, RoundingMode.HALF_UP);
+    }
+
     private BigDecimal calculateChangeRate(Long current, Long previous) {
         if (previous == null || previous == 0) {
             return current > 0 ? BigDecimal.valueOf(100) : BigDecimal.ZERO;
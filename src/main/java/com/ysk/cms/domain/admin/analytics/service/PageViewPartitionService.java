@@ -0,0 +1,174 @@
+package com.ysk.cms.domain.admin.analytics.service;
+
+import com.ysk.cms.domain.admin.analytics.config.AnalyticsProperties;
+import com.ysk.cms.domain.admin.analytics.repository.DailyStatsRepository;
+import com.ysk.cms.domain.admin.analytics.repository.PageViewPartitionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+
+import static com.ysk.cms.domain.admin.analytics.repository.PageViewPartitionRepository.FUTURE_PARTITION;
+import static com.ysk.cms.domain.admin.analytics.repository.PageViewPartitionRepository.OLD_PARTITION;
+
+/**
+ * 원본 페이지뷰 월별 파티션 관리
+ * 앞으로 쓸 월 파티션을 미리 만들고, 보관 기간이 지나고 일별 집계까지 끝난 파티션은 통째로 삭제(또는 아카이브)한다.
+ * 집계 테이블과 스케치는 그대로 남으므로 닫힌 기간의 통계는 계속 조회되지만, 삭제된 기간이 걸친 요약의 순 방문자는
+ * 원본으로 셀 수 없어 스케치 추정값으로 응답한다 (AnalyticsProperties.Retention#getRawRetainedFrom).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PageViewPartitionService {
+
+    private final PageViewPartitionRepository pageViewPartitionRepository;
+    private final DailyStatsRepository dailyStatsRepository;
+    private final AnalyticsProperties analyticsProperties;
+
+    @Scheduled(cron = "${analytics.retention.cron:0 10 1 * * *}")
+    public void maintain() {
+        List<String> partitions = pageViewPartitionRepository.findPartitionNames();
+        if (!partitions.contains(FUTURE_PARTITION)) {
+            log.warn("[Analytics] {} is not partitioned by month, skip partition maintenance", PageViewPartitionRepository.TABLE);
+            return;
+        }
+
+        YearMonth current = YearMonth.now();
+        try {
+            createFuturePartitions(partitions, current);
+            expirePartitions(partitions, current);
+        } catch (Exception e) {
+            log.error("[Analytics] Partition maintenance failed: {}", e.getMessage());
+        }
+        trimSiteRows(current);
+    }
+
+    /**
+     * 마지막 월 파티션 다음 달부터 monthsAhead 개월 뒤까지의 파티션 생성
+     * 작업이 멈춰 지난 달 파티션이 없어도 한 달씩 만들어 p_future 에 쌓인 데이터가 월별로 나뉘게 한다.
+     */
+    private void createFuturePartitions(List<String> partitions, YearMonth current) {
+        YearMonth last = lastMonth(partitions);
+        YearMonth until = current.plusMonths(getConfig().getMonthsAhead());
+        YearMonth month = last == null ? current : last.plusMonths(1);
+
+        for (; !month.isAfter(until); month = month.plusMonths(1)) {
+            pageViewPartitionRepository.addMonthPartition(month);
+            log.info("[Analytics] Created partition {}", PageViewPartitionRepository.partitionName(month));
+        }
+    }
+
+    /**
+     * 오래된 파티션부터 만료 처리. 보관해야 하는 파티션을 만나면 중단한다.
+     */
+    private void expirePartitions(List<String> partitions, YearMonth current) {
+        AnalyticsProperties.Retention config = getConfig();
+        // 보관 기간이 가장 짧은 사이트 기준으로도 만료되지 않은 파티션은 볼 필요가 없음
+        int minMonths = config.getSiteMonths().values().stream()
+                .mapToInt(Integer::intValue)
+                .reduce(config.getDefaultMonths(), Math::min);
+        LocalDate earliestCutoff = current.minusMonths(minMonths).atDay(1);
+
+        for (int i = 0; i < partitions.size(); i++) {
+            String partition = partitions.get(i);
+            LocalDate end = partitionEnd(partitions, i);
+            if (end == null || end.isAfter(earliestCutoff)) return;
+            if (!isExpired(partition, end, current)) return;
+
+            if (config.getAction() == AnalyticsProperties.RetentionAction.ARCHIVE) {
+                String archiveTable = pageViewPartitionRepository.archivePartition(partition);
+                log.info("[Analytics] Archived partition {} to {}", partition, archiveTable);
+            } else {
+                pageViewPartitionRepository.dropPartition(partition);
+                log.info("[Analytics] Dropped partition {}", partition);
+            }
+        }
+    }
+
+    /**
+     * 파티션에 데이터가 있는 모든 사이트의 보관 기간이 지났고 해당 기간 집계가 끝났는지 확인
+     */
+    private boolean isExpired(String partition, LocalDate end, YearMonth current) {
+        AnalyticsProperties.Retention config = getConfig();
+        for (String siteCode : pageViewPartitionRepository.findSiteCodes(partition)) {
+            if (end.isAfter(current.minusMonths(config.getMonths(siteCode)).atDay(1))) {
+                return false;
+            }
+            LocalDate watermark = dailyStatsRepository.findLastStatsDate(siteCode);
+            if (watermark == null || watermark.isBefore(end.minusDays(1))) {
+                log.warn("[Analytics] Partition {} expired but site {} is not rolled up (watermark {})",
+                        partition, siteCode, watermark);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 기본값보다 보관 기간이 짧은 사이트는 남아 있는 파티션에서 만료된 행을 나눠 삭제
+     */
+    private void trimSiteRows(YearMonth current) {
+        AnalyticsProperties.Retention config = getConfig();
+        for (Map.Entry<String, Integer> entry : config.getSiteMonths().entrySet()) {
+            String siteCode = entry.getKey();
+            if (entry.getValue() >= config.getDefaultMonths()) continue;
+
+            try {
+                LocalDate cutoff = current.minusMonths(entry.getValue()).atDay(1);
+                // 집계가 끝난 날짜까지만 삭제
+                LocalDate watermark = dailyStatsRepository.findLastStatsDate(siteCode);
+                if (watermark == null) continue;
+                if (watermark.plusDays(1).isBefore(cutoff)) {
+                    cutoff = watermark.plusDays(1);
+                }
+
+                long deleted = 0;
+                int batch;
+                do {
+                    batch = pageViewPartitionRepository.deleteSiteRowsBefore(siteCode, cutoff.atStartOfDay(), config.getDeleteBatchSize());
+                    deleted += batch;
+                } while (batch >= config.getDeleteBatchSize());
+
+                if (deleted > 0) {
+                    log.info("[Analytics] Deleted {} page views of site {} before {}", deleted, siteCode, cutoff);
+                }
+            } catch (Exception e) {
+                log.error("[Analytics] Retention delete failed for site {}: {}", siteCode, e.getMessage());
+            }
+        }
+    }
+
+    private static YearMonth lastMonth(List<String> partitions) {
+        YearMonth last = null;
+        for (String partition : partitions) {
+            YearMonth month = PageViewPartitionRepository.parseMonth(partition);
+            if (month != null) last = month;
+        }
+        return last;
+    }
+
+    /**
+     * 파티션 범위의 끝 (이 날짜 미만). p_old 는 다음 월 파티션의 시작일
+     */
+    private static LocalDate partitionEnd(List<String> partitions, int index) {
+        String partition = partitions.get(index);
+        if (OLD_PARTITION.equals(partition)) {
+            YearMonth next = index + 1 < partitions.size()
+                    ? PageViewPartitionRepository.parseMonth(partitions.get(index + 1))
+                    : null;
+            return next != null ? next.atDay(1) : null;
+        }
+        YearMonth month = PageViewPartitionRepository.parseMonth(partition);
+        return month != null ? month.plusMonths(1).atDay(1) : null;
+    }
+
+    private AnalyticsProperties.Retention getConfig() {
+        return analyticsProperties.getRetention();
+    }
+}
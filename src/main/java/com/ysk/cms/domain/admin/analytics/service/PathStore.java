@@ -0,0 +1,252 @@
+package com.ysk.cms.domain.admin.analytics.service;
+
+import com.ysk.cms.domain.admin.analytics.config.AnalyticsProperties;
+import com.ysk.cms.domain.admin.analytics.path.PathDictionary;
+import com.ysk.cms.domain.admin.analytics.path.PathSequence;
+import com.ysk.cms.domain.admin.analytics.repository.AnalyticsPathRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 페이지 이동 경로 / 퍼널 집계
+ * 진행 중인 세션은 TrackingStateCache 가 경로 사전 ID 배열(PathSequence)로 들고 있다가,
+ * 세션이 끝나면 fold 로 넘겨 (입장 → 첫 페이지 → ... → 마지막 페이지 → 종료) 전이 횟수와 퍼널 단계 도달 수에 더한다.
+ * 증분은 사이트/세션 시작일별로 메모리에 모았다가 주기적으로 누적 upsert 한다.
+ * 값은 세션의 샘플링 가중치 합이며, 아직 끝나지 않은 세션은 포함되지 않는다.
+ * 경로 사전은 사이트별로 하루마다 새로 만들어 새 페이지가 계속 (other) 로 묶이지 않게 한다.
+ * 용량 초과로 캐시에서 밀려난 진행 중 세션의 경로는 바로 반영하지 않고 보관했다가,
+ * 세션이 다시 들어오면 이어 쓰고 세션 만료 시간이 지나면 반영한다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PathStore {
+
+    public static final String ENTRANCE = "(entrance)";
+    public static final String EXIT = "(exit)";
+
+    private final AnalyticsPathRepository analyticsPathRepository;
+    private final AnalyticsProperties analyticsProperties;
+    private final TransactionTemplate transactionTemplate;
+
+    // siteCode → 오늘 만든 시퀀스가 쓰는 경로 사전
+    private final Map<String, DayDictionary> dictionaries = new ConcurrentHashMap<>();
+    // "siteCode:yyyy-MM-dd" → 저장되지 않은 증분
+    private final Map<String, DayDelta> days = new ConcurrentHashMap<>();
+    // 세션 키 → 캐시에서 밀려난 진행 중 세션의 경로
+    private final Map<String, ParkedPath> parked = new ConcurrentHashMap<>();
+
+    public boolean isEnabled() {
+        return analyticsProperties.getPath().isEnabled();
+    }
+
+    /**
+     * 세션의 경로 시퀀스 (밀려났던 세션이면 보관된 경로를 이어 씀)
+     */
+    public PathSequence openSequence(String sessionKey, String siteCode) {
+        ParkedPath path = parked.remove(sessionKey);
+        if (path != null) return path.sequence;
+        return new PathSequence(analyticsProperties.getPath().getMaxSteps(), dictionary(siteCode));
+    }
+
+    /**
+     * 용량 초과로 캐시에서 밀려난 진행 중 세션의 경로 보관 (끝난 세션으로 반영하면 경로가 중간에 끊김)
+     */
+    public void park(String sessionKey, String siteCode, LocalDate date, PathSequence sequence, double weight,
+                     LocalDateTime lastSeenAt) {
+        parked.put(sessionKey, new ParkedPath(siteCode, date, sequence, weight, lastSeenAt));
+    }
+
+    /**
+     * 보관된 경로 중 만료된 것 반영 (expiry 가 null 이면 모두). 보관 수가 maxParked 를 넘으면 오래된 것부터 반영
+     */
+    public void foldParked(LocalDateTime expiry, int maxParked) {
+        parked.forEach((key, path) -> {
+            if ((expiry == null || path.lastSeenAt.isBefore(expiry)) && parked.remove(key, path)) {
+                fold(path.siteCode, path.date, path.sequence, path.weight);
+            }
+        });
+
+        int overflow = parked.size() - maxParked;
+        if (overflow <= 0) return;
+        parked.entrySet().stream()
+                .sorted(Comparator.comparing(e -> e.getValue().lastSeenAt))
+                .limit(overflow)
+                .toList()
+                .forEach(entry -> {
+                    ParkedPath path = entry.getValue();
+                    if (parked.remove(entry.getKey(), path)) {
+                        fold(path.siteCode, path.date, path.sequence, path.weight);
+                    }
+                });
+    }
+
+    /**
+     * 사이트에 적용되는 퍼널 정의
+     */
+    public Optional<AnalyticsProperties.Funnel> findFunnel(String siteCode, String name) {
+        return analyticsProperties.getPath().getFunnels().stream()
+                .filter(funnel -> funnel.getName().equals(name) && funnel.appliesTo(siteCode))
+                .findFirst();
+    }
+
+    /**
+     * 끝난 세션의 경로 반영
+     */
+    public void fold(String siteCode, LocalDate date, PathSequence sequence, double weight) {
+        if (sequence.isEmpty()) return;
+
+        List<String> pages = new ArrayList<>(sequence.size());
+        for (int i = 0; i < sequence.size(); i++) {
+            pages.add(sequence.getPage(i));
+        }
+
+        DayDelta delta = days.computeIfAbsent(siteCode + ":" + date, key -> new DayDelta(siteCode, date));
+        synchronized (delta) {
+            String previous = ENTRANCE;
+            for (String page : pages) {
+                delta.transitions.merge(new Transition(previous, page), weight, Double::sum);
+                previous = page;
+            }
+            delta.transitions.merge(new Transition(previous, EXIT), weight, Double::sum);
+
+            for (AnalyticsProperties.Funnel funnel : analyticsProperties.getPath().getFunnels()) {
+                if (!funnel.appliesTo(siteCode)) continue;
+                int reached = reachedSteps(pages, funnel.getSteps());
+                for (int step = 0; step < reached; step++) {
+                    delta.funnelSteps.merge(new FunnelStep(funnel.getName(), step), weight, Double::sum);
+                }
+            }
+        }
+    }
+
+    /**
+     * 증분 저장
+     */
+    @Scheduled(fixedDelayString = "${analytics.path.flush-interval-ms:10000}")
+    public void flush() {
+        days.forEach((key, delta) -> {
+            Map<Transition, Double> transitions;
+            Map<FunnelStep, Double> funnelSteps;
+            synchronized (delta) {
+                if (delta.transitions.isEmpty() && delta.funnelSteps.isEmpty()) {
+                    if (delta.date.isBefore(LocalDate.now())) days.remove(key, delta);
+                    return;
+                }
+                transitions = new HashMap<>(delta.transitions);
+                funnelSteps = new HashMap<>(delta.funnelSteps);
+                delta.transitions.clear();
+                delta.funnelSteps.clear();
+            }
+            write(delta, transitions, funnelSteps);
+        });
+    }
+
+    @PreDestroy
+    void flushAll() {
+        flush();
+    }
+
+    /**
+     * 퍼널 단계를 순서대로 몇 단계까지 지났는지 (단계 사이에 다른 페이지가 있어도 됨)
+     */
+    static int reachedSteps(List<String> pages, List<String> steps) {
+        int step = 0;
+        for (int i = 0; i < pages.size() && step < steps.size(); i++) {
+            if (matches(steps.get(step), pages.get(i))) step++;
+        }
+        return step;
+    }
+
+    private static boolean matches(String step, String page) {
+        return step.endsWith("*") ? page.startsWith(step.substring(0, step.length() - 1)) : step.equals(page);
+    }
+
+    private void write(DayDelta delta, Map<Transition, Double> transitions, Map<FunnelStep, Double> funnelSteps) {
+        List<Object[]> transitionRows = new ArrayList<>(transitions.size());
+        transitions.forEach((transition, count) -> transitionRows.add(
+                new Object[]{delta.siteCode, delta.date, transition.getFrom(), transition.getTo(), count}));
+        List<Object[]> funnelRows = new ArrayList<>(funnelSteps.size());
+        funnelSteps.forEach((step, count) -> funnelRows.add(
+                new Object[]{delta.siteCode, delta.date, step.getFunnelName(), step.getIndex(), count}));
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                analyticsPathRepository.addTransitions(transitionRows);
+                analyticsPathRepository.addFunnelSteps(funnelRows);
+            });
+        } catch (Exception e) {
+            // 다음 주기에 다시 저장되도록 증분을 되돌림
+            synchronized (delta) {
+                transitions.forEach((transition, count) -> delta.transitions.merge(transition, count, Double::sum));
+                funnelSteps.forEach((step, count) -> delta.funnelSteps.merge(step, count, Double::sum));
+            }
+            log.error("[Analytics] Failed to flush path stats for {} {}: {}", delta.siteCode, delta.date, e.getMessage());
+        }
+    }
+
+    /**
+     * 사이트의 오늘 경로 사전 (날짜가 바뀌면 새 사전, 진행 중인 시퀀스는 자기 사전을 계속 씀)
+     */
+    private PathDictionary dictionary(String siteCode) {
+        LocalDate today = LocalDate.now();
+        return dictionaries.compute(siteCode, (key, current) -> current != null && current.date.equals(today)
+                ? current
+                : new DayDictionary(today, new PathDictionary(analyticsProperties.getPath().getMaxPathsPerSite())))
+                .dictionary;
+    }
+
+    @RequiredArgsConstructor
+    private static class DayDictionary {
+        private final LocalDate date;
+        private final PathDictionary dictionary;
+    }
+
+    @RequiredArgsConstructor
+    private static class ParkedPath {
+        private final String siteCode;
+        private final LocalDate date;
+        private final PathSequence sequence;
+        private final double weight;
+        private final LocalDateTime lastSeenAt;
+    }
+
+    private static class DayDelta {
+        private final String siteCode;
+        private final LocalDate date;
+        private final Map<Transition, Double> transitions = new HashMap<>();
+        private final Map<FunnelStep, Double> funnelSteps = new HashMap<>();
+
+        DayDelta(String siteCode, LocalDate date) {
+            this.siteCode = siteCode;
+            this.date = date;
+        }
+    }
+
+    @Value
+    private static class Transition {
+        String from;
+        String to;
+    }
+
+    @Value
+    private static class FunnelStep {
+        String funnelName;
+        int index;
+    }
+}
@@ -0,0 +1,286 @@
+package com.ysk.cms.domain.admin.analytics.service;
+
+import com.ysk.cms.domain.admin.analytics.config.AnalyticsProperties;
+import com.ysk.cms.domain.admin.analytics.dto.RealtimeBucketDto;
+import com.ysk.cms.domain.admin.analytics.dto.RealtimeSketchDto;
+import com.ysk.cms.domain.admin.analytics.dto.RealtimeStatsDto;
+import com.ysk.cms.domain.admin.analytics.sketch.HyperLogLog;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 실시간 활성 사용자 / 활성 페이지 카운터
+ * 사이트별로 분 단위 버킷 링을 두고 트래킹 경로에서 직접 갱신한다.
+ * 조회는 최근 windowMinutes 개 버킷만 합치므로 DB 를 거치지 않는다.
+ */
+@Component
+@RequiredArgsConstructor
+public class RealtimeCounter {
+
+    private final AnalyticsProperties analyticsProperties;
+
+    private final Map<String, SiteWindow> windows = new ConcurrentHashMap<>();
+
+    /**
+     * 페이지뷰 반영
+     */
+    public void recordPageView(String siteCode, String visitorId, String pagePath, LocalDateTime at) {
+        long minute = toEpochMinute(at);
+        if (minute <= currentMinute() - getWindowMinutes()) return;
+
+        SiteWindow window = windows.computeIfAbsent(siteCode, key -> new SiteWindow(getWindowMinutes() + 1));
+        window.bucket(minute).add(visitorId, pagePath);
+        window.pageViews.increment();
+    }
+
+    /**
+     * 이 노드가 받은 누적 페이지뷰 수 (사이트 창이 정리되면 0 부터 다시 셈)
+     */
+    public long getPageViewTotal(String siteCode) {
+        SiteWindow window = windows.get(siteCode);
+        return window != null ? window.pageViews.sum() : 0;
+    }
+
+    /**
+     * 이 노드가 최근 페이지뷰를 받은 사이트
+     */
+    public Set<String> getSiteCodes() {
+        return windows.keySet();
+    }
+
+    /**
+     * 이 노드의 최근 버킷 스냅샷
+     */
+    public List<RealtimeBucketDto> snapshot(String siteCode) {
+        SiteWindow window = windows.get(siteCode);
+        if (window == null) return List.of();
+
+        long from = currentMinute() - getWindowMinutes() + 1;
+        List<RealtimeBucketDto> buckets = new ArrayList<>();
+        for (int i = 0; i < window.ring.length(); i++) {
+            MinuteBucket bucket = window.ring.get(i);
+            if (bucket == null || bucket.minute < from) continue;
+            buckets.add(RealtimeBucketDto.builder()
+                    .epochMinute(bucket.minute)
+                    .visitorIds(Set.copyOf(bucket.visitors))
+                    .pages(bucket.pages.entrySet().stream()
+                            .collect(Collectors.toMap(Map.Entry::getKey, e -> Set.copyOf(e.getValue()))))
+                    .build());
+        }
+        return buckets;
+    }
+
+    /**
+     * 이 노드의 최근 버킷을 다른 노드 것과 합칠 수 있는 요약으로 (페이지는 분마다 방문자가 많은 pageLimit 개만)
+     */
+    public List<RealtimeSketchDto> sketch(String siteCode, int precision, int pagePrecision, int pageLimit) {
+        SiteWindow window = windows.get(siteCode);
+        if (window == null) return List.of();
+
+        long from = currentMinute() - getWindowMinutes() + 1;
+        List<RealtimeSketchDto> sketches = new ArrayList<>();
+        for (int i = 0; i < window.ring.length(); i++) {
+            MinuteBucket bucket = window.ring.get(i);
+            if (bucket == null || bucket.minute < from) continue;
+
+            Map<String, byte[]> pages = new HashMap<>();
+            bucket.pages.entrySet().stream()
+                    .sorted(Comparator.comparingInt((Map.Entry<String, Set<String>> e) -> e.getValue().size()).reversed())
+                    .limit(pageLimit)
+                    .forEach(e -> pages.put(e.getKey(), toSketch(e.getValue(), pagePrecision).toBytes()));
+            sketches.add(RealtimeSketchDto.builder()
+                    .epochMinute(bucket.minute)
+                    .visitors(toSketch(bucket.visitors, precision).toBytes())
+                    .pages(pages)
+                    .build());
+        }
+        return sketches;
+    }
+
+    /**
+     * 요약 목록(여러 노드 것)을 합쳐 실시간 통계 추정 (precision 이 다른 요약은 건너뜀)
+     */
+    public RealtimeStatsDto summarizeSketches(List<RealtimeSketchDto> sketches, int pageLimit) {
+        long from = currentMinute() - getWindowMinutes() + 1;
+        HyperLogLog activeVisitors = null;
+        Map<String, HyperLogLog> activePages = new HashMap<>();
+
+        for (RealtimeSketchDto sketch : sketches) {
+            if (sketch.getEpochMinute() < from) continue;
+            try {
+                activeVisitors = merge(activeVisitors, sketch.getVisitors());
+                for (Map.Entry<String, byte[]> page : sketch.getPages().entrySet()) {
+                    activePages.put(page.getKey(), merge(activePages.get(page.getKey()), page.getValue()));
+                }
+            } catch (IllegalArgumentException e) {
+                // 설정이 다른 서버의 요약
+            }
+        }
+
+        List<RealtimeStatsDto.ActivePageDto> pages = activePages.entrySet().stream()
+                .map(e -> RealtimeStatsDto.ActivePageDto.builder()
+                        .pagePath(e.getKey())
+                        .activeUsers(e.getValue().estimate())
+                        .build())
+                .sorted(Comparator.comparing(RealtimeStatsDto.ActivePageDto::getActiveUsers).reversed())
+                .limit(pageLimit)
+                .collect(Collectors.toList());
+
+        return RealtimeStatsDto.builder()
+                .activeUsers(activeVisitors != null ? activeVisitors.estimate() : 0L)
+                .activePages(pages)
+                .build();
+    }
+
+    /**
+     * 버킷 목록(여러 노드 것을 합쳐도 됨)으로 실시간 통계 계산
+     */
+    public RealtimeStatsDto summarize(List<RealtimeBucketDto> buckets, int pageLimit) {
+        long from = currentMinute() - getWindowMinutes() + 1;
+        Set<String> activeVisitors = new HashSet<>();
+        Map<String, Set<String>> activePages = new HashMap<>();
+
+        for (RealtimeBucketDto bucket : buckets) {
+            if (bucket.getEpochMinute() < from) continue;
+            activeVisitors.addAll(bucket.getVisitorIds());
+            bucket.getPages().forEach((path, visitors) ->
+                    activePages.computeIfAbsent(path, key -> new HashSet<>()).addAll(visitors));
+        }
+
+        List<RealtimeStatsDto.ActivePageDto> pages = activePages.entrySet().stream()
+                .sorted(Comparator.comparingInt((Map.Entry<String, Set<String>> e) -> e.getValue().size()).reversed())
+                .limit(pageLimit)
+                .map(e -> RealtimeStatsDto.ActivePageDto.builder()
+                        .pagePath(e.getKey())
+                        .activeUsers((long) e.getValue().size())
+                        .build())
+                .collect(Collectors.toList());
+
+        return RealtimeStatsDto.builder()
+                .activeUsers((long) activeVisitors.size())
+                .activePages(pages)
+                .build();
+    }
+
+    /**
+     * 최근 활성 사용자 수
+     */
+    public long countActiveUsers(String siteCode) {
+        SiteWindow window = windows.get(siteCode);
+        if (window == null) return 0;
+
+        long from = currentMinute() - getWindowMinutes() + 1;
+        Set<String> activeVisitors = new HashSet<>();
+        for (int i = 0; i < window.ring.length(); i++) {
+            MinuteBucket bucket = window.ring.get(i);
+            if (bucket != null && bucket.minute >= from) {
+                activeVisitors.addAll(bucket.visitors);
+            }
+        }
+        return activeVisitors.size();
+    }
+
+    /**
+     * 트래픽이 끊긴 사이트 정리
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void evictIdle() {
+        long from = currentMinute() - getWindowMinutes() + 1;
+        windows.entrySet().removeIf(entry -> entry.getValue().latestMinute() < from);
+    }
+
+    private static HyperLogLog toSketch(Set<String> visitorIds, int precision) {
+        HyperLogLog sketch = new HyperLogLog(precision);
+        visitorIds.forEach(sketch::add);
+        return sketch;
+    }
+
+    private static HyperLogLog merge(HyperLogLog target, byte[] registers) {
+        HyperLogLog sketch = HyperLogLog.fromBytes(registers);
+        if (target == null) return sketch;
+        target.merge(sketch);
+        return target;
+    }
+
+    private int getWindowMinutes() {
+        return analyticsProperties.getRealtime().getWindowMinutes();
+    }
+
+    private static long currentMinute() {
+        return System.currentTimeMillis() / 60000;
+    }
+
+    private static long toEpochMinute(LocalDateTime at) {
+        return at.atZone(ZoneId.systemDefault()).toEpochSecond() / 60;
+    }
+
+    private static class SiteWindow {
+        private final AtomicReferenceArray<MinuteBucket> ring;
+        private final LongAdder pageViews = new LongAdder();
+
+        SiteWindow(int size) {
+            this.ring = new AtomicReferenceArray<>(size);
+        }
+
+        MinuteBucket bucket(long minute) {
+            int slot = (int) (minute % ring.length());
+            while (true) {
+                MinuteBucket current = ring.get(slot);
+                if (current != null && current.minute >= minute) {
+                    return current.minute == minute ? current : MinuteBucket.DISCARD;
+                }
+                // 지난 분의 버킷이면 새 버킷으로 교체
+                MinuteBucket fresh = new MinuteBucket(minute);
+                if (ring.compareAndSet(slot, current, fresh)) return fresh;
+            }
+        }
+
+        long latestMinute() {
+            long latest = Long.MIN_VALUE;
+            for (int i = 0; i < ring.length(); i++) {
+                MinuteBucket bucket = ring.get(i);
+                if (bucket != null) latest = Math.max(latest, bucket.minute);
+            }
+            return latest;
+        }
+    }
+
+    private static class MinuteBucket {
+        // 이미 밀려난 과거 분의 이벤트를 받아 버리는 버킷
+        static final MinuteBucket DISCARD = new MinuteBucket(Long.MIN_VALUE) {
+            @Override
+            void add(String visitorId, String pagePath) {
+            }
+        };
+
+        private final long minute;
+        private final Set<String> visitors = ConcurrentHashMap.newKeySet();
+        private final Map<String, Set<String>> pages = new ConcurrentHashMap<>();
+
+        MinuteBucket(long minute) {
+            this.minute = minute;
+        }
+
+        void add(String visitorId, String pagePath) {
+            visitors.add(visitorId);
+            if (pagePath != null) {
+                pages.computeIfAbsent(pagePath, key -> ConcurrentHashMap.newKeySet()).add(visitorId);
+            }
+        }
+    }
+}
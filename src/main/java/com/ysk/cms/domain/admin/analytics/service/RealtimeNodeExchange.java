@@ -0,0 +1,159 @@
+package com.ysk.cms.domain.admin.analytics.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ysk.cms.domain.admin.analytics.config.AnalyticsProperties;
+import com.ysk.cms.domain.admin.analytics.dto.RealtimeSketchDto;
+import com.ysk.cms.domain.admin.analytics.repository.AnalyticsRealtimeRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 서버 간 실시간 버킷 공유
+ * 실시간 카운터는 트래킹 요청을 받은 서버 메모리에만 있으므로, 틱마다 이 서버의 버킷 요약을 analytics_realtime_node 에 덮어쓰고
+ * 실시간 스트림을 보내는 서버가 다른 서버의 최근 요약을 읽어 합친다.
+ * 요약은 분 단위 HyperLogLog 레지스터라 방문자 수와 관계없이 크기가 정해져 있고, 구독 중인 서버가
+ * analytics_realtime_subscription 에 표시한 사이트만 저장하므로 아무도 보지 않는 사이트는 쓰지 않는다.
+ * 갱신이 끊긴 서버(종료, 트래픽 없음)의 행은 몇 틱 뒤부터 읽지 않는다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RealtimeNodeExchange {
+
+    private static final TypeReference<List<RealtimeSketchDto>> SKETCHES_TYPE = new TypeReference<>() {
+    };
+    // 이 틱 수 동안 갱신이 없으면 내려간 서버(또는 구독이 끝난 서버)로 봄
+    private static final int STALE_TICKS = 3;
+
+    private final RealtimeCounter realtimeCounter;
+    private final AnalyticsRealtimeRepository analyticsRealtimeRepository;
+    private final AnalyticsProperties analyticsProperties;
+    private final ObjectMapper objectMapper;
+
+    @Getter
+    private final String nodeId = UUID.randomUUID().toString();
+
+    /**
+     * 이 서버가 받은 사이트 중 다른 서버가 구독 중인 사이트의 버킷 요약 저장
+     */
+    @Scheduled(fixedRateString = "${analytics.realtime.tick-ms:2000}")
+    public void share() {
+        if (!isEnabled()) return;
+        Set<String> siteCodes = realtimeCounter.getSiteCodes();
+        if (siteCodes.isEmpty()) return;
+
+        List<String> subscribed;
+        try {
+            subscribed = analyticsRealtimeRepository.findSubscribedSites(nodeId, siteCodes, maxAgeMillis());
+        } catch (Exception e) {
+            log.warn("[Analytics] Failed to read realtime subscriptions: {}", e.getMessage());
+            return;
+        }
+
+        AnalyticsProperties.Realtime config = analyticsProperties.getRealtime();
+        List<Object[]> rows = new ArrayList<>();
+        for (String siteCode : subscribed) {
+            try {
+                List<RealtimeSketchDto> sketches = realtimeCounter.sketch(siteCode, config.getSharePrecision(),
+                        config.getSharePagePrecision(), config.getSharePageLimit());
+                if (sketches.isEmpty()) continue;
+                rows.add(new Object[]{siteCode, nodeId, realtimeCounter.getPageViewTotal(siteCode),
+                        objectMapper.writeValueAsString(sketches)});
+            } catch (Exception e) {
+                log.warn("[Analytics] Failed to summarize realtime buckets for site {}: {}", siteCode, e.getMessage());
+            }
+        }
+        if (rows.isEmpty()) return;
+
+        try {
+            analyticsRealtimeRepository.upsertAll(rows);
+        } catch (Exception e) {
+            // 한 사이트의 행 때문에 다른 사이트까지 공유가 멈추지 않도록 사이트별로 다시 저장
+            log.warn("[Analytics] Failed to share realtime buckets, retrying per site: {}", e.getMessage());
+            for (Object[] row : rows) {
+                try {
+                    analyticsRealtimeRepository.upsertAll(List.<Object[]>of(row));
+                } catch (Exception rowError) {
+                    log.warn("[Analytics] Failed to share realtime buckets for site {}: {}", row[0], rowError.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * 이 서버가 구독 중인 사이트를 표시하고 다른 서버의 최근 요약을 읽음 (사이트 코드 → 서버별 요약, 읽지 못하면 빈 맵)
+     */
+    public Map<String, List<NodeSketches>> findPeers(Collection<String> siteCodes) {
+        Map<String, List<NodeSketches>> peers = new HashMap<>();
+        if (!isEnabled() || siteCodes.isEmpty()) return peers;
+
+        try {
+            analyticsRealtimeRepository.touchSubscriptions(nodeId, siteCodes);
+        } catch (Exception e) {
+            log.warn("[Analytics] Failed to mark realtime subscriptions: {}", e.getMessage());
+        }
+
+        List<Object[]> rows;
+        try {
+            rows = analyticsRealtimeRepository.findPeers(nodeId, siteCodes, maxAgeMillis());
+        } catch (Exception e) {
+            // 이번 틱은 이 서버 버킷만으로 계산
+            log.warn("[Analytics] Failed to read realtime buckets of other nodes: {}", e.getMessage());
+            return peers;
+        }
+        for (Object[] row : rows) {
+            try {
+                List<RealtimeSketchDto> sketches = objectMapper.readValue((String) row[3], SKETCHES_TYPE);
+                peers.computeIfAbsent((String) row[0], key -> new ArrayList<>())
+                        .add(new NodeSketches((String) row[1], (Long) row[2], sketches));
+            } catch (Exception e) {
+                // 읽을 수 없는 행(이전 형식 등)은 그 서버만 건너뜀
+                log.warn("[Analytics] Skipped realtime buckets of node {} for site {}: {}", row[1], row[0], e.getMessage());
+            }
+        }
+        return peers;
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void prune() {
+        if (!isEnabled()) return;
+        try {
+            int deleted = analyticsRealtimeRepository.deleteOlderThan(analyticsProperties.getRealtime().getWindowMinutes() * 60);
+            log.debug("[Analytics] Pruned {} realtime node rows", deleted);
+        } catch (Exception e) {
+            log.warn("[Analytics] Failed to prune realtime node rows: {}", e.getMessage());
+        }
+    }
+
+    private boolean isEnabled() {
+        return analyticsProperties.getRealtime().isShareBuckets();
+    }
+
+    private long maxAgeMillis() {
+        return analyticsProperties.getRealtime().getTickMs() * STALE_TICKS;
+    }
+
+    /**
+     * 한 서버의 사이트 버킷 요약
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class NodeSketches {
+        private final String nodeId;
+        private final long pageViewTotal;
+        private final List<RealtimeSketchDto> sketches;
+    }
+}
@@ -0,0 +1,209 @@
+package com.ysk.cms.domain.admin.analytics.service;
+
+import com.ysk.cms.domain.admin.analytics.config.AnalyticsProperties;
+import com.ysk.cms.domain.admin.analytics.dto.RealtimeSketchDto;
+import com.ysk.cms.domain.admin.analytics.dto.RealtimeStatsDto;
+import com.ysk.cms.domain.admin.analytics.dto.RealtimeStreamDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 실시간 통계 STOMP 전송 (/topic/analytics/{siteCode}/realtime)
+ * 구독자가 있는 사이트만 틱마다 한 번 계산해 브로커로 보내므로 구독자 수와 관계없이 비용이 같다.
+ * 직전 프레임과 달라진 항목만 보내고, 새 구독이 생기거나 keyframeTicks 마다 전체 프레임을 보낸다.
+ * 브로커는 서버마다 따로이므로 각 서버가 자기 구독자에게 보내며, 다른 서버가 받은 트래픽은
+ * RealtimeNodeExchange 로 공유된 버킷 요약을 합쳐 모든 서버가 같은 값을 보낸다 (이때 방문자 수는 추정값).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RealtimeStreamPublisher {
+
+    private static final String DESTINATION_PREFIX = "/topic/analytics/";
+    private static final String DESTINATION_SUFFIX = "/realtime";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final RealtimeCounter realtimeCounter;
+    private final RealtimeNodeExchange realtimeNodeExchange;
+    private final AnalyticsProperties analyticsProperties;
+
+    // sessionId → (subscriptionId → siteCode)
+    private final Map<String, Map<String, String>> subscriptions = new ConcurrentHashMap<>();
+    // siteCode → 전송 상태
+    private final Map<String, SiteStream> streams = new ConcurrentHashMap<>();
+
+    public static String destination(String siteCode) {
+        return DESTINATION_PREFIX + siteCode + DESTINATION_SUFFIX;
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        String siteCode = parseSiteCode(accessor.getDestination());
+        if (siteCode == null || accessor.getSessionId() == null || accessor.getSubscriptionId() == null) return;
+
+        subscriptions.computeIfAbsent(accessor.getSessionId(), key -> new ConcurrentHashMap<>())
+                .put(accessor.getSubscriptionId(), siteCode);
+        streams.compute(siteCode, (key, stream) -> {
+            SiteStream target = stream != null ? stream : new SiteStream();
+            target.subscribers++;
+            // 새 구독자는 전체 프레임부터 받아야 함
+            target.keyframeRequested.set(true);
+            return target;
+        });
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Map<String, String> sessionSubscriptions = subscriptions.get(accessor.getSessionId());
+        if (sessionSubscriptions == null || accessor.getSubscriptionId() == null) return;
+
+        String siteCode = sessionSubscriptions.remove(accessor.getSubscriptionId());
+        if (siteCode != null) release(siteCode);
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Map<String, String> sessionSubscriptions = subscriptions.remove(event.getSessionId());
+        if (sessionSubscriptions != null) {
+            sessionSubscriptions.values().forEach(this::release);
+        }
+    }
+
+    @Scheduled(fixedRateString = "${analytics.realtime.tick-ms:2000}")
+    public void tick() {
+        if (streams.isEmpty()) return;
+
+        long now = System.currentTimeMillis();
+        Map<String, List<RealtimeNodeExchange.NodeSketches>> peers = realtimeNodeExchange.findPeers(streams.keySet());
+        streams.forEach((siteCode, stream) -> {
+            try {
+                RealtimeStreamDto frame = nextFrame(siteCode, stream, peers.getOrDefault(siteCode, List.of()), now);
+                if (frame != null) {
+                    messagingTemplate.convertAndSend(destination(siteCode), frame);
+                }
+            } catch (Exception e) {
+                // 직전 상태는 이미 이번 값으로 바뀌었으므로 다음 틱에 전체 프레임을 다시 보냄
+                stream.keyframeRequested.set(true);
+                log.warn("[Analytics] Failed to publish realtime frame for site {}: {}", siteCode, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 이번 틱에 보낼 프레임 (바뀐 것이 없으면 null)
+     */
+    private RealtimeStreamDto nextFrame(String siteCode, SiteStream stream, List<RealtimeNodeExchange.NodeSketches> peers,
+                                        long now) {
+        AnalyticsProperties.Realtime config = analyticsProperties.getRealtime();
+        Map<String, Long> pageViewTotals = new HashMap<>();
+        pageViewTotals.put(realtimeNodeExchange.getNodeId(), realtimeCounter.getPageViewTotal(siteCode));
+        RealtimeStatsDto stats;
+        if (peers.isEmpty()) {
+            stats = realtimeCounter.summarize(realtimeCounter.snapshot(siteCode), config.getPageLimit());
+        } else {
+            // 다른 서버 요약과 합치려면 이 서버 버킷도 같은 요약으로 바꿈
+            List<RealtimeSketchDto> sketches = new ArrayList<>(realtimeCounter.sketch(siteCode,
+                    config.getSharePrecision(), config.getSharePagePrecision(), config.getSharePageLimit()));
+            for (RealtimeNodeExchange.NodeSketches peer : peers) {
+                sketches.addAll(peer.getSketches());
+                pageViewTotals.put(peer.getNodeId(), peer.getPageViewTotal());
+            }
+            stats = realtimeCounter.summarizeSketches(sketches, config.getPageLimit());
+        }
+
+        long elapsed = Math.max(now - stream.lastTickAt, 1);
+        long pageViews = 0;
+        for (Map.Entry<String, Long> total : pageViewTotals.entrySet()) {
+            // 처음 본 서버는 기준값만 잡고, 사이트 창이 정리되어 누적값이 0 부터 다시 시작하면 음수는 0 으로 봄
+            Long previous = stream.lastPageViewTotals.get(total.getKey());
+            if (previous != null) pageViews += Math.max(total.getValue() - previous, 0);
+        }
+        double pageViewsPerSecond = Math.round(pageViews * 10000.0 / elapsed) / 10.0;
+        stream.lastPageViewTotals = pageViewTotals;
+        stream.lastTickAt = now;
+
+        // 이번 프레임이 처리한 요청만 지움 (계산 도중 들어온 구독은 다음 틱에 전체 프레임을 받음)
+        boolean keyframe = stream.keyframeRequested.getAndSet(false)
+                || ++stream.ticksSinceKeyframe >= config.getKeyframeTicks();
+        RealtimeStreamDto.RealtimeStreamDtoBuilder frame = RealtimeStreamDto.builder().timestamp(now);
+        boolean changed = keyframe;
+
+        if (keyframe || !Objects.equals(stats.getActiveUsers(), stream.activeUsers)) {
+            frame.activeUsers(stats.getActiveUsers());
+            changed = true;
+        }
+        if (keyframe || !samePages(stats.getActivePages(), stream.activePages)) {
+            frame.activePages(stats.getActivePages());
+            changed = true;
+        }
+        if (keyframe || pageViewsPerSecond != stream.pageViewsPerSecond) {
+            frame.pageViewsPerSecond(pageViewsPerSecond);
+            changed = true;
+        }
+
+        stream.activeUsers = stats.getActiveUsers();
+        stream.activePages = stats.getActivePages();
+        stream.pageViewsPerSecond = pageViewsPerSecond;
+        if (keyframe) {
+            stream.ticksSinceKeyframe = 0;
+            frame.keyframe(true);
+        }
+        return changed ? frame.build() : null;
+    }
+
+    private void release(String siteCode) {
+        streams.computeIfPresent(siteCode, (key, stream) -> --stream.subscribers > 0 ? stream : null);
+    }
+
+    private static boolean samePages(List<RealtimeStatsDto.ActivePageDto> pages, List<RealtimeStatsDto.ActivePageDto> previous) {
+        if (previous == null || pages.size() != previous.size()) return false;
+        for (int i = 0; i < pages.size(); i++) {
+            RealtimeStatsDto.ActivePageDto page = pages.get(i);
+            RealtimeStatsDto.ActivePageDto prev = previous.get(i);
+            if (!page.getPagePath().equals(prev.getPagePath()) || !page.getActiveUsers().equals(prev.getActiveUsers())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String parseSiteCode(String destination) {
+        if (destination == null || !destination.startsWith(DESTINATION_PREFIX) || !destination.endsWith(DESTINATION_SUFFIX)) {
+            return null;
+        }
+        String siteCode = destination.substring(DESTINATION_PREFIX.length(), destination.length() - DESTINATION_SUFFIX.length());
+        return siteCode.isEmpty() || siteCode.contains("/") ? null : siteCode;
+    }
+
+    private static class SiteStream {
+        // compute 안에서만 변경
+        private int subscribers;
+        private final AtomicBoolean keyframeRequested = new AtomicBoolean();
+
+        // 틱 스레드에서만 사용
+        private Map<String, Long> lastPageViewTotals = Map.of();
+        private long lastTickAt = System.currentTimeMillis();
+        private int ticksSinceKeyframe;
+        private Long activeUsers;
+        private List<RealtimeStatsDto.ActivePageDto> activePages;
+        private double pageViewsPerSecond;
+    }
+}
@@ -0,0 +1,65 @@
+package com.ysk.cms.domain.admin.analytics.service;
+
+import com.ysk.cms.domain.admin.analytics.config.AnalyticsProperties;
+import com.ysk.cms.domain.admin.analytics.referrer.DomainTrie;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 유입 경로 분류 (direct / search / social / referral)
+ * 유입 URL 의 호스트를 검색/소셜 도메인 트라이에서 찾고, 호스트별 결과는 캐시에 둔다.
+ * 유입 경로가 없거나 같은 사이트 내 이동이면 direct 로 본다.
+ * 세션이 새로 생길 때 한 번 분류해 analytics_session.referrer_type / referrer_host 에 저장한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReferrerClassifier {
+
+    public static final String DIRECT = "direct";
+    public static final String SEARCH = "search";
+    public static final String SOCIAL = "social";
+    public static final String REFERRAL = "referral";
+
+    private static final Classification DIRECT_CLASSIFICATION = new Classification(DIRECT, null);
+
+    private final AnalyticsProperties analyticsProperties;
+
+    private final DomainTrie<String> domains = new DomainTrie<>();
+    private final Map<String, String> hostTypes = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        AnalyticsProperties.Referrer config = analyticsProperties.getReferrer();
+        config.getSearchHosts().forEach(host -> domains.put(host, SEARCH));
+        config.getSocialHosts().forEach(host -> domains.put(host, SOCIAL));
+    }
+
+    public Classification classify(String referrer, String pageUrl) {
+        String host = TopKStore.referrerHost(referrer, pageUrl);
+        if (host == null) return DIRECT_CLASSIFICATION;
+
+        String type = hostTypes.get(host);
+        if (type == null) {
+            String matched = domains.match(host);
+            type = matched != null ? matched : REFERRAL;
+            if (hostTypes.size() >= analyticsProperties.getReferrer().getCacheSize()) hostTypes.clear();
+            hostTypes.put(host, type);
+        }
+        return new Classification(type, host);
+    }
+
+    /**
+     * 분류 결과 (유형, www. 를 뺀 소문자 호스트)
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class Classification {
+        private final String type;
+        private final String host;
+    }
+}
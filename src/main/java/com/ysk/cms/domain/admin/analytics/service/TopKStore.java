@@ -0,0 +1,218 @@
+package com.ysk.cms.domain.admin.analytics.service;
+
+import com.ysk.cms.domain.admin.analytics.config.AnalyticsProperties;
+import com.ysk.cms.domain.admin.analytics.repository.AnalyticsTopKRepository;
+import com.ysk.cms.domain.admin.analytics.sketch.SpaceSaving;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 사이트/일자별 인기 페이지, 유입 호스트 Space-Saving 요약 관리
+ * 트래킹 경로에서 메모리의 증분 요약에 더하고, 주기적으로 DB 요약과 합쳐 저장한 뒤 증분을 비운다.
+ * 기간 조회는 일별 요약과 아직 저장되지 않은 증분을 합쳐 상위 항목을 구한다.
+ * 조회수는 일별 집계와 같이 샘플링 가중치 합으로 센다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TopKStore {
+
+    public enum Dimension {
+        PAGE,       // 페이지 경로별 조회수
+        REFERRER    // 외부 유입 호스트별 조회수
+    }
+
+    private final AnalyticsTopKRepository analyticsTopKRepository;
+    private final AnalyticsProperties analyticsProperties;
+    private final TransactionTemplate transactionTemplate;
+
+    // "siteCode:yyyy-MM-dd" → 저장되지 않은 증분
+    private final Map<String, DayDelta> days = new ConcurrentHashMap<>();
+
+    /**
+     * 페이지뷰 반영
+     *
+     * @param sampleWeight 샘플링 가중치 (요약의 정수 카운트에는 기댓값이 같도록 확률적으로 반올림해 더함)
+     */
+    public void add(String siteCode, String pagePath, String referrer, String pageUrl, LocalDateTime at,
+                    double sampleWeight) {
+        long count = weightedCount(sampleWeight);
+        if (count == 0) return;
+
+        String referrerHost = referrerHost(referrer, pageUrl);
+        LocalDate date = at.toLocalDate();
+        DayDelta delta = days.computeIfAbsent(siteCode + ":" + date, key -> new DayDelta(siteCode, date));
+        synchronized (delta) {
+            if (pagePath != null) delta.get(Dimension.PAGE, getCapacity(Dimension.PAGE)).add(pagePath, count);
+            if (referrerHost != null) delta.get(Dimension.REFERRER, getCapacity(Dimension.REFERRER)).add(referrerHost, count);
+        }
+    }
+
+    /**
+     * 기간 상위 항목
+     */
+    public List<SpaceSaving.Item> top(String siteCode, Dimension dimension, LocalDate startDate, LocalDate endDate,
+                                      int limit) {
+        SpaceSaving merged = new SpaceSaving(getCapacity(dimension));
+        analyticsTopKRepository.findSketches(siteCode, dimension.name(), startDate, endDate)
+                .forEach(items -> merged.merge(SpaceSaving.fromBytes(items)));
+
+        days.values().forEach(delta -> {
+            if (delta.siteCode.equals(siteCode) && !delta.date.isBefore(startDate) && !delta.date.isAfter(endDate)) {
+                synchronized (delta) {
+                    SpaceSaving sketch = delta.sketches.get(dimension);
+                    if (sketch != null) merged.merge(sketch);
+                }
+            }
+        });
+        return merged.top(limit);
+    }
+
+    /**
+     * 집계 결과와 원본으로 하루치 요약 재생성 (일별 집계 트랜잭션 안에서 호출)
+     * 정확한 값의 상위 capacity 개로 만들므로 재생성된 날짜의 오차는 0 이다.
+     * 재생성 표시를 남겨 다른 서버에 남아 있던 그날 증분은 저장 시 버려지게 한다 (원본에 이미 포함되어 있음).
+     */
+    public void rebuildDay(String siteCode, LocalDate date) {
+        SpaceSaving pages = new SpaceSaving(getCapacity(Dimension.PAGE));
+        analyticsTopKRepository.scanTopPages(siteCode, date, pages.getCapacity(),
+                rs -> pages.add(rs.getString(1), rs.getLong(2)));
+
+        Map<String, Double> hostCounts = new HashMap<>();
+        analyticsTopKRepository.scanReferrers(siteCode, date, rs -> {
+            String host = referrerHost(rs.getString(1), rs.getString(2));
+            if (host != null) hostCounts.merge(host, rs.getDouble(3), Double::sum);
+        });
+        SpaceSaving referrers = new SpaceSaving(getCapacity(Dimension.REFERRER));
+        hostCounts.entrySet().stream()
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+                .limit(referrers.getCapacity())
+                .forEach(entry -> referrers.add(entry.getKey(), Math.round(entry.getValue())));
+
+        // 그날 메모리에 남은 증분은 재생성 결과에 이미 포함되어 있음
+        DayDelta delta = days.remove(siteCode + ":" + date);
+        if (delta != null) {
+            synchronized (delta) {
+                delta.sketches.clear();
+            }
+        }
+        analyticsTopKRepository.upsertAll(siteCode, date, Map.of(
+                Dimension.PAGE.name(), pages.toBytes(),
+                Dimension.REFERRER.name(), referrers.toBytes()), true);
+    }
+
+    /**
+     * 증분 저장
+     */
+    @Scheduled(fixedDelayString = "${analytics.sketch.flush-interval-ms:10000}")
+    public void flush() {
+        days.forEach((key, delta) -> {
+            Map<Dimension, SpaceSaving> sketches;
+            synchronized (delta) {
+                if (delta.sketches.isEmpty()) {
+                    if (delta.date.isBefore(LocalDate.now())) days.remove(key, delta);
+                    return;
+                }
+                sketches = new EnumMap<>(delta.sketches);
+                delta.sketches.clear();
+            }
+            write(delta, sketches);
+        });
+    }
+
+    @PreDestroy
+    void flushAll() {
+        flush();
+    }
+
+    /**
+     * 외부 유입 호스트 (www. 제외, 소문자). 유입 경로가 없거나 같은 사이트 내 이동이면 null
+     */
+    public static String referrerHost(String referrer, String pageUrl) {
+        String host = host(referrer);
+        if (host == null) return null;
+        return host.equals(host(pageUrl)) ? null : host;
+    }
+
+    private void write(DayDelta delta, Map<Dimension, SpaceSaving> sketches) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<String, byte[]> stored = analyticsTopKRepository.findForUpdate(delta.siteCode, delta.date);
+                if (analyticsTopKRepository.isRebuilt(delta.siteCode, delta.date)) {
+                    // 원본으로 다시 만든 날짜에 더하면 같은 이벤트가 두 번 세어짐
+                    log.debug("[Analytics] Dropped top-k delta for rebuilt day {} {}", delta.siteCode, delta.date);
+                    return;
+                }
+                Map<String, byte[]> rows = new HashMap<>();
+                sketches.forEach((dimension, sketch) -> {
+                    byte[] existing = stored.get(dimension.name());
+                    SpaceSaving merged = existing != null ? SpaceSaving.fromBytes(existing) : new SpaceSaving(getCapacity(dimension));
+                    merged.merge(sketch);
+                    rows.put(dimension.name(), merged.toBytes());
+                });
+                analyticsTopKRepository.upsertAll(delta.siteCode, delta.date, rows, false);
+            });
+        } catch (Exception e) {
+            // 다음 주기에 다시 저장되도록 증분을 되돌림
+            synchronized (delta) {
+                sketches.forEach((dimension, sketch) ->
+                        delta.get(dimension, getCapacity(dimension)).merge(sketch));
+            }
+            log.error("[Analytics] Failed to flush top-k sketches for {} {}: {}", delta.siteCode, delta.date, e.getMessage());
+        }
+    }
+
+    /**
+     * 가중치를 정수 카운트로 (소수부는 그 확률로 1 을 더해 합의 기댓값을 유지)
+     */
+    static long weightedCount(double sampleWeight) {
+        long whole = (long) sampleWeight;
+        return whole + (ThreadLocalRandom.current().nextDouble() < sampleWeight - whole ? 1 : 0);
+    }
+
+    private int getCapacity(Dimension dimension) {
+        AnalyticsProperties.Sketch config = analyticsProperties.getSketch();
+        return dimension == Dimension.PAGE ? config.getTopPageCapacity() : config.getTopReferrerCapacity();
+    }
+
+    private static String host(String url) {
+        if (url == null || url.isEmpty()) return null;
+        try {
+            String host = URI.create(url.trim()).getHost();
+            if (host == null) return null;
+            host = host.toLowerCase();
+            return host.startsWith("www.") ? host.substring(4) : host;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static class DayDelta {
+        private final String siteCode;
+        private final LocalDate date;
+        private final Map<Dimension, SpaceSaving> sketches = new EnumMap<>(Dimension.class);
+
+        DayDelta(String siteCode, LocalDate date) {
+            this.siteCode = siteCode;
+            this.date = date;
+        }
+
+        SpaceSaving get(Dimension dimension, int capacity) {
+            return sketches.computeIfAbsent(dimension, key -> new SpaceSaving(capacity));
+        }
+    }
+}
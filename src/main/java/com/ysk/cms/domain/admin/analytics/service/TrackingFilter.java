@@ -0,0 +1,193 @@
+package com.ysk.cms.domain.admin.analytics.service;
+
+import com.ysk.cms.domain.admin.analytics.config.AnalyticsProperties;
+import com.ysk.cms.domain.admin.analytics.dto.TrackingEventDto;
+import com.ysk.cms.domain.admin.analytics.filter.TokenBucketLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 수집 전 필터
+ * 봇/모니터링 요청을 거르고, 방문자/IP 별 토큰 버킷으로 요청 수를 제한한 뒤 방문자 단위로 샘플링한다.
+ * 샘플링은 방문자 ID 해시로 정하므로 한 방문자의 이벤트는 함께 저장되거나 함께 버려지고,
+ * 저장되는 이벤트에는 1 / 비율 가중치를 기록해 조회 시 전체 규모로 환산한다.
+ * 페이지뷰 저장 지연의 이동 평균이 목표를 넘으면 사이트별 비율에 목표 / 지연 배율을 곱해 낮춘다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TrackingFilter {
+
+    private static final int MAX_AGENT_CACHE = 10000;
+    // 저장 지연 이동 평균 반영 비율
+    private static final double LATENCY_ALPHA = 0.2;
+
+    private final UserAgentParser userAgentParser;
+    private final AnalyticsProperties analyticsProperties;
+    private final MeterRegistry meterRegistry;
+
+    private TokenBucketLimiter visitorLimiter;
+    private TokenBucketLimiter ipLimiter;
+    private final Map<String, Boolean> botAgents = new ConcurrentHashMap<>();
+
+    private volatile double writeLatencyMs;
+    private volatile double sampleFactor = 1.0;
+
+    private Counter botCounter;
+    private Counter rateLimitedCounter;
+    private Counter sampledOutCounter;
+
+    @PostConstruct
+    void init() {
+        AnalyticsProperties.Filter config = analyticsProperties.getFilter();
+        visitorLimiter = new TokenBucketLimiter(config.getVisitorRatePerSecond(), config.getVisitorBurst(),
+                config.getMaxBuckets());
+        ipLimiter = new TokenBucketLimiter(config.getIpRatePerSecond(), config.getIpBurst(), config.getMaxBuckets());
+
+        botCounter = meterRegistry.counter("analytics.ingestion.filtered", "reason", "bot");
+        rateLimitedCounter = meterRegistry.counter("analytics.ingestion.filtered", "reason", "rate_limited");
+        sampledOutCounter = meterRegistry.counter("analytics.ingestion.filtered", "reason", "sampled_out");
+        Gauge.builder("analytics.ingestion.sample.factor", this, filter -> filter.sampleFactor)
+                .description("저장 지연에 따른 샘플링 비율 배율")
+                .register(meterRegistry);
+        Gauge.builder("analytics.ingestion.write.latency", this, filter -> filter.writeLatencyMs)
+                .description("페이지뷰 저장 지연 이동 평균 (ms)")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 이벤트 수용 여부 판정
+     *
+     * @return 수용하면 기록할 가중치 (1 이상), 거르면 0
+     */
+    public double check(String siteCode, TrackingEventDto event, String userAgent, String ipAddress) {
+        AnalyticsProperties.Filter config = analyticsProperties.getFilter();
+        if (!config.isEnabled()) return 1.0;
+
+        if (isBot(userAgent)) {
+            botCounter.increment();
+            return 0;
+        }
+
+        long now = System.nanoTime();
+        if (!visitorLimiter.tryAcquire(siteCode + ":" + event.getVisitorId(), now)
+                || !ipLimiter.tryAcquire(ipAddress, now)) {
+            rateLimitedCounter.increment();
+            return 0;
+        }
+
+        double rate = getSampleRate(siteCode);
+        if (rate < 1.0 && sampleUnit(siteCode, event.getVisitorId()) >= rate) {
+            sampledOutCounter.increment();
+            return 0;
+        }
+        return rate < 1.0 ? 1.0 / rate : 1.0;
+    }
+
+    /**
+     * 사이트의 현재 샘플링 비율 (설정 비율 x 저장 지연 배율)
+     */
+    public double getSampleRate(String siteCode) {
+        return Math.min(analyticsProperties.getFilter().getSampleRate(siteCode), 1.0) * sampleFactor;
+    }
+
+    /**
+     * 페이지뷰 저장 지연 반영 (TrackingService 에서 저장마다 호출)
+     * 목표는 한 건 기준이므로 여러 건을 한 번에 저장한 시간은 건수로 나눠 반영한다.
+     *
+     * @param rows 이번 저장의 행 수
+     */
+    public void recordWriteLatency(long nanos, int rows) {
+        AnalyticsProperties.Filter config = analyticsProperties.getFilter();
+        double millis = nanos / 1_000_000.0 / Math.max(rows, 1);
+        double average = writeLatencyMs == 0 ? millis : writeLatencyMs + LATENCY_ALPHA * (millis - writeLatencyMs);
+        writeLatencyMs = average;
+
+        double factor = average > config.getTargetWriteLatencyMs()
+                ? Math.max(config.getTargetWriteLatencyMs() / average, config.getMinSampleFactor())
+                : 1.0;
+        if ((factor < 1.0) != (sampleFactor < 1.0)) {
+            log.info("[Analytics] Adaptive sampling {} (write latency {}ms, factor {})",
+                    factor < 1.0 ? "on" : "off", Math.round(average), String.format("%.2f", factor));
+        }
+        sampleFactor = factor;
+    }
+
+    /**
+     * 다시 가득 찬 토큰 버킷 정리
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void evictBuckets() {
+        long now = System.nanoTime();
+        int evicted = visitorLimiter.evictFull(now) + ipLimiter.evictFull(now);
+        if (evicted > 0) {
+            log.debug("[Analytics] Evicted {} idle rate limit buckets", evicted);
+        }
+    }
+
+    boolean isBot(String userAgent) {
+        if (userAgent == null || userAgent.isBlank()) return true;
+        Boolean cached = botAgents.get(userAgent);
+        if (cached != null) return cached;
+
+        boolean bot = matchesSignature(userAgent.toLowerCase(), analyticsProperties.getFilter().getBotSignatures());
+        if (!bot && analyticsProperties.getFilter().isBlockUnknownAgents()) {
+            UserAgentParser.ParsedUserAgent parsed = userAgentParser.parse(userAgent);
+            // 빈 값만 "unknown" 이고, 알아보지 못한 User-Agent 는 "Other" 로 파싱됨
+            bot = "Other".equals(parsed.getBrowser()) && "Other".equals(parsed.getOs());
+        }
+        if (botAgents.size() >= MAX_AGENT_CACHE) botAgents.clear();
+        botAgents.put(userAgent, bot);
+        return bot;
+    }
+
+    /**
+     * 서명이 단어 경계에서 시작하고 끝나는지 ("bot" 은 "bot/1.0" 에는 맞고 "cubot" 에는 맞지 않음)
+     * 서명의 처음/끝 글자가 영숫자가 아니면 그쪽 경계는 보지 않는다 ("curl/", "+http:" 등).
+     */
+    static boolean matchesSignature(String userAgent, List<String> signatures) {
+        for (String signature : signatures) {
+            if (signature.isEmpty()) continue;
+            int from = 0;
+            int index;
+            while ((index = userAgent.indexOf(signature, from)) >= 0) {
+                int end = index + signature.length();
+                boolean startsWord = !isWordChar(signature.charAt(0)) || index == 0
+                        || !isWordChar(userAgent.charAt(index - 1));
+                boolean endsWord = !isWordChar(signature.charAt(signature.length() - 1)) || end == userAgent.length()
+                        || !isWordChar(userAgent.charAt(end));
+                if (startsWord && endsWord) return true;
+                from = index + 1;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9');
+    }
+
+    /**
+     * 방문자 ID 를 [0, 1) 로 고르게 대응 (사이트마다 다른 방문자 집합이 뽑히도록 사이트 코드를 섞음)
+     */
+    static double sampleUnit(String siteCode, String visitorId) {
+        long hash = siteCode.hashCode() * 0x9E3779B97F4A7C15L + (visitorId != null ? visitorId.hashCode() : 0);
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return (hash >>> 11) * 0x1.0p-53;
+    }
+}
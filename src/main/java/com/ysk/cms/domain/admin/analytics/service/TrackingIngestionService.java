@@ -0,0 +1,223 @@
+package com.ysk.cms.domain.admin.analytics.service;
+
+import com.ysk.cms.domain.admin.analytics.config.AnalyticsProperties;
+import com.ysk.cms.domain.admin.analytics.dto.TrackingCommand;
+import com.ysk.cms.domain.admin.analytics.dto.TrackingEventDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 트래킹 이벤트 수집 진입점
+ * 비동기 모드에서는 요청 스레드는 큐에 적재만 하고, writer 스레드가 큐를 비우며 일괄 저장한다.
+ * WAL 모드에서는 로컬 로그에 기록만 하고, 저장은 TrackingWalService 의 재생 스레드가 맡는다.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TrackingIngestionService {
+
+    private final TrackingService trackingService;
+    private final TrackingWalService trackingWalService;
+    private final TrackingFilter trackingFilter;
+    private final AnalyticsProperties analyticsProperties;
+    private final MeterRegistry meterRegistry;
+
+    private BlockingQueue<TrackingCommand> queue;
+    private ExecutorService writers;
+    private volatile boolean running;
+
+    private Timer flushTimer;
+    private Counter acceptedCounter;
+    private Counter droppedCounter;
+    private Counter sampledOutCounter;
+    private Counter failedCounter;
+
+    @PostConstruct
+    void start() {
+        AnalyticsProperties.Ingestion config = analyticsProperties.getIngestion();
+        if (trackingWalService.isEnabled()) {
+            registerEventCounters();
+            log.info("[Analytics] Ingestion mode: wal");
+            return;
+        }
+        if (!config.isAsync()) {
+            log.info("[Analytics] Ingestion mode: sync");
+            return;
+        }
+
+        queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+        Gauge.builder("analytics.ingestion.queue.depth", queue, BlockingQueue::size)
+                .description("수집 큐 대기 이벤트 수")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("analytics.ingestion.flush")
+                .description("배치 저장 소요 시간")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        registerEventCounters();
+
+        running = true;
+        AtomicInteger seq = new AtomicInteger();
+        writers = Executors.newFixedThreadPool(config.getWriterThreads(), r -> {
+            Thread thread = new Thread(r, "analytics-writer-" + seq.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < config.getWriterThreads(); i++) {
+            writers.submit(this::drainLoop);
+        }
+
+        log.info("[Analytics] Ingestion mode: async (capacity={}, writers={}, batchSize={}, overflow={})",
+                config.getQueueCapacity(), config.getWriterThreads(), config.getBatchSize(), config.getOverflowPolicy());
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (writers == null) return;
+        running = false;
+        writers.shutdown();
+        if (!writers.awaitTermination(analyticsProperties.getIngestion().getShutdownTimeoutMs(), TimeUnit.MILLISECONDS)) {
+            log.warn("[Analytics] Writers did not finish in time, {} events left in queue", queue.size());
+            writers.shutdownNow();
+        }
+    }
+
+    private void registerEventCounters() {
+        acceptedCounter = meterRegistry.counter("analytics.ingestion.events", "result", "accepted");
+        droppedCounter = meterRegistry.counter("analytics.ingestion.events", "result", "dropped");
+        sampledOutCounter = meterRegistry.counter("analytics.ingestion.events", "result", "sampled_out");
+        failedCounter = meterRegistry.counter("analytics.ingestion.events", "result", "failed");
+    }
+
+    /**
+     * 트래킹 이벤트 수집 (봇, 요청 수 초과, 샘플링 제외 이벤트는 저장 전에 버림)
+     */
+    public void ingest(String siteCode, TrackingEventDto event, String userAgent, String ipAddress) {
+        double sampleWeight = trackingFilter.check(siteCode, event, userAgent, ipAddress);
+        if (sampleWeight <= 0) return;
+
+        boolean wal = trackingWalService.isEnabled();
+        if (queue == null && !wal) {
+            trackingService.track(siteCode, event, userAgent, ipAddress, sampleWeight);
+            return;
+        }
+
+        TrackingCommand command = TrackingCommand.builder()
+                .siteCode(siteCode)
+                .event(event)
+                .userAgent(userAgent)
+                .ipAddress(ipAddress)
+                .receivedAt(LocalDateTime.now())
+                .sampleWeight(sampleWeight)
+                .build();
+
+        if (wal) {
+            if (trackingWalService.append(command)) {
+                acceptedCounter.increment();
+            } else {
+                droppedCounter.increment();
+            }
+            return;
+        }
+        enqueue(command);
+    }
+
+    private void enqueue(TrackingCommand command) {
+        AnalyticsProperties.Ingestion config = analyticsProperties.getIngestion();
+        if (config.getOverflowPolicy() == AnalyticsProperties.OverflowPolicy.SAMPLE) {
+            double usage = (double) queue.size() / config.getQueueCapacity();
+            if (usage >= config.getSampleThreshold()) {
+                if (ThreadLocalRandom.current().nextDouble() >= config.getSampleRate()) {
+                    sampledOutCounter.increment();
+                    return;
+                }
+                // 버려진 이벤트만큼 남은 이벤트가 대표하도록 가중치를 키움
+                command = command.withSampleWeight(command.getSampleWeight() / config.getSampleRate());
+            }
+        }
+
+        if (offer(command)) {
+            acceptedCounter.increment();
+        } else {
+            droppedCounter.increment();
+        }
+    }
+
+    private boolean offer(TrackingCommand command) {
+        AnalyticsProperties.Ingestion config = analyticsProperties.getIngestion();
+        if (config.getOverflowPolicy() != AnalyticsProperties.OverflowPolicy.BLOCK) {
+            return queue.offer(command);
+        }
+        try {
+            return queue.offer(command, config.getBlockTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void drainLoop() {
+        AnalyticsProperties.Ingestion config = analyticsProperties.getIngestion();
+        List<TrackingCommand> batch = new ArrayList<>(config.getBatchSize());
+
+        while (running || !queue.isEmpty()) {
+            try {
+                TrackingCommand first = queue.poll(config.getFlushIntervalMs(), TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, config.getBatchSize() - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<TrackingCommand> batch) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            trackingService.trackBatch(batch);
+        } catch (DataIntegrityViolationException e) {
+            // 데이터 자체의 문제(길이 초과 등)는 다시 보내도 실패하므로 한 건씩 저장해 실패한 이벤트만 버림
+            log.warn("[Analytics] Batch of {} events rejected, retrying one by one: {}", batch.size(), e.getMessage());
+            flushEach(batch);
+        } catch (Exception e) {
+            failedCounter.increment(batch.size());
+            log.error("[Analytics] Failed to flush {} events: {}", batch.size(), e.getMessage());
+        } finally {
+            sample.stop(flushTimer);
+        }
+    }
+
+    private void flushEach(List<TrackingCommand> batch) {
+        for (TrackingCommand command : batch) {
+            try {
+                trackingService.trackBatch(List.of(command));
+            } catch (Exception e) {
+                failedCounter.increment();
+                log.error("[Analytics] Failed to store event for site {}: {}", command.getSiteCode(), e.getMessage());
+            }
+        }
+    }
+}
@@ -1,18 +1,18 @@
 package com.ysk.cms.domain.admin.analytics.service;
 
+import com.ysk.cms.domain.admin.analytics.dto.TrackingCommand;
 import com.ysk.cms.domain.admin.analytics.dto.TrackingEventDto;
-import com.ysk.cms.domain.admin.analytics.entity.AnalyticsSession;
 import com.ysk.cms.domain.admin.analytics.entity.PageView;
-import com.ysk.cms.domain.admin.analytics.entity.Visitor;
-import com.ysk.cms.domain.admin.analytics.repository.AnalyticsSessionRepository;
 import com.ysk.cms.domain.admin.analytics.repository.PageViewRepository;
-import com.ysk.cms.domain.admin.analytics.repository.VisitorRepository;
+import com.ysk.cms.domain.admin.analytics.repository.TrackingBatchRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
@@ -20,27 +20,95 @@ import java.time.LocalDateTime;
 public class TrackingService {
 
     private final PageViewRepository pageViewRepository;
-    private final AnalyticsSessionRepository sessionRepository;
-    private final VisitorRepository visitorRepository;
+    private final TrackingBatchRepository trackingBatchRepository;
+    private final TrackingStateCache trackingStateCache;
     private final UserAgentParser userAgentParser;
+    private final RealtimeCounter realtimeCounter;
+    private final VisitorSketchStore visitorSketchStore;
+    private final TopKStore topKStore;
+    private final TrackingFilter trackingFilter;
 
+    /**
+     * @param sampleWeight 샘플링 가중치 (TrackingFilter 판정 결과)
+     */
     @Transactional
-    public void track(String siteCode, TrackingEventDto event, String userAgent, String ipAddress) {
+    public void track(String siteCode, TrackingEventDto event, String userAgent, String ipAddress, double sampleWeight) {
         log.debug("[Analytics] Track event: {} for site: {}", event.getEventType(), siteCode);
 
         if ("pageview".equals(event.getEventType())) {
-            trackPageView(siteCode, event, userAgent, ipAddress);
+            trackPageView(siteCode, event, userAgent, ipAddress, sampleWeight);
         } else if ("pageleave".equals(event.getEventType())) {
             trackPageLeave(siteCode, event);
         }
     }
 
-    private void trackPageView(String siteCode, TrackingEventDto event, String userAgent, String ipAddress) {
+    /**
+     * 수집 큐에서 모인 이벤트 일괄 저장
+     * 페이지뷰는 JDBC batch insert, 세션/방문자는 상태 캐시에 누적 (주기적으로 upsert)
+     */
+    @Transactional
+    public void trackBatch(List<TrackingCommand> commands) {
+        List<PageView> pageViews = new ArrayList<>();
+        UserAgentParser.ParsedUserAgent[] parsedAgents = new UserAgentParser.ParsedUserAgent[commands.size()];
+
+        for (int i = 0; i < commands.size(); i++) {
+            TrackingCommand command = commands.get(i);
+            if (!"pageview".equals(command.getEvent().getEventType())) continue;
+
+            parsedAgents[i] = userAgentParser.parse(command.getUserAgent());
+            PageView pageView = buildPageView(command.getSiteCode(), command.getEvent(), parsedAgents[i],
+                    command.getUserAgent(), command.getIpAddress(), command.getSampleWeight());
+            pageView.setCreatedAt(command.getReceivedAt());
+            pageViews.add(pageView);
+        }
+
+        long started = System.nanoTime();
+        trackingBatchRepository.insertPageViews(pageViews);
+        if (!pageViews.isEmpty()) trackingFilter.recordWriteLatency(System.nanoTime() - started, pageViews.size());
+
+        // 페이지뷰 저장이 성공한 뒤에만 세션/방문자 상태에 반영
+        for (int i = 0; i < commands.size(); i++) {
+            TrackingCommand command = commands.get(i);
+            TrackingEventDto event = command.getEvent();
+            if ("pageview".equals(event.getEventType())) {
+                trackingStateCache.recordPageView(command.getSiteCode(), event, parsedAgents[i], command.getReceivedAt(),
+                        command.getSampleWeight());
+                realtimeCounter.recordPageView(command.getSiteCode(), event.getVisitorId(), event.getPagePath(),
+                        command.getReceivedAt());
+                visitorSketchStore.add(command.getSiteCode(), event.getVisitorId(), event.getPagePath(),
+                        command.getReceivedAt());
+                topKStore.add(command.getSiteCode(), event.getPagePath(), event.getReferrer(), event.getPageUrl(),
+                        command.getReceivedAt(), command.getSampleWeight());
+            } else if ("pageleave".equals(event.getEventType())) {
+                trackingStateCache.recordPageLeave(command.getSiteCode(), event, command.getReceivedAt());
+            }
+        }
+
+        log.debug("[Analytics] Batch flushed: {} events, {} pageviews", commands.size(), pageViews.size());
+    }
+
+    private void trackPageView(String siteCode, TrackingEventDto event, String userAgent, String ipAddress,
+                               double sampleWeight) {
         // User-Agent 파싱
         UserAgentParser.ParsedUserAgent parsed = userAgentParser.parse(userAgent);
 
         // 페이지뷰 저장
-        PageView pageView = PageView.builder()
+        long started = System.nanoTime();
+        pageViewRepository.save(buildPageView(siteCode, event, parsed, userAgent, ipAddress, sampleWeight));
+        trackingFilter.recordWriteLatency(System.nanoTime() - started, 1);
+
+        // 세션/방문자 갱신 (상태 캐시에 누적 후 주기적으로 반영)
+        LocalDateTime now = LocalDateTime.now();
+        trackingStateCache.recordPageView(siteCode, event, parsed, now, sampleWeight);
+        realtimeCounter.recordPageView(siteCode, event.getVisitorId(), event.getPagePath(), now);
+        visitorSketchStore.add(siteCode, event.getVisitorId(), event.getPagePath(), now);
+        topKStore.add(siteCode, event.getPagePath(), event.getReferrer(), event.getPageUrl(), now, sampleWeight);
+    }
+
+    private PageView buildPageView(String siteCode, TrackingEventDto event,
+                                   UserAgentParser.ParsedUserAgent parsed, String userAgent, String ipAddress,
+                                   double sampleWeight) {
+        return PageView.builder()
                 .siteCode(siteCode)
                 .sessionId(event.getSessionId())
                 .visitorId(event.getVisitorId())
@@ -63,79 +131,13 @@ public class TrackingService {
                 .utmCampaign(event.getUtmCampaign())
                 .utmTerm(event.getUtmTerm())
                 .utmContent(event.getUtmContent())
+                .sampleWeight(sampleWeight)
                 .build();
-        pageViewRepository.save(pageView);
-
-        // 세션 업데이트 또는 생성
-        updateOrCreateSession(siteCode, event, parsed, ipAddress);
-
-        // 방문자 업데이트 또는 생성
-        updateOrCreateVisitor(siteCode, event);
     }
 
     private void trackPageLeave(String siteCode, TrackingEventDto event) {
-        // 체류 시간 업데이트 (최근 페이지뷰 찾아서 업데이트)
-        // 간단 구현: 세션 종료 시간만 업데이트
-        sessionRepository.findBySessionId(event.getSessionId())
-                .ifPresent(session -> {
-                    session.setEndTime(LocalDateTime.now());
-                    if (event.getTimeOnPage() != null && event.getTimeOnPage() > 0) {
-                        session.setDuration(session.getDuration() + event.getTimeOnPage());
-                    }
-                    session.setExitPage(event.getPagePath());
-                });
-    }
-
-    private void updateOrCreateSession(String siteCode, TrackingEventDto event,
-                                       UserAgentParser.ParsedUserAgent parsed, String ipAddress) {
-        sessionRepository.findBySessionId(event.getSessionId())
-                .ifPresentOrElse(
-                        session -> {
-                            // 기존 세션 업데이트
-                            session.updatePageView(event.getPagePath());
-                        },
-                        () -> {
-                            // 새 세션 생성
-                            AnalyticsSession session = AnalyticsSession.builder()
-                                    .sessionId(event.getSessionId())
-                                    .siteCode(siteCode)
-                                    .visitorId(event.getVisitorId())
-                                    .userId(event.getUserId())
-                                    .startTime(LocalDateTime.now())
-                                    .entryPage(event.getPagePath())
-                                    .exitPage(event.getPagePath())
-                                    .referrer(event.getReferrer())
-                                    .deviceType(parsed.getDeviceType())
-                                    .browser(parsed.getBrowser())
-                                    .os(parsed.getOs())
-                                    .utmSource(event.getUtmSource())
-                                    .utmMedium(event.getUtmMedium())
-                                    .utmCampaign(event.getUtmCampaign())
-                                    .build();
-                            sessionRepository.save(session);
-                        }
-                );
-    }
-
-    private void updateOrCreateVisitor(String siteCode, TrackingEventDto event) {
-        visitorRepository.findBySiteCodeAndVisitorId(siteCode, event.getVisitorId())
-                .ifPresentOrElse(
-                        Visitor::incrementPageView,
-                        () -> {
-                            // 새 방문자 생성
-                            Visitor visitor = Visitor.builder()
-                                    .visitorId(event.getVisitorId())
-                                    .siteCode(siteCode)
-                                    .firstVisitAt(LocalDateTime.now())
-                                    .lastVisitAt(LocalDateTime.now())
-                                    .firstReferrer(event.getReferrer())
-                                    .firstUtmSource(event.getUtmSource())
-                                    .firstUtmMedium(event.getUtmMedium())
-                                    .firstUtmCampaign(event.getUtmCampaign())
-                                    .build();
-                            visitorRepository.save(visitor);
-                        }
-                );
+        // 체류 시간 / 종료 페이지 갱신
+        trackingStateCache.recordPageLeave(siteCode, event, LocalDateTime.now());
     }
 
     /**
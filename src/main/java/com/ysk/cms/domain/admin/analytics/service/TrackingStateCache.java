@@ -0,0 +1,466 @@
+package com.ysk.cms.domain.admin.analytics.service;
+
+import com.ysk.cms.domain.admin.analytics.config.AnalyticsProperties;
+import com.ysk.cms.domain.admin.analytics.dto.TrackingEventDto;
+import com.ysk.cms.domain.admin.analytics.path.PathSequence;
+import com.ysk.cms.domain.admin.analytics.repository.TrackingBatchRepository;
+import com.ysk.cms.domain.admin.analytics.repository.TrackingBatchRepository.SessionLeave;
+import com.ysk.cms.domain.admin.analytics.repository.TrackingBatchRepository.SessionUpsert;
+import com.ysk.cms.domain.admin.analytics.repository.TrackingBatchRepository.VisitorUpsert;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.ysk.cms.domain.admin.analytics.dto.TrackingEventDto.MAX_ID_LENGTH;
+import static com.ysk.cms.domain.admin.analytics.dto.TrackingEventDto.MAX_PATH_LENGTH;
+import static com.ysk.cms.domain.admin.analytics.dto.TrackingEventDto.MAX_URL_LENGTH;
+import static com.ysk.cms.domain.admin.analytics.dto.TrackingEventDto.MAX_UTM_LENGTH;
+import static com.ysk.cms.domain.admin.analytics.dto.TrackingEventDto.truncate;
+
+/**
+ * 진행 중인 세션/방문자 상태 캐시 (write-behind)
+ * 페이지뷰마다 세션/방문자를 조회·갱신하지 않고 메모리에서 누적한 뒤
+ * 주기적으로 analytics_session / analytics_visitor 에 일괄 upsert 한다.
+ * 만료(세션 타임아웃)되거나 용량 초과로 밀려난 항목은 제거 직전에 반영된다.
+ * 용량 초과 정리와 DB 반영은 모두 flush 스레드에서 하고, 반영에 실패한 변경분은 다음 flush 에 다시 보낸다.
+ * 문자열은 컬럼 길이로 잘라 모으고, 그래도 DB 가 거부하는 행(데이터 오류)은 한 행씩 다시 반영해 그 행만 버린다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TrackingStateCache {
+
+    private final TrackingBatchRepository trackingBatchRepository;
+    private final ReferrerClassifier referrerClassifier;
+    private final PathStore pathStore;
+    private final AnalyticsProperties analyticsProperties;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    // analytics_session.referrer_host 길이
+    private static final int MAX_HOST_LENGTH = 255;
+
+    private final Map<String, SessionState> sessions = new ConcurrentHashMap<>();
+    private final Map<String, VisitorState> visitors = new ConcurrentHashMap<>();
+    // 반영에 실패해 다음 flush 에 다시 보낼 변경분 (flush 스레드만 접근)
+    private Batch retry = new Batch();
+
+    private Counter droppedCounter;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("analytics.state.sessions", sessions, Map::size).register(meterRegistry);
+        Gauge.builder("analytics.state.visitors", visitors, Map::size).register(meterRegistry);
+        droppedCounter = meterRegistry.counter("analytics.state.dropped");
+    }
+
+    /**
+     * 페이지뷰 반영
+     */
+    public void recordPageView(String siteCode, TrackingEventDto event,
+                               UserAgentParser.ParsedUserAgent parsed, LocalDateTime at, double sampleWeight) {
+        String sessionKey = siteCode + ":" + event.getSessionId();
+        while (true) {
+            SessionState state = sessions.computeIfAbsent(sessionKey, key -> newSession(siteCode, event, parsed, at, sampleWeight));
+            synchronized (state) {
+                if (state.evicted) continue;
+                state.addPageView(event.getPagePath(), at);
+                if (state.path != null) state.path.add(event.getPagePath());
+                break;
+            }
+        }
+
+        String visitorKey = siteCode + ":" + event.getVisitorId();
+        while (true) {
+            VisitorState state = visitors.computeIfAbsent(visitorKey, key -> new VisitorState(siteCode, event, at));
+            synchronized (state) {
+                if (state.evicted) continue;
+                state.addPageView(at);
+                break;
+            }
+        }
+        // 용량 초과분은 다음 flush 에서 정리 (요청 스레드에서 정렬 / DB 반영을 하지 않음)
+    }
+
+    /**
+     * 페이지 이탈 반영 (체류 시간 누적)
+     */
+    public void recordPageLeave(String siteCode, TrackingEventDto event, LocalDateTime at) {
+        String sessionKey = siteCode + ":" + event.getSessionId();
+        while (true) {
+            SessionState state = sessions.computeIfAbsent(sessionKey, key -> newSession(siteCode, event, null, at, 1.0));
+            synchronized (state) {
+                if (state.evicted) continue;
+                state.addLeave(event.getPagePath(), event.getTimeOnPage(), at);
+                break;
+            }
+        }
+    }
+
+    /**
+     * 새 세션 상태 (유입 경로는 세션이 생길 때 한 번만 분류, 용량 초과로 밀려났던 세션이면 이동 경로를 이어 씀)
+     */
+    private SessionState newSession(String siteCode, TrackingEventDto event, UserAgentParser.ParsedUserAgent parsed,
+                                    LocalDateTime at, double sampleWeight) {
+        return new SessionState(siteCode, event, parsed, at, sampleWeight,
+                referrerClassifier.classify(event.getReferrer(), event.getPageUrl()),
+                pathStore.isEnabled()
+                        ? pathStore.openSequence(siteCode + ":" + event.getSessionId(), siteCode)
+                        : null);
+    }
+
+    /**
+     * 캐시에서 제거 (호출 측이 상태 잠금을 잡은 상태). 끝난 세션이면 이동 경로를 집계에 넘긴다.
+     */
+    private void evict(State state) {
+        state.evicted = true;
+        if (state instanceof SessionState session && session.path != null) {
+            pathStore.fold(session.template.getSiteCode(), session.template.getStartTime().toLocalDate(),
+                    session.path, session.template.getSampleWeight());
+        }
+    }
+
+    /**
+     * 용량 초과로 제거 (호출 측이 상태 잠금을 잡은 상태). 세션은 아직 진행 중일 수 있으므로 이동 경로를 보관만 한다.
+     */
+    private void evictOverflow(String key, State state) {
+        state.evicted = true;
+        if (state instanceof SessionState session && session.path != null) {
+            pathStore.park(key, session.template.getSiteCode(), session.template.getStartTime().toLocalDate(),
+                    session.path, session.template.getSampleWeight(), session.lastSeenAt);
+        }
+    }
+
+    /**
+     * 누적된 변경분 반영 + 만료 / 용량 초과 항목 제거
+     */
+    @Scheduled(fixedDelayString = "${analytics.state-cache.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        LocalDateTime sessionExpiry = LocalDateTime.now().minusMinutes(getConfig().getSessionTimeoutMinutes());
+        LocalDateTime visitorExpiry = LocalDateTime.now().minusMinutes(getConfig().getVisitorTimeoutMinutes());
+
+        // 이전에 실패한 변경분을 먼저 (같은 세션의 이탈 정보가 순서대로 반영되도록)
+        Batch batch = takeRetry();
+        sessions.forEach((key, state) -> {
+            synchronized (state) {
+                batch.collect(state);
+                if (state.lastSeenAt.isBefore(sessionExpiry)) {
+                    evict(state);
+                    sessions.remove(key, state);
+                }
+            }
+        });
+        visitors.forEach((key, state) -> {
+            synchronized (state) {
+                batch.collect(state);
+                if (state.lastSeenAt.isBefore(visitorExpiry)) {
+                    evict(state);
+                    visitors.remove(key, state);
+                }
+            }
+        });
+        evictOldest(sessions, getConfig().getMaxSessions(), batch);
+        evictOldest(visitors, getConfig().getMaxVisitors(), batch);
+        if (pathStore.isEnabled()) pathStore.foldParked(sessionExpiry, getConfig().getMaxSessions());
+        write(batch);
+    }
+
+    @PreDestroy
+    synchronized void flushAll() {
+        Batch batch = takeRetry();
+        sessions.values().forEach(state -> {
+            synchronized (state) {
+                batch.collect(state);
+                evict(state);
+            }
+        });
+        visitors.values().forEach(state -> {
+            synchronized (state) {
+                batch.collect(state);
+                evict(state);
+            }
+        });
+        sessions.clear();
+        visitors.clear();
+        if (pathStore.isEnabled()) pathStore.foldParked(null, 0);
+        write(batch);
+    }
+
+    /**
+     * 용량 초과 시 가장 오래 쓰이지 않은 항목부터 반영 후 제거
+     */
+    private <S extends State> void evictOldest(Map<String, S> map, int max, Batch batch) {
+        int overflow = map.size() - max;
+        if (overflow <= 0) return;
+
+        // 한 번에 10%를 더 비워 매 요청마다 정렬하지 않도록 함
+        int target = overflow + max / 10;
+        map.entrySet().stream()
+                .sorted(Comparator.comparing(e -> e.getValue().lastSeenAt))
+                .limit(target)
+                .toList()
+                .forEach(entry -> {
+                    S state = entry.getValue();
+                    synchronized (state) {
+                        batch.collect(state);
+                        evictOverflow(entry.getKey(), state);
+                        map.remove(entry.getKey(), state);
+                    }
+                });
+    }
+
+    private void write(Batch batch) {
+        if (batch.isEmpty()) return;
+        try {
+            writeAll(batch);
+            log.debug("[Analytics] State flushed: {} sessions, {} leaves, {} visitors",
+                    batch.sessionUpserts.size(), batch.sessionLeaves.size(), batch.visitorUpserts.size());
+        } catch (DataIntegrityViolationException e) {
+            // 다시 보내도 같은 행 때문에 실패하므로 한 행씩 반영해 거부된 행만 버림
+            log.warn("[Analytics] State flush rejected, retrying {} rows one by one: {}", batch.size(), e.getMessage());
+            writeEach(batch);
+        } catch (Exception e) {
+            keepForRetry(batch, e);
+        }
+    }
+
+    private void writeAll(Batch batch) {
+        transactionTemplate.executeWithoutResult(status -> {
+            trackingBatchRepository.upsertSessions(batch.sessionUpserts);
+            trackingBatchRepository.updateSessionLeaves(batch.sessionLeaves);
+            trackingBatchRepository.upsertVisitors(batch.visitorUpserts);
+        });
+    }
+
+    /**
+     * 한 행씩 반영 (데이터 오류 행은 버리고, 연결 오류 등이면 남은 행을 다음 flush 에 다시 보냄)
+     */
+    private void writeEach(Batch batch) {
+        List<Batch> rows = batch.split();
+        for (int i = 0; i < rows.size(); i++) {
+            try {
+                writeAll(rows.get(i));
+            } catch (DataIntegrityViolationException e) {
+                droppedCounter.increment();
+                log.error("[Analytics] Dropped state row rejected by database: {}", e.getMessage());
+            } catch (Exception e) {
+                Batch remaining = new Batch();
+                rows.subList(i, rows.size()).forEach(remaining::addAll);
+                keepForRetry(remaining, e);
+                return;
+            }
+        }
+    }
+
+    private void keepForRetry(Batch batch, Exception e) {
+        // 변경분이 모두 누적값(+=)이므로 다음 flush 에 그대로 다시 보냄. DB 장애가 길면 한도까지만 보관
+        int limit = getConfig().getMaxSessions() + getConfig().getMaxVisitors();
+        if (batch.size() > limit) {
+            droppedCounter.increment(batch.size());
+            log.error("[Analytics] Failed to flush state cache, dropped {} pending rows: {}",
+                    batch.size(), e.getMessage());
+        } else {
+            retry = batch;
+            log.error("[Analytics] Failed to flush state cache, retry {} rows next flush: {}",
+                    batch.size(), e.getMessage());
+        }
+    }
+
+    private Batch takeRetry() {
+        Batch batch = retry;
+        retry = new Batch();
+        return batch;
+    }
+
+    private AnalyticsProperties.StateCache getConfig() {
+        return analyticsProperties.getStateCache();
+    }
+
+    private abstract static class State {
+        LocalDateTime lastSeenAt;
+        boolean evicted;
+    }
+
+    private static class SessionState extends State {
+        private final SessionUpsert template;
+        private int pendingPageViews;
+        private String exitPage;
+        private LocalDateTime lastViewAt;
+        private SessionLeave pendingLeave;
+        // 페이지 이동 순서 (경로 집계를 끈 경우 null)
+        private final PathSequence path;
+
+        SessionState(String siteCode, TrackingEventDto event, UserAgentParser.ParsedUserAgent parsed, LocalDateTime at,
+                     double sampleWeight, ReferrerClassifier.Classification referrer, PathSequence path) {
+            this.template = SessionUpsert.builder()
+                    .sessionId(truncate(event.getSessionId(), MAX_ID_LENGTH))
+                    .siteCode(siteCode)
+                    .visitorId(truncate(event.getVisitorId(), MAX_ID_LENGTH))
+                    .userId(event.getUserId())
+                    .startTime(at)
+                    .entryPage(truncate(event.getPagePath(), MAX_PATH_LENGTH))
+                    .referrer(truncate(event.getReferrer(), MAX_URL_LENGTH))
+                    .referrerType(referrer.getType())
+                    .referrerHost(truncate(referrer.getHost(), MAX_HOST_LENGTH))
+                    .deviceType(parsed != null ? parsed.getDeviceType() : null)
+                    .browser(parsed != null ? parsed.getBrowser() : null)
+                    .os(parsed != null ? parsed.getOs() : null)
+                    .utmSource(truncate(event.getUtmSource(), MAX_UTM_LENGTH))
+                    .utmMedium(truncate(event.getUtmMedium(), MAX_UTM_LENGTH))
+                    .utmCampaign(truncate(event.getUtmCampaign(), MAX_UTM_LENGTH))
+                    .sampleWeight(sampleWeight)
+                    .build();
+            this.path = path;
+            this.lastSeenAt = at;
+        }
+
+        void addPageView(String pagePath, LocalDateTime at) {
+            pendingPageViews++;
+            exitPage = truncate(pagePath, MAX_PATH_LENGTH);
+            lastViewAt = at;
+            lastSeenAt = at;
+        }
+
+        void addLeave(String pagePath, Integer timeOnPage, LocalDateTime at) {
+            if (pendingLeave == null) {
+                pendingLeave = SessionLeave.builder().sessionId(template.getSessionId()).build();
+            }
+            pendingLeave.addLeave(truncate(pagePath, MAX_PATH_LENGTH), timeOnPage, at);
+            lastSeenAt = at;
+        }
+    }
+
+    private static class VisitorState extends State {
+        private final VisitorUpsert template;
+        private int pendingPageViews;
+        private LocalDateTime lastVisitAt;
+
+        VisitorState(String siteCode, TrackingEventDto event, LocalDateTime at) {
+            this.template = VisitorUpsert.builder()
+                    .visitorId(truncate(event.getVisitorId(), MAX_ID_LENGTH))
+                    .siteCode(siteCode)
+                    .firstVisitAt(at)
+                    .firstReferrer(truncate(event.getReferrer(), MAX_URL_LENGTH))
+                    .firstUtmSource(truncate(event.getUtmSource(), MAX_UTM_LENGTH))
+                    .firstUtmMedium(truncate(event.getUtmMedium(), MAX_UTM_LENGTH))
+                    .firstUtmCampaign(truncate(event.getUtmCampaign(), MAX_UTM_LENGTH))
+                    .build();
+            this.lastSeenAt = at;
+        }
+
+        void addPageView(LocalDateTime at) {
+            pendingPageViews++;
+            lastVisitAt = at;
+            lastSeenAt = at;
+        }
+    }
+
+    /**
+     * 한 번의 flush 에서 반영할 변경분 (호출 측에서 상태 잠금 후 collect)
+     */
+    private static class Batch {
+        private final List<SessionUpsert> sessionUpserts = new ArrayList<>();
+        private final List<SessionLeave> sessionLeaves = new ArrayList<>();
+        private final List<VisitorUpsert> visitorUpserts = new ArrayList<>();
+
+        void collect(State state) {
+            if (state instanceof SessionState session) {
+                if (session.pendingPageViews > 0) {
+                    SessionUpsert t = session.template;
+                    sessionUpserts.add(SessionUpsert.builder()
+                            .sessionId(t.getSessionId())
+                            .siteCode(t.getSiteCode())
+                            .visitorId(t.getVisitorId())
+                            .userId(t.getUserId())
+                            .startTime(t.getStartTime())
+                            .lastViewAt(session.lastViewAt)
+                            .pageViews(session.pendingPageViews)
+                            .entryPage(t.getEntryPage())
+                            .exitPage(session.exitPage)
+                            .referrer(t.getReferrer())
+                            .referrerType(t.getReferrerType())
+                            .referrerHost(t.getReferrerHost())
+                            .deviceType(t.getDeviceType())
+                            .browser(t.getBrowser())
+                            .os(t.getOs())
+                            .utmSource(t.getUtmSource())
+                            .utmMedium(t.getUtmMedium())
+                            .utmCampaign(t.getUtmCampaign())
+                            .sampleWeight(t.getSampleWeight())
+                            .build());
+                    session.pendingPageViews = 0;
+                }
+                if (session.pendingLeave != null) {
+                    sessionLeaves.add(session.pendingLeave);
+                    session.pendingLeave = null;
+                }
+            } else if (state instanceof VisitorState visitor && visitor.pendingPageViews > 0) {
+                VisitorUpsert t = visitor.template;
+                visitorUpserts.add(VisitorUpsert.builder()
+                        .visitorId(t.getVisitorId())
+                        .siteCode(t.getSiteCode())
+                        .firstVisitAt(t.getFirstVisitAt())
+                        .lastVisitAt(visitor.lastVisitAt)
+                        .pageViews(visitor.pendingPageViews)
+                        .firstReferrer(t.getFirstReferrer())
+                        .firstUtmSource(t.getFirstUtmSource())
+                        .firstUtmMedium(t.getFirstUtmMedium())
+                        .firstUtmCampaign(t.getFirstUtmCampaign())
+                        .build());
+                visitor.pendingPageViews = 0;
+            }
+        }
+
+        void addAll(Batch other) {
+            sessionUpserts.addAll(other.sessionUpserts);
+            sessionLeaves.addAll(other.sessionLeaves);
+            visitorUpserts.addAll(other.visitorUpserts);
+        }
+
+        /**
+         * 행마다 하나의 Batch 로 나눔 (같은 세션의 반영 순서 유지)
+         */
+        List<Batch> split() {
+            List<Batch> rows = new ArrayList<>(size());
+            sessionUpserts.forEach(row -> {
+                Batch batch = new Batch();
+                batch.sessionUpserts.add(row);
+                rows.add(batch);
+            });
+            sessionLeaves.forEach(row -> {
+                Batch batch = new Batch();
+                batch.sessionLeaves.add(row);
+                rows.add(batch);
+            });
+            visitorUpserts.forEach(row -> {
+                Batch batch = new Batch();
+                batch.visitorUpserts.add(row);
+                rows.add(batch);
+            });
+            return rows;
+        }
+
+        boolean isEmpty() {
+            return sessionUpserts.isEmpty() && sessionLeaves.isEmpty() && visitorUpserts.isEmpty();
+        }
+
+        int size() {
+            return sessionUpserts.size() + sessionLeaves.size() + visitorUpserts.size();
+        }
+    }
+}
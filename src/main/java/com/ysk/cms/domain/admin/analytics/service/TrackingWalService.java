@@ -0,0 +1,217 @@
+package com.ysk.cms.domain.admin.analytics.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ysk.cms.domain.admin.analytics.config.AnalyticsProperties;
+import com.ysk.cms.domain.admin.analytics.dto.TrackingCommand;
+import com.ysk.cms.domain.admin.analytics.wal.TrackingWal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 트래킹 이벤트 선행 기록 / 재생
+ * 요청 스레드는 이벤트를 로컬 로그에 기록하고 바로 응답한다.
+ * 재생 스레드가 체크포인트부터 배치 단위로 읽어 저장하고, 저장에 성공한 배치까지 체크포인트를 옮긴다.
+ * DB 장애 중에는 같은 배치를 재시도하며 로그에 계속 쌓고, 재시작하면 체크포인트부터 이어서 재생한다.
+ * DB 가 데이터 오류로 거부한 배치는 한 건씩 다시 저장해 거부된 레코드만 버리고 체크포인트를 옮긴다.
+ * 저장 후 체크포인트 기록 전에 종료되면 그 배치는 다시 저장될 수 있다 (at-least-once).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TrackingWalService {
+
+    private final TrackingService trackingService;
+    private final AnalyticsProperties analyticsProperties;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    private TrackingWal wal;
+    private ExecutorService replayer;
+    private volatile boolean running;
+
+    private Counter replayedCounter;
+    private Counter corruptCounter;
+    private Counter tooLargeCounter;
+    private Counter skippedBytesCounter;
+    private Counter retryCounter;
+
+    @PostConstruct
+    void start() throws IOException {
+        AnalyticsProperties.Wal config = analyticsProperties.getWal();
+        if (!config.isEnabled()) return;
+
+        wal = new TrackingWal(Paths.get(config.getDirectory()), config.getSegmentSizeMb() * 1024 * 1024,
+                config.getMaxSegments());
+        Gauge.builder("analytics.wal.segments", wal, TrackingWal::getSegmentCount)
+                .description("재생 대기 중인 로그 세그먼트 수")
+                .register(meterRegistry);
+        replayedCounter = meterRegistry.counter("analytics.wal.records", "result", "replayed");
+        corruptCounter = meterRegistry.counter("analytics.wal.records", "result", "corrupt");
+        tooLargeCounter = meterRegistry.counter("analytics.wal.records", "result", "too_large");
+        skippedBytesCounter = meterRegistry.counter("analytics.wal.skipped.bytes");
+        retryCounter = meterRegistry.counter("analytics.wal.retries");
+
+        running = true;
+        replayer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "analytics-wal-replayer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        replayer.submit(this::replayLoop);
+
+        log.info("[Analytics] WAL enabled: {} (segment={}MB, maxSegments={}, checkpoint={}:{})",
+                config.getDirectory(), config.getSegmentSizeMb(), config.getMaxSegments(),
+                wal.getCheckpoint().getSegmentId(), wal.getCheckpoint().getOffset());
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (wal == null) return;
+        // 남은 레코드는 다음 기동 시 재생된다
+        running = false;
+        replayer.shutdown();
+        if (!replayer.awaitTermination(analyticsProperties.getWal().getShutdownTimeoutMs(), TimeUnit.MILLISECONDS)) {
+            replayer.shutdownNow();
+        }
+        wal.close();
+    }
+
+    public boolean isEnabled() {
+        return wal != null;
+    }
+
+    /**
+     * 이벤트 기록
+     *
+     * @return 로그가 가득 찼거나 기록에 실패하면 false (세그먼트보다 큰 이벤트도 false)
+     */
+    public boolean append(TrackingCommand command) {
+        try {
+            return wal.append(objectMapper.writeValueAsBytes(command));
+        } catch (IOException e) {
+            log.error("[Analytics] Failed to append to WAL: {}", e.getMessage());
+            return false;
+        } catch (IllegalArgumentException e) {
+            tooLargeCounter.increment();
+            log.warn("[Analytics] Drop tracking event too large for WAL: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${analytics.wal.sync-interval-ms:1000}")
+    public void sync() {
+        if (wal != null) wal.force();
+    }
+
+    private void replayLoop() {
+        AnalyticsProperties.Wal config = analyticsProperties.getWal();
+        long backoff = config.getRetryBackoffMs();
+
+        while (running) {
+            try {
+                TrackingWal.Position checkpoint = wal.getCheckpoint();
+                TrackingWal.Batch batch = wal.read(checkpoint, config.getBatchSize());
+                if (batch.getRecords().isEmpty()) {
+                    // 끝난 세그먼트만 지나간 경우에도 체크포인트를 옮겨 파일을 정리
+                    if (!batch.getNext().equals(checkpoint)) {
+                        wal.commit(batch.getNext());
+                        reportSkipped(batch, checkpoint);
+                    }
+                    if (!pause(config.getPollIntervalMs())) break;
+                    continue;
+                }
+
+                int stored = store(decode(batch.getRecords()));
+                wal.commit(batch.getNext());
+                reportSkipped(batch, checkpoint);
+                replayedCounter.increment(stored);
+                backoff = config.getRetryBackoffMs();
+            } catch (Exception e) {
+                // 체크포인트를 옮기지 않았으므로 같은 배치를 다시 시도
+                retryCounter.increment();
+                log.error("[Analytics] WAL replay failed, retry in {}ms: {}", backoff, e.getMessage());
+                if (!pause(backoff)) break;
+                backoff = Math.min(backoff * 2, config.getMaxRetryBackoffMs());
+            }
+        }
+    }
+
+    /**
+     * 배치 저장. 데이터 오류로 거부되면 한 건씩 저장해 거부된 레코드만 버린다 (재시도해도 결과가 같음).
+     * 연결 오류 등은 그대로 던져 같은 배치를 다시 시도한다.
+     *
+     * @return 저장한 레코드 수
+     */
+    private int store(List<TrackingCommand> commands) {
+        if (commands.isEmpty()) return 0;
+        try {
+            trackingService.trackBatch(commands);
+            return commands.size();
+        } catch (DataIntegrityViolationException e) {
+            log.warn("[Analytics] WAL batch of {} records rejected, retrying one by one: {}",
+                    commands.size(), e.getMessage());
+        }
+
+        int stored = 0;
+        for (TrackingCommand command : commands) {
+            try {
+                trackingService.trackBatch(List.of(command));
+                stored++;
+            } catch (DataIntegrityViolationException e) {
+                corruptCounter.increment();
+                log.warn("[Analytics] Skip WAL record rejected by database: {}", e.getMessage());
+            }
+        }
+        return stored;
+    }
+
+    /**
+     * 손상되어 건너뛴 구간 기록 (재시도로 같은 배치를 다시 읽어도 한 번만 세도록 커밋 후 호출)
+     */
+    private void reportSkipped(TrackingWal.Batch batch, TrackingWal.Position from) {
+        if (batch.getSkippedBytes() == 0) return;
+        skippedBytesCounter.increment(batch.getSkippedBytes());
+        log.warn("[Analytics] Skipped {} corrupt WAL bytes after {}:{}",
+                batch.getSkippedBytes(), from.getSegmentId(), from.getOffset());
+    }
+
+    private boolean pause(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private List<TrackingCommand> decode(List<byte[]> records) {
+        List<TrackingCommand> commands = new ArrayList<>(records.size());
+        for (byte[] record : records) {
+            try {
+                commands.add(objectMapper.readValue(record, TrackingCommand.class));
+            } catch (IOException e) {
+                // 읽을 수 없는 레코드는 건너뜀 (재시도해도 결과가 같음)
+                corruptCounter.increment();
+                log.warn("[Analytics] Skip unreadable WAL record: {}", e.getMessage());
+            }
+        }
+        return commands;
+    }
+}
@@ -0,0 +1,145 @@
+package com.ysk.cms.domain.admin.analytics.service;
+
+import com.ysk.cms.common.exception.BusinessException;
+import com.ysk.cms.common.exception.ErrorCode;
+import com.ysk.cms.domain.admin.analytics.repository.AnalyticsTrendRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 추이 차트용 시간/일/주/월 버킷 관리
+ * 일별 집계 때 그날의 시간 버킷 24개와 일 버킷, 그날이 속한 주/월 버킷을 다시 계산해 저장하므로
+ * 긴 기간의 추이도 그리는 점 수만큼의 행만 읽는다.
+ * 주/월 방문자는 일별 HyperLogLog 스케치를 합친 추정값이다.
+ */
+@Component
+@RequiredArgsConstructor
+public class TrendBucketStore {
+
+    private final AnalyticsTrendRepository analyticsTrendRepository;
+    private final VisitorSketchStore visitorSketchStore;
+
+    public enum Granularity {
+        HOUR("MM/dd HH:mm"),
+        DAY("MM/dd"),
+        WEEK("yyyy/MM/dd"),
+        MONTH("yyyy/MM");
+
+        private final DateTimeFormatter labelFormat;
+
+        Granularity(String labelPattern) {
+            this.labelFormat = DateTimeFormatter.ofPattern(labelPattern);
+        }
+
+        /**
+         * 시각이 속한 버킷의 시작 시각 (주는 월요일 시작)
+         */
+        public LocalDateTime truncate(LocalDateTime at) {
+            return switch (this) {
+                case HOUR -> at.truncatedTo(ChronoUnit.HOURS);
+                case DAY -> at.toLocalDate().atStartOfDay();
+                case WEEK -> at.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).atStartOfDay();
+                case MONTH -> at.toLocalDate().withDayOfMonth(1).atStartOfDay();
+            };
+        }
+
+        public LocalDateTime next(LocalDateTime bucketStart) {
+            return switch (this) {
+                case HOUR -> bucketStart.plusHours(1);
+                case DAY -> bucketStart.plusDays(1);
+                case WEEK -> bucketStart.plusWeeks(1);
+                case MONTH -> bucketStart.plusMonths(1);
+            };
+        }
+
+        public String label(LocalDateTime bucketStart) {
+            return bucketStart.format(labelFormat);
+        }
+
+        /**
+         * 기간 길이에 맞는 단위 (3일 이하 시간, 92일 이하 일, 2년 이하 주, 그 이상 월)
+         */
+        public static Granularity auto(LocalDate startDate, LocalDate endDate) {
+            long days = ChronoUnit.DAYS.between(startDate, endDate) + 1;
+            if (days <= 3) return HOUR;
+            if (days <= 92) return DAY;
+            if (days <= 731) return WEEK;
+            return MONTH;
+        }
+    }
+
+    public static Granularity parseGranularity(String granularity) {
+        try {
+            return Granularity.valueOf(granularity.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(ErrorCode.INVALID_INPUT_VALUE);
+        }
+    }
+
+    /**
+     * 하루치 버킷 재생성 (일별 집계 트랜잭션 안에서, 일별 통계와 스케치를 다시 만든 뒤 호출)
+     */
+    public void rebuildDay(String siteCode, LocalDate date) {
+        List<Object[]> rows = new ArrayList<>();
+
+        LocalDateTime dayStart = date.atStartOfDay();
+        Map<LocalDateTime, long[]> hours = analyticsTrendRepository.sumRaw(siteCode, dayStart, dayStart.plusDays(1), true);
+        for (LocalDateTime hour = dayStart; hour.isBefore(dayStart.plusDays(1)); hour = hour.plusHours(1)) {
+            long[] values = hours.getOrDefault(hour, new long[3]);
+            rows.add(new Object[]{siteCode, Granularity.HOUR.name(), hour, values[0], values[1], values[2]});
+        }
+
+        long[] day = analyticsTrendRepository.sumDailyStats(siteCode, date, date);
+        rows.add(new Object[]{siteCode, Granularity.DAY.name(), dayStart, day[0], day[1], day[2]});
+
+        for (Granularity granularity : new Granularity[]{Granularity.WEEK, Granularity.MONTH}) {
+            LocalDate first = granularity.truncate(dayStart).toLocalDate();
+            LocalDate last = granularity.next(first.atStartOfDay()).toLocalDate().minusDays(1);
+            long[] sums = analyticsTrendRepository.sumDailyStats(siteCode, first, last);
+            rows.add(new Object[]{siteCode, granularity.name(), first.atStartOfDay(), sums[0], sums[1],
+                    visitorSketchStore.estimateVisitors(siteCode, first, last)});
+        }
+
+        analyticsTrendRepository.upsertAll(rows);
+    }
+
+    /**
+     * 저장된 버킷 (bucket_start 가 [from, to) 인 버킷, 값은 [페이지뷰, 세션, 방문자 또는 null])
+     */
+    public TreeMap<LocalDateTime, Long[]> findBuckets(String siteCode, Granularity granularity, LocalDateTime from,
+                                                      LocalDateTime to) {
+        return analyticsTrendRepository.findBuckets(siteCode, granularity.name(), from, to);
+    }
+
+    /**
+     * 아직 집계되지 않은 구간의 원본을 버킷으로 묶음 (주/월 버킷은 일 단위로 읽어 합치고 방문자는 스케치로 추정)
+     */
+    public TreeMap<LocalDateTime, Long[]> sumRaw(String siteCode, Granularity granularity, LocalDateTime from,
+                                                 LocalDateTime to) {
+        TreeMap<LocalDateTime, Long[]> buckets = new TreeMap<>();
+        analyticsTrendRepository.sumRaw(siteCode, from, to, granularity == Granularity.HOUR)
+                .forEach((at, values) -> {
+                    Long[] bucket = buckets.computeIfAbsent(granularity.truncate(at), key -> new Long[]{0L, 0L, 0L});
+                    bucket[0] += values[0];
+                    bucket[1] += values[1];
+                    bucket[2] += values[2];
+                });
+
+        if (granularity == Granularity.WEEK || granularity == Granularity.MONTH) {
+            buckets.forEach((bucketStart, bucket) -> bucket[2] = visitorSketchStore.estimateVisitors(siteCode,
+                    bucketStart.toLocalDate(), granularity.next(bucketStart).toLocalDate().minusDays(1)));
+        }
+        return buckets;
+    }
+}
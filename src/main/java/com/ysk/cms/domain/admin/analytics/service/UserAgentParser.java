@@ -1,117 +1,282 @@
 package com.ysk.cms.domain.admin.analytics.service;
 
-import lombok.*;
+import lombok.Builder;
+import lombok.Value;
 import org.springframework.stereotype.Component;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * User-Agent 문자열 파싱 (외부 라이브러리 없이 간단 구현)
+ *
+ * 문자열을 한 번만 훑으면서 필요한 토큰 위치를 기록하고 그 결과로 판정한다.
+ * 실제 트래픽의 UA 종류는 수천 개 수준이므로 원본 문자열 → 결과를 LRU 캐시에 두고,
+ * 결과 객체는 불변이며 동일한 값끼리 하나의 인스턴스를 공유한다.
  */
 @Component
 public class UserAgentParser {
 
+    static final ParsedUserAgent UNKNOWN = ParsedUserAgent.builder()
+            .deviceType("unknown")
+            .browser("unknown")
+            .browserVersion("")
+            .os("unknown")
+            .osVersion("")
+            .build();
+
+    private static final int CACHE_SEGMENTS = 16;
+    private static final int CACHE_SIZE_PER_SEGMENT = 256;
+    private static final int MAX_INTERNED = 8192;
+
+    // === 토큰 정의 ===
+    private static final int EDG = 0;
+    private static final int OPR = 1;
+    private static final int OPERA = 2;
+    private static final int CHROME = 3;
+    private static final int CHROME_SLASH = 4;
+    private static final int SAFARI = 5;
+    private static final int SAFARI_SLASH = 6;
+    private static final int FIREFOX = 7;
+    private static final int MSIE = 8;
+    private static final int MSIE_SPACE = 9;
+    private static final int TRIDENT = 10;
+    private static final int VERSION = 11;
+    private static final int RV = 12;
+    private static final int WINDOWS = 13;
+    private static final int WINDOWS_NT = 14;
+    private static final int MAC_OS_X = 15;
+    private static final int MAC_OS_X_SPACE = 16;
+    private static final int MACINTOSH = 17;
+    private static final int IPHONE = 18;
+    private static final int IPHONE_OS = 19;
+    private static final int IPAD = 20;
+    private static final int ANDROID = 21;
+    private static final int ANDROID_SPACE = 22;
+    private static final int LINUX = 23;
+    private static final int LC_MOBILE = 24;
+    private static final int LC_ANDROID = 25;
+    private static final int LC_TABLET = 26;
+    private static final int LC_IPAD = 27;
+    private static final int TOKEN_COUNT = 28;
+
+    private static final int NO_VERSION = 0;
+    private static final int DOT_VERSION = 1;        // [\d.]+
+    private static final int UNDERSCORE_VERSION = 2; // [\d_]+
+
+    private static final int[] BROWSER_VERSION_TOKENS = {EDG, OPR, CHROME_SLASH, VERSION, FIREFOX, MSIE_SPACE, RV};
+    private static final int[] OS_VERSION_TOKENS = {WINDOWS_NT, MAC_OS_X_SPACE, IPHONE_OS, ANDROID_SPACE};
+
+    // 첫 글자(소문자 기준)별 후보 토큰
+    private static final Token[][] TOKENS_BY_FIRST_CHAR = new Token[128][];
+
+    static {
+        token(EDG, "Edg/", false, DOT_VERSION);
+        token(OPR, "OPR/", false, DOT_VERSION);
+        token(OPERA, "Opera", false, NO_VERSION);
+        token(CHROME, "Chrome", false, NO_VERSION);
+        token(CHROME_SLASH, "Chrome/", false, DOT_VERSION);
+        token(SAFARI, "Safari", false, NO_VERSION);
+        token(SAFARI_SLASH, "Safari/", false, NO_VERSION);
+        token(FIREFOX, "Firefox/", false, DOT_VERSION);
+        token(MSIE, "MSIE", false, NO_VERSION);
+        token(MSIE_SPACE, "MSIE ", false, DOT_VERSION);
+        token(TRIDENT, "Trident/", false, NO_VERSION);
+        token(VERSION, "Version/", false, DOT_VERSION);
+        token(RV, "rv:", false, DOT_VERSION);
+        token(WINDOWS, "Windows", false, NO_VERSION);
+        token(WINDOWS_NT, "Windows NT ", false, DOT_VERSION);
+        token(MAC_OS_X, "Mac OS X", false, NO_VERSION);
+        token(MAC_OS_X_SPACE, "Mac OS X ", false, UNDERSCORE_VERSION);
+        token(MACINTOSH, "Macintosh", false, NO_VERSION);
+        token(IPHONE, "iPhone", false, NO_VERSION);
+        token(IPHONE_OS, "iPhone OS ", false, UNDERSCORE_VERSION);
+        token(IPAD, "iPad", false, NO_VERSION);
+        token(ANDROID, "Android", false, NO_VERSION);
+        token(ANDROID_SPACE, "Android ", false, DOT_VERSION);
+        token(LINUX, "Linux", false, NO_VERSION);
+        token(LC_MOBILE, "mobile", true, NO_VERSION);
+        token(LC_ANDROID, "android", true, NO_VERSION);
+        token(LC_TABLET, "tablet", true, NO_VERSION);
+        token(LC_IPAD, "ipad", true, NO_VERSION);
+    }
+
+    @SuppressWarnings("unchecked")
+    private final Map<String, ParsedUserAgent>[] cache = new Map[CACHE_SEGMENTS];
+    private final Map<ParsedUserAgent, ParsedUserAgent> interned = new ConcurrentHashMap<>();
+
+    public UserAgentParser() {
+        for (int i = 0; i < CACHE_SEGMENTS; i++) {
+            cache[i] = new LinkedHashMap<>(CACHE_SIZE_PER_SEGMENT * 4 / 3 + 1, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, ParsedUserAgent> eldest) {
+                    return size() > CACHE_SIZE_PER_SEGMENT;
+                }
+            };
+        }
+    }
+
     public ParsedUserAgent parse(String userAgent) {
         if (userAgent == null || userAgent.isEmpty()) {
-            return ParsedUserAgent.builder()
-                    .deviceType("unknown")
-                    .browser("unknown")
-                    .browserVersion("")
-                    .os("unknown")
-                    .osVersion("")
-                    .build();
+            return UNKNOWN;
+        }
+
+        Map<String, ParsedUserAgent> segment = cache[(userAgent.hashCode() & 0x7fffffff) % CACHE_SEGMENTS];
+        synchronized (segment) {
+            ParsedUserAgent cached = segment.get(userAgent);
+            if (cached != null) return cached;
         }
 
-        String ua = userAgent.toLowerCase();
+        ParsedUserAgent parsed = intern(scan(userAgent));
+        synchronized (segment) {
+            segment.put(userAgent, parsed);
+        }
+        return parsed;
+    }
+
+    private ParsedUserAgent intern(ParsedUserAgent parsed) {
+        ParsedUserAgent existing = interned.get(parsed);
+        if (existing != null) return existing;
+        if (interned.size() >= MAX_INTERNED) return parsed;
+        existing = interned.putIfAbsent(parsed, parsed);
+        return existing != null ? existing : parsed;
+    }
+
+    /**
+     * 단일 패스 스캔: 각 토큰의 첫 등장 위치와 버전 구간을 기록
+     */
+    static ParsedUserAgent scan(String ua) {
+        int length = ua.length();
+        int[] first = new int[TOKEN_COUNT];
+        int[] versionStart = new int[TOKEN_COUNT];
+        int[] versionEnd = new int[TOKEN_COUNT];
+        Arrays.fill(first, -1);
+        Arrays.fill(versionStart, -1);
+        int lastSafari = -1;
+
+        for (int i = 0; i < length; i++) {
+            char c = Character.toLowerCase(ua.charAt(i));
+            if (c >= 128) continue;
+            Token[] candidates = TOKENS_BY_FIRST_CHAR[c];
+            if (candidates == null) continue;
+
+            for (Token token : candidates) {
+                if (!ua.regionMatches(token.ignoreCase, i, token.text, 0, token.text.length())) continue;
+
+                if (first[token.id] < 0) first[token.id] = i;
+                if (token.id == SAFARI) lastSafari = i;
+
+                if (token.versionType != NO_VERSION && versionStart[token.id] < 0) {
+                    int start = i + token.text.length();
+                    int end = start;
+                    while (end < length && isVersionChar(ua.charAt(end), token.versionType)) end++;
+                    if (end > start) {
+                        versionStart[token.id] = start;
+                        versionEnd[token.id] = end;
+                    }
+                }
+            }
+        }
 
         return ParsedUserAgent.builder()
-                .deviceType(parseDeviceType(ua))
-                .browser(parseBrowser(userAgent))
-                .browserVersion(parseBrowserVersion(userAgent))
-                .os(parseOS(userAgent))
-                .osVersion(parseOSVersion(userAgent))
+                .deviceType(deviceType(first))
+                .browser(browser(first))
+                .browserVersion(browserVersion(ua, versionStart, versionEnd, lastSafari))
+                .os(os(first))
+                .osVersion(osVersion(ua, versionStart, versionEnd))
                 .build();
     }
 
-    private String parseDeviceType(String ua) {
-        if (ua.contains("mobile") || ua.contains("android") && !ua.contains("tablet")) {
+    private static String deviceType(int[] first) {
+        if (first[LC_MOBILE] >= 0 || first[LC_ANDROID] >= 0 && first[LC_TABLET] < 0) {
             return "mobile";
-        } else if (ua.contains("tablet") || ua.contains("ipad")) {
+        } else if (first[LC_TABLET] >= 0 || first[LC_IPAD] >= 0) {
             return "tablet";
         }
         return "desktop";
     }
 
-    private String parseBrowser(String userAgent) {
-        if (userAgent.contains("Edg/")) return "Edge";
-        if (userAgent.contains("OPR/") || userAgent.contains("Opera")) return "Opera";
-        if (userAgent.contains("Chrome/") && !userAgent.contains("Edg/")) return "Chrome";
-        if (userAgent.contains("Safari/") && !userAgent.contains("Chrome")) return "Safari";
-        if (userAgent.contains("Firefox/")) return "Firefox";
-        if (userAgent.contains("MSIE") || userAgent.contains("Trident/")) return "IE";
+    private static String browser(int[] first) {
+        if (first[EDG] >= 0) return "Edge";
+        if (first[OPR] >= 0 || first[OPERA] >= 0) return "Opera";
+        if (first[CHROME_SLASH] >= 0) return "Chrome";
+        if (first[SAFARI_SLASH] >= 0 && first[CHROME] < 0) return "Safari";
+        if (first[FIREFOX] >= 0) return "Firefox";
+        if (first[MSIE] >= 0 || first[TRIDENT] >= 0) return "IE";
         return "Other";
     }
 
-    private String parseBrowserVersion(String userAgent) {
-        Pattern[] patterns = {
-                Pattern.compile("Edg/([\\d.]+)"),
-                Pattern.compile("OPR/([\\d.]+)"),
-                Pattern.compile("Chrome/([\\d.]+)"),
-                Pattern.compile("Version/([\\d.]+).*Safari"),
-                Pattern.compile("Firefox/([\\d.]+)"),
-                Pattern.compile("MSIE ([\\d.]+)"),
-                Pattern.compile("rv:([\\d.]+)")
-        };
-
-        for (Pattern pattern : patterns) {
-            Matcher matcher = pattern.matcher(userAgent);
-            if (matcher.find()) {
-                String version = matcher.group(1);
-                // 메이저 버전만 반환
-                int dotIndex = version.indexOf('.');
-                return dotIndex > 0 ? version.substring(0, dotIndex) : version;
-            }
+    private static String browserVersion(String ua, int[] versionStart, int[] versionEnd, int lastSafari) {
+        for (int id : BROWSER_VERSION_TOKENS) {
+            if (versionStart[id] < 0) continue;
+            // Version/x.y 는 뒤에 Safari 가 있을 때만 인정
+            if (id == VERSION && lastSafari < versionEnd[id]) continue;
+
+            // 메이저 버전만 반환
+            int start = versionStart[id];
+            int end = versionEnd[id];
+            int dotIndex = ua.indexOf('.', start);
+            if (dotIndex > start && dotIndex < end) end = dotIndex;
+            return ua.substring(start, end);
         }
         return "";
     }
 
-    private String parseOS(String userAgent) {
-        if (userAgent.contains("Windows")) return "Windows";
-        if (userAgent.contains("Mac OS X") || userAgent.contains("Macintosh")) return "macOS";
-        if (userAgent.contains("iPhone") || userAgent.contains("iPad")) return "iOS";
-        if (userAgent.contains("Android")) return "Android";
-        if (userAgent.contains("Linux")) return "Linux";
+    private static String os(int[] first) {
+        if (first[WINDOWS] >= 0) return "Windows";
+        if (first[MAC_OS_X] >= 0 || first[MACINTOSH] >= 0) return "macOS";
+        if (first[IPHONE] >= 0 || first[IPAD] >= 0) return "iOS";
+        if (first[ANDROID] >= 0) return "Android";
+        if (first[LINUX] >= 0) return "Linux";
         return "Other";
     }
 
-    private String parseOSVersion(String userAgent) {
-        Pattern[] patterns = {
-                Pattern.compile("Windows NT ([\\d.]+)"),
-                Pattern.compile("Mac OS X ([\\d_]+)"),
-                Pattern.compile("iPhone OS ([\\d_]+)"),
-                Pattern.compile("Android ([\\d.]+)"),
-        };
-
-        for (Pattern pattern : patterns) {
-            Matcher matcher = pattern.matcher(userAgent);
-            if (matcher.find()) {
-                return matcher.group(1).replace("_", ".");
+    private static String osVersion(String ua, int[] versionStart, int[] versionEnd) {
+        for (int id : OS_VERSION_TOKENS) {
+            if (versionStart[id] >= 0) {
+                return ua.substring(versionStart[id], versionEnd[id]).replace('_', '.');
             }
         }
         return "";
     }
 
-    @Getter
-    @Setter
-    @NoArgsConstructor
-    @AllArgsConstructor
+    private static boolean isVersionChar(char c, int versionType) {
+        if (c >= '0' && c <= '9') return true;
+        return versionType == DOT_VERSION ? c == '.' : c == '_';
+    }
+
+    private static void token(int id, String text, boolean ignoreCase, int versionType) {
+        char c = Character.toLowerCase(text.charAt(0));
+        Token[] bucket = TOKENS_BY_FIRST_CHAR[c] == null
+                ? new Token[1]
+                : Arrays.copyOf(TOKENS_BY_FIRST_CHAR[c], TOKENS_BY_FIRST_CHAR[c].length + 1);
+        bucket[bucket.length - 1] = new Token(id, text, ignoreCase, versionType);
+        TOKENS_BY_FIRST_CHAR[c] = bucket;
+    }
+
+    private static class Token {
+        private final int id;
+        private final String text;
+        private final boolean ignoreCase;
+        private final int versionType;
+
+        Token(int id, String text, boolean ignoreCase, int versionType) {
+            this.id = id;
+            this.text = text;
+            this.ignoreCase = ignoreCase;
+            this.versionType = versionType;
+        }
+    }
+
+    @Value
     @Builder
     public static class ParsedUserAgent {
-        private String deviceType;
-        private String browser;
-        private String browserVersion;
-        private String os;
-        private String osVersion;
+        String deviceType;
+        String browser;
+        String browserVersion;
+        String os;
+        String osVersion;
     }
 }
@@ -0,0 +1,105 @@
+package com.ysk.cms.domain.admin.analytics.service;
+
+import com.ysk.cms.domain.admin.analytics.bitmap.RoaringBitmap;
+import com.ysk.cms.domain.admin.analytics.repository.AnalyticsBitmapRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.ysk.cms.domain.admin.analytics.repository.AnalyticsBitmapRepository.ACTIVE;
+import static com.ysk.cms.domain.admin.analytics.repository.AnalyticsBitmapRepository.NEW;
+
+/**
+ * 사이트/일자별 방문자 비트맵 관리 (코호트 리텐션용)
+ * 일별 집계 때 그날 방문한 방문자와 첫 방문한 방문자의 사이트별 순번(site_ordinal)을 각각 비트맵으로 저장하고,
+ * 리텐션은 주 단위로 합친(OR) 신규 비트맵과 방문 비트맵의 교집합 크기(AND)로 메모리에서 계산한다.
+ * 집계가 끝난 날짜만 포함된다. 비트맵이 없는 과거 날짜는 원본이 남아 있는 동안 일별 재집계로 만들 수 있다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VisitorBitmapStore {
+
+    private final AnalyticsBitmapRepository analyticsBitmapRepository;
+
+    /**
+     * 원본 데이터로 하루치 비트맵 재생성 (일별 집계 트랜잭션 안에서 호출)
+     */
+    public void rebuildDay(String siteCode, LocalDate date) {
+        RoaringBitmap active = new RoaringBitmap();
+        RoaringBitmap created = new RoaringBitmap();
+        int[] missing = new int[1];
+        analyticsBitmapRepository.scanActiveVisitors(siteCode, date, rs -> {
+            int ordinal = rs.getInt(1);
+            if (rs.wasNull()) missing[0]++;
+            else active.add(ordinal);
+        });
+        analyticsBitmapRepository.scanNewVisitors(siteCode, date, rs -> {
+            int ordinal = rs.getInt(1);
+            if (rs.wasNull()) missing[0]++;
+            else created.add(ordinal);
+        });
+        // 순번은 방문자 저장 트랜잭션에서 매기므로 비어 있으면 마이그레이션(V018)이 빠진 것
+        if (missing[0] > 0) {
+            log.error("[Analytics] {} visitors without site ordinal excluded from bitmaps: {} {}",
+                    missing[0], siteCode, date);
+        }
+
+        analyticsBitmapRepository.upsert(siteCode, date, ACTIVE, active.toBytes());
+        analyticsBitmapRepository.upsert(siteCode, date, NEW, created.toBytes());
+    }
+
+    /**
+     * 비트맵이 있는 첫 날짜 (없으면 null). 이전 날짜의 방문자는 리텐션에 포함되지 않는다.
+     */
+    public LocalDate findStartDate(String siteCode) {
+        return analyticsBitmapRepository.findFirstDate(siteCode);
+    }
+
+    /**
+     * 주별 코호트 리텐션
+     *
+     * @param firstWeek 첫 코호트 주 시작일
+     * @param cohorts   코호트(주) 수
+     * @param weeks     코호트 이후 살펴볼 주 수
+     * @return 코호트별 [코호트 방문자 수, 1주 후 재방문자 수, ..., weeks 주 후 재방문자 수]
+     */
+    public List<long[]> retention(String siteCode, LocalDate firstWeek, int cohorts, int weeks) {
+        RoaringBitmap[] cohortVisitors = weekly(analyticsBitmapRepository.findBitmaps(siteCode, NEW,
+                firstWeek, firstWeek.plusWeeks(cohorts).minusDays(1)), firstWeek, cohorts);
+        RoaringBitmap[] activeVisitors = weekly(analyticsBitmapRepository.findBitmaps(siteCode, ACTIVE,
+                firstWeek.plusWeeks(1), firstWeek.plusWeeks(cohorts + weeks).minusDays(1)), firstWeek, cohorts + weeks);
+
+        List<long[]> rows = new ArrayList<>(cohorts);
+        for (int cohort = 0; cohort < cohorts; cohort++) {
+            long[] row = new long[weeks + 1];
+            row[0] = cohortVisitors[cohort].cardinality();
+            for (int week = 1; week <= weeks && row[0] > 0; week++) {
+                row[week] = cohortVisitors[cohort].andCardinality(activeVisitors[cohort + week]);
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * 일별 비트맵을 firstWeek 부터 7일 단위로 합침
+     */
+    private static RoaringBitmap[] weekly(Map<LocalDate, byte[]> days, LocalDate firstWeek, int count) {
+        RoaringBitmap[] weeks = new RoaringBitmap[count];
+        for (int i = 0; i < count; i++) {
+            weeks[i] = new RoaringBitmap();
+        }
+        days.forEach((date, bitmap) -> {
+            int week = (int) (ChronoUnit.DAYS.between(firstWeek, date) / 7);
+            if (week >= 0 && week < count) weeks[week].or(RoaringBitmap.fromBytes(bitmap));
+        });
+        return weeks;
+    }
+}
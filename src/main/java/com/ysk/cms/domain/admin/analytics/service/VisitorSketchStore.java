@@ -0,0 +1,234 @@
+package com.ysk.cms.domain.admin.analytics.service;
+
+import com.ysk.cms.domain.admin.analytics.config.AnalyticsProperties;
+import com.ysk.cms.domain.admin.analytics.repository.AnalyticsSketchRepository;
+import com.ysk.cms.domain.admin.analytics.sketch.HyperLogLog;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import static com.ysk.cms.domain.admin.analytics.repository.AnalyticsSketchRepository.SITE_SKETCH;
+
+/**
+ * 사이트/일자별 순 방문자 HyperLogLog 스케치 관리
+ * 트래킹 경로에서 메모리의 당일 스케치에 추가하고, 주기적으로 DB 스케치와 병합(레지스터별 최대값)해 저장한다.
+ * 병합은 멱등이므로 같은 스케치를 여러 번 저장하거나 여러 노드가 동시에 저장해도 결과가 같다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VisitorSketchStore {
+
+    private final AnalyticsSketchRepository analyticsSketchRepository;
+    private final AnalyticsProperties analyticsProperties;
+    private final TransactionTemplate transactionTemplate;
+
+    // "siteCode:yyyy-MM-dd" → 당일 스케치
+    private final Map<String, DaySketches> days = new ConcurrentHashMap<>();
+
+    /**
+     * 페이지뷰 반영
+     */
+    public void add(String siteCode, String visitorId, String pagePath, LocalDateTime at) {
+        LocalDate date = at.toLocalDate();
+        DaySketches sketches = days.computeIfAbsent(siteCode + ":" + date, key -> new DaySketches(siteCode, date));
+        synchronized (sketches) {
+            sketches.add(visitorId, pagePath, getConfig());
+        }
+    }
+
+    /**
+     * 기간 순 방문자 추정
+     */
+    public long estimateVisitors(String siteCode, LocalDate startDate, LocalDate endDate) {
+        HyperLogLog merged = new HyperLogLog(getConfig().getPrecision());
+        analyticsSketchRepository.findSketches(siteCode, startDate, endDate, List.of(SITE_SKETCH))
+                .getOrDefault(SITE_SKETCH, List.of())
+                .forEach(registers -> {
+                    HyperLogLog sketch = HyperLogLog.fromBytes(registers);
+                    // precision 설정이 바뀌기 전에 저장된 스케치는 제외
+                    if (sketch.getPrecision() == merged.getPrecision()) merged.merge(sketch);
+                });
+
+        forEachLiveDay(siteCode, startDate, endDate, sketches -> {
+            if (sketches.site != null) merged.merge(sketches.site);
+        });
+        return merged.estimate();
+    }
+
+    /**
+     * 기간 페이지별 순 방문자 추정 (스케치가 없는 경로는 결과에 포함되지 않음)
+     */
+    public Map<String, Long> estimatePageVisitors(String siteCode, LocalDate startDate, LocalDate endDate,
+                                                  Collection<String> pagePaths) {
+        if (pagePaths.isEmpty()) return Map.of();
+
+        Map<String, HyperLogLog> merged = new HashMap<>();
+        analyticsSketchRepository.findSketches(siteCode, startDate, endDate, pagePaths)
+                .forEach((path, sketches) -> sketches.forEach(registers ->
+                        mergeInto(merged, path, HyperLogLog.fromBytes(registers))));
+
+        forEachLiveDay(siteCode, startDate, endDate, sketches -> pagePaths.forEach(path -> {
+            HyperLogLog page = sketches.pages.get(path);
+            if (page != null) mergeInto(merged, path, page);
+        }));
+
+        Map<String, Long> estimates = new HashMap<>();
+        merged.forEach((path, sketch) -> estimates.put(path, sketch.estimate()));
+        return estimates;
+    }
+
+    public double getVisitorErrorRate() {
+        return HyperLogLog.standardError(getConfig().getPrecision());
+    }
+
+    public double getPageErrorRate() {
+        return HyperLogLog.standardError(getConfig().getPagePrecision());
+    }
+
+    /**
+     * 원본 데이터로 하루치 스케치 재생성 (일별 집계 트랜잭션 안에서 호출)
+     */
+    public void rebuildDay(String siteCode, LocalDate date) {
+        DaySketches rebuilt = new DaySketches(siteCode, date);
+        AnalyticsProperties.Sketch config = getConfig();
+        analyticsSketchRepository.scanVisitors(siteCode, date,
+                rs -> rebuilt.add(rs.getString(1), rs.getString(2), config));
+
+        analyticsSketchRepository.deleteDay(siteCode, date);
+        analyticsSketchRepository.upsertAll(siteCode, date, rebuilt.toRows(rebuilt.pages.keySet()));
+    }
+
+    /**
+     * 변경된 스케치 저장, 지난 날짜는 저장 후 메모리에서 제거
+     */
+    @Scheduled(fixedDelayString = "${analytics.sketch.flush-interval-ms:10000}")
+    public void flush() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        days.forEach((key, sketches) -> {
+            boolean expired = sketches.date.isBefore(yesterday);
+            write(sketches);
+            if (expired) {
+                days.remove(key, sketches);
+            }
+        });
+    }
+
+    @PreDestroy
+    void flushAll() {
+        days.values().forEach(this::write);
+    }
+
+    private void write(DaySketches sketches) {
+        Map<String, byte[]> rows;
+        synchronized (sketches) {
+            if (!sketches.dirty) return;
+            rows = sketches.toRows(sketches.dirtyPages);
+            sketches.dirty = false;
+            sketches.dirtyPages.clear();
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Map<String, byte[]> stored = analyticsSketchRepository.findForUpdate(sketches.siteCode, sketches.date, rows.keySet());
+                stored.forEach((path, registers) -> {
+                    HyperLogLog sketch = HyperLogLog.fromBytes(rows.get(path));
+                    HyperLogLog existing = HyperLogLog.fromBytes(registers);
+                    if (existing.getPrecision() == sketch.getPrecision()) {
+                        sketch.merge(existing);
+                        rows.put(path, sketch.toBytes());
+                    }
+                });
+                analyticsSketchRepository.upsertAll(sketches.siteCode, sketches.date, rows);
+            });
+        } catch (Exception e) {
+            // 다음 주기에 다시 저장되도록 표시
+            synchronized (sketches) {
+                sketches.dirty = true;
+                sketches.dirtyPages.addAll(rows.keySet());
+                sketches.dirtyPages.remove(SITE_SKETCH);
+            }
+            log.error("[Analytics] Failed to flush visitor sketches for {} {}: {}", sketches.siteCode, sketches.date, e.getMessage());
+        }
+    }
+
+    private void forEachLiveDay(String siteCode, LocalDate startDate, LocalDate endDate,
+                                Consumer<DaySketches> action) {
+        days.values().forEach(sketches -> {
+            if (sketches.siteCode.equals(siteCode) && !sketches.date.isBefore(startDate) && !sketches.date.isAfter(endDate)) {
+                synchronized (sketches) {
+                    action.accept(sketches);
+                }
+            }
+        });
+    }
+
+    private void mergeInto(Map<String, HyperLogLog> merged, String path, HyperLogLog sketch) {
+        HyperLogLog target = merged.get(path);
+        if (target == null) {
+            merged.put(path, sketch.copy());
+        } else if (target.getPrecision() == sketch.getPrecision()) {
+            target.merge(sketch);
+        }
+    }
+
+    private AnalyticsProperties.Sketch getConfig() {
+        return analyticsProperties.getSketch();
+    }
+
+    private static class DaySketches {
+        private final String siteCode;
+        private final LocalDate date;
+        private HyperLogLog site;
+        private final Map<String, HyperLogLog> pages = new HashMap<>();
+        private final Set<String> dirtyPages = new HashSet<>();
+        private boolean dirty;
+
+        DaySketches(String siteCode, LocalDate date) {
+            this.siteCode = siteCode;
+            this.date = date;
+        }
+
+        void add(String visitorId, String pagePath, AnalyticsProperties.Sketch config) {
+            if (site == null) {
+                site = new HyperLogLog(config.getPrecision());
+            }
+            site.add(visitorId);
+            dirty = true;
+
+            if (!config.isPageSketches() || pagePath == null) return;
+            HyperLogLog page = pages.get(pagePath);
+            if (page == null) {
+                // 경로 수가 한도를 넘으면 페이지 스케치는 만들지 않음
+                if (pages.size() >= config.getMaxPagesPerDay()) return;
+                page = new HyperLogLog(config.getPagePrecision());
+                pages.put(pagePath, page);
+            }
+            page.add(visitorId);
+            dirtyPages.add(pagePath);
+        }
+
+        Map<String, byte[]> toRows(Collection<String> pagePaths) {
+            Map<String, byte[]> rows = new HashMap<>();
+            if (site != null) {
+                rows.put(SITE_SKETCH, site.toBytes());
+            }
+            pagePaths.forEach(path -> rows.put(path, pages.get(path).toBytes()));
+            return rows;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.ysk.cms.domain.admin.analytics.sketch;
+
+import lombok.Value;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Space-Saving 상위 K 항목(heavy hitter) 요약
+ * 최대 capacity 개 항목만 세고, 가득 찬 상태에서 새 항목이 오면 가장 작은 항목을 밀어내고 그 값을 이어받는다.
+ * count 는 실제 값 이상이며 count - error 는 실제 값 이하이다 (error 는 밀어낸 항목에서 이어받은 값).
+ * 합치기는 한쪽에 없는 항목을 그쪽 최소값으로 보고 더한 뒤 상위 capacity 개만 남긴다 (mergeable summaries).
+ * 스레드 안전하지 않으므로 호출 측에서 동기화한다.
+ */
+public class SpaceSaving {
+
+    private static final Comparator<Counter> ORDER = Comparator
+            .comparingLong((Counter counter) -> counter.count)
+            .thenComparing(counter -> counter.key);
+
+    private final int capacity;
+    private final Map<String, Counter> counters = new HashMap<>();
+    // 가장 작은 항목을 바로 찾기 위한 정렬 집합
+    private final TreeSet<Counter> ordered = new TreeSet<>(ORDER);
+
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public boolean isEmpty() {
+        return counters.isEmpty();
+    }
+
+    public void add(String key) {
+        add(key, 1);
+    }
+
+    public void add(String key, long count) {
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            ordered.remove(counter);
+            counter.count += count;
+            ordered.add(counter);
+            return;
+        }
+
+        if (counters.size() < capacity) {
+            put(new Counter(key, count, 0));
+            return;
+        }
+
+        Counter min = ordered.pollFirst();
+        counters.remove(min.key);
+        put(new Counter(key, min.count + count, min.count));
+    }
+
+    /**
+     * 다른 요약을 합침 (같은 capacity 가 아니어도 되며 결과는 이 요약의 capacity 를 따른다)
+     */
+    public void merge(SpaceSaving other) {
+        long thisMin = minCount();
+        long otherMin = other.minCount();
+
+        List<Counter> combined = new ArrayList<>(counters.size() + other.counters.size());
+        for (Counter counter : counters.values()) {
+            Counter match = other.counters.get(counter.key);
+            combined.add(match != null
+                    ? new Counter(counter.key, counter.count + match.count, counter.error + match.error)
+                    : new Counter(counter.key, counter.count + otherMin, counter.error + otherMin));
+        }
+        for (Counter counter : other.counters.values()) {
+            if (!counters.containsKey(counter.key)) {
+                combined.add(new Counter(counter.key, counter.count + thisMin, counter.error + thisMin));
+            }
+        }
+
+        combined.sort(ORDER.reversed());
+        counters.clear();
+        ordered.clear();
+        for (int i = 0; i < combined.size() && i < capacity; i++) {
+            put(combined.get(i));
+        }
+    }
+
+    /**
+     * 상위 limit 개 (count 내림차순)
+     */
+    public List<Item> top(int limit) {
+        List<Item> items = new ArrayList<>(Math.min(limit, counters.size()));
+        for (Counter counter : ordered.descendingSet()) {
+            if (items.size() >= limit) break;
+            items.add(new Item(counter.key, counter.count, counter.error));
+        }
+        return items;
+    }
+
+    public SpaceSaving copy() {
+        SpaceSaving copy = new SpaceSaving(capacity);
+        counters.values().forEach(counter -> copy.put(new Counter(counter.key, counter.count, counter.error)));
+        return copy;
+    }
+
+    public byte[] toBytes() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(capacity);
+            out.writeInt(counters.size());
+            for (Counter counter : counters.values()) {
+                out.writeUTF(counter.key);
+                out.writeLong(counter.count);
+                out.writeLong(counter.error);
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static SpaceSaving fromBytes(byte[] data) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+            SpaceSaving sketch = new SpaceSaving(in.readInt());
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                sketch.put(new Counter(in.readUTF(), in.readLong(), in.readLong()));
+            }
+            return sketch;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("invalid top-k sketch", e);
+        }
+    }
+
+    /**
+     * 가득 차 있으면 가장 작은 count, 아니면 0 (없는 항목의 최대 가능 값)
+     */
+    private long minCount() {
+        return counters.size() < capacity || ordered.isEmpty() ? 0 : ordered.first().count;
+    }
+
+    private void put(Counter counter) {
+        counters.put(counter.key, counter);
+        ordered.add(counter);
+    }
+
+    private static class Counter {
+        private final String key;
+        private long count;
+        private final long error;
+
+        Counter(String key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+    }
+
+    /**
+     * 항목과 추정값 (실제 값은 count - error 이상 count 이하)
+     */
+    @Value
+    public static class Item {
+        String key;
+        long count;
+        long error;
+    }
+}
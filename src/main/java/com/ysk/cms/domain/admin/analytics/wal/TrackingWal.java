@@ -0,0 +1,289 @@
+package com.ysk.cms.domain.admin.analytics.wal;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * 트래킹 이벤트 로컬 선행 기록 로그 (write-ahead log)
+ * 고정 크기 세그먼트 파일을 메모리 매핑해 [길이][CRC32][내용] 레코드를 이어 붙이고, 세그먼트가 차면 다음 파일로 넘어간다.
+ * 재생 위치(체크포인트)는 별도 파일에 저장하며, 체크포인트보다 앞선 세그먼트는 삭제한다.
+ * 길이를 마지막에 기록하므로 쓰는 도중 중단된 레코드는 재시작 시 CRC 검사로 잘라낸다.
+ * 모든 메서드는 인스턴스 단위로 동기화된다.
+ */
+public class TrackingWal implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private static final int HEADER_SIZE = 8;
+    // 세그먼트가 끝났음을 표시하는 길이 값
+    private static final int ROLLED = -1;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+
+    private final TreeMap<Long, MappedByteBuffer> segments = new TreeMap<>();
+    private long activeId;
+    private MappedByteBuffer active;
+    private int writePosition;
+    private Position checkpoint;
+
+    public TrackingWal(Path directory, int segmentSize, int maxSegments) throws IOException {
+        if (segmentSize < 1024 || maxSegments < 2) {
+            throw new IllegalArgumentException("segmentSize >= 1024 and maxSegments >= 2 required");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+
+        Files.createDirectories(directory);
+        checkpoint = readCheckpoint();
+
+        for (long id : listSegmentIds()) {
+            if (id < checkpoint.getSegmentId()) {
+                Files.deleteIfExists(segmentPath(id));
+            } else {
+                segments.put(id, map(id, FileChannel.MapMode.READ_ONLY));
+            }
+        }
+
+        if (segments.isEmpty()) {
+            openSegment(checkpoint.getSegmentId() + 1);
+        } else {
+            recoverLastSegment();
+        }
+    }
+
+    /**
+     * 레코드 추가
+     *
+     * @return 세그먼트 수 한도에 걸려 기록하지 못하면 false
+     */
+    public synchronized boolean append(byte[] payload) throws IOException {
+        int recordSize = HEADER_SIZE + payload.length;
+        if (recordSize > segmentSize - HEADER_SIZE) {
+            throw new IllegalArgumentException("record too large: " + payload.length);
+        }
+
+        // 세그먼트 끝 표시를 쓸 자리는 항상 남겨둔다
+        if (writePosition + recordSize > segmentSize - HEADER_SIZE) {
+            if (segments.size() >= maxSegments) return false;
+            active.putInt(writePosition, ROLLED);
+            active.force();
+            openSegment(activeId + 1);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer buffer = active.duplicate();
+        buffer.position(writePosition + 4);
+        buffer.putInt((int) crc.getValue());
+        buffer.put(payload);
+        // 길이를 마지막에 써야 읽는 쪽에서 완성된 레코드만 보게 됨
+        active.putInt(writePosition, payload.length);
+        writePosition += recordSize;
+        return true;
+    }
+
+    /**
+     * 주어진 위치부터 최대 maxRecords 개 읽기
+     * CRC 가 맞지 않는 레코드는 건너뛰고, 길이까지 깨져 다음 레코드 위치를 알 수 없으면 세그먼트 나머지를 건너뛴다.
+     * 건너뛴 바이트 수는 Batch.skippedBytes 로 알린다.
+     */
+    public synchronized Batch read(Position from, int maxRecords) {
+        List<byte[]> records = new ArrayList<>();
+        Map.Entry<Long, MappedByteBuffer> entry = segments.ceilingEntry(from.getSegmentId());
+        if (entry == null) return new Batch(records, from, 0);
+
+        long id = entry.getKey();
+        int position = id == from.getSegmentId() ? from.getOffset() : 0;
+        long skippedBytes = 0;
+
+        while (records.size() < maxRecords) {
+            boolean isActive = id == activeId;
+            MappedByteBuffer segment = segments.get(id);
+            int end = isActive ? writePosition : segmentSize;
+            int length = position + HEADER_SIZE <= end ? segment.getInt(position) : 0;
+            if (length == 0 || length == ROLLED) {
+                if (isActive) break;
+                // 끝난 세그먼트면 다음 세그먼트로
+                Long nextId = segments.higherKey(id);
+                if (nextId == null) break;
+                id = nextId;
+                position = 0;
+                continue;
+            }
+
+            if (length < 0 || position + HEADER_SIZE + length > end) {
+                skippedBytes += end - position;
+                position = end;
+                continue;
+            }
+            byte[] record = readRecord(segment, position);
+            if (record != null) {
+                records.add(record);
+            } else {
+                skippedBytes += HEADER_SIZE + length;
+            }
+            position += HEADER_SIZE + length;
+        }
+        return new Batch(records, new Position(id, position), skippedBytes);
+    }
+
+    /**
+     * 재생 완료 위치 저장, 지나간 세그먼트 삭제
+     */
+    public synchronized void commit(Position position) throws IOException {
+        Path temp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        Files.writeString(temp, position.getSegmentId() + " " + position.getOffset(), StandardCharsets.US_ASCII);
+        Files.move(temp, directory.resolve(CHECKPOINT_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        checkpoint = position;
+
+        while (!segments.isEmpty() && segments.firstKey() < position.getSegmentId()) {
+            long id = segments.pollFirstEntry().getKey();
+            Files.deleteIfExists(segmentPath(id));
+        }
+    }
+
+    public synchronized Position getCheckpoint() {
+        return checkpoint;
+    }
+
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * 매핑된 페이지를 디스크에 기록
+     */
+    public synchronized void force() {
+        active.force();
+    }
+
+    @Override
+    public synchronized void close() {
+        force();
+    }
+
+    private byte[] readRecord(MappedByteBuffer segment, int position) {
+        if (position + HEADER_SIZE > segmentSize) return null;
+        int length = segment.getInt(position);
+        if (length <= 0 || position + HEADER_SIZE + length > segmentSize) return null;
+
+        int expected = segment.getInt(position + 4);
+        byte[] payload = new byte[length];
+        segment.get(position + HEADER_SIZE, payload);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue() == expected ? payload : null;
+    }
+
+    /**
+     * 마지막 세그먼트의 쓰기 위치 복구. 완성되지 않은 레코드 이후는 0 으로 지운다.
+     */
+    private void recoverLastSegment() throws IOException {
+        long id = segments.lastKey();
+        MappedByteBuffer segment = map(id, FileChannel.MapMode.READ_WRITE);
+
+        int position = 0;
+        while (true) {
+            if (position + HEADER_SIZE <= segmentSize && segment.getInt(position) == ROLLED) {
+                // 끝 표시 후 다음 세그먼트를 만들기 전에 중단된 경우
+                segments.put(id, segment);
+                openSegment(id + 1);
+                return;
+            }
+            byte[] record = readRecord(segment, position);
+            if (record == null) break;
+            position += HEADER_SIZE + record.length;
+        }
+
+        segment.put(position, new byte[segmentSize - position]);
+        segments.put(id, segment);
+        activeId = id;
+        active = segment;
+        writePosition = position;
+    }
+
+    private void openSegment(long id) throws IOException {
+        MappedByteBuffer segment = map(id, FileChannel.MapMode.READ_WRITE);
+        segments.put(id, segment);
+        activeId = id;
+        active = segment;
+        writePosition = 0;
+    }
+
+    private MappedByteBuffer map(long id, FileChannel.MapMode mode) throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath(id),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (channel.size() < segmentSize) {
+                // 새 파일은 0 으로 채워진 고정 크기로 만든다
+                channel.write(ByteBuffer.allocate(1), segmentSize - 1);
+            }
+            return channel.map(mode, 0, segmentSize);
+        }
+    }
+
+    private Position readCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) return new Position(-1, 0);
+        String[] parts = Files.readString(file, StandardCharsets.US_ASCII).trim().split(" ");
+        return new Position(Long.parseLong(parts[0]), Integer.parseInt(parts[1]));
+    }
+
+    private List<Long> listSegmentIds() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long id) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * 로그 내 위치 (세그먼트 번호, 세그먼트 내 오프셋)
+     */
+    @Value
+    public static class Position {
+        long segmentId;
+        int offset;
+    }
+
+    /**
+     * 읽은 레코드와 그 다음 위치, 손상되어 건너뛴 바이트 수
+     */
+    @Getter
+    @RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+    public static class Batch {
+        private final List<byte[]> records;
+        private final Position next;
+        private final long skippedBytes;
+    }
+}
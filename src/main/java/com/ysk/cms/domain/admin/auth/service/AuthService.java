@@ -127,8 +127,8 @@ public class AuthService {
 
         // 새로운 토큰 발급
         Authentication authentication = jwtTokenProvider.getAuthentication(refreshToken);
-        String newAccessToken = jwtTokenProvider.createAccessToken(authentication);
-        String newRefreshToken = jwtTokenProvider.createRefreshToken(authentication);
+        String newAccessToken = jwtTokenProvider.createAccessToken(authentication, user.getId());
+        String newRefreshToken = jwtTokenProvider.createRefreshToken(authentication, user.getId());
 
         return TokenRefreshResponse.builder()
                 .accessToken(newAccessToken)
@@ -0,0 +1,151 @@
+package com.ysk.cms.domain.admin.chat.collection;
+
+import java.util.Arrays;
+
+/**
+ * long 원소 집합 (open addressing, 선형 탐사)
+ * 원소를 박싱하지 않아 Set&lt;Long&gt; 보다 메모리를 적게 쓰고 contains 가 빠르다.
+ * 0 은 빈 칸 표시로 쓰므로 별도 플래그로 보관한다. 동기화하지 않으므로 공유할 때는 복사본을 고쳐 교체한다.
+ */
+public class LongHashSet {
+
+    private static final int MIN_CAPACITY = 8;
+
+    private long[] slots;
+    private int size;
+    private boolean containsZero;
+
+    public LongHashSet() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongHashSet(int expectedSize) {
+        slots = new long[capacityFor(expectedSize)];
+    }
+
+    public static LongHashSet of(long... values) {
+        LongHashSet set = new LongHashSet(values.length);
+        for (long value : values) {
+            set.add(value);
+        }
+        return set;
+    }
+
+    public boolean contains(long value) {
+        if (value == 0) return containsZero;
+        int mask = slots.length - 1;
+        for (int i = index(value, mask); ; i = (i + 1) & mask) {
+            long slot = slots[i];
+            if (slot == value) return true;
+            if (slot == 0) return false;
+        }
+    }
+
+    /**
+     * @return 새로 추가되었으면 true
+     */
+    public boolean add(long value) {
+        if (value == 0) {
+            if (containsZero) return false;
+            containsZero = true;
+            size++;
+            return true;
+        }
+        int mask = slots.length - 1;
+        int i = index(value, mask);
+        while (slots[i] != 0) {
+            if (slots[i] == value) return false;
+            i = (i + 1) & mask;
+        }
+        slots[i] = value;
+        size++;
+        // 채움률 50% 이하 유지
+        if (size * 2 > slots.length) resize(slots.length * 2);
+        return true;
+    }
+
+    /**
+     * @return 있던 원소를 제거했으면 true
+     */
+    public boolean remove(long value) {
+        if (value == 0) {
+            if (!containsZero) return false;
+            containsZero = false;
+            size--;
+            return true;
+        }
+        int mask = slots.length - 1;
+        int i = index(value, mask);
+        while (slots[i] != value) {
+            if (slots[i] == 0) return false;
+            i = (i + 1) & mask;
+        }
+
+        // 뒤따르는 원소를 당겨 탐사 경로에 빈 칸이 생기지 않도록 함
+        int gap = i;
+        for (int j = (gap + 1) & mask; slots[j] != 0; j = (j + 1) & mask) {
+            int home = index(slots[j], mask);
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                slots[gap] = slots[j];
+                gap = j;
+            }
+        }
+        slots[gap] = 0;
+        size--;
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public long[] toArray() {
+        long[] values = new long[size];
+        int n = 0;
+        if (containsZero) values[n++] = 0;
+        for (long slot : slots) {
+            if (slot != 0) values[n++] = slot;
+        }
+        return values;
+    }
+
+    public LongHashSet copy() {
+        LongHashSet copy = new LongHashSet(MIN_CAPACITY);
+        copy.slots = Arrays.copyOf(slots, slots.length);
+        copy.size = size;
+        copy.containsZero = containsZero;
+        return copy;
+    }
+
+    private void resize(int capacity) {
+        long[] old = slots;
+        slots = new long[capacity];
+        int mask = capacity - 1;
+        for (long value : old) {
+            if (value == 0) continue;
+            int i = index(value, mask);
+            while (slots[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            slots[i] = value;
+        }
+    }
+
+    private static int index(long value, int mask) {
+        // 연속된 ID 가 한 구간에 몰리지 않도록 섞음
+        long hash = value * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+}
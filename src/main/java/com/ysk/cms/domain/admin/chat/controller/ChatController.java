@@ -1,6 +1,7 @@
 package com.ysk.cms.domain.admin.chat.controller;
 
 import com.ysk.cms.common.dto.ApiResponse;
+import com.ysk.cms.common.dto.SliceResponse;
 import com.ysk.cms.domain.admin.chat.dto.ChatMessageDto;
 import com.ysk.cms.domain.admin.chat.dto.ChatRoomCreateRequest;
 import com.ysk.cms.domain.admin.chat.dto.ChatRoomDto;
@@ -9,7 +10,6 @@ import com.ysk.cms.domain.admin.chat.dto.*;
 import com.ysk.cms.domain.admin.chat.service.ChatService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -98,17 +98,19 @@ public class ChatController {
     }
 
     /**
-     * 메시지 목록 조회 (페이징)
+     * 메시지 목록 조회 (커서 기반 - beforeId / afterId)
      */
     @GetMapping("/rooms/{roomId}/messages")
-    public ResponseEntity<ApiResponse<Page<ChatMessageDto>>> getMessages(
+    public ResponseEntity<ApiResponse<SliceResponse<ChatMessageDto>>> getMessages(
             @PathVariable Long roomId,
-            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(required = false) Long afterId,
             @RequestParam(defaultValue = "50") int size,
             @AuthenticationPrincipal UserDetails userDetails
     ) {
         Long userId = chatService.getUserIdByUsername(userDetails.getUsername());
-        return ResponseEntity.ok(ApiResponse.success(chatService.getMessages(roomId, userId, page, size)));
+        return ResponseEntity.ok(ApiResponse.success(
+                SliceResponse.of(chatService.getMessages(roomId, userId, beforeId, afterId, size))));
     }
 
     /**
@@ -1,5 +1,8 @@
 package com.ysk.cms.domain.admin.chat.controller;
 
+import com.ysk.cms.common.exception.BusinessException;
+import com.ysk.cms.common.exception.ErrorCode;
+import com.ysk.cms.config.WebSocketConfig;
 import com.ysk.cms.domain.admin.chat.dto.ChatMessageRequest;
 import com.ysk.cms.domain.admin.chat.dto.TypingNotification;
 import com.ysk.cms.domain.admin.chat.service.ChatService;
@@ -8,11 +11,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.messaging.simp.annotation.SendToUser;
 import org.springframework.stereotype.Controller;
 
 import java.security.Principal;
+import java.util.Map;
 
 @Controller
 @RequiredArgsConstructor
@@ -31,10 +36,10 @@ public class ChatMessageController {
     public void sendMessage(
             @DestinationVariable Long roomId,
             @Payload ChatMessageRequest request,
-            Principal principal
+            SimpMessageHeaderAccessor headerAccessor
     ) {
         log.debug("Message received for room {}: {}", roomId, request.getContent());
-        Long senderId = extractUserId(principal);
+        Long senderId = extractUserId(headerAccessor);
         chatService.sendMessage(roomId, senderId, request);
     }
 
@@ -64,17 +69,21 @@ public class ChatMessageController {
     @SendToUser("/queue/chat/joined")
     public String joinRoom(
             @DestinationVariable Long roomId,
-            Principal principal
+            SimpMessageHeaderAccessor headerAccessor
     ) {
         log.debug("User joined room: {}", roomId);
-        Long userId = extractUserId(principal);
+        Long userId = extractUserId(headerAccessor);
         chatService.markAsRead(roomId, userId);
         return "Joined room " + roomId;
     }
 
-    private Long extractUserId(Principal principal) {
-        // principal.getName()은 username을 반환하므로 ChatService를 통해 userId 조회
-        String username = principal.getName();
-        return chatService.getUserIdByUsername(username);
+    private Long extractUserId(SimpMessageHeaderAccessor headerAccessor) {
+        // CONNECT 시 WebSocketConfig 에서 세션에 저장한 userId (메시지마다 DB 조회하지 않음)
+        Map<String, Object> attributes = headerAccessor.getSessionAttributes();
+        Object userId = attributes != null ? attributes.get(WebSocketConfig.USER_ID_ATTRIBUTE) : null;
+        if (!(userId instanceof Long id)) {
+            throw new BusinessException(ErrorCode.UNAUTHORIZED);
+        }
+        return id;
     }
 }
@@ -33,6 +33,10 @@ public class ChatRoomUser extends BaseEntity {
 
     private LocalDateTime lastReadAt;  // 마지막 읽은 시간 (읽지 않은 메시지 카운트용)
 
+    // 읽지 않은 메시지 수 - ChatUnreadCounter 가 메모리에서 관리하고 주기적으로 반영 (엔티티로는 쓰지 않음)
+    @Column(insertable = false, updatable = false)
+    private int unreadCount;
+
     @Column(nullable = false)
     @Builder.Default
     private Boolean isActive = true;  // 채팅방 나가기 시 false
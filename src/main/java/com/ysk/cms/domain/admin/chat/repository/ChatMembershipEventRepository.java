@@ -0,0 +1,43 @@
+package com.ysk.cms.domain.admin.chat.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * 채팅방 참여자 변경 이벤트 (chat_membership_event) - 서버 간 참여자 캐시 무효화용
+ */
+@Repository
+@RequiredArgsConstructor
+public class ChatMembershipEventRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 이벤트 기록 (참여자를 바꾼 트랜잭션 안에서 호출해 커밋될 때만 보이도록 함)
+     */
+    public void publish(Long roomId, String nodeId) {
+        jdbcTemplate.update(
+                "INSERT INTO chat_membership_event (chat_room_id, node_id, created_at) VALUES (?, ?, NOW(6))",
+                roomId, nodeId);
+    }
+
+    /**
+     * 최근 lookbackSeconds 초 동안 다른 서버가 남긴 이벤트 [id, chat_room_id]
+     * (늦게 커밋된 트랜잭션의 행도 보이도록 마지막 id 이후가 아니라 시간 범위로 읽음)
+     */
+    public List<long[]> findRecent(String nodeId, int lookbackSeconds) {
+        return jdbcTemplate.query(
+                "SELECT id, chat_room_id FROM chat_membership_event " +
+                "WHERE created_at >= NOW(6) - INTERVAL ? SECOND AND node_id <> ?",
+                (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2)},
+                lookbackSeconds, nodeId);
+    }
+
+    public int deleteOlderThan(int hours) {
+        return jdbcTemplate.update(
+                "DELETE FROM chat_membership_event WHERE created_at < NOW(6) - INTERVAL ? HOUR", hours);
+    }
+}
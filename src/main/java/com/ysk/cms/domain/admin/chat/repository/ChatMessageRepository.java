@@ -1,8 +1,8 @@
 package com.ysk.cms.domain.admin.chat.repository;
 
 import com.ysk.cms.domain.admin.chat.entity.ChatMessage;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -13,14 +13,37 @@ import java.time.LocalDateTime;
 @Repository
 public interface ChatMessageRepository extends JpaRepository<ChatMessage, Long> {
 
+    /*
+     * 메시지 목록은 (chat_room_id, id) 인덱스를 따라 id 기준으로 잘라 읽는다 (OFFSET / COUNT 없음).
+     * Slice 는 size + 1 건을 읽어 다음 메시지가 있는지만 판단한다.
+     */
+
     /**
-     * 채팅방의 메시지 조회 (최신순)
+     * 채팅방의 최신 메시지 (최신순)
      */
     @Query("SELECT cm FROM ChatMessage cm " +
            "JOIN FETCH cm.sender " +
            "WHERE cm.chatRoom.id = :roomId " +
-           "ORDER BY cm.createdAt DESC")
-    Page<ChatMessage> findByRoomIdOrderByCreatedAtDesc(@Param("roomId") Long roomId, Pageable pageable);
+           "ORDER BY cm.id DESC")
+    Slice<ChatMessage> findLatest(@Param("roomId") Long roomId, Pageable pageable);
+
+    /**
+     * beforeId 보다 이전 메시지 (최신순)
+     */
+    @Query("SELECT cm FROM ChatMessage cm " +
+           "JOIN FETCH cm.sender " +
+           "WHERE cm.chatRoom.id = :roomId AND cm.id < :beforeId " +
+           "ORDER BY cm.id DESC")
+    Slice<ChatMessage> findBefore(@Param("roomId") Long roomId, @Param("beforeId") Long beforeId, Pageable pageable);
+
+    /**
+     * afterId 보다 이후 메시지 (오래된 순 - afterId 바로 다음부터 읽어야 하므로)
+     */
+    @Query("SELECT cm FROM ChatMessage cm " +
+           "JOIN FETCH cm.sender " +
+           "WHERE cm.chatRoom.id = :roomId AND cm.id > :afterId " +
+           "ORDER BY cm.id ASC")
+    Slice<ChatMessage> findAfter(@Param("roomId") Long roomId, @Param("afterId") Long afterId, Pageable pageable);
 
     /**
      * 특정 시간 이후의 읽지 않은 메시지 수
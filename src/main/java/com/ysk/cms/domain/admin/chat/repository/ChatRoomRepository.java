@@ -3,10 +3,12 @@ package com.ysk.cms.domain.admin.chat.repository;
 import com.ysk.cms.domain.admin.chat.entity.ChatRoom;
 import com.ysk.cms.domain.admin.chat.entity.ChatRoomType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,15 +17,26 @@ public interface ChatRoomRepository extends JpaRepository<ChatRoom, Long> {
 
     /**
      * 사용자가 참여중인 모든 채팅방 조회 (lastMessageAt 기준 최신순)
-     * participants와 user를 함께 FETCH하여 N+1 문제 방지
+     * 참여자는 ChatRoomUserRepository.findAllParticipantsByRoomIds 로 일괄 조회
+     * (참여자 조건으로 FETCH JOIN 하면 participants 에 본인만 채워지므로 EXISTS 로 필터)
      */
-    @Query("SELECT DISTINCT cr FROM ChatRoom cr " +
-           "LEFT JOIN FETCH cr.participants p " +
-           "LEFT JOIN FETCH p.user " +
-           "WHERE p.user.id = :userId AND p.isActive = true " +
+    @Query("SELECT cr FROM ChatRoom cr " +
+           "WHERE EXISTS (SELECT 1 FROM ChatRoomUser cru WHERE cru.chatRoom = cr AND cru.user.id = :userId AND cru.isActive = true) " +
            "ORDER BY cr.lastMessageAt DESC NULLS LAST")
     List<ChatRoom> findAllByUserIdOrderByLastMessageAtDesc(@Param("userId") Long userId);
 
+    /**
+     * 마지막 메시지 갱신 (메시지 전송 시 채팅방을 읽지 않고 바로 수정)
+     */
+    @Modifying
+    @Query("UPDATE ChatRoom cr SET cr.lastMessage = :lastMessage, cr.lastMessageAt = :lastMessageAt, " +
+           "cr.updatedAt = :lastMessageAt WHERE cr.id = :roomId")
+    int updateLastMessage(
+            @Param("roomId") Long roomId,
+            @Param("lastMessage") String lastMessage,
+            @Param("lastMessageAt") LocalDateTime lastMessageAt
+    );
+
     /**
      * 채팅방 ID 목록으로 읽지 않은 메시지 수 일괄 조회를 위한 메서드
      */
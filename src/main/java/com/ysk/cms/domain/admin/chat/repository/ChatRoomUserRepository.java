@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -29,6 +30,21 @@ public interface ChatRoomUserRepository extends JpaRepository<ChatRoomUser, Long
            "WHERE cru.chatRoom.id = :roomId")
     List<ChatRoomUser> findAllParticipantsByRoomId(@Param("roomId") Long roomId);
 
+    /**
+     * 여러 채팅방의 모든 참여자 일괄 조회 (활성 + 비활성) - 채팅방 목록용
+     */
+    @Query("SELECT cru FROM ChatRoomUser cru " +
+           "JOIN FETCH cru.user " +
+           "WHERE cru.chatRoom.id IN :roomIds " +
+           "ORDER BY cru.id")
+    List<ChatRoomUser> findAllParticipantsByRoomIds(@Param("roomIds") Collection<Long> roomIds);
+
+    /**
+     * 채팅방 참여자 ID와 활성 여부 [userId, isActive] - 참여자 캐시용
+     */
+    @Query("SELECT cru.user.id, cru.isActive FROM ChatRoomUser cru WHERE cru.chatRoom.id = :roomId")
+    List<Object[]> findMembershipByRoomId(@Param("roomId") Long roomId);
+
     /**
      * 특정 사용자의 채팅방 참여 정보 조회
      */
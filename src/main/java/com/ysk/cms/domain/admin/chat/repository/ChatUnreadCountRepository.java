@@ -0,0 +1,78 @@
+package com.ysk.cms.domain.admin.chat.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 채팅방 참여자별 읽지 않은 메시지 수 (last_read_at 이후 다른 사람이 보낸 메시지 수를 셈)
+ */
+@Repository
+@RequiredArgsConstructor
+public class ChatUnreadCountRepository {
+
+    // 같은 문장에서 센 값과 그때 채팅방의 마지막 메시지 id (이 id 이하의 메시지는 값에 포함됨)
+    private static final String COUNT_SQL =
+            "SELECT cru.chat_room_id, cru.user_id, " +
+            "(SELECT COUNT(*) FROM chat_messages m " +
+            "WHERE m.chat_room_id = cru.chat_room_id AND m.sender_id <> cru.user_id " +
+            "AND (cru.last_read_at IS NULL OR m.created_at > cru.last_read_at)), " +
+            "(SELECT COALESCE(MAX(m.id), 0) FROM chat_messages m WHERE m.chat_room_id = cru.chat_room_id) " +
+            "FROM chat_room_users cru ";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * 사용자의 채팅방별 값 (참여 정보가 없는 채팅방은 결과에 없음)
+     */
+    public Map<Long, Unread> countByUser(Long userId, Collection<Long> roomIds) {
+        if (roomIds.isEmpty()) return new HashMap<>();
+
+        Map<Long, Unread> counts = new HashMap<>();
+        jdbcTemplate.query(
+                COUNT_SQL + "WHERE cru.user_id = ? AND cru.chat_room_id IN (" +
+                String.join(",", Collections.nCopies(roomIds.size(), "?")) + ")",
+                (RowCallbackHandler) rs -> counts.put(rs.getLong(1), new Unread(rs.getInt(3), rs.getLong(4))),
+                prepend(userId, roomIds));
+        return counts;
+    }
+
+    /**
+     * 채팅방의 참여자별 값 (참여 정보가 없는 사용자는 결과에 없음)
+     */
+    public Map<Long, Unread> countByRoom(Long roomId, Collection<Long> userIds) {
+        if (userIds.isEmpty()) return new HashMap<>();
+
+        Map<Long, Unread> counts = new HashMap<>();
+        jdbcTemplate.query(
+                COUNT_SQL + "WHERE cru.chat_room_id = ? AND cru.user_id IN (" +
+                String.join(",", Collections.nCopies(userIds.size(), "?")) + ")",
+                (RowCallbackHandler) rs -> counts.put(rs.getLong(2), new Unread(rs.getInt(3), rs.getLong(4))),
+                prepend(roomId, userIds));
+        return counts;
+    }
+
+    private static Object[] prepend(Object first, Collection<?> rest) {
+        Object[] args = new Object[rest.size() + 1];
+        args[0] = first;
+        int i = 1;
+        for (Object value : rest) {
+            args[i++] = value;
+        }
+        return args;
+    }
+
+    @Value
+    public static class Unread {
+        int count;
+        // 센 시점의 채팅방 마지막 메시지 id (메시지가 없으면 0)
+        long lastMessageId;
+    }
+}
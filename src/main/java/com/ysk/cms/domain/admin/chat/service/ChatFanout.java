@@ -0,0 +1,114 @@
+package com.ysk.cms.domain.admin.chat.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 채팅 WebSocket 전송기
+ * 공유 payload 는 한 번만 JSON 으로 직렬화해 만든 메시지를 모든 수신자에게 그대로 보내고,
+ * 전송은 호출 스레드(afterCommit 등)가 아닌 전용 스레드에서 한다.
+ * 채팅방마다 같은 스레드로 보내므로 한 채팅방의 메시지는 요청한 순서대로 전송된다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ChatFanout {
+
+    private static final int LANES = 4;
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+
+    private ExecutorService[] lanes;
+
+    @PostConstruct
+    void start() {
+        lanes = new ExecutorService[LANES];
+        for (int i = 0; i < LANES; i++) {
+            String name = "chat-fanout-" + (i + 1);
+            lanes[i] = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * 대기 중인 전송을 마치고 종료
+     */
+    @PreDestroy
+    void stop() {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+        try {
+            for (ExecutorService lane : lanes) {
+                lane.awaitTermination(5, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 채팅방 토픽으로 전송
+     */
+    public void broadcast(Long roomId, String destination, Object payload) {
+        dispatch(roomId, () -> messagingTemplate.send(destination, serialize(payload)));
+    }
+
+    /**
+     * 사용자별 토픽(/topic/chat/user/{userId}/{topic})으로 같은 payload 전송
+     */
+    public void sendToUsers(Long roomId, Collection<Long> userIds, String topic, Object payload) {
+        if (userIds.isEmpty()) return;
+        dispatch(roomId, () -> {
+            Message<byte[]> message = serialize(payload);
+            for (Long userId : userIds) {
+                messagingTemplate.send("/topic/chat/user/" + userId + "/" + topic, message);
+            }
+        });
+    }
+
+    private void dispatch(Long roomId, Runnable send) {
+        lanes[Math.floorMod(roomId.hashCode(), LANES)].execute(() -> {
+            try {
+                send.run();
+            } catch (Exception e) {
+                log.error("[Chat] Failed to send to room {}: {}", roomId, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * JSON 메시지 (전송 시 헤더만 복사되고 payload 는 공유됨)
+     */
+    private Message<byte[]> serialize(Object payload) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        return MessageBuilder.withPayload(json).setHeaders(accessor).build();
+    }
+}
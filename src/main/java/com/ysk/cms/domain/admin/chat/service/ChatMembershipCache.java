@@ -0,0 +1,219 @@
+package com.ysk.cms.domain.admin.chat.service;
+
+import com.ysk.cms.common.exception.BusinessException;
+import com.ysk.cms.common.exception.ErrorCode;
+import com.ysk.cms.domain.admin.chat.collection.LongHashSet;
+import com.ysk.cms.domain.admin.chat.entity.ChatRoom;
+import com.ysk.cms.domain.admin.chat.entity.ChatRoomType;
+import com.ysk.cms.domain.admin.chat.repository.ChatMembershipEventRepository;
+import com.ysk.cms.domain.admin.chat.repository.ChatRoomRepository;
+import com.ysk.cms.domain.admin.chat.repository.ChatRoomUserRepository;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+
+/**
+ * 채팅방별 참여자 캐시 (채팅방 → 활성/비활성 사용자 ID 집합)
+ * 메시지 전송 등에서 참여 여부를 확인할 때마다 DB 를 읽지 않도록 처음 쓰일 때 읽어 메모리에 둔다.
+ * 참여/나가기/초대/재참여/이름 변경은 커밋 후 이 서버의 캐시에 바로 반영하고,
+ * chat_membership_event 에 남긴 이벤트로 다른 서버의 캐시를 무효화한다.
+ * 이벤트를 놓쳐도 TTL 이 지나면 다시 읽는다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ChatMembershipCache {
+
+    // 늦게 커밋된 다른 서버의 이벤트도 읽도록 겹쳐 읽는 범위
+    private static final int LOOKBACK_SECONDS = 30;
+    private static final long TTL_NANOS = TimeUnit.MINUTES.toNanos(10);
+    private static final int EVENT_RETENTION_HOURS = 1;
+
+    private final ChatRoomRepository chatRoomRepository;
+    private final ChatRoomUserRepository chatRoomUserRepository;
+    private final ChatMembershipEventRepository chatMembershipEventRepository;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<Long, Room> rooms = new ConcurrentHashMap<>();
+    // 처리한 다른 서버 이벤트 id → 처리 시각
+    private final Map<Long, Long> seenEvents = new ConcurrentHashMap<>();
+    // 참여자가 바뀔 때마다 증가 (읽는 도중 바뀐 참여자 목록은 캐시하지 않음)
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * 채팅방 정보와 참여자
+     */
+    public Room get(Long roomId) {
+        Room room = find(roomId);
+        if (room == null) {
+            throw new BusinessException(ErrorCode.RESOURCE_NOT_FOUND, "채팅방을 찾을 수 없습니다");
+        }
+        return room;
+    }
+
+    /**
+     * 활성 참여자인지 (없는 채팅방이면 false)
+     */
+    public boolean isParticipant(Long roomId, Long userId) {
+        Room room = find(roomId);
+        return room != null && room.isActive(userId);
+    }
+
+    /**
+     * 참여 또는 재참여 (참여자를 바꾸는 트랜잭션 안에서 호출)
+     */
+    public void joined(Long roomId, Collection<Long> userIds) {
+        change(roomId, room -> room.withMembers(userIds, true));
+    }
+
+    /**
+     * 나가기 (참여자를 바꾸는 트랜잭션 안에서 호출)
+     */
+    public void left(Long roomId, Long userId) {
+        change(roomId, room -> room.withMembers(List.of(userId), false));
+    }
+
+    public void renamed(Long roomId, String name) {
+        change(roomId, room -> room.withName(name));
+    }
+
+    /**
+     * 다른 서버의 변경 이벤트 반영 + 만료된 채팅방 제거
+     */
+    @Scheduled(fixedDelayString = "${chat.membership.poll-interval-ms:1000}")
+    public void pollEvents() {
+        long now = System.nanoTime();
+        try {
+            for (long[] event : chatMembershipEventRepository.findRecent(nodeId, LOOKBACK_SECONDS)) {
+                if (seenEvents.putIfAbsent(event[0], now) == null) {
+                    invalidate(event[1]);
+                }
+            }
+        } catch (Exception e) {
+            log.error("[Chat] Failed to poll membership events: {}", e.getMessage());
+            return;
+        }
+
+        long seenExpiry = TimeUnit.SECONDS.toNanos(LOOKBACK_SECONDS * 2L);
+        seenEvents.values().removeIf(seenAt -> now - seenAt > seenExpiry);
+        rooms.values().removeIf(room -> now - room.loadedAt >= TTL_NANOS);
+    }
+
+    @Scheduled(fixedDelay = 600000)
+    public void pruneEvents() {
+        try {
+            int deleted = chatMembershipEventRepository.deleteOlderThan(EVENT_RETENTION_HOURS);
+            log.debug("[Chat] Pruned {} membership events", deleted);
+        } catch (Exception e) {
+            log.error("[Chat] Failed to prune membership events: {}", e.getMessage());
+        }
+    }
+
+    private Room find(Long roomId) {
+        Room room = rooms.get(roomId);
+        if (room != null && System.nanoTime() - room.loadedAt < TTL_NANOS) return room;
+        return load(roomId);
+    }
+
+    private Room load(Long roomId) {
+        long loadedGeneration = generation.get();
+        ChatRoom chatRoom = chatRoomRepository.findById(roomId).orElse(null);
+        if (chatRoom == null) return null;
+
+        LongHashSet active = new LongHashSet();
+        LongHashSet inactive = new LongHashSet();
+        for (Object[] row : chatRoomUserRepository.findMembershipByRoomId(roomId)) {
+            (Boolean.TRUE.equals(row[1]) ? active : inactive).add((Long) row[0]);
+        }
+
+        Room room = new Room(chatRoom.getType(), chatRoom.getName(), active, inactive, System.nanoTime());
+        if (generation.get() == loadedGeneration) {
+            rooms.put(roomId, room);
+        }
+        return room;
+    }
+
+    private void change(Long roomId, UnaryOperator<Room> update) {
+        chatMembershipEventRepository.publish(roomId, nodeId);
+        generation.incrementAndGet();
+
+        Runnable apply = () -> {
+            generation.incrementAndGet();
+            rooms.computeIfPresent(roomId, (id, room) -> update.apply(room));
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    private void invalidate(Long roomId) {
+        generation.incrementAndGet();
+        rooms.remove(roomId);
+    }
+
+    /**
+     * 채팅방 스냅샷 (변경 시 복사본으로 교체하므로 읽는 쪽은 잠그지 않음)
+     */
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    public static class Room {
+        @Getter
+        private final ChatRoomType type;
+        @Getter
+        private final String name;
+        private final LongHashSet activeUserIds;
+        private final LongHashSet inactiveUserIds;
+        private final long loadedAt;
+
+        public boolean isActive(long userId) {
+            return activeUserIds.contains(userId);
+        }
+
+        public boolean hasInactiveMembers() {
+            return !inactiveUserIds.isEmpty();
+        }
+
+        public long[] getActiveUserIds() {
+            return activeUserIds.toArray();
+        }
+
+        private Room withMembers(Collection<Long> userIds, boolean active) {
+            LongHashSet activeCopy = activeUserIds.copy();
+            LongHashSet inactiveCopy = inactiveUserIds.copy();
+            for (Long userId : userIds) {
+                if (active) {
+                    activeCopy.add(userId);
+                    inactiveCopy.remove(userId);
+                } else {
+                    activeCopy.remove(userId);
+                    inactiveCopy.add(userId);
+                }
+            }
+            return new Room(type, name, activeCopy, inactiveCopy, loadedAt);
+        }
+
+        private Room withName(String name) {
+            return new Room(type, name, activeUserIds, inactiveUserIds, loadedAt);
+        }
+    }
+}
@@ -14,16 +14,20 @@ import com.ysk.cms.domain.admin.user.entity.User;
 import com.ysk.cms.domain.admin.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -36,7 +40,9 @@ public class ChatService {
     private final ChatRoomUserRepository chatRoomUserRepository;
     private final ChatMessageRepository chatMessageRepository;
     private final UserRepository userRepository;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final ChatFanout chatFanout;
+    private final ChatUnreadCounter unreadCounter;
+    private final ChatMembershipCache membershipCache;
 
     /**
      * username으로 userId 조회
@@ -48,30 +54,33 @@ public class ChatService {
     }
 
     /**
-     * 내 채팅방 목록 조회 (N+1 최적화 - FETCH JOIN 활용)
+     * 내 채팅방 목록 조회
+     * 채팅방 수와 관계없이 채팅방 / 참여자를 각각 한 번의 쿼리로 조회 (읽지 않은 메시지 수는 ChatUnreadCounter)
      */
     public List<ChatRoomDto> getMyChatRooms(Long userId) {
         List<ChatRoom> chatRooms = chatRoomRepository.findAllByUserIdOrderByLastMessageAtDesc(userId);
+        if (chatRooms.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Long> roomIds = chatRooms.stream()
+                .map(ChatRoom::getId)
+                .collect(Collectors.toList());
+        Map<Long, List<ChatRoomUser>> participantsByRoom = chatRoomUserRepository.findAllParticipantsByRoomIds(roomIds)
+                .stream()
+                .collect(Collectors.groupingBy(participant -> participant.getChatRoom().getId()));
+        Map<Long, Integer> unreadCounts = unreadCounter.getAll(roomIds, userId);
 
         return chatRooms.stream()
                 .map(room -> {
-                    // 1:1 채팅은 모든 참여자 (나간 사용자 포함), 그룹 채팅은 활성 참여자만
-                    List<ChatRoomUserDto> participants;
-                    if (room.getType() == ChatRoomType.PRIVATE) {
-                        // 1:1 채팅: 별도 쿼리로 모든 참여자 조회 (나간 사용자 이름 표시 위해)
-                        participants = chatRoomUserRepository.findAllParticipantsByRoomId(room.getId()).stream()
-                                .map(ChatRoomUserDto::from)
-                                .collect(Collectors.toList());
-                    } else {
-                        // 그룹 채팅: FETCH JOIN으로 가져온 활성 참여자만 사용
-                        participants = room.getParticipants().stream()
-                                .filter(ChatRoomUser::getIsActive)
-                                .map(ChatRoomUserDto::from)
-                                .collect(Collectors.toList());
-                    }
-
-                    int unreadCount = getUnreadCount(room.getId(), userId);
-                    return ChatRoomDto.from(room, participants, unreadCount);
+                    // 1:1 채팅은 모든 참여자 (나간 사용자 이름 표시 위해), 그룹 채팅은 활성 참여자만
+                    List<ChatRoomUserDto> participants = participantsByRoom.getOrDefault(room.getId(), List.of())
+                            .stream()
+                            .filter(participant -> room.getType() == ChatRoomType.PRIVATE || participant.getIsActive())
+                            .map(ChatRoomUserDto::from)
+                            .collect(Collectors.toList());
+
+                    return ChatRoomDto.from(room, participants, unreadCounts.getOrDefault(room.getId(), 0));
                 })
                 .collect(Collectors.toList());
     }
@@ -117,6 +126,7 @@ public class ChatService {
 
         chatRoomUserRepository.save(participant1);
         chatRoomUserRepository.save(participant2);
+        membershipCache.joined(chatRoom.getId(), List.of(user1.getId(), user2.getId()));
 
         List<ChatRoomUserDto> participants = List.of(
                 ChatRoomUserDto.from(participant1),
@@ -168,6 +178,9 @@ public class ChatService {
                 })
                 .collect(Collectors.toList());
         chatRoomUserRepository.saveAll(participants);
+        List<Long> memberIds = new ArrayList<>(invitedUserIds);
+        memberIds.add(creatorId);
+        membershipCache.joined(chatRoom.getId(), memberIds);
 
         List<ChatRoomUserDto> participantDtos = getParticipants(chatRoom.getId());
         ChatRoomDto roomDto = ChatRoomDto.from(chatRoom, participantDtos, 0);
@@ -182,13 +195,13 @@ public class ChatService {
      * 채팅방 상세 조회
      */
     public ChatRoomDto getChatRoom(Long roomId, Long userId) {
-        ChatRoom chatRoom = chatRoomRepository.findById(roomId)
-                .orElseThrow(() -> new BusinessException(ErrorCode.RESOURCE_NOT_FOUND, "채팅방을 찾을 수 없습니다"));
-
-        if (!chatRoomUserRepository.isParticipant(roomId, userId)) {
+        if (!membershipCache.get(roomId).isActive(userId)) {
             throw new BusinessException(ErrorCode.ACCESS_DENIED, "채팅방 참여자가 아닙니다");
         }
 
+        ChatRoom chatRoom = chatRoomRepository.findById(roomId)
+                .orElseThrow(() -> new BusinessException(ErrorCode.RESOURCE_NOT_FOUND, "채팅방을 찾을 수 없습니다"));
+
         // 1:1 채팅은 모든 참여자 (나간 사용자 포함), 그룹은 활성 참여자만
         List<ChatRoomUserDto> participants = chatRoom.getType() == ChatRoomType.PRIVATE
                 ? getAllParticipants(roomId)
@@ -199,15 +212,34 @@ public class ChatService {
     }
 
     /**
-     * 메시지 목록 조회
+     * 메시지 목록 조회 (커서 기반, 항상 최신순)
+     * - beforeId: 해당 메시지 이전 (위로 스크롤), hasNext 는 더 오래된 메시지 존재 여부
+     * - afterId: 해당 메시지 이후 (재접속 후 따라잡기), hasNext 는 더 최근 메시지 존재 여부
+     * - 둘 다 없으면 최신 메시지
      */
-    public Page<ChatMessageDto> getMessages(Long roomId, Long userId, int page, int size) {
-        if (!chatRoomUserRepository.isParticipant(roomId, userId)) {
+    public Slice<ChatMessageDto> getMessages(Long roomId, Long userId, Long beforeId, Long afterId, int size) {
+        if (!membershipCache.isParticipant(roomId, userId)) {
             throw new BusinessException(ErrorCode.ACCESS_DENIED, "채팅방 참여자가 아닙니다");
         }
+        if (beforeId != null && afterId != null) {
+            throw new BusinessException(ErrorCode.INVALID_INPUT_VALUE, "beforeId 와 afterId 는 함께 사용할 수 없습니다");
+        }
 
-        return chatMessageRepository.findByRoomIdOrderByCreatedAtDesc(roomId, PageRequest.of(page, size))
-                .map(ChatMessageDto::from);
+        Pageable pageable = PageRequest.of(0, size);
+        if (beforeId != null) {
+            return chatMessageRepository.findBefore(roomId, beforeId, pageable).map(ChatMessageDto::from);
+        }
+        if (afterId == null) {
+            return chatMessageRepository.findLatest(roomId, pageable).map(ChatMessageDto::from);
+        }
+
+        // 오래된 순으로 읽은 결과를 다른 조회와 같은 최신순으로 뒤집음
+        Slice<ChatMessage> after = chatMessageRepository.findAfter(roomId, afterId, pageable);
+        List<ChatMessageDto> messages = after.getContent().stream()
+                .map(ChatMessageDto::from)
+                .collect(Collectors.toCollection(ArrayList::new));
+        java.util.Collections.reverse(messages);
+        return new SliceImpl<>(messages, pageable, after.hasNext());
     }
 
     // 파일 업로드 제한 상수
@@ -220,19 +252,19 @@ public class ChatService {
 
     /**
      * 메시지 전송
+     * 채팅방 / 참여 여부는 ChatMembershipCache 로 확인하고 DB 에는 메시지 저장과 마지막 메시지 갱신만 함
      */
     @Transactional
     public ChatMessageDto sendMessage(Long roomId, Long senderId, ChatMessageRequest request) {
-        ChatRoom chatRoom = chatRoomRepository.findById(roomId)
-                .orElseThrow(() -> new BusinessException(ErrorCode.RESOURCE_NOT_FOUND, "채팅방을 찾을 수 없습니다"));
+        ChatMembershipCache.Room room = membershipCache.get(roomId);
 
-        if (!chatRoomUserRepository.isParticipant(roomId, senderId)) {
+        if (!room.isActive(senderId)) {
             throw new BusinessException(ErrorCode.ACCESS_DENIED, "채팅방 참여자가 아닙니다");
         }
 
         // 1:1 채팅에서 나간 상대방 다시 활성화 (rejoin)
         List<Long> rejoinedUserIds = new java.util.ArrayList<>();
-        if (chatRoom.getType() == ChatRoomType.PRIVATE) {
+        if (room.getType() == ChatRoomType.PRIVATE && room.hasInactiveMembers()) {
             rejoinedUserIds = rejoinInactiveParticipants(roomId, senderId);
         }
 
@@ -245,7 +277,7 @@ public class ChatService {
                 .orElseThrow(() -> new BusinessException(ErrorCode.USER_NOT_FOUND));
 
         ChatMessage message = ChatMessage.builder()
-                .chatRoom(chatRoom)
+                .chatRoom(chatRoomRepository.getReferenceById(roomId))
                 .sender(sender)
                 .type(request.getType())
                 .content(request.getContent())
@@ -254,28 +286,32 @@ public class ChatService {
                 .fileSize(request.getFileSize())
                 .build();
         chatMessageRepository.save(message);
+        unreadCounter.messageSent(roomId);
 
         // 채팅방 lastMessage 업데이트
         String lastMessagePreview = request.getType() == MessageType.TEXT
                 ? request.getContent()
                 : "[" + request.getType().name() + "]";
-        chatRoom.updateLastMessage(lastMessagePreview);
+        chatRoomRepository.updateLastMessage(roomId, lastMessagePreview, LocalDateTime.now());
 
         ChatMessageDto messageDto = ChatMessageDto.from(message);
 
         // 트랜잭션 커밋 후 WebSocket 전송 (DB 커넥션 점유 시간 최소화)
         final Long finalRoomId = roomId;
+        final Long messageId = message.getId();
         final Long finalSenderId = senderId;
         final List<Long> finalRejoinedUserIds = rejoinedUserIds;
-        final ChatRoomType roomType = chatRoom.getType();
+        final ChatRoomType roomType = room.getType();
+        final String roomName = room.getName();
         TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
             @Override
             public void afterCommit() {
                 // WebSocket으로 메시지 브로드캐스트
-                messagingTemplate.convertAndSend("/topic/chat/room/" + finalRoomId, messageDto);
+                chatFanout.broadcast(finalRoomId, "/topic/chat/room/" + finalRoomId, messageDto);
                 // 참여자들에게 새 메시지 알림 및 읽지 않은 메시지 수 업데이트
-                notifyNewMessage(finalRoomId, finalSenderId, messageDto);
-                notifyUnreadCount(finalRoomId, finalSenderId);
+                List<Long> recipientIds = getRecipientIds(finalRoomId, finalSenderId);
+                notifyNewMessage(finalRoomId, roomType, roomName, recipientIds, messageDto);
+                notifyUnreadCount(finalRoomId, messageId, recipientIds);
 
                 // 재참여한 사용자가 있으면 채팅방 목록 갱신 알림
                 if (!finalRejoinedUserIds.isEmpty()) {
@@ -301,11 +337,15 @@ public class ChatService {
             // 보낸 사람이 아니고 비활성 상태인 경우 재활성화
             if (!participant.getUser().getId().equals(senderId) && !participant.getIsActive()) {
                 participant.rejoin();
+                unreadCounter.recount(roomId, participant.getUser().getId());
                 rejoinedUserIds.add(participant.getUser().getId());
                 log.info("[Chat] User {} rejoined room {} by message from user {}",
                         participant.getUser().getId(), roomId, senderId);
             }
         }
+        if (!rejoinedUserIds.isEmpty()) {
+            membershipCache.joined(roomId, rejoinedUserIds);
+        }
         return rejoinedUserIds;
     }
 
@@ -318,6 +358,7 @@ public class ChatService {
                 .orElseThrow(() -> new BusinessException(ErrorCode.ACCESS_DENIED, "채팅방 참여자가 아닙니다"));
 
         participant.updateLastReadAt();
+        unreadCounter.reset(roomId, userId);
     }
 
     /**
@@ -332,6 +373,7 @@ public class ChatService {
                 .orElseThrow(() -> new BusinessException(ErrorCode.ACCESS_DENIED, "채팅방 참여자가 아닙니다"));
 
         participant.leave();
+        membershipCache.left(roomId, userId);
 
         // 시스템 메시지 전송
         User user = participant.getUser();
@@ -359,10 +401,7 @@ public class ChatService {
                 : getParticipants(roomId);
 
         // 채팅방 참여자 변경 알림 브로드캐스트
-        messagingTemplate.convertAndSend(
-                "/topic/chat/room/" + roomId + "/participants",
-                participants
-        );
+        chatFanout.broadcast(roomId, "/topic/chat/room/" + roomId + "/participants", participants);
     }
 
     /**
@@ -389,7 +428,7 @@ public class ChatService {
 
         log.info("[Chat] Room found - type: {}", chatRoom.getType());
 
-        boolean isParticipant = chatRoomUserRepository.isParticipant(roomId, inviterId);
+        boolean isParticipant = membershipCache.isParticipant(roomId, inviterId);
         log.info("[Chat] isParticipant check - result: {}", isParticipant);
 
         if (!isParticipant) {
@@ -474,6 +513,9 @@ public class ChatService {
                 addedUserIds.add(userId);
             }
         }
+        List<Long> memberIds = new ArrayList<>(existingUserIds);
+        memberIds.addAll(addedUserIds);
+        membershipCache.joined(newRoom.getId(), memberIds);
 
         List<ChatRoomUserDto> participantDtos = getParticipants(newRoom.getId());
         ChatRoomDto roomDto = ChatRoomDto.from(newRoom, participantDtos, 0);
@@ -524,6 +566,7 @@ public class ChatService {
                 if (!participant.getIsActive()) {
                     // 비활성 상태면 재활성화
                     participant.rejoin();
+                    unreadCounter.recount(chatRoom.getId(), userId);
                     addedUserIds.add(userId);
                     addedUserNames.add(participant.getUser().getName());
                 }
@@ -537,6 +580,8 @@ public class ChatService {
                         .user(user)
                         .build();
                 chatRoomUserRepository.save(newParticipant);
+                // 기존 대화는 모두 읽지 않은 메시지
+                unreadCounter.recount(chatRoom.getId(), userId);
                 addedUserIds.add(userId);
                 addedUserNames.add(user.getName());
             }
@@ -545,6 +590,7 @@ public class ChatService {
         if (addedUserIds.isEmpty()) {
             throw new BusinessException(ErrorCode.INVALID_INPUT_VALUE, "이미 모든 사용자가 채팅방에 참여 중입니다");
         }
+        membershipCache.joined(chatRoom.getId(), addedUserIds);
 
         List<ChatRoomUserDto> participantDtos = getParticipants(chatRoom.getId());
         int unreadCount = getUnreadCount(chatRoom.getId(), inviter.getId());
@@ -591,11 +637,12 @@ public class ChatService {
             throw new BusinessException(ErrorCode.INVALID_INPUT_VALUE, "1:1 채팅방은 이름을 변경할 수 없습니다");
         }
 
-        if (!chatRoomUserRepository.isParticipant(roomId, userId)) {
+        if (!membershipCache.isParticipant(roomId, userId)) {
             throw new BusinessException(ErrorCode.ACCESS_DENIED, "채팅방 참여자가 아닙니다");
         }
 
         chatRoom.updateName(newName);
+        membershipCache.renamed(roomId, newName);
 
         List<ChatRoomUserDto> participants = getParticipants(roomId);
         int unreadCount = getUnreadCount(roomId, userId);
@@ -650,15 +697,7 @@ public class ChatService {
     }
 
     private int getUnreadCount(Long roomId, Long userId) {
-        return chatRoomUserRepository.findByRoomIdAndUserId(roomId, userId)
-                .map(participant -> {
-                    LocalDateTime lastReadAt = participant.getLastReadAt();
-                    if (lastReadAt == null) {
-                        return chatMessageRepository.countAllUnreadMessages(roomId, userId);
-                    }
-                    return chatMessageRepository.countUnreadMessages(roomId, lastReadAt, userId);
-                })
-                .orElse(0);
+        return unreadCounter.get(roomId, userId);
     }
 
     private void sendSystemMessage(Long roomId, String content) {
@@ -673,14 +712,11 @@ public class ChatService {
                 .createdAt(LocalDateTime.now())
                 .build();
 
-        messagingTemplate.convertAndSend("/topic/chat/room/" + roomId, systemMessage);
+        chatFanout.broadcast(roomId, "/topic/chat/room/" + roomId, systemMessage);
     }
 
     private void notifyNewRoom(Long userId, ChatRoomDto room) {
-        messagingTemplate.convertAndSend(
-                "/topic/chat/user/" + userId + "/room",
-                room
-        );
+        chatFanout.sendToUsers(room.getId(), List.of(userId), "room", room);
         log.debug("Sent new room notification to user {}: roomId={}", userId, room.getId());
     }
 
@@ -701,53 +737,52 @@ public class ChatService {
         }
     }
 
-    private void notifyNewMessage(Long roomId, Long senderId, ChatMessageDto message) {
-        List<ChatRoomUser> participants = chatRoomUserRepository.findActiveParticipantsByRoomId(roomId);
-        ChatRoom chatRoom = chatRoomRepository.findById(roomId).orElse(null);
-        if (chatRoom == null) return;
-
-        for (ChatRoomUser participant : participants) {
-            if (!participant.getUser().getId().equals(senderId)) {
-                Long userId = participant.getUser().getId();
-                // 채팅방 이름 결정 (1:1이면 발신자 이름, 그룹이면 채팅방 이름)
-                String roomName = chatRoom.getType() == ChatRoomType.GROUP
-                        ? (chatRoom.getName() != null ? chatRoom.getName() : "그룹 채팅")
-                        : message.getSenderNickname();
-
-                NewMessageNotification notification = NewMessageNotification.builder()
-                        .roomId(roomId)
-                        .roomName(roomName)
-                        .roomType(chatRoom.getType().name())
-                        .senderNickname(message.getSenderNickname())
-                        .content(message.getContent())
-                        .messageType(message.getType().name())
-                        .createdAt(message.getCreatedAt())
-                        .build();
-
-                messagingTemplate.convertAndSend(
-                        "/topic/chat/user/" + userId + "/message",
-                        notification
-                );
-                log.debug("Sent new message notification to user {}", userId);
+    /**
+     * 보낸 사람을 제외한 활성 참여자 ID
+     */
+    private List<Long> getRecipientIds(Long roomId, Long senderId) {
+        List<Long> recipientIds = new ArrayList<>();
+        for (long userId : membershipCache.get(roomId).getActiveUserIds()) {
+            if (userId != senderId) {
+                recipientIds.add(userId);
             }
         }
+        return recipientIds;
     }
 
-    private void notifyUnreadCount(Long roomId, Long senderId) {
-        List<ChatRoomUser> participants = chatRoomUserRepository.findActiveParticipantsByRoomId(roomId);
-
-        for (ChatRoomUser participant : participants) {
-            if (!participant.getUser().getId().equals(senderId)) {
-                Long userId = participant.getUser().getId();
-                int unreadCount = getUnreadCount(roomId, userId);
-                // 사용자별 토픽으로 안읽음 알림 전송
-                messagingTemplate.convertAndSend(
-                        "/topic/chat/user/" + userId + "/unread",
-                        new UnreadCountNotification(roomId, unreadCount)
-                );
-                log.debug("Sent unread notification to user {}: roomId={}, count={}", userId, roomId, unreadCount);
-            }
-        }
+    private void notifyNewMessage(Long roomId, ChatRoomType roomType, String name, List<Long> recipientIds,
+                                  ChatMessageDto message) {
+        // 채팅방 이름 결정 (1:1이면 발신자 이름, 그룹이면 채팅방 이름)
+        String roomName = roomType == ChatRoomType.GROUP
+                ? (name != null ? name : "그룹 채팅")
+                : message.getSenderNickname();
+
+        NewMessageNotification notification = NewMessageNotification.builder()
+                .roomId(roomId)
+                .roomName(roomName)
+                .roomType(roomType.name())
+                .senderNickname(message.getSenderNickname())
+                .content(message.getContent())
+                .messageType(message.getType().name())
+                .createdAt(message.getCreatedAt())
+                .build();
+
+        // 모든 수신자가 같은 알림을 받으므로 한 번만 직렬화
+        chatFanout.sendToUsers(roomId, recipientIds, "message", notification);
+        log.debug("Sent new message notification to {} users", recipientIds.size());
+    }
+
+    /**
+     * 수신자의 읽지 않은 메시지 수 증가 및 알림
+     */
+    private void notifyUnreadCount(Long roomId, Long messageId, List<Long> recipientIds) {
+        // 같은 수를 받는 사용자끼리 알림 하나를 공유
+        Map<Integer, List<Long>> recipientsByCount = new HashMap<>();
+        unreadCounter.incrementAll(roomId, messageId, recipientIds).forEach((userId, unreadCount) ->
+                recipientsByCount.computeIfAbsent(unreadCount, count -> new ArrayList<>()).add(userId));
+        recipientsByCount.forEach((unreadCount, userIds) ->
+                chatFanout.sendToUsers(roomId, userIds, "unread", new UnreadCountNotification(roomId, unreadCount)));
+        log.debug("Sent unread notification to {} users: roomId={}", recipientIds.size(), roomId);
     }
 
     // 읽지 않은 메시지 수 알림용 내부 클래스
@@ -0,0 +1,249 @@
+package com.ysk.cms.domain.admin.chat.service;
+
+import com.ysk.cms.domain.admin.chat.repository.ChatUnreadCountRepository;
+import com.ysk.cms.domain.admin.chat.repository.ChatUnreadCountRepository.Unread;
+import com.ysk.cms.domain.admin.chat.repository.ChatUnreadEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 채팅방 참여자별 읽지 않은 메시지 수 캐시
+ * 처음 쓰일 때 last_read_at 이후 다른 사람이 보낸 메시지 수를 세어 메모리에 두고,
+ * 이후 새 메시지는 메모리의 값만 증가시킨다 (센 시점에 이미 포함된 메시지는 다시 더하지 않음).
+ * 읽음 처리/재참여는 커밋 후 이 서버의 값에 바로 반영하고, 새 메시지/읽음 처리/재참여는
+ * chat_unread_event 에 남긴 이벤트로 다른 서버의 값을 무효화해 다음에 쓰일 때 다시 세도록 한다.
+ * 이벤트를 놓쳐도 TTL 이 지나면 다시 센다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ChatUnreadCounter {
+
+    // 늦게 커밋된 다른 서버의 이벤트도 읽도록 겹쳐 읽는 범위
+    private static final int LOOKBACK_SECONDS = 30;
+    private static final long TTL_NANOS = TimeUnit.MINUTES.toNanos(10);
+    private static final int EVENT_RETENTION_HOURS = 1;
+
+    private final ChatUnreadCountRepository chatUnreadCountRepository;
+    private final ChatUnreadEventRepository chatUnreadEventRepository;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    // 채팅방 → 사용자 → 값
+    private final Map<Long, Map<Long, Counter>> rooms = new ConcurrentHashMap<>();
+    // 처리한 다른 서버 이벤트 id → 처리 시각
+    private final Map<Long, Long> seenEvents = new ConcurrentHashMap<>();
+    // 값이 무효화될 때마다 증가 (세는 도중 무효화된 값은 캐시하지 않음)
+    private final AtomicLong generation = new AtomicLong();
+
+    public int get(Long roomId, Long userId) {
+        return getAll(List.of(roomId), userId).getOrDefault(roomId, 0);
+    }
+
+    /**
+     * 사용자의 여러 채팅방 값 (메모리에 없는 값은 한 번의 쿼리로 셈)
+     */
+    public Map<Long, Integer> getAll(List<Long> roomIds, Long userId) {
+        Map<Long, Integer> counts = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long roomId : roomIds) {
+            Counter counter = find(roomId, userId);
+            if (counter == null) {
+                missing.add(roomId);
+            } else {
+                counts.put(roomId, counter.get());
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            long loadedGeneration = generation.get();
+            Map<Long, Unread> loaded = chatUnreadCountRepository.countByUser(userId, missing);
+            for (Long roomId : missing) {
+                Unread unread = loaded.get(roomId);
+                counts.put(roomId, unread == null ? 0 : put(roomId, userId, unread, loadedGeneration).get());
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * 메시지 저장 (메시지를 저장하는 트랜잭션 안에서 호출해 다른 서버의 채팅방 값을 무효화)
+     */
+    public void messageSent(Long roomId) {
+        chatUnreadEventRepository.publish(roomId, null, nodeId);
+    }
+
+    /**
+     * 새 메시지 반영 (메시지 커밋 후 보낸 사람을 제외한 참여자 전체, 메모리에 없는 값은 한 번의 쿼리로 셈)
+     *
+     * @return 참여자별 값
+     */
+    public Map<Long, Integer> incrementAll(Long roomId, Long messageId, List<Long> userIds) {
+        Map<Long, Integer> counts = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long userId : userIds) {
+            Counter counter = find(roomId, userId);
+            if (counter == null) {
+                missing.add(userId);
+            } else {
+                counts.put(userId, counter.increment(messageId));
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            long loadedGeneration = generation.get();
+            Map<Long, Unread> loaded = chatUnreadCountRepository.countByRoom(roomId, missing);
+            for (Long userId : missing) {
+                Unread unread = loaded.get(userId);
+                if (unread == null) continue;
+                // 커밋된 뒤 셌으므로 보통 이 메시지는 이미 포함되어 있음 (그러면 더하지 않음)
+                counts.put(userId, put(roomId, userId, unread, loadedGeneration).increment(messageId));
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * 읽음 처리 (last_read_at 을 바꾸는 트랜잭션 안에서 호출)
+     */
+    public void reset(Long roomId, Long userId) {
+        change(roomId, userId, () -> {
+            Counter counter = find(roomId, userId);
+            if (counter != null) counter.reset();
+        });
+    }
+
+    /**
+     * 나갔던 사용자 재참여, 기존 채팅방에 초대 (참여 정보를 바꾸는 트랜잭션 안에서 호출, 다음에 쓰일 때 다시 셈)
+     */
+    public void recount(Long roomId, Long userId) {
+        change(roomId, userId, () -> {
+            Map<Long, Counter> users = rooms.get(roomId);
+            if (users != null) users.remove(userId);
+        });
+    }
+
+    /**
+     * 다른 서버의 변경 이벤트 반영 + 만료된 값 제거
+     */
+    @Scheduled(fixedDelayString = "${chat.unread.poll-interval-ms:1000}")
+    public void pollEvents() {
+        long now = System.nanoTime();
+        try {
+            for (long[] event : chatUnreadEventRepository.findRecent(nodeId, LOOKBACK_SECONDS)) {
+                if (seenEvents.putIfAbsent(event[0], now) == null) {
+                    invalidate(event[1], event[2]);
+                }
+            }
+        } catch (Exception e) {
+            log.error("[Chat] Failed to poll unread events: {}", e.getMessage());
+            return;
+        }
+
+        long seenExpiry = TimeUnit.SECONDS.toNanos(LOOKBACK_SECONDS * 2L);
+        seenEvents.values().removeIf(seenAt -> now - seenAt > seenExpiry);
+        rooms.values().forEach(users -> users.values().removeIf(counter -> now - counter.loadedAt >= TTL_NANOS));
+        rooms.values().removeIf(Map::isEmpty);
+    }
+
+    @Scheduled(fixedDelay = 600000)
+    public void pruneEvents() {
+        try {
+            int deleted = chatUnreadEventRepository.deleteOlderThan(EVENT_RETENTION_HOURS);
+            log.debug("[Chat] Pruned {} unread events", deleted);
+        } catch (Exception e) {
+            log.error("[Chat] Failed to prune unread events: {}", e.getMessage());
+        }
+    }
+
+    private Counter find(Long roomId, Long userId) {
+        Map<Long, Counter> users = rooms.get(roomId);
+        Counter counter = users == null ? null : users.get(userId);
+        if (counter != null && System.nanoTime() - counter.loadedAt < TTL_NANOS) return counter;
+        return null;
+    }
+
+    /**
+     * 센 값을 캐시 (세는 도중 무효화됐으면 이번 응답에만 쓰고, 다른 요청이 먼저 채웠으면 그 값을 사용)
+     */
+    private Counter put(Long roomId, Long userId, Unread unread, long loadedGeneration) {
+        Counter loaded = new Counter(unread.getCount(), unread.getLastMessageId());
+        if (generation.get() != loadedGeneration) return loaded;
+
+        Map<Long, Counter> users = rooms.computeIfAbsent(roomId, id -> new ConcurrentHashMap<>());
+        Counter existing = users.get(userId);
+        if (existing != null && System.nanoTime() - existing.loadedAt < TTL_NANOS) return existing;
+        users.put(userId, loaded);
+        return loaded;
+    }
+
+    private void change(Long roomId, Long userId, Runnable apply) {
+        chatUnreadEventRepository.publish(roomId, userId, nodeId);
+        generation.incrementAndGet();
+
+        Runnable afterCommit = () -> {
+            generation.incrementAndGet();
+            apply.run();
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    afterCommit.run();
+                }
+            });
+        } else {
+            afterCommit.run();
+        }
+    }
+
+    /**
+     * 다른 서버의 이벤트 (userId 가 0 이면 채팅방 전체)
+     */
+    private void invalidate(long roomId, long userId) {
+        generation.incrementAndGet();
+        if (userId == 0) {
+            rooms.remove(roomId);
+            return;
+        }
+        Map<Long, Counter> users = rooms.get(roomId);
+        if (users != null) users.remove(userId);
+    }
+
+    private static class Counter {
+        private int count;
+        // 센 시점에 값에 포함된 마지막 메시지 id (이 id 이하의 메시지는 더하지 않음)
+        private final long countedMessageId;
+        private final long loadedAt = System.nanoTime();
+
+        Counter(int count, long countedMessageId) {
+            this.count = count;
+            this.countedMessageId = countedMessageId;
+        }
+
+        synchronized int get() {
+            return count;
+        }
+
+        synchronized int increment(long messageId) {
+            if (messageId > countedMessageId) count++;
+            return count;
+        }
+
+        synchronized void reset() {
+            count = 0;
+        }
+    }
+}
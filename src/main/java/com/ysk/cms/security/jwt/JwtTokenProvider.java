@@ -2,6 +2,7 @@ package com.ysk.cms.security.jwt;
 
 import com.ysk.cms.common.exception.BusinessException;
 import com.ysk.cms.common.exception.ErrorCode;
+import com.ysk.cms.security.CustomUserDetails;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
@@ -29,6 +30,7 @@ public class JwtTokenProvider {
 
     private static final String AUTHORITIES_KEY = "auth";
     private static final String TOKEN_TYPE_KEY = "type";
+    private static final String USER_ID_KEY = "uid";
     private static final String ACCESS_TOKEN = "access";
     private static final String REFRESH_TOKEN = "refresh";
 
@@ -44,14 +46,31 @@ public class JwtTokenProvider {
     }
 
     public String createAccessToken(Authentication authentication) {
-        return createToken(authentication, ACCESS_TOKEN, jwtProperties.getAccessTokenExpiration());
+        return createAccessToken(authentication, resolveUserId(authentication));
     }
 
     public String createRefreshToken(Authentication authentication) {
-        return createToken(authentication, REFRESH_TOKEN, jwtProperties.getRefreshTokenExpiration());
+        return createRefreshToken(authentication, resolveUserId(authentication));
     }
 
-    private String createToken(Authentication authentication, String tokenType, long expiration) {
+    /**
+     * 사용자 ID 클레임을 포함한 토큰 생성 (토큰 재발급처럼 principal 에 사용자 ID 가 없는 경우)
+     */
+    public String createAccessToken(Authentication authentication, Long userId) {
+        return createToken(authentication, userId, ACCESS_TOKEN, jwtProperties.getAccessTokenExpiration());
+    }
+
+    public String createRefreshToken(Authentication authentication, Long userId) {
+        return createToken(authentication, userId, REFRESH_TOKEN, jwtProperties.getRefreshTokenExpiration());
+    }
+
+    private Long resolveUserId(Authentication authentication) {
+        return authentication.getPrincipal() instanceof CustomUserDetails userDetails
+                ? userDetails.getUserId()
+                : null;
+    }
+
+    private String createToken(Authentication authentication, Long userId, String tokenType, long expiration) {
         String authorities = authentication.getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.joining(","));
@@ -63,6 +82,7 @@ public class JwtTokenProvider {
                 .subject(authentication.getName())
                 .claim(AUTHORITIES_KEY, authorities)
                 .claim(TOKEN_TYPE_KEY, tokenType)
+                .claim(USER_ID_KEY, userId)
                 .issuedAt(new Date(now))
                 .expiration(validity)
                 .signWith(key)
@@ -114,6 +134,14 @@ public class JwtTokenProvider {
         return parseClaims(token).getSubject();
     }
 
+    /**
+     * 토큰의 사용자 ID (사용자 ID 클레임이 없는 이전 토큰이면 null)
+     */
+    public Long getUserId(String token) {
+        Object userId = parseClaims(token).get(USER_ID_KEY);
+        return userId instanceof Number number ? number.longValue() : null;
+    }
+
     /**
      * 토큰 만료까지 남은 시간(밀리초)을 반환합니다.
      * @return 남은 시간 (밀리초), 이미 만료된 경우 0 이하
@@ -0,0 +1,61 @@
+package com.ysk.cms.domain.admin.analytics.bitmap;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RoaringBitmapTest {
+
+    @Test
+    void matchesBitSetAcrossArrayAndBitmapContainers() {
+        Random random = new Random(42);
+        RoaringBitmap a = new RoaringBitmap();
+        RoaringBitmap b = new RoaringBitmap();
+        BitSet expectedA = new BitSet();
+        BitSet expectedB = new BitSet();
+        // 조밀한 구간(비트맵 묶음)과 듬성한 구간(배열 묶음)을 섞음
+        for (int i = 0; i < 30_000; i++) {
+            int dense = random.nextInt(70_000);
+            int sparse = 1_000_000 + random.nextInt(5_000_000);
+            a.add(dense);
+            expectedA.set(dense);
+            b.add(sparse);
+            expectedB.set(sparse);
+            if (i % 3 == 0) {
+                b.add(dense);
+                expectedB.set(dense);
+            }
+        }
+
+        assertThat(a.cardinality()).isEqualTo(expectedA.cardinality());
+        assertThat(b.cardinality()).isEqualTo(expectedB.cardinality());
+
+        BitSet and = (BitSet) expectedA.clone();
+        and.and(expectedB);
+        assertThat(a.andCardinality(b)).isEqualTo(and.cardinality());
+        assertThat(b.andCardinality(a)).isEqualTo(and.cardinality());
+
+        RoaringBitmap restored = RoaringBitmap.fromBytes(b.toBytes());
+        assertThat(restored.cardinality()).isEqualTo(expectedB.cardinality());
+
+        a.or(restored);
+        expectedA.or(expectedB);
+        assertThat(a.cardinality()).isEqualTo(expectedA.cardinality());
+        expectedA.stream().limit(1000).forEach(value -> assertThat(a.contains(value)).isTrue());
+        assertThat(a.contains(999_999)).isEqualTo(expectedA.get(999_999));
+    }
+
+    @Test
+    void storesDenseOrdinalsCompactly() {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (int i = 0; i < 100_000; i++) {
+            bitmap.add(i * 2);
+        }
+
+        assertThat(bitmap.cardinality()).isEqualTo(100_000);
+        assertThat(bitmap.toBytes().length).isLessThan(100_000 * 2);
+    }
+}
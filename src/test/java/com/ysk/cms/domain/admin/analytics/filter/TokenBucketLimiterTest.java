@@ -0,0 +1,45 @@
+package com.ysk.cms.domain.admin.analytics.filter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketLimiterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void allowsBurstThenRefillsAtRate() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(2.0, 5, 100);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire("v1", 0)).isTrue();
+        }
+        assertThat(limiter.tryAcquire("v1", 0)).isFalse();
+        // 다른 키는 별도 버킷
+        assertThat(limiter.tryAcquire("v2", 0)).isTrue();
+
+        // 1초에 2개 보충
+        assertThat(limiter.tryAcquire("v1", SECOND)).isTrue();
+        assertThat(limiter.tryAcquire("v1", SECOND)).isTrue();
+        assertThat(limiter.tryAcquire("v1", SECOND)).isFalse();
+    }
+
+    @Test
+    void evictsOnlyFullBucketsAndStopsTrackingAtMaxKeys() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1.0, 2, 2);
+        limiter.tryAcquire("a", 0);
+        limiter.tryAcquire("b", 0);
+        limiter.tryAcquire("b", 0);
+
+        // 키 한도를 넘는 새 키는 제한하지 않음
+        assertThat(limiter.tryAcquire("c", 0)).isTrue();
+        assertThat(limiter.tryAcquire("c", 0)).isTrue();
+        assertThat(limiter.tryAcquire("c", 0)).isTrue();
+        assertThat(limiter.size()).isEqualTo(2);
+
+        // 1초 후 a 는 가득 차고 b 는 1개만 보충됨
+        assertThat(limiter.evictFull(SECOND)).isEqualTo(1);
+        assertThat(limiter.size()).isEqualTo(1);
+    }
+}
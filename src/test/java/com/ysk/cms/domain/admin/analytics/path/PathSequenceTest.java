@@ -0,0 +1,55 @@
+package com.ysk.cms.domain.admin.analytics.path;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PathSequenceTest {
+
+    @Test
+    void collapsesRepeatsAndKeepsLastPageWhenFull() {
+        PathSequence sequence = new PathSequence(3, new PathDictionary(10));
+        sequence.add(1);
+        sequence.add(1);
+        sequence.add(2);
+        sequence.add(3);
+        sequence.add(4);
+        sequence.add(5);
+
+        // 앞부분 경로와 종료 페이지 유지
+        assertThat(sequence.size()).isEqualTo(3);
+        assertThat(new int[]{sequence.get(0), sequence.get(1), sequence.get(2)}).containsExactly(1, 2, 5);
+
+        // 교체 결과가 직전 페이지와 같으면 한 칸으로 합침
+        sequence.add(2);
+        assertThat(sequence.size()).isEqualTo(2);
+        assertThat(sequence.get(1)).isEqualTo(2);
+    }
+
+    @Test
+    void dictionaryMapsOverflowToOther() {
+        PathDictionary dictionary = new PathDictionary(2);
+        int home = dictionary.encode("/");
+        int about = dictionary.encode("/about");
+
+        assertThat(dictionary.encode("/")).isEqualTo(home);
+        assertThat(dictionary.decode(about)).isEqualTo("/about");
+        assertThat(dictionary.encode("/contact")).isEqualTo(PathDictionary.OTHER);
+        assertThat(dictionary.decode(PathDictionary.OTHER)).isEqualTo(PathDictionary.OTHER_PATH);
+        assertThat(dictionary.size()).isEqualTo(2);
+    }
+
+    @Test
+    void sequenceDecodesWithItsOwnDictionary() {
+        PathSequence yesterday = new PathSequence(10, new PathDictionary(1));
+        yesterday.add("/");
+        PathSequence today = new PathSequence(10, new PathDictionary(1));
+        today.add("/new");
+        yesterday.add("/new");
+
+        // 가득 찬 이전 사전과 달리 새 사전에는 새 페이지가 등록됨
+        assertThat(today.getPage(0)).isEqualTo("/new");
+        assertThat(yesterday.getPage(0)).isEqualTo("/");
+        assertThat(yesterday.getPage(1)).isEqualTo(PathDictionary.OTHER_PATH);
+    }
+}
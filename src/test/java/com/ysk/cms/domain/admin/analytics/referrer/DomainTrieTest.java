@@ -0,0 +1,26 @@
+package com.ysk.cms.domain.admin.analytics.referrer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DomainTrieTest {
+
+    @Test
+    void matchesLongestRegisteredSuffixOnLabelBoundary() {
+        DomainTrie<String> trie = new DomainTrie<>();
+        trie.put("naver.com", "search");
+        trie.put("blog.naver.com", "social");
+        trie.put("t.co", "social");
+
+        assertThat(trie.match("naver.com")).isEqualTo("search");
+        assertThat(trie.match("search.naver.com")).isEqualTo("search");
+        assertThat(trie.match("m.blog.naver.com")).isEqualTo("social");
+        assertThat(trie.match("t.co")).isEqualTo("social");
+
+        // 라벨 단위로만 일치 (notnaver.com, t.com 은 등록 도메인의 하위가 아님)
+        assertThat(trie.match("notnaver.com")).isNull();
+        assertThat(trie.match("t.com")).isNull();
+        assertThat(trie.match("example.org")).isNull();
+    }
+}
@@ -0,0 +1,49 @@
+package com.ysk.cms.domain.admin.analytics.service;
+
+import com.ysk.cms.domain.admin.analytics.config.AnalyticsProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * 병렬 쿼리가 마감 시간을 DB 타임아웃으로 가진 읽기 전용 트랜잭션에서 실행되는지 검증
+ */
+class AnalyticsQueryExecutorTest {
+
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private AnalyticsQueryExecutor queryExecutor;
+
+    @BeforeEach
+    void setUp() {
+        AnalyticsProperties properties = new AnalyticsProperties();
+        properties.getQuery().setTimeoutMs(2500);
+        queryExecutor = new AnalyticsQueryExecutor(properties, transactionManager);
+        queryExecutor.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        queryExecutor.stop();
+    }
+
+    @Test
+    void queriesRunInTimedReadOnlyTransaction() {
+        CompletableFuture<String> query = queryExecutor.submit(() -> "ok");
+        queryExecutor.awaitAll(query);
+
+        assertThat(query.join()).isEqualTo("ok");
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertThat(definition.getValue().isReadOnly()).isTrue();
+        assertThat(definition.getValue().getTimeout()).isEqualTo(3);
+        verify(transactionManager).commit(any());
+    }
+}
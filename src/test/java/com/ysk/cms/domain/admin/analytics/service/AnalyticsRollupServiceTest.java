@@ -0,0 +1,75 @@
+package com.ysk.cms.domain.admin.analytics.service;
+
+import com.ysk.cms.domain.admin.analytics.config.AnalyticsProperties;
+import com.ysk.cms.domain.admin.analytics.repository.AnalyticsRollupRepository;
+import com.ysk.cms.domain.admin.analytics.repository.DailyStatsRepository;
+import com.ysk.cms.domain.admin.site.repository.SiteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 백필이 워터마크 뒤에 빈 날짜를 남기지 않는지 검증
+ */
+@ExtendWith(MockitoExtension.class)
+class AnalyticsRollupServiceTest {
+
+    private static final String SITE = "main";
+
+    @Mock private AnalyticsRollupRepository analyticsRollupRepository;
+    @Mock private DailyStatsRepository dailyStatsRepository;
+    @Mock private SiteRepository siteRepository;
+    @Mock private PlatformTransactionManager transactionManager;
+    @Mock private VisitorSketchStore visitorSketchStore;
+    @Mock private TopKStore topKStore;
+    @Mock private VisitorBitmapStore visitorBitmapStore;
+    @Mock private AnalyticsResultCache resultCache;
+    @Mock private TrendBucketStore trendBucketStore;
+
+    private AnalyticsRollupService rollupService;
+
+    @BeforeEach
+    void setUp() {
+        rollupService = new AnalyticsRollupService(analyticsRollupRepository, dailyStatsRepository, siteRepository,
+                new AnalyticsProperties(), new TransactionTemplate(transactionManager), visitorSketchStore, topKStore,
+                visitorBitmapStore, resultCache, trendBucketStore);
+    }
+
+    @Test
+    void backfillPastWatermarkStartsAfterWatermark() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        when(analyticsRollupRepository.findFirstPageViewDate(SITE)).thenReturn(yesterday.minusDays(30));
+        when(dailyStatsRepository.findLastStatsDate(SITE)).thenReturn(yesterday.minusDays(10));
+
+        int days = rollupService.rollup(SITE, yesterday.minusDays(1), yesterday);
+
+        // 워터마크 다음 날(9일 전)부터 어제까지
+        assertThat(days).isEqualTo(10);
+        verify(analyticsRollupRepository).rollupDay(SITE, yesterday.minusDays(9));
+        verify(analyticsRollupRepository, never()).rollupDay(SITE, yesterday.minusDays(10));
+        verify(resultCache).evictSite(SITE);
+    }
+
+    @Test
+    void backfillBeforeWatermarkKeepsRequestedRange() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        when(analyticsRollupRepository.findFirstPageViewDate(SITE)).thenReturn(yesterday.minusDays(30));
+        when(dailyStatsRepository.findLastStatsDate(SITE)).thenReturn(yesterday);
+
+        int days = rollupService.rollup(SITE, yesterday.minusDays(5), yesterday.minusDays(4));
+
+        assertThat(days).isEqualTo(2);
+        verify(analyticsRollupRepository, times(2)).rollupDay(eq(SITE), any());
+    }
+}
@@ -0,0 +1,223 @@
+package com.ysk.cms.domain.admin.analytics.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ysk.cms.domain.admin.analytics.config.AnalyticsProperties;
+import com.ysk.cms.domain.admin.analytics.dto.AnalyticsSummaryDto;
+import com.ysk.cms.domain.admin.analytics.dto.HourlyHeatmapDto;
+import com.ysk.cms.domain.admin.analytics.repository.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 요약 통계 쿼리 수 / 병렬 실행 / 결과 캐시 검증
+ */
+@ExtendWith(MockitoExtension.class)
+class AnalyticsServiceTest {
+
+    private static final String SITE = "main";
+    // 요약 통계의 독립 쿼리 수 (집계 테이블, 페이지뷰, 세션, 방문자)
+    private static final int SUMMARY_QUERIES = 4;
+
+    @Mock private PageViewRepository pageViewRepository;
+    @Mock private AnalyticsSessionRepository sessionRepository;
+    @Mock private VisitorRepository visitorRepository;
+    @Mock private DailyStatsRepository dailyStatsRepository;
+    @Mock private PageStatsRepository pageStatsRepository;
+    @Mock private DeviceStatsRepository deviceStatsRepository;
+    @Mock private ReferrerStatsRepository referrerStatsRepository;
+    @Mock private RealtimeCounter realtimeCounter;
+    @Mock private VisitorSketchStore visitorSketchStore;
+    @Mock private TopKStore topKStore;
+    @Mock private AnalyticsPathRepository analyticsPathRepository;
+    @Mock private PathStore pathStore;
+    @Mock private VisitorBitmapStore visitorBitmapStore;
+    @Mock private TrendBucketStore trendBucketStore;
+    @Mock private AnalyticsCacheGenerationRepository generationRepository;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private AnalyticsQueryExecutor queryExecutor;
+    private AnalyticsResultCache resultCache;
+    private AnalyticsService analyticsService;
+
+    @BeforeEach
+    void setUp() {
+        queryExecutor = new AnalyticsQueryExecutor(new AnalyticsProperties(), mock(PlatformTransactionManager.class));
+        queryExecutor.start();
+        resultCache = new AnalyticsResultCache(new AnalyticsProperties(), new SimpleMeterRegistry(), generationRepository);
+        resultCache.init();
+        analyticsService = new AnalyticsService(pageViewRepository, sessionRepository, visitorRepository,
+                dailyStatsRepository, pageStatsRepository, deviceStatsRepository, referrerStatsRepository,
+                realtimeCounter, visitorSketchStore, queryExecutor, topKStore, analyticsPathRepository, pathStore,
+                visitorBitmapStore, resultCache, trendBucketStore, new AnalyticsProperties(), new ObjectMapper(),
+                transactionManager);
+        analyticsService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        queryExecutor.stop();
+    }
+
+    @Test
+    void summaryRunsOneAggregateQueryPerTable() {
+        stubSummaryQueries(null);
+
+        AnalyticsSummaryDto summary = analyticsService.getSummary(SITE, LocalDate.now().minusDays(29), LocalDate.now(), false);
+
+        assertThat(summary.getTotalPageViews()).isEqualTo(1000 + 40);
+        assertThat(summary.getTotalSessions()).isEqualTo(300 + 10);
+        assertThat(summary.getUniqueVisitors()).isEqualTo(250);
+        assertThat(summary.getNewVisitors()).isEqualTo(80 + 3);
+        assertThat(summary.getReturningVisitors()).isEqualTo(70);
+
+        // 워터마크 1 + 집계 테이블 1 + 페이지뷰 1 + 세션 1 + 방문자 1
+        verify(dailyStatsRepository).findLastStatsDate(SITE);
+        verify(dailyStatsRepository).sumSummaryWithPrevious(eq(SITE), any(), any(), any(), any());
+        verify(pageViewRepository).summarizeWithPrevious(eq(SITE), any(), any(), any(), any(), any(), any(), any());
+        verify(sessionRepository).summarizeWithPrevious(eq(SITE), any(), any(), any(), any(), any());
+        verify(visitorRepository).summarize(eq(SITE), any(), any(), any());
+        verifyNoMoreInteractions(dailyStatsRepository, pageViewRepository, sessionRepository, visitorRepository);
+    }
+
+    @Test
+    void summaryBeyondRawRetentionFallsBackToSketches() {
+        // 이전 기간이 보관 기간(기본 13개월) 밖이라 원본이 삭제됐을 수 있음
+        LocalDate end = LocalDate.now().minusMonths(13);
+        LocalDate start = end.minusDays(29);
+        when(dailyStatsRepository.findLastStatsDate(SITE)).thenReturn(LocalDate.now().minusDays(1));
+        when(dailyStatsRepository.sumSummaryWithPrevious(eq(SITE), any(), any(), any(), any()))
+                .thenReturn(Collections.singletonList(new Object[]{1000L, 300L, 120L, 80L, 300L * 60, 900L, 280L}));
+        when(visitorRepository.summarize(eq(SITE), any(), any(), any()))
+                .thenReturn(Collections.singletonList(new Object[]{0L, 0L}));
+        when(visitorSketchStore.estimateVisitors(SITE, start, end)).thenReturn(240L);
+        when(visitorSketchStore.estimateVisitors(SITE, start.minusDays(30), start.minusDays(1))).thenReturn(200L);
+
+        AnalyticsSummaryDto summary = analyticsService.getSummary(SITE, start, end, false);
+
+        assertThat(summary.getApproximate()).isTrue();
+        assertThat(summary.getUniqueVisitors()).isEqualTo(240);
+        assertThat(summary.getVisitorsChange()).isEqualByComparingTo("20.0");
+        // 삭제됐을 수 있는 원본은 읽지 않음
+        verifyNoInteractions(pageViewRepository, sessionRepository);
+    }
+
+    @Test
+    void summaryQueriesRunConcurrently() {
+        // 네 쿼리가 모두 동시에 실행 중이어야 장벽을 넘음 (순차 실행이면 첫 쿼리가 시간 초과로 실패)
+        CyclicBarrier barrier = new CyclicBarrier(SUMMARY_QUERIES);
+        stubSummaryQueries(barrier);
+
+        AnalyticsSummaryDto summary = analyticsService.getSummary(SITE, LocalDate.now().minusDays(29), LocalDate.now(), false);
+
+        assertThat(summary.getTotalPageViews()).isEqualTo(1000 + 40);
+        assertThat(barrier.isBroken()).isFalse();
+    }
+
+    @Test
+    void repeatedSummaryIsServedFromCache() {
+        stubSummaryQueries(null);
+        when(realtimeCounter.countActiveUsers(SITE)).thenReturn(5L, 7L);
+
+        AnalyticsSummaryDto first = analyticsService.getSummary(SITE, LocalDate.now().minusDays(29), LocalDate.now(), false);
+        AnalyticsSummaryDto second = analyticsService.getSummary(SITE, LocalDate.now().minusDays(29), LocalDate.now(), false);
+
+        assertThat(second.getTotalPageViews()).isEqualTo(first.getTotalPageViews());
+        // 활성 사용자는 매번 새로 조회
+        assertThat(second.getActiveUsers()).isEqualTo(7L);
+        verify(dailyStatsRepository, times(1)).sumSummaryWithPrevious(eq(SITE), any(), any(), any(), any());
+        verify(pageViewRepository, times(1)).summarizeWithPrevious(eq(SITE), any(), any(), any(), any(), any(), any(), any());
+
+        // 집계 후에는 다시 계산
+        resultCache.evictSite(SITE);
+        analyticsService.getSummary(SITE, LocalDate.now().minusDays(29), LocalDate.now(), false);
+        verify(dailyStatsRepository, times(2)).sumSummaryWithPrevious(eq(SITE), any(), any(), any(), any());
+        verify(generationRepository).increment(SITE);
+    }
+
+    @Test
+    void cacheHitDoesNotOpenTransaction() {
+        LocalDate day = LocalDate.now().minusDays(1);
+        when(dailyStatsRepository.findLastStatsDate(SITE)).thenReturn(day);
+        when(dailyStatsRepository.findHourlyBySiteCodeAndDateRange(SITE, day, day)).thenReturn(List.of());
+
+        analyticsService.getHourlyHeatmap(SITE, day, day);
+        analyticsService.getHourlyHeatmap(SITE, day, day);
+
+        verify(transactionManager, times(1)).getTransaction(any());
+    }
+
+    @Test
+    void generationChangedOnAnotherNodeEvictsSite() {
+        LocalDate day = LocalDate.now().minusDays(1);
+        when(dailyStatsRepository.findLastStatsDate(SITE)).thenReturn(day);
+        when(dailyStatsRepository.findHourlyBySiteCodeAndDateRange(SITE, day, day)).thenReturn(List.of());
+        when(generationRepository.findAll()).thenReturn(Map.of(SITE, 1L), Map.of(SITE, 1L), Map.of(SITE, 2L));
+
+        resultCache.syncGenerations();
+        analyticsService.getHourlyHeatmap(SITE, day, day);
+        resultCache.syncGenerations();
+        analyticsService.getHourlyHeatmap(SITE, day, day);
+        verify(dailyStatsRepository, times(1)).findHourlyBySiteCodeAndDateRange(SITE, day, day);
+
+        // 다른 서버가 집계 후 세대를 올림
+        resultCache.syncGenerations();
+        analyticsService.getHourlyHeatmap(SITE, day, day);
+        verify(dailyStatsRepository, times(2)).findHourlyBySiteCodeAndDateRange(SITE, day, day);
+    }
+
+    @Test
+    void heatmapAddsStoredHourlyArraysByDayOfWeek() {
+        LocalDate day = LocalDate.now().minusDays(1);
+        when(dailyStatsRepository.findLastStatsDate(SITE)).thenReturn(day);
+        when(dailyStatsRepository.findHourlyBySiteCodeAndDateRange(SITE, day, day))
+                .thenReturn(List.<Object[]>of(new Object[]{day, "[1,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,0,12]", null}));
+
+        HourlyHeatmapDto heatmap = analyticsService.getHourlyHeatmap(SITE, day, day);
+
+        long[] pageViews = heatmap.getPageViews().get(day.getDayOfWeek().ordinal());
+        assertThat(pageViews[0]).isEqualTo(1);
+        assertThat(pageViews[23]).isEqualTo(12);
+        assertThat(heatmap.getSessions().get(day.getDayOfWeek().ordinal())).containsOnly(0L);
+    }
+
+    /**
+     * barrier 가 있으면 각 쿼리가 나머지 쿼리가 모두 시작될 때까지 기다림
+     */
+    private void stubSummaryQueries(CyclicBarrier barrier) {
+        when(dailyStatsRepository.findLastStatsDate(SITE)).thenReturn(LocalDate.now().minusDays(1));
+        when(dailyStatsRepository.sumSummaryWithPrevious(eq(SITE), any(), any(), any(), any()))
+                .thenAnswer(awaiting(barrier, new Object[]{1000L, 300L, 120L, 80L, 300L * 60, 900L, 280L}));
+        when(pageViewRepository.summarizeWithPrevious(eq(SITE), any(), any(), any(), any(), any(), any(), any()))
+                .thenAnswer(awaiting(barrier, new Object[]{40L, 0L, 250L, 230L}));
+        when(sessionRepository.summarizeWithPrevious(eq(SITE), any(), any(), any(), any(), any()))
+                .thenAnswer(awaiting(barrier, new Object[]{10L, 4L, 45.0, 0L}));
+        when(visitorRepository.summarize(eq(SITE), any(), any(), any()))
+                .thenAnswer(awaiting(barrier, new Object[]{3L, 70L}));
+    }
+
+    private static Answer<List<Object[]>> awaiting(CyclicBarrier barrier, Object[] row) {
+        return invocation -> {
+            if (barrier != null) barrier.await(5, TimeUnit.SECONDS);
+            return Collections.singletonList(row);
+        };
+    }
+}
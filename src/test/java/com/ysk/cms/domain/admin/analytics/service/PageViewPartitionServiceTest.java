@@ -0,0 +1,42 @@
+package com.ysk.cms.domain.admin.analytics.service;
+
+import com.ysk.cms.domain.admin.analytics.config.AnalyticsProperties;
+import com.ysk.cms.domain.admin.analytics.repository.DailyStatsRepository;
+import com.ysk.cms.domain.admin.analytics.repository.PageViewPartitionRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * 밀린 월 파티션을 한 달씩 만드는지 검증
+ */
+@ExtendWith(MockitoExtension.class)
+class PageViewPartitionServiceTest {
+
+    @Mock private PageViewPartitionRepository pageViewPartitionRepository;
+    @Mock private DailyStatsRepository dailyStatsRepository;
+
+    @Test
+    void missingMonthsGetOnePartitionEach() {
+        YearMonth current = YearMonth.now();
+        String last = PageViewPartitionRepository.partitionName(current.minusMonths(3));
+        when(pageViewPartitionRepository.findPartitionNames()).thenReturn(List.of("p_old", last, "p_future"));
+
+        new PageViewPartitionService(pageViewPartitionRepository, dailyStatsRepository, new AnalyticsProperties())
+                .maintain();
+
+        ArgumentCaptor<YearMonth> months = ArgumentCaptor.forClass(YearMonth.class);
+        verify(pageViewPartitionRepository, times(6)).addMonthPartition(months.capture());
+        assertThat(months.getAllValues()).containsExactly(
+                current.minusMonths(2), current.minusMonths(1), current,
+                current.plusMonths(1), current.plusMonths(2), current.plusMonths(3));
+    }
+}
@@ -0,0 +1,84 @@
+package com.ysk.cms.domain.admin.analytics.service;
+
+import com.ysk.cms.domain.admin.analytics.config.AnalyticsProperties;
+import com.ysk.cms.domain.admin.analytics.path.PathSequence;
+import com.ysk.cms.domain.admin.analytics.repository.AnalyticsPathRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * 용량 초과로 밀려난 세션 경로 보관 / 이어 쓰기 검증
+ */
+class PathStoreTest {
+
+    private static final String SITE = "main";
+
+    private final AnalyticsPathRepository analyticsPathRepository = mock(AnalyticsPathRepository.class);
+    private final PathStore pathStore = new PathStore(analyticsPathRepository, new AnalyticsProperties(),
+            new TransactionTemplate(mock(PlatformTransactionManager.class)));
+
+    @Test
+    void parkedSessionContinuesPathWithoutNewEntrance() {
+        LocalDate today = LocalDate.now();
+        PathSequence sequence = pathStore.openSequence(SITE + ":s1", SITE);
+        sequence.add("/a");
+        pathStore.park(SITE + ":s1", SITE, today, sequence, 1.0, LocalDateTime.now());
+
+        PathSequence resumed = pathStore.openSequence(SITE + ":s1", SITE);
+        assertThat(resumed).isSameAs(sequence);
+        resumed.add("/b");
+        pathStore.fold(SITE, today, resumed, 1.0);
+        pathStore.flush();
+
+        assertThat(writtenTransitions()).containsExactlyInAnyOrder(
+                PathStore.ENTRANCE + ">/a", "/a>/b", "/b>" + PathStore.EXIT);
+    }
+
+    @Test
+    void parkedPathIsFoldedAfterSessionTimeout() {
+        LocalDateTime now = LocalDateTime.now();
+        PathSequence sequence = pathStore.openSequence(SITE + ":s1", SITE);
+        sequence.add("/a");
+        pathStore.park(SITE + ":s1", SITE, now.toLocalDate(), sequence, 1.0, now.minusMinutes(40));
+
+        pathStore.foldParked(now.minusMinutes(30), 100);
+        pathStore.flush();
+
+        assertThat(writtenTransitions()).containsExactlyInAnyOrder(PathStore.ENTRANCE + ">/a", "/a>" + PathStore.EXIT);
+        // 반영된 경로는 더 이상 이어 쓰지 않음
+        assertThat(pathStore.openSequence(SITE + ":s1", SITE)).isNotSameAs(sequence);
+    }
+
+    @Test
+    void oldestParkedPathIsFoldedWhenOverLimit() {
+        LocalDateTime now = LocalDateTime.now();
+        PathSequence older = pathStore.openSequence(SITE + ":s1", SITE);
+        older.add("/old");
+        PathSequence newer = pathStore.openSequence(SITE + ":s2", SITE);
+        newer.add("/new");
+        pathStore.park(SITE + ":s1", SITE, now.toLocalDate(), older, 1.0, now.minusMinutes(2));
+        pathStore.park(SITE + ":s2", SITE, now.toLocalDate(), newer, 1.0, now.minusMinutes(1));
+
+        pathStore.foldParked(now.minusMinutes(30), 1);
+        pathStore.flush();
+
+        assertThat(writtenTransitions()).containsExactlyInAnyOrder(PathStore.ENTRANCE + ">/old", "/old>" + PathStore.EXIT);
+        assertThat(pathStore.openSequence(SITE + ":s2", SITE)).isSameAs(newer);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> writtenTransitions() {
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(analyticsPathRepository).addTransitions(rows.capture());
+        return rows.getValue().stream().map(row -> row[2] + ">" + row[3]).toList();
+    }
+}
@@ -0,0 +1,101 @@
+package com.ysk.cms.domain.admin.analytics.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ysk.cms.domain.admin.analytics.config.AnalyticsProperties;
+import com.ysk.cms.domain.admin.analytics.repository.AnalyticsRealtimeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * 구독 중인 사이트만 공유 / 사이트별 저장 실패 격리 / 공유한 요약 읽기 검증
+ */
+class RealtimeNodeExchangeTest {
+
+    private final AnalyticsRealtimeRepository analyticsRealtimeRepository = mock(AnalyticsRealtimeRepository.class);
+    private final AnalyticsProperties analyticsProperties = new AnalyticsProperties();
+    private final RealtimeCounter realtimeCounter = new RealtimeCounter(analyticsProperties);
+    private RealtimeNodeExchange exchange;
+
+    @BeforeEach
+    void setUp() {
+        analyticsProperties.getRealtime().setShareBuckets(true);
+        exchange = new RealtimeNodeExchange(realtimeCounter, analyticsRealtimeRepository, analyticsProperties,
+                new ObjectMapper());
+        realtimeCounter.recordPageView("a", "v1", "/", LocalDateTime.now());
+        realtimeCounter.recordPageView("b", "v2", "/", LocalDateTime.now());
+        realtimeCounter.recordPageView("c", "v3", "/", LocalDateTime.now());
+    }
+
+    @Test
+    void sharesOnlySitesSubscribedOnOtherNodes() {
+        when(analyticsRealtimeRepository.findSubscribedSites(anyString(), anyCollection(), anyLong()))
+                .thenReturn(List.of("b"));
+
+        exchange.share();
+
+        List<Object[]> rows = upsertedRows(1).get(0);
+        assertThat(rows).extracting(row -> row[0]).containsExactly("b");
+    }
+
+    @Test
+    void nothingIsWrittenWithoutSubscribers() {
+        when(analyticsRealtimeRepository.findSubscribedSites(anyString(), anyCollection(), anyLong()))
+                .thenReturn(List.of());
+
+        exchange.share();
+
+        verify(analyticsRealtimeRepository, never()).upsertAll(anyList());
+    }
+
+    @Test
+    void rejectedSiteDoesNotStopOtherSites() {
+        when(analyticsRealtimeRepository.findSubscribedSites(anyString(), anyCollection(), anyLong()))
+                .thenReturn(List.of("a", "b", "c"));
+        doThrow(new RuntimeException("Packet too large"))
+                .when(analyticsRealtimeRepository).upsertAll(argThat(rows -> rows.stream().anyMatch(row -> "b".equals(row[0]))));
+
+        exchange.share();
+
+        // 한 번에 저장 실패 후 사이트별로 다시 저장
+        List<List<Object[]>> calls = upsertedRows(4);
+        assertThat(calls.subList(1, 4)).extracting(rows -> rows.get(0)[0]).containsExactlyInAnyOrder("a", "b", "c");
+    }
+
+    @Test
+    void sharedSketchesAreReadBack() {
+        when(analyticsRealtimeRepository.findSubscribedSites(anyString(), anyCollection(), anyLong()))
+                .thenReturn(List.of("a"));
+        exchange.share();
+        Object[] row = upsertedRows(1).get(0).get(0);
+        when(analyticsRealtimeRepository.findPeers(anyString(), anyCollection(), anyLong()))
+                .thenReturn(List.of(new Object[]{"a", "peer", row[2], row[3]}, new Object[]{"a", "old", 1L, "not json"}));
+
+        Map<String, List<RealtimeNodeExchange.NodeSketches>> peers = exchange.findPeers(List.of("a"));
+
+        // 읽을 수 없는 행은 그 서버만 건너뜀
+        assertThat(peers.get("a")).extracting(RealtimeNodeExchange.NodeSketches::getNodeId).containsExactly("peer");
+        assertThat(realtimeCounter.summarizeSketches(peers.get("a").get(0).getSketches(), 10).getActiveUsers())
+                .isEqualTo(1L);
+        verify(analyticsRealtimeRepository).touchSubscriptions(exchange.getNodeId(), List.of("a"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<Object[]>> upsertedRows(int expected) {
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(analyticsRealtimeRepository, times(expected)).upsertAll(rows.capture());
+        return rows.getAllValues();
+    }
+}
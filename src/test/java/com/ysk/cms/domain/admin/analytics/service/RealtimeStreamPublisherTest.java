@@ -0,0 +1,124 @@
+package com.ysk.cms.domain.admin.analytics.service;
+
+import com.ysk.cms.domain.admin.analytics.config.AnalyticsProperties;
+import com.ysk.cms.domain.admin.analytics.dto.RealtimeSketchDto;
+import com.ysk.cms.domain.admin.analytics.dto.RealtimeStreamDto;
+import com.ysk.cms.domain.admin.analytics.sketch.HyperLogLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 실시간 스트림 전체 프레임 요청 처리 / 다른 서버 버킷 요약 합산 검증
+ */
+class RealtimeStreamPublisherTest {
+
+    private static final String SITE = "main";
+
+    private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+    private final RealtimeNodeExchange realtimeNodeExchange = mock(RealtimeNodeExchange.class);
+    private final AnalyticsProperties analyticsProperties = new AnalyticsProperties();
+    private final RealtimeCounter realtimeCounter = new RealtimeCounter(analyticsProperties);
+    private RealtimeStreamPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        when(realtimeNodeExchange.getNodeId()).thenReturn("local");
+        when(realtimeNodeExchange.findPeers(anyCollection())).thenReturn(Map.of());
+        publisher = new RealtimeStreamPublisher(messagingTemplate, realtimeCounter, realtimeNodeExchange,
+                analyticsProperties);
+    }
+
+    @Test
+    void keyframeIsSentOnceForEachSubscribeRequest() {
+        realtimeCounter.recordPageView(SITE, "v1", "/", LocalDateTime.now());
+        subscribe("s1");
+        publisher.tick();
+        publisher.tick();
+        subscribe("s2");
+        publisher.tick();
+
+        // 구독마다 전체 프레임 1번, 바뀐 것이 없는 틱은 보내지 않음
+        List<RealtimeStreamDto> frames = sentFrames(2);
+        assertThat(frames).allMatch(frame -> Boolean.TRUE.equals(frame.getKeyframe()));
+    }
+
+    @Test
+    void failedSendRequestsKeyframeAgain() {
+        realtimeCounter.recordPageView(SITE, "v1", "/", LocalDateTime.now());
+        subscribe("s1");
+        doThrow(new RuntimeException("broker down")).doNothing()
+                .when(messagingTemplate).convertAndSend(any(String.class), any(Object.class));
+
+        publisher.tick();
+        publisher.tick();
+
+        List<RealtimeStreamDto> frames = sentFrames(2);
+        assertThat(frames.get(1).getKeyframe()).isTrue();
+        assertThat(frames.get(1).getActiveUsers()).isEqualTo(1L);
+    }
+
+    @Test
+    void mergesSketchesOfOtherNodes() {
+        realtimeCounter.recordPageView(SITE, "v1", "/", LocalDateTime.now());
+        AnalyticsProperties.Realtime config = analyticsProperties.getRealtime();
+        long minute = System.currentTimeMillis() / 60000;
+        RealtimeSketchDto peerSketch = RealtimeSketchDto.builder()
+                .epochMinute(minute)
+                .visitors(sketch(config.getSharePrecision(), "v1", "v2"))
+                .pages(Map.of("/", sketch(config.getSharePagePrecision(), "v1"),
+                        "/about", sketch(config.getSharePagePrecision(), "v2")))
+                .build();
+        when(realtimeNodeExchange.findPeers(anyCollection()))
+                .thenReturn(Map.of(SITE, List.of(new RealtimeNodeExchange.NodeSketches("peer", 3, List.of(peerSketch)))));
+
+        subscribe("s1");
+        publisher.tick();
+
+        // 두 서버가 모두 받은 v1 은 한 번만 셈
+        RealtimeStreamDto frame = sentFrames(1).get(0);
+        assertThat(frame.getActiveUsers()).isEqualTo(2L);
+        assertThat(frame.getActivePages()).hasSize(2);
+        assertThat(frame.getActivePages().get(0).getActiveUsers()).isEqualTo(1L);
+    }
+
+    private static byte[] sketch(int precision, String... visitorIds) {
+        HyperLogLog sketch = new HyperLogLog(precision);
+        for (String visitorId : visitorIds) {
+            sketch.add(visitorId);
+        }
+        return sketch.toBytes();
+    }
+
+    private void subscribe(String sessionId) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId("sub-" + sessionId);
+        accessor.setDestination(RealtimeStreamPublisher.destination(SITE));
+        Message<byte[]> message = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+        publisher.onSubscribe(new SessionSubscribeEvent(this, message));
+    }
+
+    private List<RealtimeStreamDto> sentFrames(int expected) {
+        ArgumentCaptor<RealtimeStreamDto> frames = ArgumentCaptor.forClass(RealtimeStreamDto.class);
+        verify(messagingTemplate, times(expected)).convertAndSend(eq(RealtimeStreamPublisher.destination(SITE)),
+                frames.capture());
+        return frames.getAllValues();
+    }
+}
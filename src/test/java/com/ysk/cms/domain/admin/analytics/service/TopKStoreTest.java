@@ -0,0 +1,75 @@
+package com.ysk.cms.domain.admin.analytics.service;
+
+import com.ysk.cms.domain.admin.analytics.config.AnalyticsProperties;
+import com.ysk.cms.domain.admin.analytics.repository.AnalyticsTopKRepository;
+import com.ysk.cms.domain.admin.analytics.sketch.SpaceSaving;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 샘플링 가중치 반영 / 재생성된 날짜의 증분 처리 검증
+ */
+class TopKStoreTest {
+
+    private static final String SITE = "main";
+
+    private final AnalyticsTopKRepository analyticsTopKRepository = mock(AnalyticsTopKRepository.class);
+    private final TopKStore store = new TopKStore(analyticsTopKRepository, new AnalyticsProperties(),
+            new TransactionTemplate(mock(PlatformTransactionManager.class)));
+
+    @Test
+    void liveCountsUseSampleWeight() {
+        LocalDateTime now = LocalDateTime.now();
+        store.add(SITE, "/a", null, null, now, 4.0);
+        store.add(SITE, "/a", null, null, now, 4.0);
+        store.add(SITE, "/b", null, null, now, 1.0);
+
+        List<SpaceSaving.Item> top = store.top(SITE, TopKStore.Dimension.PAGE, now.toLocalDate(), now.toLocalDate(), 2);
+
+        assertThat(top).extracting(SpaceSaving.Item::getKey).containsExactly("/a", "/b");
+        assertThat(top.get(0).getCount()).isEqualTo(8);
+    }
+
+    @Test
+    void fractionalWeightKeepsExpectedCount() {
+        long total = 0;
+        for (int i = 0; i < 100_000; i++) {
+            total += TopKStore.weightedCount(2.5);
+        }
+        assertThat(total / 100_000.0).isCloseTo(2.5, within(0.02));
+    }
+
+    @Test
+    void deltaForRebuiltDayIsDroppedOnFlush() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        when(analyticsTopKRepository.findForUpdate(SITE, yesterday)).thenReturn(Map.of());
+        when(analyticsTopKRepository.isRebuilt(SITE, yesterday)).thenReturn(true);
+
+        store.add(SITE, "/a", null, null, yesterday.atTime(23, 59), 1.0);
+        store.flush();
+
+        verify(analyticsTopKRepository, never()).upsertAll(any(), any(), anyMap(), anyBoolean());
+    }
+
+    @Test
+    void deltaIsMergedIntoStoredSketchWhenNotRebuilt() {
+        LocalDate today = LocalDate.now();
+        when(analyticsTopKRepository.findForUpdate(SITE, today)).thenReturn(Map.of());
+
+        store.add(SITE, "/a", null, null, today.atStartOfDay(), 1.0);
+        store.flush();
+
+        verify(analyticsTopKRepository).upsertAll(eq(SITE), eq(today), anyMap(), eq(false));
+    }
+}
@@ -0,0 +1,96 @@
+package com.ysk.cms.domain.admin.analytics.service;
+
+import com.ysk.cms.domain.admin.analytics.config.AnalyticsProperties;
+import com.ysk.cms.domain.admin.analytics.dto.TrackingEventDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 봇 판정 / 샘플링 가중치 / 저장 지연 반영 검증
+ */
+class TrackingFilterTest {
+
+    private static final String CHROME = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 " +
+            "(KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36";
+
+    private final AnalyticsProperties analyticsProperties = new AnalyticsProperties();
+    private TrackingFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new TrackingFilter(new UserAgentParser(), analyticsProperties, new SimpleMeterRegistry());
+        filter.init();
+    }
+
+    @Test
+    void detectsKnownBots() {
+        assertThat(filter.isBot("Mozilla/5.0 (compatible; Googlebot/2.1; +http://www.google.com/bot.html)")).isTrue();
+        assertThat(filter.isBot("Mozilla/5.0 (compatible; Yeti/1.1; +https://naver.me/spd)")).isTrue();
+        assertThat(filter.isBot("Mozilla/5.0 (compatible; SemrushBot/7~bl)")).isTrue();
+        assertThat(filter.isBot("Mozilla/5.0 (Windows NT 10.0) AppleWebKit/537.36 HeadlessChrome/120.0 Safari/537.36")).isTrue();
+        assertThat(filter.isBot("curl/8.4.0")).isTrue();
+        assertThat(filter.isBot("")).isTrue();
+        assertThat(filter.isBot(null)).isTrue();
+    }
+
+    @Test
+    void doesNotMatchSignatureInsideWord() {
+        // 휴대폰 제조사 CUBOT 은 "bot" 을 포함하지만 봇이 아님
+        String cubot = "Mozilla/5.0 (Linux; Android 10; CUBOT X30) AppleWebKit/537.36 (KHTML, like Gecko) " +
+                "Chrome/91.0.4472.120 Mobile Safari/537.36";
+        assertThat(filter.isBot(cubot)).isFalse();
+        assertThat(filter.isBot(CHROME)).isFalse();
+    }
+
+    @Test
+    void unrecognizedAgentIsBotOnlyWhenBlockingUnknownAgents() {
+        // 서명에 없는 이름이고 브라우저/OS 도 알 수 없음
+        String unknown = "AcmeMonitor/2.3 (status probe)";
+        assertThat(filter.isBot(unknown)).isTrue();
+
+        analyticsProperties.getFilter().setBlockUnknownAgents(false);
+        filter = new TrackingFilter(new UserAgentParser(), analyticsProperties, new SimpleMeterRegistry());
+        filter.init();
+        assertThat(filter.isBot(unknown)).isFalse();
+        assertThat(filter.isBot(CHROME)).isFalse();
+    }
+
+    @Test
+    void sampledEventCarriesInverseRateWeight() {
+        analyticsProperties.getFilter().getSiteSampleRates().put("main", 0.25);
+
+        int kept = 0;
+        double totalWeight = 0;
+        for (int i = 0; i < 20_000; i++) {
+            TrackingEventDto event = TrackingEventDto.builder().visitorId("v" + i).build();
+            double weight = filter.check("main", event, CHROME, "10.0." + (i % 250) + "." + (i / 250));
+            if (weight > 0) {
+                kept++;
+                totalWeight += weight;
+                assertThat(weight).isEqualTo(4.0);
+            }
+        }
+
+        // 가중치 합이 원래 이벤트 수에 가깝게 환산됨
+        assertThat(kept).isBetween(4_500, 5_500);
+        assertThat(totalWeight).isBetween(18_000.0, 22_000.0);
+    }
+
+    @Test
+    void batchWriteLatencyIsMeasuredPerRow() {
+        long target = analyticsProperties.getFilter().getTargetWriteLatencyMs();
+
+        // 500 행을 목표의 10 배 시간에 저장해도 행당으로는 목표 이내
+        filter.recordWriteLatency(target * 10 * 1_000_000, 500);
+        assertThat(filter.getSampleRate("main")).isEqualTo(1.0);
+
+        // 한 건 저장이 목표의 2 배면 비율이 절반으로
+        filter = new TrackingFilter(new UserAgentParser(), analyticsProperties, new SimpleMeterRegistry());
+        filter.init();
+        filter.recordWriteLatency(target * 2 * 1_000_000, 1);
+        assertThat(filter.getSampleRate("main")).isEqualTo(0.5);
+    }
+}
@@ -0,0 +1,95 @@
+package com.ysk.cms.domain.admin.analytics.service;
+
+import com.ysk.cms.domain.admin.analytics.config.AnalyticsProperties;
+import com.ysk.cms.domain.admin.analytics.dto.TrackingCommand;
+import com.ysk.cms.domain.admin.analytics.dto.TrackingEventDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 큐 포화 시 SAMPLE 정책의 가중치 보정 / 저장 실패 이벤트 격리 검증
+ */
+class TrackingIngestionServiceTest {
+
+    private static final int EVENTS = 2_000;
+
+    private final TrackingService trackingService = mock(TrackingService.class);
+    private final TrackingWalService trackingWalService = mock(TrackingWalService.class);
+    private final TrackingFilter trackingFilter = mock(TrackingFilter.class);
+    private final AnalyticsProperties analyticsProperties = new AnalyticsProperties();
+    private TrackingIngestionService ingestionService;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (ingestionService != null) ingestionService.stop();
+    }
+
+    @Test
+    void overflowSamplingScalesWeightOfKeptEvents() throws InterruptedException {
+        AnalyticsProperties.Ingestion config = analyticsProperties.getIngestion();
+        config.setAsync(true);
+        config.setQueueCapacity(EVENTS);
+        config.setOverflowPolicy(AnalyticsProperties.OverflowPolicy.SAMPLE);
+        // 항상 포화 상태로 보고 4 건 중 1 건만 수용
+        config.setSampleThreshold(0);
+        config.setSampleRate(0.25);
+
+        List<TrackingCommand> stored = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> stored.addAll(invocation.getArgument(0))).when(trackingService).trackBatch(anyList());
+        when(trackingFilter.check(any(), any(), any(), any())).thenReturn(2.0);
+
+        ingestionService = new TrackingIngestionService(trackingService, trackingWalService, trackingFilter,
+                analyticsProperties, new SimpleMeterRegistry());
+        ingestionService.start();
+        for (int i = 0; i < EVENTS; i++) {
+            ingestionService.ingest("main", TrackingEventDto.builder().visitorId("v" + i).build(), "agent", "127.0.0.1");
+        }
+        ingestionService.stop();
+        ingestionService = null;
+
+        // 필터 가중치 2 에 큐 샘플링 1 / 0.25 가 곱해지고, 가중치 합은 원래 규모(2 x 이벤트 수)에 가까움
+        assertThat(stored).isNotEmpty().allMatch(command -> command.getSampleWeight() == 8.0);
+        double totalWeight = stored.stream().mapToDouble(TrackingCommand::getSampleWeight).sum();
+        assertThat(totalWeight).isBetween(EVENTS * 2 * 0.8, EVENTS * 2 * 1.2);
+    }
+
+    @Test
+    void rejectedBatchIsRetriedOneByOneAndKeepsValidEvents() throws InterruptedException {
+        AnalyticsProperties.Ingestion config = analyticsProperties.getIngestion();
+        config.setAsync(true);
+        config.setWriterThreads(1);
+
+        List<TrackingCommand> stored = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            List<TrackingCommand> batch = invocation.getArgument(0);
+            if (batch.stream().anyMatch(command -> "bad".equals(command.getEvent().getVisitorId()))) {
+                throw new DataIntegrityViolationException("Data too long");
+            }
+            return stored.addAll(batch);
+        }).when(trackingService).trackBatch(anyList());
+        when(trackingFilter.check(any(), any(), any(), any())).thenReturn(1.0);
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ingestionService = new TrackingIngestionService(trackingService, trackingWalService, trackingFilter,
+                analyticsProperties, meterRegistry);
+        ingestionService.start();
+        for (String visitorId : List.of("v1", "bad", "v2")) {
+            ingestionService.ingest("main", TrackingEventDto.builder().visitorId(visitorId).build(), "agent", "127.0.0.1");
+        }
+        ingestionService.stop();
+        ingestionService = null;
+
+        assertThat(stored).extracting(command -> command.getEvent().getVisitorId()).containsExactlyInAnyOrder("v1", "v2");
+        assertThat(meterRegistry.counter("analytics.ingestion.events", "result", "failed").count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,131 @@
+package com.ysk.cms.domain.admin.analytics.service;
+
+import com.ysk.cms.domain.admin.analytics.config.AnalyticsProperties;
+import com.ysk.cms.domain.admin.analytics.dto.TrackingEventDto;
+import com.ysk.cms.domain.admin.analytics.repository.TrackingBatchRepository;
+import com.ysk.cms.domain.admin.analytics.repository.TrackingBatchRepository.SessionLeave;
+import com.ysk.cms.domain.admin.analytics.repository.TrackingBatchRepository.SessionUpsert;
+import com.ysk.cms.domain.admin.analytics.repository.TrackingBatchRepository.VisitorUpsert;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * 반영 실패 시 변경분 보존 / 거부된 행 격리 / 용량 초과 정리 시점 검증
+ */
+class TrackingStateCacheTest {
+
+    private final TrackingBatchRepository trackingBatchRepository = mock(TrackingBatchRepository.class);
+    private final AnalyticsProperties analyticsProperties = new AnalyticsProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private TrackingStateCache cache;
+
+    @BeforeEach
+    void setUp() {
+        ReferrerClassifier referrerClassifier = mock(ReferrerClassifier.class);
+        when(referrerClassifier.classify(any(), any())).thenReturn(new ReferrerClassifier.Classification("direct", null));
+        cache = new TrackingStateCache(trackingBatchRepository, referrerClassifier, mock(PathStore.class),
+                analyticsProperties, new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                meterRegistry);
+        cache.registerMetrics();
+    }
+
+    @Test
+    void failedFlushIsRetriedOnNextFlush() {
+        List<List<VisitorUpsert>> written = new ArrayList<>();
+        doAnswer(invocation -> written.add(new ArrayList<>(invocation.getArgument(0))))
+                .when(trackingBatchRepository).upsertVisitors(anyList());
+        doThrow(new RuntimeException("db down")).doNothing().when(trackingBatchRepository).upsertSessions(anyList());
+
+        cache.recordPageView("main", event("s1", "v1"), null, LocalDateTime.now(), 1.0);
+        cache.flush();
+        cache.recordPageView("main", event("s1", "v1"), null, LocalDateTime.now(), 1.0);
+        cache.flush();
+        cache.flush();
+
+        // 실패한 1건 + 새 1건이 두 번째 flush 에서 함께 반영되고, 이후에는 보낼 것이 없음
+        ArgumentCaptor<List<SessionUpsert>> sessions = ArgumentCaptor.forClass(List.class);
+        verify(trackingBatchRepository, times(2)).upsertSessions(sessions.capture());
+        assertThat(sessions.getAllValues().get(1)).extracting(SessionUpsert::getPageViews).containsExactly(1, 1);
+        assertThat(written.get(written.size() - 1)).extracting(VisitorUpsert::getPageViews).containsExactly(1, 1);
+    }
+
+    @Test
+    void rejectedRowIsDroppedAndOthersAreWritten() {
+        List<String> leaves = new ArrayList<>();
+        doAnswer(invocation -> {
+            List<SessionLeave> rows = invocation.getArgument(0);
+            if (rows.stream().anyMatch(row -> row.getSessionId().equals("bad"))) {
+                throw new DataIntegrityViolationException("Data too long for column 'exit_page'");
+            }
+            rows.forEach(row -> leaves.add(row.getSessionId()));
+            return null;
+        }).when(trackingBatchRepository).updateSessionLeaves(anyList());
+
+        cache.recordPageLeave("main", event("bad", "v1"), LocalDateTime.now());
+        cache.recordPageLeave("main", event("s2", "v2"), LocalDateTime.now());
+        cache.flush();
+        cache.flush();
+
+        // 거부된 행만 버리고 다음 flush 에 다시 보내지 않음
+        assertThat(leaves).containsExactly("s2");
+        assertThat(meterRegistry.counter("analytics.state.dropped").count()).isEqualTo(1);
+        verify(trackingBatchRepository, times(3)).updateSessionLeaves(anyList());
+    }
+
+    @Test
+    void longPathIsTruncatedToColumnLength() {
+        TrackingEventDto event = event("s1", "v1");
+        event.setPagePath("/" + "a".repeat(TrackingEventDto.MAX_PATH_LENGTH + 100));
+
+        cache.recordPageView("main", event, null, LocalDateTime.now(), 1.0);
+        cache.flush();
+
+        ArgumentCaptor<List<SessionUpsert>> sessions = ArgumentCaptor.forClass(List.class);
+        verify(trackingBatchRepository).upsertSessions(sessions.capture());
+        assertThat(sessions.getValue().get(0).getExitPage()).hasSize(TrackingEventDto.MAX_PATH_LENGTH);
+        assertThat(sessions.getValue().get(0).getEntryPage()).hasSize(TrackingEventDto.MAX_PATH_LENGTH);
+    }
+
+    @Test
+    void overflowIsEvictedOnFlushThread() {
+        analyticsProperties.getStateCache().setMaxSessions(10);
+        analyticsProperties.getStateCache().setMaxVisitors(10);
+
+        for (int i = 0; i < 20; i++) {
+            cache.recordPageView("main", event("s" + i, "v" + i), null, LocalDateTime.now().plusSeconds(i), 1.0);
+        }
+        verifyNoInteractions(trackingBatchRepository);
+
+        assertThat(meterRegistry.get("analytics.state.sessions").gauge().value()).isEqualTo(20);
+
+        cache.flush();
+
+        // 초과분 + 10% 를 오래된 순으로 정리
+        assertThat(meterRegistry.get("analytics.state.sessions").gauge().value()).isEqualTo(9);
+        assertThat(meterRegistry.get("analytics.state.visitors").gauge().value()).isEqualTo(9);
+        verify(trackingBatchRepository).upsertSessions(anyList());
+    }
+
+    private static TrackingEventDto event(String sessionId, String visitorId) {
+        return TrackingEventDto.builder()
+                .eventType("pageview")
+                .sessionId(sessionId)
+                .visitorId(visitorId)
+                .pagePath("/")
+                .build();
+    }
+}
@@ -0,0 +1,84 @@
+package com.ysk.cms.domain.admin.analytics.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ysk.cms.domain.admin.analytics.config.AnalyticsProperties;
+import com.ysk.cms.domain.admin.analytics.dto.TrackingCommand;
+import com.ysk.cms.domain.admin.analytics.dto.TrackingEventDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * DB 가 거부한 레코드가 재생을 막지 않는지 검증
+ */
+class TrackingWalServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private final TrackingService trackingService = mock(TrackingService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private TrackingWalService walService;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (walService != null) walService.stop();
+    }
+
+    @Test
+    void rejectedRecordIsSkippedAndReplayContinues() throws Exception {
+        AnalyticsProperties analyticsProperties = new AnalyticsProperties();
+        AnalyticsProperties.Wal config = analyticsProperties.getWal();
+        config.setEnabled(true);
+        config.setDirectory(directory.toString());
+        config.setSegmentSizeMb(1);
+        config.setMaxSegments(4);
+        config.setPollIntervalMs(10);
+
+        List<String> stored = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            List<TrackingCommand> batch = invocation.getArgument(0);
+            if (batch.stream().anyMatch(command -> "bad".equals(command.getEvent().getVisitorId()))) {
+                throw new DataIntegrityViolationException("Data too long for column 'session_id'");
+            }
+            batch.forEach(command -> stored.add(command.getEvent().getVisitorId()));
+            return null;
+        }).when(trackingService).trackBatch(anyList());
+
+        walService = new TrackingWalService(trackingService, analyticsProperties,
+                new ObjectMapper().findAndRegisterModules(), meterRegistry);
+        walService.start();
+        for (String visitorId : List.of("v1", "bad", "v2")) {
+            walService.append(command(visitorId));
+        }
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (stored.size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertThat(stored).containsExactly("v1", "v2");
+        assertThat(meterRegistry.counter("analytics.wal.records", "result", "corrupt").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("analytics.wal.retries").count()).isZero();
+    }
+
+    private static TrackingCommand command(String visitorId) {
+        return TrackingCommand.builder()
+                .siteCode("main")
+                .event(TrackingEventDto.builder().eventType("pageview").visitorId(visitorId).sessionId("s").build())
+                .receivedAt(LocalDateTime.now())
+                .build();
+    }
+}
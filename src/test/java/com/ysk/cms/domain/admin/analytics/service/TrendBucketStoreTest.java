@@ -0,0 +1,35 @@
+package com.ysk.cms.domain.admin.analytics.service;
+
+import com.ysk.cms.domain.admin.analytics.service.TrendBucketStore.Granularity;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrendBucketStoreTest {
+
+    @Test
+    void autoGranularityKeepsPointCountSmall() {
+        LocalDate end = LocalDate.of(2026, 1, 31);
+
+        assertThat(Granularity.auto(end.minusDays(1), end)).isEqualTo(Granularity.HOUR);
+        assertThat(Granularity.auto(end.minusDays(29), end)).isEqualTo(Granularity.DAY);
+        assertThat(Granularity.auto(end.minusYears(2).plusDays(1), end)).isEqualTo(Granularity.WEEK);
+        assertThat(Granularity.auto(end.minusYears(5), end)).isEqualTo(Granularity.MONTH);
+    }
+
+    @Test
+    void truncatesToCalendarBuckets() {
+        // 2026-01-15 는 목요일
+        LocalDateTime at = LocalDateTime.of(2026, 1, 15, 13, 42);
+
+        assertThat(Granularity.HOUR.truncate(at)).isEqualTo(LocalDateTime.of(2026, 1, 15, 13, 0));
+        assertThat(Granularity.DAY.truncate(at)).isEqualTo(LocalDateTime.of(2026, 1, 15, 0, 0));
+        assertThat(Granularity.WEEK.truncate(at)).isEqualTo(LocalDateTime.of(2026, 1, 12, 0, 0));
+        assertThat(Granularity.MONTH.truncate(at)).isEqualTo(LocalDateTime.of(2026, 1, 1, 0, 0));
+        assertThat(Granularity.MONTH.next(Granularity.MONTH.truncate(at))).isEqualTo(LocalDateTime.of(2026, 2, 1, 0, 0));
+        assertThat(Granularity.WEEK.label(Granularity.WEEK.truncate(at))).isEqualTo("2026/01/12");
+    }
+}
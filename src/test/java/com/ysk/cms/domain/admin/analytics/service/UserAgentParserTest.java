@@ -0,0 +1,67 @@
+package com.ysk.cms.domain.admin.analytics.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 실제 UA 문자열 모음(user-agents.tsv)에 대한 파싱 결과 회귀 테스트
+ * 컬럼: userAgent, deviceType, browser, browserVersion, os, osVersion
+ */
+class UserAgentParserTest {
+
+    private final UserAgentParser parser = new UserAgentParser();
+
+    @Test
+    void parsesGoldenCorpus() throws Exception {
+        List<String[]> rows = loadCorpus();
+        assertThat(rows).isNotEmpty();
+
+        for (String[] row : rows) {
+            UserAgentParser.ParsedUserAgent parsed = parser.parse(row[0]);
+            assertThat(new String[]{
+                    parsed.getDeviceType(), parsed.getBrowser(), parsed.getBrowserVersion(),
+                    parsed.getOs(), parsed.getOsVersion()
+            }).as(row[0]).containsExactly(row[1], row[2], row[3], row[4], row[5]);
+        }
+    }
+
+    @Test
+    void returnsCachedInstanceForSameUserAgent() throws Exception {
+        for (String[] row : loadCorpus()) {
+            assertThat(parser.parse(row[0])).isSameAs(parser.parse(new String(row[0])));
+        }
+    }
+
+    @Test
+    void sharesInstanceBetweenEquivalentResults() {
+        String chrome1 = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.0.0 Safari/537.36";
+        String chrome2 = "Mozilla/5.0 (Windows NT 10.0; WOW64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0.6099.130 Safari/537.36";
+
+        assertThat(parser.parse(chrome1)).isSameAs(parser.parse(chrome2));
+    }
+
+    @Test
+    void returnsUnknownForEmptyUserAgent() {
+        assertThat(parser.parse(null).getBrowser()).isEqualTo("unknown");
+        assertThat(parser.parse("").getDeviceType()).isEqualTo("unknown");
+    }
+
+    private List<String[]> loadCorpus() throws Exception {
+        List<String[]> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                getClass().getResourceAsStream("/analytics/user-agents.tsv"), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) rows.add(line.split("\t", -1));
+            }
+        }
+        return rows;
+    }
+}
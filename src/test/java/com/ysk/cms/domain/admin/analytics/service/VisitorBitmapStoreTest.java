@@ -0,0 +1,83 @@
+package com.ysk.cms.domain.admin.analytics.service;
+
+import com.ysk.cms.domain.admin.analytics.bitmap.RoaringBitmap;
+import com.ysk.cms.domain.admin.analytics.repository.AnalyticsBitmapRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.TreeMap;
+
+import static com.ysk.cms.domain.admin.analytics.repository.AnalyticsBitmapRepository.ACTIVE;
+import static com.ysk.cms.domain.admin.analytics.repository.AnalyticsBitmapRepository.NEW;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 사이트별 방문자 순번으로 만든 비트맵 / 주별 리텐션 계산 검증
+ */
+class VisitorBitmapStoreTest {
+
+    private static final String SITE = "main";
+    private static final LocalDate MONDAY = LocalDate.of(2026, 3, 2);
+
+    private final AnalyticsBitmapRepository analyticsBitmapRepository = mock(AnalyticsBitmapRepository.class);
+    private final VisitorBitmapStore store = new VisitorBitmapStore(analyticsBitmapRepository);
+
+    @Test
+    void rebuildDaySkipsVisitorsWithoutOrdinal() throws Exception {
+        doAnswer(inv -> scan(inv.getArgument(2), 1, null, 2)).when(analyticsBitmapRepository)
+                .scanActiveVisitors(eq(SITE), eq(MONDAY), any());
+        doAnswer(inv -> scan(inv.getArgument(2), 2)).when(analyticsBitmapRepository)
+                .scanNewVisitors(eq(SITE), eq(MONDAY), any());
+
+        store.rebuildDay(SITE, MONDAY);
+
+        ArgumentCaptor<byte[]> active = ArgumentCaptor.forClass(byte[].class);
+        ArgumentCaptor<byte[]> created = ArgumentCaptor.forClass(byte[].class);
+        verify(analyticsBitmapRepository).upsert(eq(SITE), eq(MONDAY), eq(ACTIVE), active.capture());
+        verify(analyticsBitmapRepository).upsert(eq(SITE), eq(MONDAY), eq(NEW), created.capture());
+        assertThat(RoaringBitmap.fromBytes(active.getValue()).cardinality()).isEqualTo(2);
+        assertThat(RoaringBitmap.fromBytes(created.getValue()).cardinality()).isEqualTo(1);
+    }
+
+    @Test
+    void retentionIntersectsCohortWithLaterWeeks() {
+        TreeMap<LocalDate, byte[]> created = new TreeMap<>();
+        created.put(MONDAY, bitmap(1, 2, 3));
+        TreeMap<LocalDate, byte[]> active = new TreeMap<>();
+        active.put(MONDAY.plusWeeks(1).plusDays(2), bitmap(1, 2));
+        active.put(MONDAY.plusWeeks(2), bitmap(3, 7));
+        when(analyticsBitmapRepository.findBitmaps(eq(SITE), eq(NEW), any(), any())).thenReturn(created);
+        when(analyticsBitmapRepository.findBitmaps(eq(SITE), eq(ACTIVE), any(), any())).thenReturn(active);
+
+        List<long[]> rows = store.retention(SITE, MONDAY, 1, 2);
+
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0)).containsExactly(3, 2, 1);
+    }
+
+    private static Object scan(RowCallbackHandler handler, Integer... ordinals) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        Integer[] current = new Integer[1];
+        when(rs.getInt(1)).thenAnswer(inv -> current[0] == null ? 0 : current[0]);
+        when(rs.wasNull()).thenAnswer(inv -> current[0] == null);
+        for (Integer value : ordinals) {
+            current[0] = value;
+            handler.processRow(rs);
+        }
+        return null;
+    }
+
+    private static byte[] bitmap(int... values) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (int value : values) {
+            bitmap.add(value);
+        }
+        return bitmap.toBytes();
+    }
+}
@@ -0,0 +1,41 @@
+package com.ysk.cms.domain.admin.analytics.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class HyperLogLogTest {
+
+    @Test
+    void estimatesWithinThreeStandardErrors() {
+        for (int precision : new int[]{10, 14}) {
+            for (int n : new int[]{100, 10_000, 500_000}) {
+                HyperLogLog sketch = new HyperLogLog(precision);
+                for (int i = 0; i < n; i++) {
+                    sketch.add("visitor-" + i);
+                }
+                double error = 3 * HyperLogLog.standardError(precision);
+                assertThat((double) sketch.estimate()).as("p=%d n=%d", precision, n)
+                        .isCloseTo(n, within(n * error));
+            }
+        }
+    }
+
+    @Test
+    void mergeEqualsUnion() {
+        HyperLogLog a = new HyperLogLog(14);
+        HyperLogLog b = new HyperLogLog(14);
+        HyperLogLog union = new HyperLogLog(14);
+        for (int i = 0; i < 20_000; i++) {
+            String visitor = "visitor-" + i;
+            (i % 3 == 0 ? a : b).add(visitor);
+            if (i % 5 == 0) a.add(visitor);
+            union.add(visitor);
+        }
+
+        a.merge(b);
+        assertThat(a).isEqualTo(union);
+        assertThat(HyperLogLog.fromBytes(a.toBytes())).isEqualTo(union);
+    }
+}
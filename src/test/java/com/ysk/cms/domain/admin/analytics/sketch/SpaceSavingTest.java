@@ -0,0 +1,58 @@
+package com.ysk.cms.domain.admin.analytics.sketch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpaceSavingTest {
+
+    @Test
+    void findsHeavyHittersWithinErrorBounds() {
+        SpaceSaving sketch = new SpaceSaving(100);
+        Map<String, Long> actual = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            // 상위 10개 경로가 절반, 나머지는 5만 개 경로에 고르게 분포
+            String path = random.nextBoolean() ? "/hot/" + random.nextInt(10) : "/tail/" + random.nextInt(50_000);
+            sketch.add(path);
+            actual.merge(path, 1L, Long::sum);
+        }
+
+        List<SpaceSaving.Item> top = sketch.top(10);
+        assertThat(top).extracting(SpaceSaving.Item::getKey).allMatch(key -> key.startsWith("/hot/"));
+        top.forEach(item -> {
+            long count = actual.get(item.getKey());
+            assertThat(item.getCount()).isGreaterThanOrEqualTo(count);
+            assertThat(item.getCount() - item.getError()).isLessThanOrEqualTo(count);
+        });
+    }
+
+    @Test
+    void mergeKeepsBoundsAndSurvivesSerialization() {
+        SpaceSaving a = new SpaceSaving(50);
+        SpaceSaving b = new SpaceSaving(50);
+        Map<String, Long> actual = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 50_000; i++) {
+            String path = random.nextInt(3) == 0 ? "/hot/" + random.nextInt(5) : "/tail/" + random.nextInt(10_000);
+            (i % 2 == 0 ? a : b).add(path);
+            actual.merge(path, 1L, Long::sum);
+        }
+
+        SpaceSaving merged = SpaceSaving.fromBytes(a.toBytes());
+        merged.merge(SpaceSaving.fromBytes(b.toBytes()));
+
+        List<SpaceSaving.Item> top = merged.top(5);
+        assertThat(top).extracting(SpaceSaving.Item::getKey).allMatch(key -> key.startsWith("/hot/"));
+        top.forEach(item -> {
+            long count = actual.get(item.getKey());
+            assertThat(item.getCount()).isGreaterThanOrEqualTo(count);
+            assertThat(item.getCount() - item.getError()).isLessThanOrEqualTo(count);
+        });
+    }
+}
@@ -0,0 +1,151 @@
+package com.ysk.cms.domain.admin.analytics.wal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrackingWalTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsAcrossSegmentsAndDeletesReplayedOnes() throws IOException {
+        TrackingWal wal = new TrackingWal(directory, SEGMENT_SIZE, 16);
+        List<String> written = appendRecords(wal, 200);
+        assertThat(wal.getSegmentCount()).isGreaterThan(1);
+
+        List<String> read = new ArrayList<>();
+        TrackingWal.Batch batch;
+        do {
+            batch = wal.read(wal.getCheckpoint(), 30);
+            batch.getRecords().forEach(record -> read.add(new String(record, StandardCharsets.UTF_8)));
+            wal.commit(batch.getNext());
+        } while (!batch.getRecords().isEmpty());
+
+        assertThat(read).containsExactlyElementsOf(written);
+        assertThat(wal.getSegmentCount()).isEqualTo(1);
+        assertThat(countSegmentFiles()).isEqualTo(1);
+    }
+
+    @Test
+    void resumesFromCheckpointAfterRestart() throws IOException {
+        TrackingWal wal = new TrackingWal(directory, SEGMENT_SIZE, 16);
+        List<String> written = appendRecords(wal, 100);
+        TrackingWal.Batch first = wal.read(wal.getCheckpoint(), 40);
+        wal.commit(first.getNext());
+        wal.close();
+
+        TrackingWal reopened = new TrackingWal(directory, SEGMENT_SIZE, 16);
+        reopened.append("after-restart".getBytes(StandardCharsets.UTF_8));
+
+        List<String> read = new ArrayList<>();
+        reopened.read(reopened.getCheckpoint(), 1000).getRecords()
+                .forEach(record -> read.add(new String(record, StandardCharsets.UTF_8)));
+
+        List<String> expected = new ArrayList<>(written.subList(40, 100));
+        expected.add("after-restart");
+        assertThat(read).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void rejectsAppendWhenSegmentLimitReached() throws IOException {
+        TrackingWal wal = new TrackingWal(directory, SEGMENT_SIZE, 2);
+        byte[] payload = new byte[1000];
+
+        int accepted = 0;
+        while (wal.append(payload)) {
+            accepted++;
+        }
+
+        // 세그먼트당 4개 (1008 x 4 + 끝 표시 8 <= 4096)
+        assertThat(accepted).isEqualTo(8);
+    }
+
+    @Test
+    void skipsCorruptRecordAndReportsSkippedBytes() throws IOException {
+        TrackingWal wal = new TrackingWal(directory, SEGMENT_SIZE, 16);
+        List<String> written = appendRecords(wal, 3);
+        wal.close();
+
+        // 두 번째 레코드 내용 1바이트 변경 (CRC 불일치)
+        int secondRecord = 8 + written.get(0).length();
+        try (FileChannel channel = FileChannel.open(firstSegment(), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), secondRecord + 8);
+        }
+
+        TrackingWal reopened = new TrackingWal(directory, SEGMENT_SIZE, 16);
+        reopened.append("after-restart".getBytes(StandardCharsets.UTF_8));
+        TrackingWal.Batch batch = reopened.read(reopened.getCheckpoint(), 100);
+
+        // 재시작 시 손상 지점 뒤는 잘려 나가므로 첫 레코드만 남고, 이후 기록은 이어서 읽힘
+        List<String> read = new ArrayList<>();
+        batch.getRecords().forEach(record -> read.add(new String(record, StandardCharsets.UTF_8)));
+        assertThat(read).containsExactly(written.get(0), "after-restart");
+        assertThat(batch.getSkippedBytes()).isZero();
+    }
+
+    @Test
+    void corruptRecordInFinishedSegmentIsSkippedAndCounted() throws IOException {
+        TrackingWal wal = new TrackingWal(directory, SEGMENT_SIZE, 16);
+        List<String> written = appendRecords(wal, 200);
+        assertThat(wal.getSegmentCount()).isGreaterThan(1);
+
+        // 끝난 첫 세그먼트의 두 번째 레코드 손상
+        int secondRecord = 8 + written.get(0).length();
+        try (FileChannel channel = FileChannel.open(firstSegment(), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), secondRecord + 8);
+        }
+
+        List<String> read = new ArrayList<>();
+        long skipped = 0;
+        TrackingWal.Batch batch;
+        do {
+            batch = wal.read(wal.getCheckpoint(), 30);
+            batch.getRecords().forEach(record -> read.add(new String(record, StandardCharsets.UTF_8)));
+            skipped += batch.getSkippedBytes();
+            wal.commit(batch.getNext());
+        } while (!batch.getRecords().isEmpty());
+
+        List<String> expected = new ArrayList<>(written);
+        expected.remove(1);
+        assertThat(read).containsExactlyElementsOf(expected);
+        assertThat(skipped).isEqualTo(8 + written.get(1).length());
+    }
+
+    private Path firstSegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".log")).sorted().findFirst().orElseThrow();
+        }
+    }
+
+    private List<String> appendRecords(TrackingWal wal, int count) throws IOException {
+        List<String> written = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String record = "{\"siteCode\":\"site1\",\"seq\":" + i + "}";
+            assertThat(wal.append(record.getBytes(StandardCharsets.UTF_8))).isTrue();
+            written.add(record);
+        }
+        return written;
+    }
+
+    private long countSegmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".log")).count();
+        }
+    }
+}
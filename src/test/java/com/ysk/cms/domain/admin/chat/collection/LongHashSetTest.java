@@ -0,0 +1,52 @@
+package com.ysk.cms.domain.admin.chat.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 무작위 추가/제거 결과를 HashSet 과 비교
+ */
+class LongHashSetTest {
+
+    @Test
+    void matchesHashSetUnderRandomAddAndRemove() {
+        Random random = new Random(42);
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+
+        for (int i = 0; i < 200_000; i++) {
+            // 좁은 범위로 충돌과 제거 후 재삽입이 자주 일어나게 함
+            long value = random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                assertThat(set.remove(value)).isEqualTo(expected.remove(value));
+            } else {
+                assertThat(set.add(value)).isEqualTo(expected.add(value));
+            }
+        }
+
+        assertThat(set.size()).isEqualTo(expected.size());
+        for (long value = 0; value < 5_000; value++) {
+            assertThat(set.contains(value)).isEqualTo(expected.contains(value));
+        }
+        assertThat(Arrays.stream(set.toArray()).boxed()).containsExactlyInAnyOrderElementsOf(expected);
+    }
+
+    @Test
+    void copyIsIndependent() {
+        LongHashSet set = LongHashSet.of(1, 2, 3);
+        LongHashSet copy = set.copy();
+
+        copy.add(4);
+        copy.remove(1);
+
+        assertThat(set.contains(1)).isTrue();
+        assertThat(set.contains(4)).isFalse();
+        assertThat(copy.toArray()).containsExactlyInAnyOrder(2, 3, 4);
+    }
+}
@@ -0,0 +1,61 @@
+package com.ysk.cms.domain.admin.chat.controller;
+
+import com.ysk.cms.common.exception.BusinessException;
+import com.ysk.cms.config.WebSocketConfig;
+import com.ysk.cms.domain.admin.chat.dto.ChatMessageRequest;
+import com.ysk.cms.domain.admin.chat.service.ChatService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * 메시지 처리 시 사용자 조회 없이 세션의 사용자 ID 사용 검증
+ */
+@ExtendWith(MockitoExtension.class)
+class ChatMessageControllerTest {
+
+    @Mock private ChatService chatService;
+    @Mock private SimpMessagingTemplate messagingTemplate;
+
+    @InjectMocks private ChatMessageController chatMessageController;
+
+    @Test
+    void messagesUseUserIdResolvedAtConnect() {
+        ChatMessageRequest request = new ChatMessageRequest();
+
+        for (int i = 0; i < 3; i++) {
+            chatMessageController.sendMessage(10L, request, session(Map.of(WebSocketConfig.USER_ID_ATTRIBUTE, 5L)));
+        }
+        chatMessageController.joinRoom(10L, session(Map.of(WebSocketConfig.USER_ID_ATTRIBUTE, 5L)));
+
+        verify(chatService, times(3)).sendMessage(10L, 5L, request);
+        verify(chatService).markAsRead(10L, 5L);
+        verify(chatService, never()).getUserIdByUsername(anyString());
+    }
+
+    @Test
+    void sessionWithoutUserIdIsRejected() {
+        assertThatThrownBy(() -> chatMessageController.sendMessage(10L, new ChatMessageRequest(), session(Map.of())))
+                .isInstanceOf(BusinessException.class);
+
+        verify(chatService, never()).sendMessage(any(), any(), any());
+    }
+
+    private static SimpMessageHeaderAccessor session(Map<String, Object> attributes) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
+        accessor.setSessionAttributes(new HashMap<>(attributes));
+        return accessor;
+    }
+}
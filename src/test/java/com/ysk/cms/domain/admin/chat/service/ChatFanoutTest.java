@@ -0,0 +1,78 @@
+package com.ysk.cms.domain.admin.chat.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * 채팅 알림 직렬화 횟수 / 채팅방별 전송 순서 검증 (10 ~ 1,000명 그룹)
+ */
+@ExtendWith(MockitoExtension.class)
+class ChatFanoutTest {
+
+    private static final long ROOM = 7L;
+
+    @Mock private SimpMessagingTemplate messagingTemplate;
+
+    private ObjectMapper objectMapper;
+    private ChatFanout chatFanout;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = spy(new ObjectMapper());
+        chatFanout = new ChatFanout(messagingTemplate, objectMapper);
+        chatFanout.start();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {10, 100, 1000})
+    @SuppressWarnings("unchecked")
+    void payloadIsSerializedOncePerGroup(int members) throws Exception {
+        List<Long> userIds = LongStream.rangeClosed(1, members).boxed().collect(Collectors.toList());
+
+        chatFanout.sendToUsers(ROOM, userIds, "message", Map.of("roomId", ROOM, "content", "hello"));
+        chatFanout.stop();
+
+        verify(objectMapper, times(1)).writeValueAsBytes(any());
+        ArgumentCaptor<Message<?>> messages = ArgumentCaptor.forClass(Message.class);
+        verify(messagingTemplate, times(members)).send(anyString(), messages.capture());
+        assertThat(messages.getAllValues()).allSatisfy(message -> assertThat(message).isSameAs(messages.getValue()));
+        verify(messagingTemplate).send(eq("/topic/chat/user/" + members + "/message"), any(Message.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void roomMessagesKeepOrder() {
+        for (int i = 0; i < 500; i++) {
+            chatFanout.broadcast(ROOM, "/topic/chat/room/" + ROOM, Map.of("seq", i));
+        }
+        chatFanout.stop();
+
+        ArgumentCaptor<Message<byte[]>> messages = ArgumentCaptor.forClass(Message.class);
+        verify(messagingTemplate, times(500)).send(anyString(), messages.capture());
+        List<String> payloads = messages.getAllValues().stream()
+                .map(message -> new String(message.getPayload()))
+                .collect(Collectors.toList());
+        for (int i = 0; i < 500; i++) {
+            assertThat(payloads.get(i)).isEqualTo("{\"seq\":" + i + "}");
+        }
+    }
+}
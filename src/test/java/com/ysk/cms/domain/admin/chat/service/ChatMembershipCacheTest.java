@@ -0,0 +1,85 @@
+package com.ysk.cms.domain.admin.chat.service;
+
+import com.ysk.cms.domain.admin.chat.entity.ChatRoom;
+import com.ysk.cms.domain.admin.chat.entity.ChatRoomType;
+import com.ysk.cms.domain.admin.chat.repository.ChatMembershipEventRepository;
+import com.ysk.cms.domain.admin.chat.repository.ChatRoomRepository;
+import com.ysk.cms.domain.admin.chat.repository.ChatRoomUserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 참여자 캐시 적재 / 변경 반영 / 다른 서버 이벤트 무효화 검증
+ */
+@ExtendWith(MockitoExtension.class)
+class ChatMembershipCacheTest {
+
+    private static final long ROOM_ID = 10L;
+
+    @Mock private ChatRoomRepository chatRoomRepository;
+    @Mock private ChatRoomUserRepository chatRoomUserRepository;
+    @Mock private ChatMembershipEventRepository chatMembershipEventRepository;
+
+    @InjectMocks private ChatMembershipCache membershipCache;
+
+    @BeforeEach
+    void setUp() {
+        when(chatRoomRepository.findById(ROOM_ID))
+                .thenReturn(Optional.of(ChatRoom.builder().type(ChatRoomType.PRIVATE).build()));
+        when(chatRoomUserRepository.findMembershipByRoomId(ROOM_ID))
+                .thenReturn(List.of(new Object[]{1L, true}, new Object[]{2L, false}));
+    }
+
+    @Test
+    void participantChecksHitDatabaseOnce() {
+        for (int i = 0; i < 100; i++) {
+            assertThat(membershipCache.isParticipant(ROOM_ID, 1L)).isTrue();
+            assertThat(membershipCache.isParticipant(ROOM_ID, 2L)).isFalse();
+        }
+
+        verify(chatRoomRepository, times(1)).findById(ROOM_ID);
+        verify(chatRoomUserRepository, times(1)).findMembershipByRoomId(ROOM_ID);
+    }
+
+    @Test
+    void localChangesAreAppliedWithoutReload() {
+        assertThat(membershipCache.get(ROOM_ID).hasInactiveMembers()).isTrue();
+
+        membershipCache.joined(ROOM_ID, List.of(2L));
+        membershipCache.left(ROOM_ID, 1L);
+
+        ChatMembershipCache.Room room = membershipCache.get(ROOM_ID);
+        assertThat(room.getActiveUserIds()).containsExactly(2L);
+        assertThat(room.isActive(1L)).isFalse();
+        verify(chatRoomUserRepository, times(1)).findMembershipByRoomId(ROOM_ID);
+        verify(chatMembershipEventRepository, times(2)).publish(eq(ROOM_ID), anyString());
+    }
+
+    @Test
+    void eventFromOtherNodeInvalidatesRoom() {
+        membershipCache.get(ROOM_ID);
+        when(chatMembershipEventRepository.findRecent(anyString(), anyInt()))
+                .thenReturn(List.of(new long[]{1L, ROOM_ID}));
+
+        membershipCache.pollEvents();
+        membershipCache.get(ROOM_ID);
+        // 같은 이벤트는 다시 무효화하지 않음
+        membershipCache.pollEvents();
+        membershipCache.get(ROOM_ID);
+
+        verify(chatRoomUserRepository, times(2)).findMembershipByRoomId(ROOM_ID);
+    }
+}
@@ -0,0 +1,156 @@
+package com.ysk.cms.domain.admin.chat.service;
+
+import com.ysk.cms.domain.admin.chat.dto.ChatMessageDto;
+import com.ysk.cms.domain.admin.chat.dto.ChatRoomDto;
+import com.ysk.cms.domain.admin.chat.dto.ChatRoomUserDto;
+import com.ysk.cms.domain.admin.chat.entity.ChatMessage;
+import com.ysk.cms.domain.admin.chat.entity.ChatRoom;
+import com.ysk.cms.domain.admin.chat.entity.ChatRoomType;
+import com.ysk.cms.domain.admin.chat.entity.ChatRoomUser;
+import com.ysk.cms.domain.admin.chat.repository.ChatMessageRepository;
+import com.ysk.cms.domain.admin.chat.repository.ChatRoomRepository;
+import com.ysk.cms.domain.admin.chat.repository.ChatRoomUserRepository;
+import com.ysk.cms.domain.admin.user.entity.User;
+import com.ysk.cms.domain.admin.user.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 채팅방 목록 쿼리 수 / 메시지 커서 조회 검증
+ */
+@ExtendWith(MockitoExtension.class)
+class ChatServiceTest {
+
+    private static final long ME = 1L;
+    private static final int ROOMS = 20;
+
+    @Mock private ChatRoomRepository chatRoomRepository;
+    @Mock private ChatRoomUserRepository chatRoomUserRepository;
+    @Mock private ChatMessageRepository chatMessageRepository;
+    @Mock private UserRepository userRepository;
+    @Mock private ChatFanout chatFanout;
+    @Mock private ChatUnreadCounter unreadCounter;
+    @Mock private ChatMembershipCache membershipCache;
+
+    private ChatService chatService;
+
+    @BeforeEach
+    void setUp() {
+        chatService = new ChatService(chatRoomRepository, chatRoomUserRepository, chatMessageRepository,
+                userRepository, chatFanout, unreadCounter, membershipCache);
+    }
+
+    @Test
+    void myChatRoomsUseFixedNumberOfQueries() {
+        User me = user(ME, "me");
+        List<ChatRoom> rooms = new ArrayList<>();
+        List<ChatRoomUser> participants = new ArrayList<>();
+        for (long roomId = 1; roomId <= ROOMS; roomId++) {
+            ChatRoom room = room(roomId, roomId % 2 == 0 ? ChatRoomType.PRIVATE : ChatRoomType.GROUP);
+            rooms.add(room);
+            participants.add(participant(room, me, true));
+            // 나간 상대방: 1:1 채팅에만 표시
+            participants.add(participant(room, user(100 + roomId, "other" + roomId), false));
+        }
+        when(chatRoomRepository.findAllByUserIdOrderByLastMessageAtDesc(ME)).thenReturn(rooms);
+        when(chatRoomUserRepository.findAllParticipantsByRoomIds(anyList())).thenReturn(participants);
+        when(unreadCounter.getAll(anyList(), eq(ME))).thenReturn(Map.of(2L, 5, 3L, 1));
+
+        List<ChatRoomDto> result = chatService.getMyChatRooms(ME);
+
+        assertThat(result).hasSize(ROOMS);
+        assertThat(result.get(0).getUnreadCount()).isZero();
+        assertThat(result.get(1).getUnreadCount()).isEqualTo(5);
+        assertThat(result.get(2).getUnreadCount()).isEqualTo(1);
+        assertThat(result.get(0).getParticipants()).extracting(ChatRoomUserDto::getUserId).containsExactly(ME);
+        assertThat(result.get(1).getParticipants()).extracting(ChatRoomUserDto::getUserId).containsExactly(ME, 102L);
+
+        verify(chatRoomRepository, times(1)).findAllByUserIdOrderByLastMessageAtDesc(ME);
+        verify(chatRoomUserRepository, times(1)).findAllParticipantsByRoomIds(anyList());
+        verify(unreadCounter, times(1)).getAll(anyList(), eq(ME));
+        verify(chatRoomUserRepository, never()).findAllParticipantsByRoomId(any());
+        verify(chatRoomUserRepository, never()).findByRoomIdAndUserId(any(), any());
+        verifyNoMoreInteractions(chatRoomRepository, chatRoomUserRepository, unreadCounter);
+        verifyNoInteractions(chatMessageRepository);
+    }
+
+    @Test
+    void emptyRoomListSkipsBatchQueries() {
+        when(chatRoomRepository.findAllByUserIdOrderByLastMessageAtDesc(ME)).thenReturn(List.of());
+
+        assertThat(chatService.getMyChatRooms(ME)).isEmpty();
+
+        verifyNoInteractions(chatRoomUserRepository, chatMessageRepository, unreadCounter);
+    }
+
+    @Test
+    void messagesBeforeIdUseKeysetQuery() {
+        ChatRoom room = room(10L, ChatRoomType.GROUP);
+        when(membershipCache.isParticipant(10L, ME)).thenReturn(true);
+        when(chatMessageRepository.findBefore(eq(10L), eq(1_000_000L), any(Pageable.class)))
+                .thenAnswer(invocation -> new SliceImpl<>(
+                        List.of(message(999_999L, room), message(999_998L, room)), invocation.getArgument(2), true));
+
+        Slice<ChatMessageDto> result = chatService.getMessages(10L, ME, 1_000_000L, null, 2);
+
+        assertThat(result.getContent()).extracting(ChatMessageDto::getId).containsExactly(999_999L, 999_998L);
+        assertThat(result.hasNext()).isTrue();
+        verify(chatMessageRepository).findBefore(eq(10L), eq(1_000_000L), any(Pageable.class));
+        verifyNoMoreInteractions(chatMessageRepository);
+    }
+
+    @Test
+    void messagesAfterIdAreReturnedNewestFirst() {
+        ChatRoom room = room(10L, ChatRoomType.GROUP);
+        when(membershipCache.isParticipant(10L, ME)).thenReturn(true);
+        when(chatMessageRepository.findAfter(eq(10L), eq(100L), any(Pageable.class)))
+                .thenAnswer(invocation -> new SliceImpl<>(
+                        List.of(message(101L, room), message(102L, room)), invocation.getArgument(2), false));
+
+        Slice<ChatMessageDto> result = chatService.getMessages(10L, ME, null, 100L, 50);
+
+        assertThat(result.getContent()).extracting(ChatMessageDto::getId).containsExactly(102L, 101L);
+        assertThat(result.hasNext()).isFalse();
+        verify(chatMessageRepository).findAfter(eq(10L), eq(100L), any(Pageable.class));
+        verifyNoMoreInteractions(chatMessageRepository);
+    }
+
+    private static ChatMessage message(long id, ChatRoom room) {
+        ChatMessage message = ChatMessage.builder().chatRoom(room).sender(user(ME, "me")).content("m" + id).build();
+        ReflectionTestUtils.setField(message, "id", id);
+        return message;
+    }
+
+    private static ChatRoom room(long id, ChatRoomType type) {
+        ChatRoom room = ChatRoom.builder().type(type).build();
+        ReflectionTestUtils.setField(room, "id", id);
+        return room;
+    }
+
+    private static User user(long id, String username) {
+        User user = User.builder().username(username).name(username).build();
+        ReflectionTestUtils.setField(user, "id", id);
+        return user;
+    }
+
+    private static ChatRoomUser participant(ChatRoom room, User user, boolean active) {
+        return ChatRoomUser.builder().chatRoom(room).user(user).isActive(active).build();
+    }
+}
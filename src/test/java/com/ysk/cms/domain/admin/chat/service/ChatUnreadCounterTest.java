@@ -0,0 +1,138 @@
+package com.ysk.cms.domain.admin.chat.service;
+
+import com.ysk.cms.domain.admin.chat.repository.ChatUnreadCountRepository;
+import com.ysk.cms.domain.admin.chat.repository.ChatUnreadCountRepository.Unread;
+import com.ysk.cms.domain.admin.chat.repository.ChatUnreadEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+/**
+ * 읽지 않은 메시지 수 적재/증가/초기화/다른 서버 이벤트 무효화 검증
+ */
+@ExtendWith(MockitoExtension.class)
+class ChatUnreadCounterTest {
+
+    private static final long ROOM = 10L;
+    private static final long USER = 1L;
+
+    @Mock private ChatUnreadCountRepository chatUnreadCountRepository;
+    @Mock private ChatUnreadEventRepository chatUnreadEventRepository;
+
+    private ChatUnreadCounter unreadCounter;
+
+    @BeforeEach
+    void setUp() {
+        unreadCounter = new ChatUnreadCounter(chatUnreadCountRepository, chatUnreadEventRepository);
+    }
+
+    @Test
+    void coldLoadAlreadyIncludesCommittedMessage() {
+        // 메시지 100 커밋 후 셌으므로 값에 이미 포함됨
+        when(chatUnreadCountRepository.countByRoom(ROOM, List.of(USER))).thenReturn(Map.of(USER, new Unread(3, 100L)));
+
+        assertThat(unreadCounter.incrementAll(ROOM, 100L, List.of(USER))).containsEntry(USER, 3);
+        assertThat(unreadCounter.incrementAll(ROOM, 101L, List.of(USER))).containsEntry(USER, 4);
+        assertThat(unreadCounter.get(ROOM, USER)).isEqualTo(4);
+
+        verify(chatUnreadCountRepository, times(1)).countByRoom(any(), anyList());
+        verify(chatUnreadCountRepository, never()).countByUser(any(), anyList());
+    }
+
+    @Test
+    void incrementLoadsColdRecipientsInOneQuery() {
+        when(chatUnreadCountRepository.countByRoom(ROOM, List.of(1L, 2L, 3L)))
+                .thenReturn(Map.of(1L, new Unread(1, 100L), 2L, new Unread(5, 100L)));
+
+        Map<Long, Integer> counts = unreadCounter.incrementAll(ROOM, 100L, List.of(1L, 2L, 3L));
+
+        // 참여 정보가 없는 사용자는 결과에 없음
+        assertThat(counts).containsOnly(Map.entry(1L, 1), Map.entry(2L, 5));
+        verify(chatUnreadCountRepository, times(1)).countByRoom(any(), anyList());
+    }
+
+    @Test
+    void getAllLoadsOnlyMissingRoomsInOneQuery() {
+        when(chatUnreadCountRepository.countByUser(USER, List.of(ROOM))).thenReturn(Map.of(ROOM, new Unread(2, 50L)));
+        unreadCounter.get(ROOM, USER);
+        when(chatUnreadCountRepository.countByUser(USER, List.of(11L, 12L))).thenReturn(Map.of(11L, new Unread(7, 80L)));
+
+        Map<Long, Integer> counts = unreadCounter.getAll(List.of(ROOM, 11L, 12L), USER);
+
+        assertThat(counts).containsEntry(ROOM, 2).containsEntry(11L, 7).containsEntry(12L, 0);
+        verify(chatUnreadCountRepository, times(2)).countByUser(any(), anyList());
+    }
+
+    @Test
+    void resetIsAppliedLocallyAndPublished() {
+        when(chatUnreadCountRepository.countByUser(USER, List.of(ROOM))).thenReturn(Map.of(ROOM, new Unread(4, 50L)));
+        unreadCounter.get(ROOM, USER);
+
+        unreadCounter.reset(ROOM, USER);
+
+        assertThat(unreadCounter.get(ROOM, USER)).isZero();
+        verify(chatUnreadCountRepository, times(1)).countByUser(any(), anyList());
+        verify(chatUnreadEventRepository).publish(eq(ROOM), eq(USER), anyString());
+    }
+
+    @Test
+    void recountReloadsOnNextUse() {
+        when(chatUnreadCountRepository.countByUser(USER, List.of(ROOM)))
+                .thenReturn(Map.of(ROOM, new Unread(0, 50L)), Map.of(ROOM, new Unread(7, 50L)));
+        unreadCounter.get(ROOM, USER);
+
+        unreadCounter.recount(ROOM, USER);
+
+        assertThat(unreadCounter.get(ROOM, USER)).isEqualTo(7);
+        verify(chatUnreadCountRepository, times(2)).countByUser(any(), anyList());
+    }
+
+    @Test
+    void messageSentPublishesRoomEvent() {
+        unreadCounter.messageSent(ROOM);
+
+        verify(chatUnreadEventRepository).publish(eq(ROOM), isNull(), anyString());
+        verifyNoInteractions(chatUnreadCountRepository);
+    }
+
+    @Test
+    void eventFromOtherNodeInvalidatesRoomOrUser() {
+        when(chatUnreadCountRepository.countByUser(eq(USER), anyList())).thenReturn(Map.of(ROOM, new Unread(1, 50L)));
+        when(chatUnreadCountRepository.countByUser(eq(2L), anyList())).thenReturn(Map.of(ROOM, new Unread(1, 50L)));
+        unreadCounter.get(ROOM, USER);
+        unreadCounter.get(ROOM, 2L);
+
+        // 다른 서버의 읽음 처리 - 그 사용자만 다시 셈
+        when(chatUnreadEventRepository.findRecent(anyString(), anyInt())).thenReturn(List.of(new long[]{1L, ROOM, 2L}));
+        unreadCounter.pollEvents();
+        unreadCounter.get(ROOM, USER);
+        unreadCounter.get(ROOM, 2L);
+        verify(chatUnreadCountRepository, times(1)).countByUser(eq(USER), anyList());
+        verify(chatUnreadCountRepository, times(2)).countByUser(eq(2L), anyList());
+
+        // 다른 서버의 새 메시지 - 채팅방 참여자 전체를 다시 셈 (같은 이벤트는 다시 무효화하지 않음)
+        when(chatUnreadEventRepository.findRecent(anyString(), anyInt()))
+                .thenReturn(List.of(new long[]{1L, ROOM, 2L}, new long[]{2L, ROOM, 0L}));
+        unreadCounter.pollEvents();
+        unreadCounter.get(ROOM, USER);
+        unreadCounter.get(ROOM, 2L);
+        unreadCounter.pollEvents();
+        unreadCounter.get(ROOM, USER);
+        verify(chatUnreadCountRepository, times(2)).countByUser(eq(USER), anyList());
+        verify(chatUnreadCountRepository, times(3)).countByUser(eq(2L), anyList());
+    }
+}